@@ -0,0 +1,96 @@
+package com.brianxiadong.test.db.benchmark;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.DatabaseTestConfig;
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.handler.DatabaseHandler;
+import com.brianxiadong.test.db.handler.DatabaseHandlerFactory;
+import com.brianxiadong.test.db.pool.DataSourceCache;
+import com.brianxiadong.test.db.pool.PoolSettings;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+
+/**
+ * 基准测试使用的数据库
+ * 通过对应的处理器启动：MYSQL、OCEANBASE 启动容器，H2 在进程内创建 MySQL 兼容模式的内存数据库，不需要 Docker
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    /**
+     * 基准测试表结构脚本
+     */
+    public static final String SCHEMA_SCRIPT = "benchmark/user_info.sql";
+
+    private final String name;
+    private final DatabaseInfo dbInfo;
+    private final DatabaseHandler handler;
+    private final DataSourceCache dataSourceCache = new DataSourceCache();
+    private final DataSource dataSource;
+
+    private BenchmarkDatabase(String name, DatabaseInfo dbInfo, DatabaseHandler handler, PoolSettings poolSettings) {
+        this.name = name;
+        this.dbInfo = dbInfo;
+        this.handler = handler;
+        this.dataSource = dataSourceCache.acquire("multidb-benchmark-" + name.toLowerCase(Locale.ROOT),
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword(), dbInfo.getDriverClassName(),
+                poolSettings);
+    }
+
+    /**
+     * 启动数据库并创建基准测试表
+     *
+     * @param name   {@link DatabaseType} 的名称
+     * @param config 测试配置，提供镜像、持久化方式、初始化脚本和连接池设置
+     * @return 已就绪的数据库
+     * @throws Exception 启动或初始化失败时抛出异常
+     */
+    public static BenchmarkDatabase start(String name, DatabaseTestConfig config) throws Exception {
+        DatabaseType type = DatabaseHandlerFactory.resolveType(name);
+        DatabaseHandler handler = DatabaseHandlerFactory.createHandler(type, config.getDockerImage(type));
+        handler.setDurabilityMode(config.getDurabilityMode());
+        try {
+            DatabaseInfo dbInfo = handler.startContainer();
+            handler.executeInitScript(dbInfo, config.getInitScript(type), config.getScriptOptions());
+            PoolSettings poolSettings = config.getPoolSettings(type);
+            return new BenchmarkDatabase(type.name(), dbInfo, handler,
+                    poolSettings != null ? poolSettings : handler.getDefaultPoolSettings());
+        } catch (Exception e) {
+            handler.stopContainer();
+            throw e;
+        }
+    }
+
+    /**
+     * 创建包含基准测试表结构的默认配置
+     *
+     * @return 测试配置
+     */
+    public static DatabaseTestConfig defaultConfig() {
+        DatabaseTestConfig config = DatabaseTestConfig.create();
+        for (DatabaseType type : DatabaseHandlerFactory.getSupportedTypes()) {
+            config.withInitScript(type, SCHEMA_SCRIPT);
+        }
+        return config;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DatabaseInfo getDatabaseInfo() {
+        return dbInfo;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public void close() {
+        dataSourceCache.retireAll();
+        if (handler != null) {
+            handler.stopContainer();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.brianxiadong.test.db.benchmark;
+
+import com.brianxiadong.test.db.DatabaseType;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * 在每种数据库上分别运行基准测试，每种数据库输出一个 JSON 结果文件
+ *
+ * 用法：BenchmarkMain [H2,MYSQL,OCEANBASE] [结果目录]
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        String databases = args.length > 0 ? args[0] : DatabaseType.H2.name();
+        File resultDir = new File(args.length > 1 ? args[1] : "build/results/jmh");
+        if (!resultDir.isDirectory() && !resultDir.mkdirs()) {
+            throw new IllegalStateException("无法创建结果目录: " + resultDir);
+        }
+
+        for (String database : databases.split(",")) {
+            String name = database.trim().toUpperCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            File result = new File(resultDir, name.toLowerCase(Locale.ROOT) + ".json");
+            Options options = new OptionsBuilder()
+                    .include(UserInfoBenchmark.class.getSimpleName())
+                    .param("database", name)
+                    .forks(1)
+                    .warmupIterations(3)
+                    .measurementIterations(5)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(result.getPath())
+                    .build();
+            new Runner(options).run();
+            System.out.println(name + " 基准测试结果: " + result.getPath());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.brianxiadong.test.db.benchmark;
+
+import com.brianxiadong.test.db.DurabilityMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 持久化方式对写入吞吐的影响
+ * 同一数据库分别以 DEFAULT 和 FAST 启动，比较每次提交都刷盘时的单行写入和批量事务写入
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DurabilityBenchmark {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_info (id, username, email, created_at) VALUES (?, ?, ?, ?)";
+
+    @State(Scope.Benchmark)
+    public static class DatabaseState {
+
+        @Param({"MYSQL"})
+        public String database;
+
+        @Param({"DEFAULT", "FAST"})
+        public String durability;
+
+        @Param({"100"})
+        public int batchSize;
+
+        private final AtomicInteger threadIndex = new AtomicInteger();
+        private BenchmarkDatabase db;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            db = BenchmarkDatabase.start(database,
+                    BenchmarkDatabase.defaultConfig().withDurabilityMode(DurabilityMode.valueOf(durability)));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (db != null) {
+                db.close();
+            }
+        }
+    }
+
+    /**
+     * 每个线程独占一个自动提交连接和一个手动提交连接，写入互不冲突的键
+     */
+    @State(Scope.Thread)
+    public static class SessionState {
+
+        private Connection autoCommitConnection;
+        private Connection transactionalConnection;
+        private PreparedStatement autoCommitInsert;
+        private PreparedStatement transactionalInsert;
+        private String insertPrefix;
+        private long insertSequence;
+
+        @Setup(Level.Trial)
+        public void setUp(DatabaseState state) throws SQLException {
+            autoCommitConnection = state.db.getDataSource().getConnection();
+            autoCommitConnection.setAutoCommit(true);
+            autoCommitInsert = autoCommitConnection.prepareStatement(INSERT_SQL);
+            transactionalConnection = state.db.getDataSource().getConnection();
+            transactionalConnection.setAutoCommit(false);
+            transactionalInsert = transactionalConnection.prepareStatement(INSERT_SQL);
+            insertPrefix = "durable-" + state.threadIndex.incrementAndGet() + "-";
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            if (autoCommitConnection != null) {
+                autoCommitConnection.close();
+            }
+            if (transactionalConnection != null) {
+                transactionalConnection.rollback();
+                transactionalConnection.close();
+            }
+        }
+
+        private void bindNext(PreparedStatement statement, long sequence) throws SQLException {
+            statement.setString(1, insertPrefix + insertSequence++);
+            statement.setString(2, "user" + sequence);
+            statement.setString(3, "user" + sequence + "@example.com");
+            statement.setLong(4, sequence);
+        }
+    }
+
+    /**
+     * 自动提交的单行写入，每次写入都是一次提交，最能体现提交刷盘的开销
+     */
+    @Benchmark
+    public int autoCommitInsert(SessionState session) throws SQLException {
+        session.bindNext(session.autoCommitInsert, session.insertSequence);
+        return session.autoCommitInsert.executeUpdate();
+    }
+
+    /**
+     * 一个事务内批量写入 batchSize 行后提交
+     */
+    @Benchmark
+    public int[] transactionalBatchInsert(DatabaseState state, SessionState session) throws SQLException {
+        for (int i = 0; i < state.batchSize; i++) {
+            session.bindNext(session.transactionalInsert, i);
+            session.transactionalInsert.addBatch();
+        }
+        int[] counts = session.transactionalInsert.executeBatch();
+        session.transactionalConnection.commit();
+        return counts;
+    }
+}
\ No newline at end of file
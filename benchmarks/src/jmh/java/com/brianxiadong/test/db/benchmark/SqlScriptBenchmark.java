@@ -0,0 +1,143 @@
+package com.brianxiadong.test.db.benchmark;
+
+import com.brianxiadong.test.db.script.ScriptExecutionStats;
+import com.brianxiadong.test.db.script.SqlScriptExecutor;
+import com.brianxiadong.test.db.script.SqlScriptOptions;
+import com.brianxiadong.test.db.script.SqlScriptReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 初始化脚本执行方式的对比基准
+ * 生成包含 rows 条 INSERT 的种子脚本，分别用旧的“整体读取 + split(";") + 逐条执行”方式
+ * 和流式分批执行方式导入，每次调用导入一遍完整的脚本
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SqlScriptBenchmark {
+
+    private static final String TABLE = "script_benchmark";
+
+    @State(Scope.Benchmark)
+    public static class ScriptState {
+
+        @Param({"H2"})
+        public String database;
+
+        @Param({"20000"})
+        public int rows;
+
+        @Param({"1000"})
+        public int batchSize;
+
+        private BenchmarkDatabase db;
+        private File script;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            db = BenchmarkDatabase.start(database, BenchmarkDatabase.defaultConfig());
+            script = generateScript(rows);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (script != null) {
+                Files.deleteIfExists(script.toPath());
+            }
+            if (db != null) {
+                db.close();
+            }
+        }
+    }
+
+    /**
+     * 旧的执行方式：整体读入内存，过滤注释行后按分号切分并逐条执行
+     */
+    @Benchmark
+    public long splitAndExecute(ScriptState state) throws IOException, SQLException {
+        StringBuilder content = new StringBuilder();
+        try (Reader reader = Files.newBufferedReader(state.script.toPath(), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+        }
+
+        StringBuilder cleaned = new StringBuilder();
+        for (String line : content.toString().split("\n")) {
+            line = line.trim();
+            if (!line.startsWith("--") && !line.isEmpty()) {
+                cleaned.append(line).append("\n");
+            }
+        }
+
+        long count = 0;
+        try (Connection connection = state.db.getDataSource().getConnection();
+                Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            for (String sql : cleaned.toString().split(";")) {
+                sql = sql.trim();
+                if (!sql.isEmpty()) {
+                    statement.execute(sql);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 流式读取脚本，按 batchSize 分批、每批一个事务执行
+     */
+    @Benchmark
+    public long streamingBatches(ScriptState state) throws IOException, SQLException {
+        try (Connection connection = state.db.getDataSource().getConnection();
+                SqlScriptReader reader = new SqlScriptReader(
+                        Files.newBufferedReader(state.script.toPath(), StandardCharsets.UTF_8))) {
+            ScriptExecutionStats stats = new SqlScriptExecutor(SqlScriptOptions.create()
+                    .withBatchSize(state.batchSize)
+                    .withTransactionPerBatch(true))
+                    .execute(connection, reader);
+            return stats.getStatementCount();
+        }
+    }
+
+    private static File generateScript(int rows) throws IOException {
+        File script = File.createTempFile("multidb-script-benchmark", ".sql");
+        try (BufferedWriter writer = Files.newBufferedWriter(script.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("-- 基准测试种子脚本\n");
+            writer.write("DROP TABLE IF EXISTS " + TABLE + ";\n");
+            writer.write("CREATE TABLE " + TABLE + " (\n"
+                    + "    id BIGINT NOT NULL PRIMARY KEY,\n"
+                    + "    username VARCHAR(100) NOT NULL,\n"
+                    + "    email VARCHAR(200),\n"
+                    + "    created_at BIGINT\n"
+                    + ");\n");
+            for (int i = 1; i <= rows; i++) {
+                writer.write("INSERT INTO " + TABLE + " (id, username, email, created_at) VALUES ("
+                        + i + ", 'user_" + i + "', 'user_" + i + "@example.com', " + (1700000000000L + i) + ");\n");
+            }
+        }
+        return script;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.brianxiadong.test.db.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * user_info 表上的查询与写入基准测试
+ * 同一组基准测试通过 database 参数在每种数据库上各执行一次，结果可以直接对比
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UserInfoBenchmark {
+
+    private static final String POINT_LOOKUP_SQL =
+            "SELECT id, username, email, created_at FROM user_info WHERE id = ?";
+    private static final String RANGE_SCAN_SQL =
+            "SELECT id, username, email, created_at FROM user_info WHERE id >= ? ORDER BY id LIMIT ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO user_info (id, username, email, created_at) VALUES (?, ?, ?, ?)";
+    private static final String UPSERT_SQL = INSERT_SQL
+            + " ON DUPLICATE KEY UPDATE username = VALUES(username), email = VALUES(email),"
+            + " created_at = VALUES(created_at)";
+
+    /**
+     * 每次试验共享的数据库，启动后预先写入 rows 行数据
+     */
+    @State(Scope.Benchmark)
+    public static class DatabaseState {
+
+        @Param({"H2"})
+        public String database;
+
+        @Param({"10000"})
+        public int rows;
+
+        @Param({"100"})
+        public int batchSize;
+
+        private final AtomicInteger threadIndex = new AtomicInteger();
+        private BenchmarkDatabase db;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            db = BenchmarkDatabase.start(database, BenchmarkDatabase.defaultConfig());
+            try (Connection connection = db.getDataSource().getConnection();
+                    PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                connection.setAutoCommit(false);
+                for (int i = 0; i < rows; i++) {
+                    bindUser(statement, userId(i), i);
+                    statement.addBatch();
+                    if ((i + 1) % 1000 == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                statement.executeBatch();
+                connection.commit();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (db != null) {
+                db.close();
+            }
+        }
+    }
+
+    /**
+     * 每个线程独占一个连接和预编译语句，避免把连接池开销计入结果
+     */
+    @State(Scope.Thread)
+    public static class SessionState {
+
+        private Connection connection;
+        private PreparedStatement pointLookup;
+        private PreparedStatement rangeScan;
+        private PreparedStatement insert;
+        private PreparedStatement upsert;
+        private SplittableRandom random;
+        private String insertPrefix;
+        private long insertSequence;
+
+        @Setup(Level.Trial)
+        public void setUp(DatabaseState state) throws SQLException {
+            int index = state.threadIndex.incrementAndGet();
+            connection = state.db.getDataSource().getConnection();
+            connection.setAutoCommit(true);
+            pointLookup = connection.prepareStatement(POINT_LOOKUP_SQL);
+            rangeScan = connection.prepareStatement(RANGE_SCAN_SQL);
+            insert = connection.prepareStatement(INSERT_SQL);
+            upsert = connection.prepareStatement(UPSERT_SQL);
+            // 固定种子保证每种数据库上访问的键序列相同
+            random = new SplittableRandom(index);
+            insertPrefix = "bench-" + index + "-";
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    @Benchmark
+    public void pointLookup(DatabaseState state, SessionState session, Blackhole blackhole) throws SQLException {
+        session.pointLookup.setString(1, userId(session.random.nextInt(state.rows)));
+        try (ResultSet resultSet = session.pointLookup.executeQuery()) {
+            consume(resultSet, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void rangeScan(DatabaseState state, SessionState session, Blackhole blackhole) throws SQLException {
+        session.rangeScan.setString(1, userId(session.random.nextInt(state.rows)));
+        session.rangeScan.setInt(2, state.batchSize);
+        try (ResultSet resultSet = session.rangeScan.executeQuery()) {
+            consume(resultSet, blackhole);
+        }
+    }
+
+    @Benchmark
+    public int[] batchInsert(DatabaseState state, SessionState session) throws SQLException {
+        for (int i = 0; i < state.batchSize; i++) {
+            bindUser(session.insert, session.insertPrefix + session.insertSequence++, i);
+            session.insert.addBatch();
+        }
+        return session.insert.executeBatch();
+    }
+
+    @Benchmark
+    public int[] upsert(DatabaseState state, SessionState session) throws SQLException {
+        for (int i = 0; i < state.batchSize; i++) {
+            bindUser(session.upsert, userId(session.random.nextInt(state.rows)), i);
+            session.upsert.addBatch();
+        }
+        return session.upsert.executeBatch();
+    }
+
+    private static void consume(ResultSet resultSet, Blackhole blackhole) throws SQLException {
+        while (resultSet.next()) {
+            blackhole.consume(resultSet.getString(1));
+            blackhole.consume(resultSet.getString(2));
+            blackhole.consume(resultSet.getString(3));
+            blackhole.consume(resultSet.getLong(4));
+        }
+    }
+
+    private static void bindUser(PreparedStatement statement, String id, long sequence) throws SQLException {
+        statement.setString(1, id);
+        statement.setString(2, "user" + sequence);
+        statement.setString(3, "user" + sequence + "@example.com");
+        statement.setLong(4, sequence);
+    }
+
+    /**
+     * 定长的键，范围扫描按字典序与数值序一致；不使用 String.format，避免把格式化开销计入结果
+     */
+    private static String userId(int i) {
+        char[] id = {'u', 's', 'e', 'r', '-', '0', '0', '0', '0', '0', '0', '0', '0'};
+        for (int pos = id.length - 1; i > 0 && pos > 4; pos--, i /= 10) {
+            id[pos] = (char) ('0' + i % 10);
+        }
+        return new String(id);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+-- 基准测试表结构（与 README 中的 user_info 一致）
+CREATE TABLE IF NOT EXISTS user_info (
+    id VARCHAR(255) NOT NULL PRIMARY KEY,
+    username VARCHAR(100) NOT NULL,
+    email VARCHAR(200),
+    created_at BIGINT
+);
\ No newline at end of file
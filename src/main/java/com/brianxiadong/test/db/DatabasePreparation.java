@@ -0,0 +1,208 @@
+package com.brianxiadong.test.db;
+
+import com.brianxiadong.test.db.fixture.Fixture;
+import com.brianxiadong.test.db.handler.ContainerRegistry;
+import com.brianxiadong.test.db.handler.DatabaseHandler;
+import com.brianxiadong.test.db.image.PrebakedImageCache;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.lifecycle.Phase;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.migration.MigrationResult;
+import com.brianxiadong.test.db.migration.Migrator;
+import com.brianxiadong.test.db.readiness.ReadinessStrategy;
+
+import java.util.List;
+
+/**
+ * 一次数据库启动的配置和状态准备
+ * {@link MultiDbTestRunner} 和 JUnit 扩展共用：容器启动前通过 {@link #configure(DatabaseHandler)} 设置处理器，
+ * 启动后通过 {@link #prepare(DatabaseHandler, DatabaseInfo, ContainerRegistry.Entry)} 恢复或初始化数据库
+ */
+public final class DatabasePreparation {
+
+    private final DatabaseType type;
+    private final DatabaseTestConfig config;
+    private volatile PrebakedStart prebakedStart;
+
+    public DatabasePreparation(DatabaseType type, DatabaseTestConfig config) {
+        this.type = type;
+        this.config = config;
+    }
+
+    /**
+     * 在容器启动前按配置设置处理器：就绪策略、持久化方式，开启预构建镜像时查找已缓存的镜像
+     * 通过 {@link ContainerRegistry} 获取时复用容器前也会执行，用于比较启动配置是否变化
+     *
+     * @param handler 数据库处理器
+     */
+    public void configure(DatabaseHandler handler) {
+        ReadinessStrategy readinessStrategy = config.getReadinessStrategy(type);
+        if (readinessStrategy != null) {
+            handler.setReadinessStrategy(readinessStrategy);
+        }
+        handler.setDurabilityMode(config.getDurabilityMode());
+        prebakedStart = null;
+        if (!config.isPrebakedImages() || !handler.supportsPrebakedImage()) {
+            return;
+        }
+
+        String dockerImage = config.getDockerImage(type);
+        try {
+            List<String> contentHashes = PrebakedImageCache.contentHashes(config.getInitScript(type),
+                    config.getMigrations(type), config.getFixtures(type));
+            PrebakedImageCache cache = PrebakedImageCache.shared();
+            String repository = PrebakedImageCache.repositoryFor(type.name());
+            String key = PrebakedImageCache.computeKey(dockerImage, handler.getHandlerVersion(), contentHashes);
+            String prebakedImage = cache.lookup(repository, key);
+            handler.usePrebakedImage(prebakedImage);
+            prebakedStart = new PrebakedStart(cache, repository, key, dockerImage, prebakedImage);
+        } catch (Exception e) {
+            MultiDbLog.error("预构建镜像不可用，按普通方式启动: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 准备数据库状态
+     * 复用的容器优先从模板快照恢复，从预构建镜像启动的容器已经包含初始化后的状态，
+     * 否则执行初始化脚本、版本迁移并导入数据集（各处理器分别记录耗时）。
+     * 从快照或预构建镜像恢复的数据库只执行新增的迁移（并重新提交镜像），已执行的迁移被修改时重置后重新初始化
+     *
+     * @param handler 数据库处理器
+     * @param dbInfo  数据库连接信息
+     * @param entry   复用模式下的容器条目，否则为 null
+     * @return 初始化内容的标识
+     * @throws Exception 初始化失败时抛出异常
+     */
+    public String prepare(DatabaseHandler handler, DatabaseInfo dbInfo, ContainerRegistry.Entry entry)
+            throws Exception {
+        String initScript = config.getInitScript(type);
+        String migrations = config.getMigrations(type);
+        List<Fixture> fixtures = config.getFixtures(type);
+        // 迁移只按目录区分，内容变化由迁移历史表判断，快照可以增量更新
+        String stateKey = (initScript != null ? initScript : "") + fixtures
+                + (migrations != null ? "@" + migrations : "");
+        boolean restored = entry != null && entry.restoreOrReset(stateKey);
+        boolean expectTables = (initScript != null && !initScript.trim().isEmpty()) || migrations != null
+                || !fixtures.isEmpty();
+        // configure 在复用容器时同样会执行，只有刚启动的容器才可能来自预构建镜像
+        PrebakedStart prebakedStart = entry != null && entry.isReused() ? null : this.prebakedStart;
+        boolean prebaked = !restored && prebakedStart != null && prebakedStart.verify(handler, dbInfo, expectTables);
+
+        // 从快照或预构建镜像恢复的数据库只执行新增的迁移
+        boolean migrated = false;
+        if ((restored || prebaked) && migrations != null) {
+            MigrationResult result = Migrator.migrate(handler, dbInfo, migrations, config.getScriptOptions());
+            if (result.isRebuildRequired()) {
+                handler.resetDatabase(dbInfo);
+                restored = false;
+                prebaked = false;
+            } else {
+                migrated = result.getAppliedCount() > 0;
+            }
+        }
+
+        if (!restored && !prebaked) {
+            if (initScript != null && !initScript.trim().isEmpty()) {
+                handler.executeInitScript(dbInfo, initScript, config.getScriptOptions());
+            }
+            if (migrations != null) {
+                migrateFresh(handler, dbInfo, migrations);
+            }
+            for (Fixture fixture : fixtures) {
+                handler.loadFixture(dbInfo, fixture, config.getFixtureOptions());
+            }
+        }
+        if (prebakedStart != null && (!prebaked || migrated) && !restored) {
+            prebakedStart.bake(handler);
+        }
+        if ((!restored || migrated) && entry != null) {
+            saveSnapshot(entry, stateKey);
+        }
+        return stateKey;
+    }
+
+    /**
+     * 在刚初始化的数据库上执行全部迁移
+     */
+    private void migrateFresh(DatabaseHandler handler, DatabaseInfo dbInfo, String migrations) throws Exception {
+        MigrationResult result = Migrator.migrate(handler, dbInfo, migrations, config.getScriptOptions());
+        if (result.isRebuildRequired()) {
+            // 初始化脚本不应该写入迁移历史表
+            throw new IllegalStateException("初始化后的数据库与迁移历史不一致: " + result.getRebuildReason());
+        }
+    }
+
+    /**
+     * 保存模板快照，失败时只记录日志，之后的测试退回到重置并重新初始化
+     */
+    private static void saveSnapshot(ContainerRegistry.Entry entry, String stateKey) {
+        try {
+            entry.saveSnapshot(stateKey);
+        } catch (UnsupportedOperationException e) {
+            // 处理器不支持快照
+        } catch (Exception e) {
+            MultiDbLog.error("保存模板快照失败，后续测试将重新执行初始化: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 一次启动所用的预构建镜像
+     */
+    private static final class PrebakedStart {
+
+        private final PrebakedImageCache cache;
+        private final String repository;
+        private final String key;
+        private final String baseImage;
+        private final String prebakedImage;
+
+        PrebakedStart(PrebakedImageCache cache, String repository, String key, String baseImage,
+                String prebakedImage) {
+            this.cache = cache;
+            this.repository = repository;
+            this.key = key;
+            this.baseImage = baseImage;
+            this.prebakedImage = prebakedImage;
+        }
+
+        /**
+         * 检查容器是否从预构建镜像启动且保留了初始化后的状态，状态不完整时删除该镜像并重新构建
+         */
+        boolean verify(DatabaseHandler handler, DatabaseInfo dbInfo, boolean expectTables) throws Exception {
+            if (prebakedImage == null) {
+                return false;
+            }
+            if (handler.verifyPrebakedState(dbInfo, expectTables)) {
+                MultiDbLog.info("已从预构建镜像恢复初始化状态，跳过初始化脚本: " + prebakedImage);
+                return true;
+            }
+            MultiDbLog.error("预构建镜像没有保留初始化状态，将重新初始化: " + prebakedImage);
+            try {
+                cache.invalidate(prebakedImage);
+            } catch (RuntimeException e) {
+                // 镜像正在被当前容器使用，等待下次清理
+            }
+            return false;
+        }
+
+        /**
+         * 将初始化完成的容器提交为预构建镜像，失败时只记录日志
+         */
+        void bake(DatabaseHandler handler) {
+            String containerId = handler.getContainerId();
+            if (containerId == null) {
+                return;
+            }
+            long start = Lifecycle.start();
+            try {
+                String imageName = cache.store(containerId, repository, key, baseImage);
+                Lifecycle.end(Phase.IMAGE_COMMIT, start);
+                MultiDbLog.info(String.format("预构建镜像已保存: %s，耗时 %.1fs",
+                        imageName, (System.nanoTime() - start) / 1_000_000_000.0));
+            } catch (Exception e) {
+                Lifecycle.end(Phase.IMAGE_COMMIT, start, e);
+                MultiDbLog.error("保存预构建镜像失败: " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
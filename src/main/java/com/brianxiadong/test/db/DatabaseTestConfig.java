@@ -1,18 +1,74 @@
 package com.brianxiadong.test.db;
 
-import java.util.HashMap;
+import com.brianxiadong.test.db.fixture.Fixture;
+import com.brianxiadong.test.db.fixture.FixtureOptions;
+import com.brianxiadong.test.db.lifecycle.LifecycleListener;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.pool.PoolSettings;
+import com.brianxiadong.test.db.readiness.ReadinessStrategy;
+import com.brianxiadong.test.db.script.SqlScriptOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
  * 数据库测试配置
- * 用于配置各数据库的初始化脚本和其他参数
+ * 用于配置各数据库的初始化脚本和其他参数。
+ * 数据库按首次配置（初始化脚本、迁移或数据集）的顺序执行，第一个配置的数据库是结果比较的基准
  */
 public class DatabaseTestConfig {
 
     private final Map<DatabaseType, String> initScripts;
+    private final Map<DatabaseType, String> migrations;
+    private final Map<DatabaseType, String> dockerImages;
+    private final Map<DatabaseType, List<Fixture>> fixtures;
+    private final Map<DatabaseType, ReadinessStrategy> readinessStrategies;
+    private final Map<DatabaseType, PoolSettings> poolSettings;
+    private final List<LifecycleListener> lifecycleListeners;
+    private boolean containerReuse;
+    private boolean prebakedImages;
+    private boolean sqlProfiling;
+    private boolean planCapture;
+    private boolean dirtyTableTracking;
+    private ExecutionMode executionMode = ExecutionMode.SEQUENTIAL;
+    private DurabilityMode durabilityMode;
+    private IsolationMode isolationMode = IsolationMode.NONE;
+    private SqlScriptOptions scriptOptions = SqlScriptOptions.create();
+    private FixtureOptions fixtureOptions = FixtureOptions.create();
 
     public DatabaseTestConfig() {
-        this.initScripts = new HashMap<>();
+        this.initScripts = new LinkedHashMap<>();
+        this.migrations = new LinkedHashMap<>();
+        this.dockerImages = new LinkedHashMap<>();
+        this.fixtures = new LinkedHashMap<>();
+        this.readinessStrategies = new LinkedHashMap<>();
+        this.poolSettings = new LinkedHashMap<>();
+        this.lifecycleListeners = new ArrayList<>();
+        this.containerReuse = Boolean.getBoolean("multidb.container.reuse");
+        this.prebakedImages = Boolean.getBoolean("multidb.prebaked.images");
+        this.sqlProfiling = Boolean.getBoolean("multidb.sql.profile");
+        this.planCapture = Boolean.getBoolean("multidb.plan.capture");
+        this.dirtyTableTracking = Boolean.getBoolean("multidb.dirty.tracking");
+        this.durabilityMode = durabilityModeFromProperty();
+    }
+
+    private static DurabilityMode durabilityModeFromProperty() {
+        String value = System.getProperty("multidb.durability");
+        if (value == null || value.trim().isEmpty()) {
+            return DurabilityMode.DEFAULT;
+        }
+        try {
+            return DurabilityMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            MultiDbLog.error("multidb.durability 配置无效: " + value + "，可选值为 "
+                    + Arrays.toString(DurabilityMode.values()) + "，使用默认值 " + DurabilityMode.DEFAULT);
+            return DurabilityMode.DEFAULT;
+        }
     }
 
     /**
@@ -47,10 +103,368 @@ public class DatabaseTestConfig {
         return initScripts.containsKey(type) && initScripts.get(type) != null;
     }
 
+    /**
+     * 设置数据库的版本迁移脚本目录
+     * 目录中的 V&lt;版本&gt;__&lt;描述&gt;.sql 脚本在初始化脚本之后、数据集之前按版本顺序执行，
+     * 已执行的版本和校验和记录在 multidb_schema_history 表中。复用容器时只执行新增的版本，
+     * 已执行的脚本被修改时重建数据库。只配置迁移时不需要再设置初始化脚本
+     * 
+     * @param type     数据库类型
+     * @param location 类路径目录，例如 db/migration/mysql/
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withMigrations(DatabaseType type, String location) {
+        this.migrations.put(type, location);
+        // 只配置迁移的数据库也要参与测试
+        this.initScripts.putIfAbsent(type, null);
+        return this;
+    }
+
+    /**
+     * 获取指定数据库类型的版本迁移脚本目录
+     * 
+     * @param type 数据库类型
+     * @return 迁移脚本目录，如果未配置则返回null
+     */
+    public String getMigrations(DatabaseType type) {
+        return migrations.get(type);
+    }
+
+    /**
+     * 设置数据库使用的Docker镜像
+     * 
+     * @param type        数据库类型
+     * @param dockerImage Docker镜像
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withDockerImage(DatabaseType type, String dockerImage) {
+        this.dockerImages.put(type, dockerImage);
+        return this;
+    }
+
+    /**
+     * 获取指定数据库类型的Docker镜像
+     * 
+     * @param type 数据库类型
+     * @return Docker镜像，如果未配置则返回默认镜像
+     */
+    public String getDockerImage(DatabaseType type) {
+        String dockerImage = dockerImages.get(type);
+        return dockerImage != null ? dockerImage : type.getDefaultDockerImage();
+    }
+
+    /**
+     * 设置是否在JVM范围内复用数据库容器
+     * 开启后容器只启动一次，测试之间重置数据库状态，JVM退出时统一关闭。
+     * 也可以通过系统属性 multidb.container.reuse=true 全局开启
+     * 
+     * @param containerReuse 是否复用容器
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withContainerReuse(boolean containerReuse) {
+        this.containerReuse = containerReuse;
+        return this;
+    }
+
+    /**
+     * 是否复用数据库容器
+     * 
+     * @return 是否复用
+     */
+    public boolean isContainerReuse() {
+        return containerReuse;
+    }
+
+    /**
+     * 设置是否使用预构建镜像
+     * 开启后初始化完成的容器会被提交为本地镜像，标签由基础镜像、初始化脚本、数据集和处理器版本的哈希决定，
+     * 之后的运行直接从该镜像启动，跳过数据库引导和初始化。
+     * 也可以通过系统属性 multidb.prebaked.images=true 全局开启
+     * 
+     * @param prebakedImages 是否使用预构建镜像
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withPrebakedImages(boolean prebakedImages) {
+        this.prebakedImages = prebakedImages;
+        return this;
+    }
+
+    /**
+     * 是否使用预构建镜像
+     * 
+     * @return 是否使用
+     */
+    public boolean isPrebakedImages() {
+        return prebakedImages;
+    }
+
+    /**
+     * 设置多数据库测试的执行方式
+     * 
+     * @param executionMode 执行方式
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        return this;
+    }
+
+    /**
+     * 获取多数据库测试的执行方式
+     * 
+     * @return 执行方式
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * 设置数据库的持久化方式
+     * {@link DurabilityMode#FAST} 关闭提交刷盘等崩溃安全设置以提高写入速度，只在容器启动时生效，
+     * 复用的容器保持首次启动时的设置。也可以通过系统属性 multidb.durability=fast 全局开启
+     * 
+     * @param durabilityMode 持久化方式
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withDurabilityMode(DurabilityMode durabilityMode) {
+        this.durabilityMode = durabilityMode;
+        return this;
+    }
+
+    /**
+     * 获取数据库的持久化方式
+     * 
+     * @return 持久化方式
+     */
+    public DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+    /**
+     * 设置测试之间的数据隔离方式
+     * 
+     * @param isolationMode 隔离方式
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withIsolationMode(IsolationMode isolationMode) {
+        this.isolationMode = isolationMode;
+        return this;
+    }
+
+    /**
+     * 获取测试之间的数据隔离方式
+     * 
+     * @return 隔离方式
+     */
+    public IsolationMode getIsolationMode() {
+        return isolationMode;
+    }
+
+    /**
+     * 设置是否记录测试写入过的表
+     * 复用容器时，下一次测试前只从模板快照恢复写入过的表；执行过 DDL 等无法确定写入范围的语句时恢复所有表。
+     * 只记录通过框架数据源、初始化脚本、数据集和数据生成器的写入，测试自行建立的连接不会被记录。
+     * 也可以通过系统属性 multidb.dirty.tracking=true 开启
+     * 
+     * @param dirtyTableTracking 是否开启
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withDirtyTableTracking(boolean dirtyTableTracking) {
+        this.dirtyTableTracking = dirtyTableTracking;
+        return this;
+    }
+
+    /**
+     * 是否记录测试写入过的表
+     * 
+     * @return 是否开启
+     */
+    public boolean isDirtyTableTracking() {
+        return dirtyTableTracking;
+    }
+
+    /**
+     * 设置是否分析测试执行的 SQL
+     * 开启后按 SQL 指纹统计执行次数、延迟分布、行数和批大小，检测疑似 N+1 查询，
+     * 测试结束后输出报告。也可以通过系统属性 multidb.sql.profile=true 开启
+     * 
+     * @param sqlProfiling 是否开启
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withSqlProfiling(boolean sqlProfiling) {
+        this.sqlProfiling = sqlProfiling;
+        return this;
+    }
+
+    /**
+     * 是否分析测试执行的 SQL
+     * 
+     * @return 是否开启
+     */
+    public boolean isSqlProfiling() {
+        return sqlProfiling;
+    }
+
+    /**
+     * 设置是否收集测试语句的执行计划
+     * 开启后测试逻辑在每个数据库上执行完时，对执行过的每个查询、UPDATE 和 DELETE 指纹取一次执行计划，
+     * 标出全表扫描、额外排序、临时表和不同数据库间不一致的索引选择，并与基线文件比较，
+     * 计划变差时测试失败（见 {@link com.brianxiadong.test.db.plan.PlanCapture}）。
+     * 也可以通过系统属性 multidb.plan.capture=true 开启
+     * 
+     * @param planCapture 是否开启
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withPlanCapture(boolean planCapture) {
+        this.planCapture = planCapture;
+        return this;
+    }
+
+    /**
+     * 是否收集测试语句的执行计划
+     * 
+     * @return 是否开启
+     */
+    public boolean isPlanCapture() {
+        return planCapture;
+    }
+
+    /**
+     * 设置初始化脚本的执行选项
+     * 
+     * @param scriptOptions 脚本执行选项
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withScriptOptions(SqlScriptOptions scriptOptions) {
+        this.scriptOptions = scriptOptions;
+        return this;
+    }
+
+    /**
+     * 获取初始化脚本的执行选项
+     * 
+     * @return 脚本执行选项
+     */
+    public SqlScriptOptions getScriptOptions() {
+        return scriptOptions;
+    }
+
+    /**
+     * 添加数据集，在初始化脚本之后导入到指定表
+     * 支持 CSV（.csv）和 JSON Lines（.jsonl / .ndjson / .json）。只配置数据集时不需要再设置初始化脚本
+     * 
+     * @param type     数据库类型
+     * @param table    目标表
+     * @param resource 数据集资源路径
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withFixture(DatabaseType type, String table, String resource) {
+        this.fixtures.computeIfAbsent(type, key -> new ArrayList<>()).add(new Fixture(table, resource));
+        // 只配置数据集的数据库也要参与测试
+        this.initScripts.putIfAbsent(type, null);
+        return this;
+    }
+
+    /**
+     * 获取指定数据库类型的数据集
+     * 
+     * @param type 数据库类型
+     * @return 数据集列表，按添加顺序排列
+     */
+    public List<Fixture> getFixtures(DatabaseType type) {
+        List<Fixture> configured = fixtures.get(type);
+        return configured != null ? Collections.unmodifiableList(configured) : Collections.<Fixture>emptyList();
+    }
+
+    /**
+     * 设置数据集导入选项
+     * 
+     * @param fixtureOptions 导入选项
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withFixtureOptions(FixtureOptions fixtureOptions) {
+        this.fixtureOptions = fixtureOptions;
+        return this;
+    }
+
+    /**
+     * 获取数据集导入选项
+     * 
+     * @return 导入选项
+     */
+    public FixtureOptions getFixtureOptions() {
+        return fixtureOptions;
+    }
+
+    /**
+     * 设置数据库启动后的就绪等待策略
+     * 
+     * @param type              数据库类型
+     * @param readinessStrategy 就绪等待策略
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withReadinessStrategy(DatabaseType type, ReadinessStrategy readinessStrategy) {
+        this.readinessStrategies.put(type, readinessStrategy);
+        return this;
+    }
+
+    /**
+     * 获取指定数据库类型的就绪等待策略
+     * 
+     * @param type 数据库类型
+     * @return 就绪等待策略，如果未配置则返回null（使用处理器默认策略）
+     */
+    public ReadinessStrategy getReadinessStrategy(DatabaseType type) {
+        return readinessStrategies.get(type);
+    }
+
+    /**
+     * 设置测试数据源的连接池
+     * 
+     * @param type     数据库类型
+     * @param settings 连接池设置
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withPoolSettings(DatabaseType type, PoolSettings settings) {
+        this.poolSettings.put(type, settings);
+        return this;
+    }
+
+    /**
+     * 获取指定数据库类型的连接池设置
+     * 
+     * @param type 数据库类型
+     * @return 连接池设置，如果未配置则返回null（使用处理器推荐的设置）
+     */
+    public PoolSettings getPoolSettings(DatabaseType type) {
+        return poolSettings.get(type);
+    }
+
+    /**
+     * 添加只对本配置生效的生命周期监听器
+     * 全局监听器通过 Lifecycle.addListener 注册
+     * 
+     * @param listener 生命周期监听器
+     * @return 当前配置实例（支持链式调用）
+     */
+    public DatabaseTestConfig withLifecycleListener(LifecycleListener listener) {
+        this.lifecycleListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * 获取生命周期监听器
+     * 
+     * @return 监听器列表
+     */
+    public List<LifecycleListener> getLifecycleListeners() {
+        return Collections.unmodifiableList(lifecycleListeners);
+    }
+
     /**
      * 获取所有已配置的数据库类型
      * 
-     * @return 数据库类型数组
+     * @return 数据库类型数组，按首次配置的顺序排列
      */
     public DatabaseType[] getConfiguredTypes() {
         return initScripts.keySet().toArray(new DatabaseType[0]);
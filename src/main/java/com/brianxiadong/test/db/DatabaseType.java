@@ -1,23 +1,136 @@
 package com.brianxiadong.test.db;
 
+import com.brianxiadong.test.db.handler.DatabaseHandlerFactory;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
- * 支持的数据库类型枚举
+ * 数据库类型
+ * 内置 MySQL、OceanBase 和内嵌的 H2，其他数据库通过 {@link #register} 注册新类型，
+ * 并通过 {@link com.brianxiadong.test.db.handler.DatabaseHandlerProvider} 提供处理器。
+ * 同名类型只有一个实例，可以用 == 比较，按注册顺序排序，序列化后还原为同一个实例。
+ * <p>
+ * 早期版本中 DatabaseType 是枚举，改为类之后不再兼容：不能在 {@code switch} 中使用，
+ * {@code EnumMap} / {@code EnumSet} 需要换成 {@code LinkedHashMap} / {@code LinkedHashSet}，
+ * 按类型分支的代码改为 {@code if (type == DatabaseType.MYSQL)}；依赖旧版本编译的代码需要重新编译
  */
-public enum DatabaseType {
+public final class DatabaseType implements Comparable<DatabaseType>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Map<String, DatabaseType> TYPES = new LinkedHashMap<>();
 
-    MYSQL("MySQL", "com.mysql.cj.jdbc.Driver", "mysql:8.0"),
-    OCEANBASE("OceanBase", "com.oceanbase.jdbc.Driver", "oceanbase/oceanbase-ce:4.3.5-lts");
+    public static final DatabaseType MYSQL = register("MYSQL", "MySQL", "com.mysql.cj.jdbc.Driver", "mysql:8.0");
+    public static final DatabaseType OCEANBASE = register("OCEANBASE", "OceanBase", "com.oceanbase.jdbc.Driver",
+            "oceanbase/oceanbase-ce:4.3.5-lts");
 
+    /**
+     * 进程内的 H2 数据库（MySQL 兼容模式），不需要 Docker，没有镜像
+     */
+    public static final DatabaseType H2 = register("H2", "H2", "org.h2.Driver", null);
+
+    private final String name;
+    private final transient int ordinal;
     private final String displayName;
     private final String driverClassName;
     private final String defaultDockerImage;
 
-    DatabaseType(String displayName, String driverClassName, String defaultDockerImage) {
+    private DatabaseType(String name, int ordinal, String displayName, String driverClassName,
+            String defaultDockerImage) {
+        this.name = name;
+        this.ordinal = ordinal;
         this.displayName = displayName;
         this.driverClassName = driverClassName;
         this.defaultDockerImage = defaultDockerImage;
     }
 
+    /**
+     * 注册数据库类型，同名类型已存在且定义相同时返回已有实例
+     *
+     * @param name               类型名称，转换为大写，用于 {@link #valueOf(String)} 和注解中引用
+     * @param displayName        显示名称
+     * @param driverClassName    JDBC 驱动类名
+     * @param defaultDockerImage 默认 Docker 镜像，内嵌数据库为 null
+     * @return 数据库类型
+     */
+    public static synchronized DatabaseType register(String name, String displayName, String driverClassName,
+            String defaultDockerImage) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("数据库类型名称不能为空");
+        }
+        String key = name.trim().toUpperCase(Locale.ROOT);
+        DatabaseType existing = TYPES.get(key);
+        if (existing != null) {
+            if (existing.displayName.equals(displayName) && existing.driverClassName.equals(driverClassName)
+                    && (existing.defaultDockerImage == null ? defaultDockerImage == null
+                            : existing.defaultDockerImage.equals(defaultDockerImage))) {
+                return existing;
+            }
+            throw new IllegalArgumentException("数据库类型 " + key + " 已注册为不同的定义: " + existing.describe());
+        }
+        DatabaseType type = new DatabaseType(key, TYPES.size(), displayName, driverClassName,
+                defaultDockerImage);
+        TYPES.put(key, type);
+        return type;
+    }
+
+    /**
+     * 按名称查找已注册的数据库类型（不区分大小写）
+     * 找不到时先加载 {@link DatabaseHandlerFactory}，使处理器提供者中注册的类型可以被找到
+     *
+     * @param name 类型名称
+     * @return 数据库类型
+     * @throws IllegalArgumentException 类型未注册
+     */
+    public static DatabaseType valueOf(String name) {
+        DatabaseType type = find(name);
+        if (type == null) {
+            // 不能在持有锁时触发工厂的类初始化，提供者注册类型时需要获取同一把锁
+            DatabaseHandlerFactory.getSupportedTypes();
+            type = find(name);
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("未知的数据库类型: " + name + "，已注册: " + names());
+        }
+        return type;
+    }
+
+    /**
+     * 获取所有已注册的数据库类型，按注册顺序排列
+     *
+     * @return 数据库类型数组
+     */
+    public static synchronized DatabaseType[] values() {
+        return new ArrayList<>(TYPES.values()).toArray(new DatabaseType[0]);
+    }
+
+    private static synchronized DatabaseType find(String name) {
+        return name != null ? TYPES.get(name.trim().toUpperCase(Locale.ROOT)) : null;
+    }
+
+    private static synchronized String names() {
+        return TYPES.keySet().toString();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 注册序号，内置类型依次为 MYSQL、OCEANBASE、H2，之后按注册顺序递增
+     *
+     * @return 注册序号
+     */
+    public int ordinal() {
+        return ordinal;
+    }
+
     public String getDisplayName() {
         return displayName;
     }
@@ -29,4 +142,32 @@ public enum DatabaseType {
     public String getDefaultDockerImage() {
         return defaultDockerImage;
     }
+
+    private String describe() {
+        return displayName + ", " + driverClassName + ", " + defaultDockerImage;
+    }
+
+    /**
+     * 按注册顺序比较
+     */
+    @Override
+    public int compareTo(DatabaseType other) {
+        return Integer.compare(ordinal, other.ordinal);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * 反序列化时按名称还原为已注册的实例，保证 == 比较仍然成立
+     */
+    private Object readResolve() throws ObjectStreamException {
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+    }
 }
\ No newline at end of file
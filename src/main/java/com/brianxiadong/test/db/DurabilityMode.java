@@ -0,0 +1,18 @@
+package com.brianxiadong.test.db;
+
+/**
+ * 数据库的持久化方式
+ */
+public enum DurabilityMode {
+
+    /**
+     * 使用镜像的默认配置，每次提交都刷盘
+     */
+    DEFAULT,
+
+    /**
+     * 放弃崩溃安全换取写入速度：提交时不刷盘、关闭二进制日志等，容器异常退出会丢失数据。
+     * 测试数据库用完即弃，通常不需要崩溃安全
+     */
+    FAST
+}
\ No newline at end of file
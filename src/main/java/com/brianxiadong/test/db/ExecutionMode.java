@@ -0,0 +1,23 @@
+package com.brianxiadong.test.db;
+
+/**
+ * 多数据库测试的执行方式
+ */
+public enum ExecutionMode {
+
+    /**
+     * 依次在每个数据库上执行测试，同一时间只运行一个容器
+     */
+    SEQUENTIAL,
+
+    /**
+     * 依次在每个数据库上执行测试，当前数据库测试时在后台启动下一个数据库，
+     * 用完的容器在后台关闭，同一时间最多运行两个容器
+     */
+    PIPELINED,
+
+    /**
+     * 同时启动所有数据库并并行执行测试，数据源按线程路由
+     */
+    PARALLEL
+}
\ No newline at end of file
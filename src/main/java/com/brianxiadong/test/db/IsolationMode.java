@@ -0,0 +1,18 @@
+package com.brianxiadong.test.db;
+
+/**
+ * 测试之间的数据隔离方式
+ */
+public enum IsolationMode {
+
+    /**
+     * 不做额外隔离，依靠关闭容器或复用容器时的快照恢复、重置清理状态
+     */
+    NONE,
+
+    /**
+     * 测试逻辑在固定连接上的事务中执行，结束后回滚。
+     * 执行了 DDL 等不能回滚的语句时，退回到快照恢复或清空表
+     */
+    TRANSACTION_ROLLBACK
+}
@@ -31,7 +31,7 @@ public class MultiDbHelper {
     /**
      * 获取可切换的数据源实例
      */
-    public static SwitchableDataSource getSwitchableDataSource() {
+    public static synchronized SwitchableDataSource getSwitchableDataSource() {
         if (switchableDataSource == null) {
             switchableDataSource = new SwitchableDataSource();
         }
@@ -0,0 +1,40 @@
+package com.brianxiadong.test.db;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 多数据库测试的汇总失败结果
+ * 并行执行时收集所有数据库的失败信息，而不是只报告第一个
+ */
+public class MultiDbTestException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<DatabaseType, Throwable> failures;
+
+    public MultiDbTestException(Map<DatabaseType, Throwable> failures) {
+        super(buildMessage(failures));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        for (Throwable failure : failures.values()) {
+            addSuppressed(failure);
+        }
+    }
+
+    /**
+     * 获取各数据库的失败原因
+     * 
+     * @return 数据库类型到失败原因的映射
+     */
+    public Map<DatabaseType, Throwable> getFailures() {
+        return failures;
+    }
+
+    private static String buildMessage(Map<DatabaseType, Throwable> failures) {
+        return failures.size() + " database(s) failed: " + failures.entrySet().stream()
+                .map(e -> e.getKey().getDisplayName() + " (" + e.getValue().getMessage() + ")")
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -1,7 +1,36 @@
 package com.brianxiadong.test.db;
 
+import com.brianxiadong.test.db.diff.ResultDiff;
+import com.brianxiadong.test.db.diff.ResultDiffOptions;
+import com.brianxiadong.test.db.diff.ResultSetComparator;
+import com.brianxiadong.test.db.handler.ContainerRegistry;
 import com.brianxiadong.test.db.handler.DatabaseHandler;
 import com.brianxiadong.test.db.handler.DatabaseHandlerFactory;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.lifecycle.Phase;
+import com.brianxiadong.test.db.load.LoadProfile;
+import com.brianxiadong.test.db.load.LoadTestExecutor;
+import com.brianxiadong.test.db.load.LoadTestResult;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.plan.PlanRegressionException;
+import com.brianxiadong.test.db.plan.PlanReport;
+import com.brianxiadong.test.db.pool.PoolSettings;
+import com.brianxiadong.test.db.resource.ResourceScheduler;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 多数据库测试执行器
@@ -42,18 +71,37 @@ public class MultiDbTestRunner {
     public static void runMultiDbTest(DatabaseTestConfig config, DatabaseTestLogic testLogic) {
         SwitchableDataSource switchableDataSource = MultiDbHelper.getSwitchableDataSource();
 
-        System.out.println("\n========================================");
-        System.out.println("开始多数据库测试");
-        System.out.println("========================================");
+        String testClass = resolveTestClass();
+
+        MultiDbLog.info("\n========================================");
+        MultiDbLog.info("开始多数据库测试");
+        MultiDbLog.info("========================================");
 
-        // 遍历所有配置的数据库类型
-        for (DatabaseType dbType : config.getConfiguredTypes()) {
-            testWithDatabase(dbType, config.getInitScript(dbType), testLogic, switchableDataSource);
+        ProfilingSession profiling = ProfilingSession.start(config, switchableDataSource, testClass);
+        PlanReport plans = null;
+        try {
+            if (config.getExecutionMode() == ExecutionMode.PARALLEL) {
+                runInParallel(config, testLogic, switchableDataSource, testClass);
+            } else if (config.getExecutionMode() == ExecutionMode.PIPELINED) {
+                runPipelined(config, testLogic, switchableDataSource, testClass);
+            } else {
+                // 遍历所有配置的数据库类型
+                for (DatabaseType dbType : config.getConfiguredTypes()) {
+                    testWithDatabase(dbType, config, testLogic, switchableDataSource, false, testClass, null,
+                            null);
+                }
+            }
+        } finally {
+            Lifecycle.runFinished(testClass, config.getLifecycleListeners());
+            plans = profiling.finish();
+        }
+        if (plans != null && plans.hasRegressions()) {
+            throw new PlanRegressionException(plans);
         }
 
-        System.out.println("\n========================================");
-        System.out.println("所有数据库测试完成！");
-        System.out.println("========================================");
+        MultiDbLog.info("\n========================================");
+        MultiDbLog.info("所有数据库测试完成！");
+        MultiDbLog.info("========================================");
     }
 
     /**
@@ -63,52 +111,562 @@ public class MultiDbTestRunner {
      * @param testLogic 测试逻辑
      */
     public static void runSingleDbTest(DatabaseType dbType, String initScript, DatabaseTestLogic testLogic) {
+        DatabaseTestConfig config = DatabaseTestConfig.create()
+                .withInitScript(dbType, initScript);
+
+        runSingleDbTest(dbType, config, testLogic);
+    }
+
+    /**
+     * 使用给定配置执行指定数据库类型的测试
+     * 
+     * @param dbType    数据库类型
+     * @param config    数据库测试配置
+     * @param testLogic 测试逻辑
+     */
+    public static void runSingleDbTest(DatabaseType dbType, DatabaseTestConfig config, DatabaseTestLogic testLogic) {
         SwitchableDataSource switchableDataSource = MultiDbHelper.getSwitchableDataSource();
-        testWithDatabase(dbType, initScript, testLogic, switchableDataSource);
+        String testClass = resolveTestClass();
+        ProfilingSession profiling = ProfilingSession.start(config, switchableDataSource, testClass);
+        PlanReport plans = null;
+        try {
+            testWithDatabase(dbType, config, testLogic, switchableDataSource, false, testClass, null, null);
+        } finally {
+            Lifecycle.runFinished(testClass, config.getLifecycleListeners());
+            plans = profiling.finish();
+        }
+        if (plans != null && plans.hasRegressions()) {
+            throw new PlanRegressionException(plans);
+        }
+    }
+
+    /**
+     * 在所有配置的数据库上依次执行压测
+     * 每个数据库启动并初始化后，多个工作线程并发执行测试逻辑，连接池扩大到与并发数相同并预热，
+     * 输出每个数据库的吞吐量、延迟百分位和错误数。压测时不使用事务回滚隔离
+     * 
+     * @param config    数据库测试配置
+     * @param profile   压测配置
+     * @param testLogic 每次操作执行的测试逻辑，通过 Spring 数据源或 {@link MultiDbHelper} 访问数据库
+     * @return 各数据库的压测结果
+     */
+    public static Map<DatabaseType, LoadTestResult> runLoadTest(DatabaseTestConfig config, LoadProfile profile,
+            DatabaseTestLogic testLogic) {
+        SwitchableDataSource switchableDataSource = MultiDbHelper.getSwitchableDataSource();
+        String testClass = resolveTestClass();
+        Map<DatabaseType, LoadTestResult> results = new LinkedHashMap<>();
+
+        MultiDbLog.info("\n========================================");
+        MultiDbLog.info("开始多数据库压测: " + profile);
+        MultiDbLog.info("========================================");
+
+        try {
+            for (DatabaseType dbType : config.getConfiguredTypes()) {
+                testWithDatabase(dbType, config, dbInfo -> {
+                    LoadTestResult result = LoadTestExecutor.run(dbInfo, profile, testLogic,
+                            switchableDataSource::getActiveConnections);
+                    results.put(dbType, result);
+                    MultiDbLog.info("压测结果 " + result);
+                }, switchableDataSource, false, testClass, profile, null);
+            }
+        } finally {
+            Lifecycle.runFinished(testClass, config.getLifecycleListeners());
+        }
+
+        MultiDbLog.info("\n========================================");
+        for (LoadTestResult result : results.values()) {
+            MultiDbLog.info(result.toString());
+        }
+        MultiDbLog.info("========================================");
+        return results;
+    }
+
+    /**
+     * 在所有配置的数据库上执行同一个查询并比较结果
+     * 以第一个配置的数据库为基准，依次与其他数据库比较。两边的结果都流式读取，
+     * 内存占用与结果行数无关，适合比较百万行以上的结果
+     * 
+     * @param config  数据库测试配置，至少包含两种数据库
+     * @param sql     查询语句
+     * @param options 比较选项
+     * @return 基准数据库与其他每个数据库的比较结果
+     */
+    public static List<ResultDiff> compareQuery(DatabaseTestConfig config, String sql, ResultDiffOptions options) {
+        DatabaseType[] dbTypes = config.getConfiguredTypes();
+        if (dbTypes.length < 2) {
+            throw new IllegalArgumentException("比较查询结果至少需要配置两种数据库");
+        }
+        // 比较时所有数据库需要同时运行；不复用容器时使用临时注册表，结束后全部关闭
+        boolean reuse = config.isContainerReuse();
+        ContainerRegistry registry = reuse ? ContainerRegistry.getInstance()
+                : new ContainerRegistry(DatabaseHandlerFactory::createHandler);
+        List<ContainerRegistry.Entry> entries = new ArrayList<>();
+        List<String> stateKeys = new ArrayList<>();
+
+        MultiDbLog.info("\n========================================");
+        MultiDbLog.info("比较查询结果: " + sql);
+        MultiDbLog.info("========================================");
+
+        try {
+            for (DatabaseType dbType : dbTypes) {
+                DatabasePreparation preparation = new DatabasePreparation(dbType, config);
+                ContainerRegistry.Entry entry = registry.acquire(dbType, config.getDockerImage(dbType),
+                        preparation::configure);
+                entries.add(entry);
+                stateKeys.add(preparation.prepare(entry.getHandler(), entry.getDatabaseInfo(), reuse ? entry : null));
+            }
+
+            List<ResultDiff> diffs = new ArrayList<>();
+            for (int i = 1; i < entries.size(); i++) {
+                ResultDiff diff = compareOn(entries.get(0), entries.get(i), sql, options);
+                diffs.add(diff);
+                MultiDbLog.info(diff.toString());
+            }
+            if (reuse) {
+                // 查询不修改数据，下一个测试无需恢复快照
+                for (int i = 0; i < entries.size(); i++) {
+                    entries.get(i).markClean(stateKeys.get(i));
+                }
+            }
+            return diffs;
+        } catch (Exception e) {
+            MultiDbLog.error("比较查询结果失败: " + e.getMessage(), e);
+            throw new RuntimeException("Query comparison failed: " + sql, e);
+        } finally {
+            for (ContainerRegistry.Entry entry : entries) {
+                registry.release(entry);
+            }
+            if (!reuse) {
+                registry.stopAll();
+            }
+        }
+    }
+
+    /**
+     * 使用默认选项（无序比较）在所有配置的数据库上比较查询结果
+     * 
+     * @param config 数据库测试配置，至少包含两种数据库
+     * @param sql    查询语句
+     * @return 基准数据库与其他每个数据库的比较结果
+     */
+    public static List<ResultDiff> compareQuery(DatabaseTestConfig config, String sql) {
+        return compareQuery(config, sql, ResultDiffOptions.create());
+    }
+
+    /**
+     * 在两个数据库上分别流式执行查询并比较
+     */
+    private static ResultDiff compareOn(ContainerRegistry.Entry left, ContainerRegistry.Entry right, String sql,
+            ResultDiffOptions options) throws Exception {
+        DatabaseInfo leftInfo = left.getDatabaseInfo();
+        DatabaseInfo rightInfo = right.getDatabaseInfo();
+        try (Connection leftConnection = DriverManager.getConnection(
+                leftInfo.getJdbcUrl(), leftInfo.getUsername(), leftInfo.getPassword());
+                Connection rightConnection = DriverManager.getConnection(
+                        rightInfo.getJdbcUrl(), rightInfo.getUsername(), rightInfo.getPassword());
+                Statement leftStatement = left.getHandler().createStreamingStatement(
+                        leftConnection, options.getFetchSize());
+                Statement rightStatement = right.getHandler().createStreamingStatement(
+                        rightConnection, options.getFetchSize());
+                ResultSet leftResult = leftStatement.executeQuery(sql);
+                ResultSet rightResult = rightStatement.executeQuery(sql)) {
+            return ResultSetComparator.compare(leftInfo.getName(), leftResult, rightInfo.getName(), rightResult,
+                    options);
+        }
+    }
+
+    /**
+     * 以流水线方式依次执行测试
+     * 当前数据库执行测试时，下一个数据库在后台启动并等待就绪；用完的容器在后台关闭，
+     * 总耗时接近最长的启动时间加上所有测试逻辑的时间
+     * 
+     * @param config               数据库测试配置
+     * @param testLogic            测试逻辑
+     * @param switchableDataSource 可切换数据源
+     * @param testClass            发起测试的类名
+     */
+    private static void runPipelined(DatabaseTestConfig config, DatabaseTestLogic testLogic,
+            SwitchableDataSource switchableDataSource, String testClass) {
+        DatabaseType[] dbTypes = config.getConfiguredTypes();
+        try (StartupPipeline pipeline = new StartupPipeline(config, testClass)) {
+            if (dbTypes.length > 0) {
+                pipeline.prestart(dbTypes[0]);
+            }
+            for (int i = 0; i < dbTypes.length; i++) {
+                if (i + 1 < dbTypes.length) {
+                    pipeline.prestart(dbTypes[i + 1]);
+                }
+                testWithDatabase(dbTypes[i], config, testLogic, switchableDataSource, false, testClass, null,
+                        pipeline);
+            }
+        }
+    }
+
+    /**
+     * 在所有配置的数据库上并行执行测试
+     * 每个数据库在独立线程上启动和测试，数据源绑定到该线程，所有失败汇总后统一抛出
+     * 
+     * @param config               数据库测试配置
+     * @param testLogic            测试逻辑
+     * @param switchableDataSource 可切换数据源
+     * @param testClass            发起测试的类名
+     */
+    private static void runInParallel(DatabaseTestConfig config, DatabaseTestLogic testLogic,
+            SwitchableDataSource switchableDataSource, String testClass) {
+        DatabaseType[] dbTypes = config.getConfiguredTypes();
+        if (dbTypes.length == 0) {
+            return;
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(dbTypes.length, runnable -> {
+            Thread thread = new Thread(runnable, "multidb-test-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Map<DatabaseType, Future<?>> futures = new LinkedHashMap<>();
+        try {
+            for (DatabaseType dbType : dbTypes) {
+                futures.put(dbType, executor.submit(
+                        () -> testWithDatabase(dbType, config, testLogic, switchableDataSource, true, testClass,
+                                null, null)));
+            }
+
+            Map<DatabaseType, Throwable> failures = new LinkedHashMap<>();
+            for (Map.Entry<DatabaseType, Future<?>> future : futures.entrySet()) {
+                try {
+                    future.getValue().get();
+                } catch (ExecutionException e) {
+                    // testWithDatabase 已经包装过一层，这里取出原始异常
+                    Throwable failure = e.getCause();
+                    failures.put(future.getKey(), failure.getCause() != null ? failure.getCause() : failure);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for database tests", e);
+                }
+            }
+
+            if (!failures.isEmpty()) {
+                throw new MultiDbTestException(failures);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     /**
      * 使用指定数据库执行测试
+     * 各阶段的耗时通过 {@link Lifecycle} 通知监听器
      * 
      * @param dbType               数据库类型
-     * @param initScript           初始化脚本
+     * @param config               数据库测试配置
      * @param testLogic            测试逻辑
      * @param switchableDataSource 可切换数据源
+     * @param threadBound          是否将数据源绑定到当前线程（并行执行时使用）
+     * @param testClass            发起测试的类名
+     * @param loadProfile          压测配置，普通测试为 null
+     * @param pipeline             流水线模式下提前启动容器并在后台关闭容器，其他模式为 null
      */
-    private static void testWithDatabase(DatabaseType dbType, String initScript,
+    private static void testWithDatabase(DatabaseType dbType, DatabaseTestConfig config,
             DatabaseTestLogic testLogic,
-            SwitchableDataSource switchableDataSource) {
+            SwitchableDataSource switchableDataSource,
+            boolean threadBound,
+            String testClass,
+            LoadProfile loadProfile,
+            StartupPipeline pipeline) {
+
+        StartedDatabase started = null;
+        boolean published = false;
 
-        DatabaseHandler handler = DatabaseHandlerFactory.createHandler(dbType);
+        Lifecycle.Context previousContext = Lifecycle.enter(testClass, dbType, config.getLifecycleListeners());
+        long totalStart = Lifecycle.start();
+        Throwable failure = null;
+        Phase phase = Phase.CONTAINER_START;
+        long phaseStart = Lifecycle.start();
 
         try {
-            // 启动数据库容器
-            DatabaseInfo dbInfo = handler.startContainer();
+            // 启动数据库容器（复用模式下从注册表获取已启动的容器；流水线模式下只计入等待后台启动的时间）
+            started = pipeline != null ? pipeline.take(dbType) : startDatabase(dbType, config);
+            ContainerRegistry.Entry entry = started.entry;
+            DatabaseHandler handler = started.handler;
+            DatabaseInfo dbInfo = started.dbInfo;
+            Lifecycle.end(phase, phaseStart);
+            phase = null;
+
+            String stateKey = started.preparation.prepare(handler, dbInfo, entry);
 
-            // 执行初始化脚本
-            if (initScript != null && !initScript.trim().isEmpty()) {
-                handler.executeInitScript(dbInfo, initScript);
+            // 切换Spring数据源（连接池预热完成后才发布）
+            phase = Phase.DATASOURCE_SWITCH;
+            phaseStart = Lifecycle.start();
+            PoolSettings poolSettings = config.getPoolSettings(dbType);
+            if (poolSettings == null) {
+                poolSettings = handler.getDefaultPoolSettings();
+            }
+            if (loadProfile != null) {
+                // 压测前把连接池扩大到并发数并全部预热，避免把建立连接计入延迟
+                int concurrency = loadProfile.getConcurrency();
+                poolSettings = poolSettings.copy()
+                        .withMaximumPoolSize(Math.max(poolSettings.getMaximumPoolSize(), concurrency))
+                        .withMinimumIdle(concurrency);
+            }
+            if (threadBound) {
+                switchableDataSource.bindToCurrentThread(dbInfo, poolSettings);
+            } else {
+                switchableDataSource.switchTo(dbInfo, poolSettings);
             }
+            published = true;
+            Lifecycle.end(phase, phaseStart);
 
-            // 切换Spring数据源
-            switchableDataSource.switchTo(
-                    dbInfo.getJdbcUrl(),
-                    dbInfo.getUsername(),
-                    dbInfo.getPassword(),
-                    dbInfo.getDriverClassName());
+            phase = null;
 
             // 执行测试逻辑
-            testLogic.test(dbInfo);
+            if (loadProfile != null) {
+                phase = Phase.TEST_LOGIC;
+                phaseStart = Lifecycle.start();
+                testLogic.test(dbInfo);
+                Lifecycle.end(phase, phaseStart);
+                phase = null;
+            } else {
+                runTestLogic(testLogic, dbInfo, handler, config, switchableDataSource, entry, stateKey, testClass);
+            }
 
-            System.out.println("数据库 " + dbInfo.getName() + " 测试完成 ✓");
+            MultiDbLog.info("数据库 " + dbInfo.getName() + " 测试完成 ✓");
 
         } catch (Exception e) {
-            System.err.println("数据库 " + dbType.getDisplayName() + " 测试失败: " + e.getMessage());
-            e.printStackTrace();
+            failure = e;
+            if (phase != null) {
+                Lifecycle.end(phase, phaseStart, e);
+            }
+            MultiDbLog.error("数据库 " + dbType.getDisplayName() + " 测试失败: " + e.getMessage(), e);
             throw new RuntimeException(dbType.getDisplayName() + " test failed", e);
         } finally {
-            // 关闭数据库容器
+            long teardownStart = Lifecycle.start();
+            if (threadBound) {
+                switchableDataSource.unbindCurrentThread();
+            }
+            if (started != null) {
+                // 连接池在借出的连接归还后关闭，然后归还或关闭数据库容器
+                if (published && started.entry == null) {
+                    switchableDataSource.retire(started.dbInfo);
+                }
+                if (pipeline != null) {
+                    pipeline.stopLater(started);
+                } else {
+                    started.stop();
+                }
+            }
+            Lifecycle.end(Phase.TEARDOWN, teardownStart);
+            Lifecycle.end(Phase.TOTAL, totalStart, failure);
+            Lifecycle.exit(previousContext);
+        }
+    }
+
+    /**
+     * 在 {@link TestExecution} 范围内执行测试逻辑，测试失败时回滚等收尾操作的异常作为被抑制的异常附加
+     */
+    private static void runTestLogic(DatabaseTestLogic testLogic, DatabaseInfo dbInfo, DatabaseHandler handler,
+            DatabaseTestConfig config, SwitchableDataSource switchableDataSource, ContainerRegistry.Entry entry,
+            String stateKey, String testClass) throws Exception {
+        TestExecution execution = TestExecution.begin(dbInfo, handler, config, switchableDataSource, entry, stateKey,
+                testClass);
+        Exception failure = null;
+        execution.openScope();
+        long start = Lifecycle.start();
+        try {
+            testLogic.test(dbInfo);
+            Lifecycle.end(Phase.TEST_LOGIC, start);
+        } catch (Exception e) {
+            Lifecycle.end(Phase.TEST_LOGIC, start, e);
+            failure = e;
+        } finally {
+            execution.closeScope();
+        }
+
+        try {
+            execution.finish(failure == null);
+        } catch (Exception e) {
+            if (failure != null) {
+                failure.addSuppressed(e);
+            } else {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 从调用栈中找到调用执行器的测试类，用于按测试类汇总生命周期事件
+     */
+    private static String resolveTestClass() {
+        String runnerClass = MultiDbTestRunner.class.getName();
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (!element.getClassName().startsWith(runnerClass)) {
+                return element.getClassName();
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * 启动数据库容器，复用模式下从注册表获取已启动的容器
+     * 
+     * @param dbType 数据库类型
+     * @param config 数据库测试配置
+     * @return 已启动的数据库
+     * @throws Exception 启动失败时抛出异常，已创建的容器会被关闭
+     */
+    private static StartedDatabase startDatabase(DatabaseType dbType, DatabaseTestConfig config) throws Exception {
+        String dockerImage = config.getDockerImage(dbType);
+        if (config.isContainerReuse()) {
+            ContainerRegistry registry = ContainerRegistry.getInstance();
+            DatabasePreparation preparation = new DatabasePreparation(dbType, config);
+            ContainerRegistry.Entry entry = registry.acquire(dbType, dockerImage, preparation::configure);
+            return new StartedDatabase(registry, entry, entry.getHandler(), entry.getDatabaseInfo(), preparation,
+                    null);
+        }
+
+        DatabaseHandler handler = DatabaseHandlerFactory.createHandler(dbType, dockerImage);
+        DatabasePreparation preparation = new DatabasePreparation(dbType, config);
+        preparation.configure(handler);
+        ResourceScheduler.Lease lease = ResourceScheduler.shared().acquire(dbType, handler);
+        try {
+            return new StartedDatabase(null, null, handler, handler.startContainer(), preparation, lease);
+        } catch (Exception e) {
             handler.stopContainer();
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 已启动的数据库
+     */
+    private static final class StartedDatabase {
+
+        private final ContainerRegistry registry;
+        private final ContainerRegistry.Entry entry;
+        private final DatabaseHandler handler;
+        private final DatabaseInfo dbInfo;
+        private final DatabasePreparation preparation;
+        private final ResourceScheduler.Lease lease;
+
+        StartedDatabase(ContainerRegistry registry, ContainerRegistry.Entry entry, DatabaseHandler handler,
+                DatabaseInfo dbInfo, DatabasePreparation preparation, ResourceScheduler.Lease lease) {
+            this.registry = registry;
+            this.entry = entry;
+            this.handler = handler;
+            this.dbInfo = dbInfo;
+            this.preparation = preparation;
+            this.lease = lease;
+        }
+
+        /**
+         * 归还容器（由注册表在JVM退出时统一关闭），或者关闭数据库容器并归还资源配额
+         */
+        void stop() {
+            if (entry != null) {
+                registry.release(entry);
+            } else {
+                try {
+                    handler.stopContainer();
+                } finally {
+                    lease.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * 流水线模式的后台启动和关闭
+     * 启动在后台线程上执行，就绪等待等阶段仍记录在对应数据库名下；
+     * 关闭时取消尚未使用的启动，并等待所有后台关闭完成
+     */
+    private static final class StartupPipeline implements AutoCloseable {
+
+        private final DatabaseTestConfig config;
+        private final String testClass;
+        private final ExecutorService executor;
+        private final Map<DatabaseType, Future<StartedDatabase>> pending = new LinkedHashMap<>();
+
+        StartupPipeline(DatabaseTestConfig config, String testClass) {
+            this.config = config;
+            this.testClass = testClass;
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "multidb-pipeline-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        /**
+         * 在后台启动数据库
+         */
+        void prestart(DatabaseType dbType) {
+            pending.put(dbType, executor.submit(() -> {
+                Lifecycle.Context previous = Lifecycle.enter(testClass, dbType, config.getLifecycleListeners());
+                try {
+                    MultiDbLog.info("后台启动 " + dbType.getDisplayName());
+                    return startDatabase(dbType, config);
+                } finally {
+                    Lifecycle.exit(previous);
+                }
+            }));
+        }
+
+        /**
+         * 等待后台启动完成，没有提前启动时在当前线程启动
+         */
+        StartedDatabase take(DatabaseType dbType) throws Exception {
+            Future<StartedDatabase> future = pending.remove(dbType);
+            if (future == null) {
+                return startDatabase(dbType, config);
+            }
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+
+        /**
+         * 在后台归还或关闭数据库
+         */
+        void stopLater(StartedDatabase started) {
+            executor.execute(started::stop);
+        }
+
+        @Override
+        public void close() {
+            // 测试失败时已经提前启动的容器不会再被使用，启动完成后直接关闭
+            for (Future<StartedDatabase> future : pending.values()) {
+                executor.execute(() -> {
+                    try {
+                        future.get().stop();
+                    } catch (Exception e) {
+                        // 启动失败时没有需要关闭的容器
+                    }
+                });
+            }
+            pending.clear();
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+                    MultiDbLog.error("等待后台关闭容器超时");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.brianxiadong.test.db;
+
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.plan.PlanCapture;
+import com.brianxiadong.test.db.plan.PlanReport;
+import com.brianxiadong.test.db.profile.SqlProfileReport;
+import com.brianxiadong.test.db.profile.SqlProfiler;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 一个测试类的 SQL 分析和执行计划收集
+ * {@link MultiDbTestRunner} 在一次运行前后、JUnit 扩展在测试类前后使用，
+ * 结束时输出报告并写入报告目录（默认 build/multidb-reports）
+ */
+public final class ProfilingSession {
+
+    private final DatabaseTestConfig config;
+    private final String testClass;
+    private final SqlProfiler profiler;
+
+    private ProfilingSession(DatabaseTestConfig config, String testClass, SqlProfiler profiler) {
+        this.config = config;
+        this.testClass = testClass;
+        this.profiler = profiler;
+    }
+
+    /**
+     * 按配置开启 SQL 分析，收集执行计划同样需要分析器记录执行过的语句
+     *
+     * @param config               数据库测试配置
+     * @param switchableDataSource 数据源
+     * @param testClass            测试类名
+     * @return 分析会话，未开启时结束也不会输出报告
+     */
+    public static ProfilingSession start(DatabaseTestConfig config, SwitchableDataSource switchableDataSource,
+            String testClass) {
+        SqlProfiler profiler = config.isSqlProfiling() || config.isPlanCapture()
+                ? switchableDataSource.getSqlProfiler()
+                : null;
+        if (profiler != null) {
+            profiler.enable();
+        }
+        return new ProfilingSession(config, testClass, profiler);
+    }
+
+    /**
+     * 结束 SQL 分析和执行计划收集，输出报告
+     *
+     * @return 执行计划报告，未开启或读写基线失败时返回 null
+     */
+    public PlanReport finish() {
+        finishProfiling();
+        return finishPlanCapture();
+    }
+
+    private void finishProfiling() {
+        if (profiler == null) {
+            return;
+        }
+        profiler.disable();
+        SqlProfileReport report = profiler.takeReport(testClass);
+        if (report.isEmpty() || !config.isSqlProfiling()) {
+            return;
+        }
+        report.log(20);
+        try {
+            File file = report.writeTo(reportDirectory());
+            MultiDbLog.info("SQL 分析报告已写入: " + file.getPath());
+        } catch (IOException e) {
+            MultiDbLog.error("写入 SQL 分析报告失败: " + e.getMessage());
+        }
+    }
+
+    private PlanReport finishPlanCapture() {
+        if (!config.isPlanCapture()) {
+            return null;
+        }
+        try {
+            PlanReport report = PlanCapture.shared().finish(testClass);
+            if (report.isEmpty()) {
+                return report;
+            }
+            report.log();
+            File file = report.writeTo(reportDirectory());
+            MultiDbLog.info("执行计划报告已写入: " + file.getPath());
+            return report;
+        } catch (IOException e) {
+            MultiDbLog.error("处理执行计划报告失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static File reportDirectory() {
+        return new File(System.getProperty("multidb.report.dir", "build/multidb-reports"));
+    }
+}
\ No newline at end of file
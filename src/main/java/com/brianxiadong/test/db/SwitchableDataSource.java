@@ -1,5 +1,11 @@
 package com.brianxiadong.test.db;
 
+import com.brianxiadong.test.db.jdbc.DirtyTableTracker;
+import com.brianxiadong.test.db.jdbc.PinnedTransaction;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.pool.DataSourceCache;
+import com.brianxiadong.test.db.pool.PoolSettings;
+import com.brianxiadong.test.db.profile.SqlProfiler;
 import com.zaxxer.hikari.HikariDataSource;
 
 import javax.sql.DataSource;
@@ -7,40 +13,195 @@ import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.Locale;
 import java.util.logging.Logger;
 
 /**
  * 可动态切换的数据源包装器
- * 在测试运行时动态切换底层数据源
+ * 在测试运行时动态切换底层数据源。
+ * 绑定到当前线程的数据源优先于全局数据源，用于多个数据库并行测试。
+ * 底层连接池按连接信息缓存，切换时不会关闭仍在使用的连接池。
+ * SQL 分析器开启时返回的连接会被包装，用于统计执行的语句；
+ * 正在记录写入的表时（见 {@link DirtyTableTracker}）返回的连接也会被包装
  */
 public class SwitchableDataSource implements DataSource {
 
+    private final DataSourceCache pools = new DataSourceCache();
+
     private volatile DataSource currentDataSource;
 
+    private final ThreadLocal<DataSource> threadDataSource = new ThreadLocal<>();
+
+    private final ThreadLocal<PinnedTransaction> pinnedTransaction = new ThreadLocal<>();
+
+    private volatile SqlProfiler sqlProfiler = SqlProfiler.shared();
+
     /**
      * 切换到新的数据源
      */
     public void switchTo(String jdbcUrl, String username, String password, String driverClassName) {
-        // 关闭旧的数据源
-        if (currentDataSource instanceof HikariDataSource) {
-            ((HikariDataSource) currentDataSource).close();
+        this.currentDataSource = pools.acquire("multidb", jdbcUrl, username, password, driverClassName,
+                PoolSettings.create());
+
+        MultiDbLog.info("数据源已切换到: " + jdbcUrl);
+    }
+
+    /**
+     * 按连接池设置切换到指定数据库
+     * 连接池预热完成后才会发布，之前的连接池保留在缓存中，下次切换回来时直接使用
+     * 
+     * @param dbInfo   数据库连接信息
+     * @param settings 连接池设置
+     */
+    public void switchTo(DatabaseInfo dbInfo, PoolSettings settings) {
+        this.currentDataSource = acquire(dbInfo, settings);
+
+        MultiDbLog.info("数据源已切换到: " + dbInfo.getJdbcUrl());
+    }
+
+    /**
+     * 为当前线程绑定数据源
+     * 当前线程上的连接请求会路由到该数据源，其他线程不受影响
+     */
+    public void bindToCurrentThread(String jdbcUrl, String username, String password, String driverClassName) {
+        threadDataSource.set(pools.acquire("multidb", jdbcUrl, username, password, driverClassName,
+                PoolSettings.create()));
+
+        MultiDbLog.info("数据源已绑定到线程 " + Thread.currentThread().getName() + ": " + jdbcUrl);
+    }
+
+    /**
+     * 按连接池设置为当前线程绑定数据源
+     * 
+     * @param dbInfo   数据库连接信息
+     * @param settings 连接池设置
+     */
+    public void bindToCurrentThread(DatabaseInfo dbInfo, PoolSettings settings) {
+        threadDataSource.set(acquire(dbInfo, settings));
+
+        MultiDbLog.info("数据源已绑定到线程 " + Thread.currentThread().getName() + ": " + dbInfo.getJdbcUrl());
+    }
+
+    /**
+     * 解除当前线程绑定的数据源，连接池保留在缓存中
+     */
+    public void unbindCurrentThread() {
+        threadDataSource.remove();
+    }
+
+    /**
+     * 在当前线程上开启固定连接的测试事务
+     * 之后当前线程从本数据源获取的都是同一个连接，Spring 事务同步也会使用该连接
+     * 
+     * @return 测试事务
+     * @throws SQLException 获取连接失败时抛出异常
+     */
+    public PinnedTransaction beginPinnedTransaction() throws SQLException {
+        if (pinnedTransaction.get() != null) {
+            throw new IllegalStateException("当前线程已经开启了测试事务");
+        }
+        PinnedTransaction transaction = PinnedTransaction.begin(getCurrentDataSource(), this);
+        pinnedTransaction.set(transaction);
+        return transaction;
+    }
+
+    /**
+     * 回滚并结束当前线程的测试事务
+     * 
+     * @return 已结束的测试事务，没有开启时返回 null
+     * @throws SQLException 回滚失败时抛出异常
+     */
+    public PinnedTransaction rollbackPinnedTransaction() throws SQLException {
+        PinnedTransaction transaction = pinnedTransaction.get();
+        pinnedTransaction.remove();
+        if (transaction != null) {
+            transaction.rollback();
         }
+        return transaction;
+    }
 
-        // 创建新的数据源
-        HikariDataSource newDataSource = new HikariDataSource();
-        newDataSource.setJdbcUrl(jdbcUrl);
-        newDataSource.setUsername(username);
-        newDataSource.setPassword(password);
-        newDataSource.setDriverClassName(driverClassName);
-        newDataSource.setMaximumPoolSize(5);
-        newDataSource.setMinimumIdle(1);
+    /**
+     * 数据库即将关闭时让对应的连接池退役
+     * 借出的连接归还后连接池才会关闭；当前数据源指向该连接池时同时清除
+     * 
+     * @param dbInfo 数据库连接信息
+     */
+    public void retire(DatabaseInfo dbInfo) {
+        DataSource current = currentDataSource;
+        if (current instanceof HikariDataSource
+                && dbInfo.getJdbcUrl().equals(((HikariDataSource) current).getJdbcUrl())) {
+            currentDataSource = null;
+        }
+        pools.retire(dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword(), dbInfo.getDriverClassName());
+    }
 
-        this.currentDataSource = newDataSource;
+    /**
+     * 获取当前数据源借出的连接数
+     * 
+     * @return 借出的连接数，当前数据源不是连接池时返回 -1
+     */
+    public int getActiveConnections() {
+        DataSource dataSource = threadDataSource.get();
+        if (dataSource == null) {
+            dataSource = currentDataSource;
+        }
+        if (dataSource instanceof HikariDataSource) {
+            HikariDataSource hikari = (HikariDataSource) dataSource;
+            if (!hikari.isClosed() && hikari.getHikariPoolMXBean() != null) {
+                return hikari.getHikariPoolMXBean().getActiveConnections();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 设置 SQL 分析器，分析器开启时返回的连接会被包装
+     * 
+     * @param sqlProfiler SQL 分析器
+     */
+    public void setSqlProfiler(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
 
-        System.out.println("数据源已切换到: " + jdbcUrl);
+    /**
+     * 获取 SQL 分析器
+     * 
+     * @return SQL 分析器
+     */
+    public SqlProfiler getSqlProfiler() {
+        return sqlProfiler;
+    }
+
+    /**
+     * 获取连接池缓存
+     * 
+     * @return 连接池缓存
+     */
+    public DataSourceCache getDataSourceCache() {
+        return pools;
+    }
+
+    /**
+     * 获取当前线程生效的底层数据源，绑定到当前线程的数据源优先
+     * 返回的数据源不经过 SQL 分析器和测试事务，适合在其他线程上批量写入
+     * 
+     * @return 底层数据源
+     */
+    public DataSource getActiveDataSource() {
+        return getCurrentDataSource();
+    }
+
+    private DataSource acquire(DatabaseInfo dbInfo, PoolSettings settings) {
+        return pools.acquire("multidb-" + dbInfo.getType().name().toLowerCase(Locale.ROOT),
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword(), dbInfo.getDriverClassName(),
+                settings);
     }
 
     private DataSource getCurrentDataSource() {
+        DataSource boundDataSource = threadDataSource.get();
+        if (boundDataSource != null) {
+            return boundDataSource;
+        }
         if (currentDataSource == null) {
             throw new IllegalStateException("No data source configured. Call switchTo() first.");
         }
@@ -49,12 +210,32 @@ public class SwitchableDataSource implements DataSource {
 
     @Override
     public Connection getConnection() throws SQLException {
-        return getCurrentDataSource().getConnection();
+        PinnedTransaction transaction = pinnedTransaction.get();
+        DataSource dataSource = getCurrentDataSource();
+        Connection connection = transaction != null
+                ? transaction.getConnection()
+                : dataSource.getConnection();
+        return profile(track(dataSource, connection));
     }
 
     @Override
     public Connection getConnection(String username, String password) throws SQLException {
-        return getCurrentDataSource().getConnection(username, password);
+        DataSource dataSource = getCurrentDataSource();
+        return profile(track(dataSource, dataSource.getConnection(username, password)));
+    }
+
+    /**
+     * 正在记录该数据库的写入时为连接套上记录代理
+     */
+    private Connection track(DataSource dataSource, Connection connection) {
+        return dataSource instanceof HikariDataSource
+                ? DirtyTableTracker.shared().wrap(((HikariDataSource) dataSource).getJdbcUrl(), connection)
+                : connection;
+    }
+
+    private Connection profile(Connection connection) {
+        SqlProfiler profiler = sqlProfiler;
+        return profiler != null && profiler.isActive() ? profiler.wrap(connection) : connection;
     }
 
     @Override
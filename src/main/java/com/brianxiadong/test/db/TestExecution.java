@@ -0,0 +1,148 @@
+package com.brianxiadong.test.db;
+
+import com.brianxiadong.test.db.handler.ContainerRegistry;
+import com.brianxiadong.test.db.handler.DatabaseHandler;
+import com.brianxiadong.test.db.jdbc.PinnedTransaction;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.lifecycle.Phase;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.plan.PlanCapture;
+import com.brianxiadong.test.db.profile.SqlProfiler;
+
+import java.sql.SQLException;
+
+/**
+ * 在一个数据库上执行一次测试逻辑的范围
+ * {@link MultiDbTestRunner} 和 JUnit 扩展共用：事务回滚模式下在固定连接的事务中执行并在结束后回滚；
+ * 开启 SQL 分析时测试逻辑执行的语句计入本次测试的 N+1 检测；
+ * 收集执行计划时，测试逻辑成功后对执行过的语句取执行计划；
+ * 复用容器并开启写入记录时，下一次测试前只恢复本次写入过的表
+ */
+public final class TestExecution {
+
+    private final DatabaseInfo dbInfo;
+    private final DatabaseHandler handler;
+    private final DatabaseTestConfig config;
+    private final SwitchableDataSource switchableDataSource;
+    private final ContainerRegistry.Entry entry;
+    private final String stateKey;
+    private final String testClass;
+    private final boolean rollback;
+    private final boolean tracking;
+    private final SqlProfiler profiler;
+    private SqlProfiler.Scope scope;
+    private boolean profiled;
+
+    private TestExecution(DatabaseInfo dbInfo, DatabaseHandler handler, DatabaseTestConfig config,
+            SwitchableDataSource switchableDataSource, ContainerRegistry.Entry entry, String stateKey,
+            String testClass) {
+        this.dbInfo = dbInfo;
+        this.handler = handler;
+        this.config = config;
+        this.switchableDataSource = switchableDataSource;
+        this.entry = entry;
+        this.stateKey = stateKey;
+        this.testClass = testClass;
+        this.rollback = config.getIsolationMode() == IsolationMode.TRANSACTION_ROLLBACK;
+        this.tracking = entry != null && config.isDirtyTableTracking();
+        this.profiler = config.isSqlProfiling() || config.isPlanCapture()
+                ? switchableDataSource.getSqlProfiler()
+                : null;
+    }
+
+    /**
+     * 开始一次测试：开启写入记录，事务回滚模式下在当前线程上开启固定连接的事务
+     *
+     * @param dbInfo               数据库连接信息
+     * @param handler              数据库处理器
+     * @param config               数据库测试配置
+     * @param switchableDataSource 已经绑定到该数据库的数据源
+     * @param entry                复用模式下的容器条目，否则为 null
+     * @param stateKey             初始化内容的标识
+     * @param testClass            发起测试的类名
+     * @return 测试范围，结束时必须调用 {@link #finish(boolean)}
+     * @throws SQLException 开启事务失败时抛出异常
+     */
+    public static TestExecution begin(DatabaseInfo dbInfo, DatabaseHandler handler, DatabaseTestConfig config,
+            SwitchableDataSource switchableDataSource, ContainerRegistry.Entry entry, String stateKey,
+            String testClass) throws SQLException {
+        TestExecution execution = new TestExecution(dbInfo, handler, config, switchableDataSource, entry, stateKey,
+                testClass);
+        if (execution.tracking) {
+            entry.beginWriteTracking();
+        }
+        if (execution.rollback) {
+            switchableDataSource.beginPinnedTransaction();
+        }
+        return execution;
+    }
+
+    /**
+     * 测试逻辑开始执行前在当前线程上打开 SQL 分析范围
+     */
+    public void openScope() {
+        if (profiler != null && scope == null) {
+            scope = profiler.openScope(testClass, dbInfo.getType(), config.isPlanCapture());
+        }
+    }
+
+    /**
+     * 测试逻辑执行结束后关闭 SQL 分析范围，需要在 {@link #openScope()} 的同一个线程上调用
+     */
+    public void closeScope() {
+        if (scope != null && !profiled) {
+            profiler.closeScope(scope);
+            profiled = true;
+        }
+    }
+
+    /**
+     * 结束测试：回滚测试事务，测试成功时对执行过的语句取执行计划，输出本次写入的表
+     *
+     * @param succeeded 测试逻辑是否成功
+     * @throws Exception 回滚或取执行计划失败时抛出异常
+     */
+    public void finish(boolean succeeded) throws Exception {
+        closeScope();
+        try {
+            if (rollback) {
+                rollbackTestTransaction();
+            }
+            if (succeeded && scope != null && config.isPlanCapture()) {
+                // 测试事务回滚后再取计划，EXPLAIN 不会等待测试持有的锁
+                long start = Lifecycle.start();
+                PlanCapture.shared().explain(testClass, dbInfo, handler.getPlanExplainer(), scope.getPlanSamples());
+                Lifecycle.end(Phase.PLAN_CAPTURE, start);
+            }
+        } finally {
+            if (tracking) {
+                MultiDbLog.info("本次测试" + entry.endWriteTracking(stateKey));
+            }
+        }
+    }
+
+    /**
+     * 回滚测试事务
+     * 复用的容器在完整回滚后标记为干净状态，下一次测试无需恢复；
+     * 执行过不能回滚的语句时从快照恢复或清空表
+     */
+    private void rollbackTestTransaction() throws Exception {
+        long start = Lifecycle.start();
+        try {
+            PinnedTransaction transaction = switchableDataSource.rollbackPinnedTransaction();
+            if (transaction != null && transaction.isNonRollbackable()) {
+                MultiDbLog.error("测试执行了 " + transaction.getNonTransactionalStatements().size()
+                        + " 条不能回滚的语句，回滚后的状态不完整: " + transaction.getNonTransactionalStatements());
+                if (entry != null) {
+                    entry.recoverAfterRollback(stateKey);
+                }
+            } else if (entry != null) {
+                entry.markClean(stateKey);
+            }
+            Lifecycle.end(Phase.ROLLBACK, start);
+        } catch (Exception e) {
+            Lifecycle.end(Phase.ROLLBACK, start, e);
+            throw e;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.brianxiadong.test.db.datagen;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * 单元格级别的确定性随机数
+ * 每个单元格的随机序列只由种子、表名、列名和行号决定，与生成顺序、并行度和数据库无关，
+ * 同一种子在任何数据库上都生成相同的数据。算法为 SplitMix64
+ */
+public final class CellRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    CellRandom() {
+    }
+
+    /**
+     * 定位到指定单元格
+     */
+    CellRandom reset(long cellSeed) {
+        this.state = cellSeed;
+        return this;
+    }
+
+    /**
+     * 计算单元格的种子
+     *
+     * @param seed      全局种子
+     * @param tableKey  {@link #key(String)} 计算的表名
+     * @param columnKey {@link #key(String)} 计算的列名
+     * @param row       行号，从 0 开始
+     * @return 单元格种子
+     */
+    static long cellSeed(long seed, long tableKey, long columnKey, long row) {
+        long h = mix(seed ^ tableKey);
+        h = mix(h ^ columnKey);
+        return mix(h + row * GOLDEN_GAMMA);
+    }
+
+    /**
+     * 名称的 64 位哈希（FNV-1a），不区分大小写，避免不同数据库返回的元数据大小写不同
+     */
+    static long key(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * 返回 [0, bound) 内的随机数
+     */
+    public long nextLong(long bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        return Math.floorMod(nextLong(), bound);
+    }
+
+    /**
+     * 返回 [min, max] 内的随机数
+     */
+    public long nextLong(long min, long max) {
+        if (min > max) {
+            throw new IllegalArgumentException("min > max: " + min + " > " + max);
+        }
+        long span = max - min + 1;
+        if (span > 0) {
+            return min + nextLong(span);
+        }
+        // 范围超过 long 的一半，直接拒绝采样，接受概率不低于 50%
+        long value;
+        do {
+            value = nextLong();
+        } while (value < min || value > max);
+        return value;
+    }
+
+    public int nextInt(int bound) {
+        return (int) nextLong(bound);
+    }
+
+    /**
+     * 返回 [0, 1) 内的随机数
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+}
\ No newline at end of file
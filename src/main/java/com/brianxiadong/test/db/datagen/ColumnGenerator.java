@@ -0,0 +1,18 @@
+package com.brianxiadong.test.db.datagen;
+
+/**
+ * 列值生成器
+ * 生成的值只能依赖行号和传入的随机数，不能保存状态，才能保证并行生成和跨数据库时结果相同
+ */
+@FunctionalInterface
+public interface ColumnGenerator {
+
+    /**
+     * 生成一个单元格的值
+     *
+     * @param row    行号，从 0 开始
+     * @param random 定位到该单元格的随机数
+     * @return 列值，null 表示 SQL NULL
+     */
+    Object generate(long row, CellRandom random);
+}
\ No newline at end of file
@@ -0,0 +1,549 @@
+package com.brianxiadong.test.db.datagen;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.MultiDbHelper;
+import com.brianxiadong.test.db.fixture.ConnectionFactory;
+import com.brianxiadong.test.db.fixture.FixtureLoadStats;
+import com.brianxiadong.test.db.fixture.FixtureLoader;
+import com.brianxiadong.test.db.fixture.FixtureOptions;
+import com.brianxiadong.test.db.fixture.MultiRowInsertWriter;
+import com.brianxiadong.test.db.jdbc.DirtyTableTracker;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.lifecycle.Phase;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 确定性的测试数据生成器
+ * 通过 {@link java.sql.DatabaseMetaData} 读取表结构，按列生成器和种子生成指定行数的数据，
+ * 父表先于子表生成，外键列引用父表已生成的值。每个单元格的值只由种子、表名、列名和行号决定，
+ * 同一配置在 MySQL、OceanBase 和 H2 上生成完全相同的数据，适合千万行级别的性能对比。
+ * 数据由调用线程逐行生成，通过多个连接以多行 INSERT 并行写入，内存占用与行数无关。
+ *
+ * <p>
+ * 没有指定生成器的列按类型推断：主键和唯一键使用递增序列或唯一字符串，外键引用父表，
+ * 其他列在类型范围内随机取值。ENUM、SET 等无法推断的类型需要通过 {@link #withColumn} 指定。
+ * 数据通过独立的连接提交，不受 {@code TRANSACTION_ROLLBACK} 隔离模式的测试事务控制
+ *
+ * <pre>
+ * DataGenerator.create(42)
+ *         .withTable("users", 1_000_000)
+ *         .withTable("orders", 10_000_000)
+ *         .withColumn("orders", "status", Generators.oneOf("NEW", "PAID", "CLOSED"))
+ *         .generate();
+ * </pre>
+ */
+public class DataGenerator {
+
+    private static final LocalDate MIN_DATE = LocalDate.of(2000, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(2030, 12, 31);
+
+    /**
+     * 无法引用父表的可空外键列使用的生成器
+     */
+    private static final ColumnGenerator NULL = Generators.constant(null);
+
+    private final long seed;
+    private final Map<String, Long> tables = new LinkedHashMap<>();
+    private final Map<String, Map<String, ColumnGenerator>> columns = new HashMap<>();
+    private FixtureOptions options = FixtureOptions.create();
+
+    private DataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * 创建数据生成器
+     *
+     * @param seed 种子，相同种子和配置生成相同的数据
+     * @return 新的生成器实例
+     */
+    public static DataGenerator create(long seed) {
+        return new DataGenerator(seed);
+    }
+
+    /**
+     * 添加要生成数据的表，生成顺序由外键决定
+     *
+     * @param table 表名（不区分大小写）
+     * @param rows  行数
+     * @return 当前生成器实例（支持链式调用）
+     */
+    public DataGenerator withTable(String table, long rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("rows must not be negative: " + rows);
+        }
+        tables.put(normalize(table), rows);
+        return this;
+    }
+
+    /**
+     * 指定列的生成器，覆盖按类型推断的默认生成器
+     *
+     * @param table     表名（不区分大小写）
+     * @param column    列名（不区分大小写）
+     * @param generator 列生成器，见 {@link Generators}
+     * @return 当前生成器实例（支持链式调用）
+     */
+    public DataGenerator withColumn(String table, String column, ColumnGenerator generator) {
+        columns.computeIfAbsent(normalize(table), k -> new LinkedHashMap<>()).put(normalize(column), generator);
+        return this;
+    }
+
+    /**
+     * 设置写入的并行度和批次大小
+     *
+     * @param options 导入选项
+     * @return 当前生成器实例（支持链式调用）
+     */
+    public DataGenerator withOptions(FixtureOptions options) {
+        this.options = options;
+        return this;
+    }
+
+    /**
+     * 在当前线程生效的数据库（{@link com.brianxiadong.test.db.SwitchableDataSource} 当前指向的数据库）上生成数据
+     *
+     * @return 生成结果
+     * @throws Exception 读取表结构或写入失败时抛出异常
+     */
+    public GenerationReport generate() throws Exception {
+        return generate(MultiDbHelper.getSwitchableDataSource().getActiveDataSource());
+    }
+
+    /**
+     * 通过数据源生成数据
+     * 连接池的并行度不超过最大连接数减一，给测试线程保留一个连接
+     *
+     * @param dataSource 数据源
+     * @return 生成结果
+     * @throws Exception 读取表结构或写入失败时抛出异常
+     */
+    public GenerationReport generate(DataSource dataSource) throws Exception {
+        int parallelism = options.getParallelism();
+        String jdbcUrl = null;
+        if (dataSource instanceof HikariDataSource) {
+            jdbcUrl = ((HikariDataSource) dataSource).getJdbcUrl();
+            int limit = Math.max(1, ((HikariDataSource) dataSource).getMaximumPoolSize() - 1);
+            if (parallelism > limit) {
+                MultiDbLog.info("连接池最大连接数为 " + (limit + 1) + "，数据生成并行度从 " + parallelism + " 降为 " + limit);
+                parallelism = limit;
+            }
+        }
+        return generate(dataSource::getConnection, parallelism, jdbcUrl);
+    }
+
+    /**
+     * 直接连接数据库生成数据，不经过连接池
+     *
+     * @param dbInfo 数据库连接信息
+     * @return 生成结果
+     * @throws Exception 读取表结构或写入失败时抛出异常
+     */
+    public GenerationReport generate(DatabaseInfo dbInfo) throws Exception {
+        return generate(() -> DriverManager.getConnection(dbInfo.getJdbcUrl(), dbInfo.getUsername(),
+                dbInfo.getPassword()), options.getParallelism(), dbInfo.getJdbcUrl());
+    }
+
+    private GenerationReport generate(ConnectionFactory connectionFactory, int parallelism, String jdbcUrl)
+            throws Exception {
+        if (tables.isEmpty()) {
+            throw new IllegalStateException("没有要生成数据的表，请先调用 withTable");
+        }
+        long start = Lifecycle.start();
+        try {
+            List<TablePlan> plans = plan(connectionFactory);
+            FixtureLoader loader = new FixtureLoader(connectionFactory, new MultiRowInsertWriter(),
+                    FixtureOptions.create().withParallelism(parallelism).withBatchRows(options.getBatchRows()));
+
+            List<FixtureLoadStats> stats = new ArrayList<>();
+            Map<String, Map<String, String>> descriptions = new LinkedHashMap<>();
+            for (TablePlan plan : plans) {
+                MultiDbLog.info("生成数据: " + plan);
+                DirtyTableTracker.shared().recordTable(jdbcUrl, plan.metadata.getName());
+                stats.add(loader.load(plan.metadata.getName(), new GeneratedRowReader(
+                        seed, plan.metadata.getName(), plan.columns, plan.generators, plan.rows)));
+                descriptions.put(plan.metadata.getName(), plan.describe());
+            }
+            Lifecycle.end(Phase.FIXTURE_LOAD, start);
+
+            GenerationReport report = new GenerationReport(seed, stats, descriptions, System.nanoTime() - start);
+            MultiDbLog.info("数据生成完成 ✓ " + report);
+            return report;
+        } catch (Exception e) {
+            Lifecycle.end(Phase.FIXTURE_LOAD, start, e);
+            MultiDbLog.error("数据生成失败: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * 读取表结构，按依赖排序并为每列确定生成器
+     */
+    private List<TablePlan> plan(ConnectionFactory connectionFactory) throws Exception {
+        Map<String, TableMetadata> metadata = new LinkedHashMap<>();
+        try (Connection connection = connectionFactory.open()) {
+            for (String table : tables.keySet()) {
+                metadata.put(table, TableMetadata.read(connection, table));
+            }
+        }
+
+        Map<String, TablePlan> planned = new LinkedHashMap<>();
+        List<String> pending = new ArrayList<>(metadata.keySet());
+        while (!pending.isEmpty()) {
+            String next = null;
+            for (String table : pending) {
+                if (planned.keySet().containsAll(dependencies(table, metadata))) {
+                    next = table;
+                    break;
+                }
+            }
+            if (next == null) {
+                throw new IllegalStateException("表之间的外键存在循环依赖: " + pending
+                        + "，请通过 withColumn 为其中一个外键列指定生成器（如 Generators.constant(null)）");
+            }
+            pending.remove(next);
+            planned.put(next, planTable(metadata.get(next), tables.get(next), planned));
+        }
+        return new ArrayList<>(planned.values());
+    }
+
+    /**
+     * 表依赖的其他表：计划中的父表，外键列全部由用户指定时不算依赖
+     */
+    private List<String> dependencies(String table, Map<String, TableMetadata> metadata) {
+        List<String> parents = new ArrayList<>();
+        Map<String, ColumnGenerator> specs = specs(table);
+        for (TableMetadata.ForeignKey foreignKey : metadata.get(table).getForeignKeys()) {
+            String parent = normalize(foreignKey.getParentTable());
+            if (!parent.equals(table) && metadata.containsKey(parent) && !specified(specs, foreignKey.getColumns())) {
+                parents.add(parent);
+            }
+        }
+        for (ColumnGenerator generator : specs.values()) {
+            if (generator instanceof ReferenceGenerator) {
+                String parent = normalize(((ReferenceGenerator) generator).getTable());
+                if (parent.equals(table) || !metadata.containsKey(parent)) {
+                    throw new IllegalArgumentException("引用的父表必须是计划中的其他表: " + table + " -> " + generator);
+                }
+                parents.add(parent);
+            }
+        }
+        return parents;
+    }
+
+    private TablePlan planTable(TableMetadata metadata, long rows, Map<String, TablePlan> planned) {
+        String table = metadata.getName();
+        Map<String, ColumnGenerator> specs = specs(normalize(table));
+        for (String column : specs.keySet()) {
+            TableMetadata.Column definition = metadata.getColumn(column);
+            if (definition == null) {
+                throw new IllegalArgumentException("表 " + table + " 没有列 " + column);
+            }
+            if (definition.isGenerated()) {
+                throw new IllegalArgumentException("列 " + table + "." + definition.getName() + " 是计算列，不能指定生成器");
+            }
+        }
+
+        // 外键列：引用计划中的父表；自引用或父表不在计划中时可空列生成 NULL
+        Map<String, ColumnGenerator> assigned = new HashMap<>();
+        Map<String, TableMetadata.ForeignKey> foreignKeyOf = new HashMap<>();
+        for (TableMetadata.ForeignKey foreignKey : metadata.getForeignKeys()) {
+            String parent = normalize(foreignKey.getParentTable());
+            boolean resolvable = !parent.equals(normalize(table)) && planned.containsKey(parent);
+            List<String> fkColumns = foreignKey.getColumns();
+            for (int i = 0; i < fkColumns.size(); i++) {
+                String column = normalize(fkColumns.get(i));
+                if (specs.containsKey(column) || assigned.containsKey(column)) {
+                    continue;
+                }
+                if (resolvable) {
+                    assigned.put(column, new ReferenceGenerator(foreignKey.getParentTable(),
+                            foreignKey.getParentColumns().get(i), foreignKey.getName()));
+                    foreignKeyOf.put(column, foreignKey);
+                } else if (metadata.getColumn(column).isNullable()) {
+                    assigned.put(column, NULL);
+                } else {
+                    throw new IllegalArgumentException("外键 " + table + "." + foreignKey + " 的父表"
+                            + (parent.equals(normalize(table)) ? "是自身" : "不在生成计划中")
+                            + "且列不可为空，请通过 withColumn 指定生成器");
+                }
+            }
+        }
+
+        // 唯一键：有普通列时让第一个普通列取唯一值；只由外键组成时按行号顺序组合父表的行
+        Map<TableMetadata.ForeignKey, Long> strides = new HashMap<>();
+        Set<String> uniqueColumns = new HashSet<>();
+        for (List<String> key : metadata.getUniqueKeys()) {
+            // 用户指定的列自行保证唯一；已有唯一列或含 NULL 的键不会冲突
+            if (specified(specs, key) || containsAny(uniqueColumns, key) || containsNull(assigned, key)) {
+                continue;
+            }
+            String plain = null;
+            for (String column : key) {
+                if (!foreignKeyOf.containsKey(normalize(column)) && !assigned.containsKey(normalize(column))) {
+                    plain = column;
+                    break;
+                }
+            }
+            if (plain != null) {
+                assigned.put(normalize(plain), uniqueGenerator(metadata.getName(), metadata.getColumn(plain)));
+                uniqueColumns.add(normalize(plain));
+                continue;
+            }
+            long combinations = 1;
+            for (String column : key) {
+                TableMetadata.ForeignKey foreignKey = foreignKeyOf.get(normalize(column));
+                if (foreignKey == null || strides.containsKey(foreignKey)) {
+                    continue;
+                }
+                strides.put(foreignKey, combinations);
+                long parentRows = planned.get(normalize(foreignKey.getParentTable())).rows;
+                combinations = parentRows != 0 && combinations > Long.MAX_VALUE / parentRows
+                        ? Long.MAX_VALUE : combinations * parentRows;
+            }
+            if (combinations < rows) {
+                throw new IllegalArgumentException("表 " + table + " 的唯一键 " + key + " 由外键组成，父表行的组合只有 "
+                        + combinations + " 种，少于要生成的 " + rows + " 行");
+            }
+            for (String column : key) {
+                uniqueColumns.add(normalize(column));
+            }
+        }
+
+        List<String> columnNames = new ArrayList<>();
+        List<ColumnGenerator> generators = new ArrayList<>();
+        for (TableMetadata.Column column : metadata.getColumns()) {
+            if (column.isGenerated()) {
+                continue;
+            }
+            String key = normalize(column.getName());
+            ColumnGenerator generator = specs.get(key);
+            if (generator == null) {
+                generator = assigned.get(key);
+            }
+            if (generator == null) {
+                generator = defaultGenerator(table, column);
+            }
+            if (generator instanceof ReferenceGenerator) {
+                TableMetadata.ForeignKey foreignKey = foreignKeyOf.get(key);
+                Long stride = foreignKey != null ? strides.get(foreignKey) : null;
+                generator = bind((ReferenceGenerator) generator, table, column.getName(),
+                        stride != null ? stride : 0, planned);
+            }
+            columnNames.add(column.getName());
+            generators.add(generator);
+        }
+        return new TablePlan(metadata, rows, Collections.unmodifiableList(columnNames),
+                generators.toArray(new ColumnGenerator[0]));
+    }
+
+    private ColumnGenerator bind(ReferenceGenerator reference, String table, String column, long stride,
+            Map<String, TablePlan> planned) {
+        TablePlan parent = planned.get(normalize(reference.getTable()));
+        int index = TableMetadata.indexOf(parent.columns, reference.getColumn());
+        if (index < 0) {
+            throw new IllegalArgumentException("列 " + table + "." + column + " 引用的列不存在或是计算列: " + reference);
+        }
+        if (parent.rows == 0) {
+            throw new IllegalArgumentException("列 " + table + "." + column + " 引用的父表 " + parent.metadata.getName()
+                    + " 没有生成任何行");
+        }
+        return reference.bind(seed, table, column, parent.rows, stride, parent.generators[index],
+                parent.columns.get(index));
+    }
+
+    /**
+     * 唯一键列的默认生成器
+     */
+    private static ColumnGenerator uniqueGenerator(String table, TableMetadata.Column column) {
+        switch (column.getDataType()) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return Generators.sequence(1);
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                if (!isEnumeration(column)) {
+                    return Generators.uniqueString("");
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("唯一键列 " + table + "." + column + " 无法自动生成唯一值，请通过 withColumn 指定生成器");
+    }
+
+    /**
+     * 按列类型推断的默认生成器，取值范围在 MySQL、OceanBase 和 H2 上都合法
+     */
+    static ColumnGenerator defaultGenerator(String table, TableMetadata.Column column) {
+        String typeName = column.getTypeName() != null ? column.getTypeName().toUpperCase(Locale.ROOT) : "";
+        if (isEnumeration(column)) {
+            throw new IllegalArgumentException("列 " + table + "." + column + " 是 " + typeName
+                    + " 类型，取值无法从元数据推断，请通过 withColumn 指定生成器（如 Generators.oneOf）");
+        }
+        if (typeName.startsWith("JSON")) {
+            return Generators.json();
+        }
+        if (typeName.startsWith("YEAR")) {
+            return Generators.longRange(MIN_DATE.getYear(), MAX_DATE.getYear());
+        }
+        int size = column.getSize();
+        switch (column.getDataType()) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return size > 1 ? Generators.longRange(0, (1L << Math.min(size, 62)) - 1) : Generators.bool();
+            case Types.TINYINT:
+                return Generators.longRange(0, Byte.MAX_VALUE);
+            case Types.SMALLINT:
+                return Generators.longRange(0, Short.MAX_VALUE);
+            case Types.INTEGER:
+                return Generators.longRange(0, Integer.MAX_VALUE);
+            case Types.BIGINT:
+                return Generators.longRange(0, Long.MAX_VALUE);
+            case Types.DECIMAL:
+            case Types.NUMERIC: {
+                int scale = Math.max(0, Math.min(column.getDecimalDigits(), 9));
+                int integerDigits = Math.max(0, Math.min(size - column.getDecimalDigits(), 9));
+                BigDecimal max = BigDecimal.ONE.scaleByPowerOfTen(integerDigits)
+                        .subtract(BigDecimal.ONE.scaleByPowerOfTen(-scale));
+                return Generators.decimal(BigDecimal.ZERO, max, scale);
+            }
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return Generators.decimal(BigDecimal.ZERO, BigDecimal.valueOf(1_000_000), 2);
+            case Types.CHAR:
+            case Types.NCHAR: {
+                int length = Math.max(1, Math.min(size, 32));
+                return Generators.alphanumeric(length, length);
+            }
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+                return Generators.alphanumeric(1, Math.max(1, size > 0 ? Math.min(size, 32) : 32));
+            case Types.DATE:
+                return Generators.date(MIN_DATE, MAX_DATE);
+            case Types.TIME:
+            case Types.TIME_WITH_TIMEZONE:
+                return Generators.time();
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                // 2038 年之后超出 MySQL TIMESTAMP 的范围
+                return Generators.timestamp(MIN_DATE.atStartOfDay(), LocalDateTime.of(2030, 12, 31, 23, 59, 59));
+            case Types.BINARY: {
+                int length = Math.max(1, Math.min(size, 32));
+                return Generators.bytes(length, length);
+            }
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return Generators.bytes(1, Math.max(1, size > 0 ? Math.min(size, 32) : 32));
+            default:
+                if (column.isNullable()) {
+                    return Generators.constant(null);
+                }
+                throw new IllegalArgumentException("列 " + table + "." + column + " 的类型无法推断生成器，请通过 withColumn 指定");
+        }
+    }
+
+    private static boolean isEnumeration(TableMetadata.Column column) {
+        String typeName = column.getTypeName() != null ? column.getTypeName().toUpperCase(Locale.ROOT) : "";
+        return typeName.startsWith("ENUM") || typeName.startsWith("SET");
+    }
+
+    private Map<String, ColumnGenerator> specs(String table) {
+        Map<String, ColumnGenerator> specs = columns.get(table);
+        return specs != null ? specs : Collections.<String, ColumnGenerator>emptyMap();
+    }
+
+    private static boolean specified(Map<String, ColumnGenerator> specs, List<String> columns) {
+        for (String column : columns) {
+            if (specs.containsKey(normalize(column))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsAny(Set<String> normalized, List<String> columns) {
+        for (String column : columns) {
+            if (normalized.contains(normalize(column))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsNull(Map<String, ColumnGenerator> assigned, List<String> columns) {
+        for (String column : columns) {
+            if (assigned.get(normalize(column)) == NULL) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一张表的生成计划：插入的列和已绑定的生成器
+     */
+    private static final class TablePlan {
+
+        private final TableMetadata metadata;
+        private final long rows;
+        private final List<String> columns;
+        private final ColumnGenerator[] generators;
+
+        TablePlan(TableMetadata metadata, long rows, List<String> columns, ColumnGenerator[] generators) {
+            this.metadata = metadata;
+            this.rows = rows;
+            this.columns = columns;
+            this.generators = generators;
+        }
+
+        Map<String, String> describe() {
+            Map<String, String> descriptions = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                descriptions.put(columns.get(i), String.valueOf(generators[i]));
+            }
+            return descriptions;
+        }
+
+        @Override
+        public String toString() {
+            return metadata.getName() + "（" + rows + " 行）" + describe();
+        }
+    }
+}
\ No newline at end of file
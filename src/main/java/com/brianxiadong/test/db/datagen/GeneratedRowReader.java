@@ -0,0 +1,55 @@
+package com.brianxiadong.test.db.datagen;
+
+import com.brianxiadong.test.db.fixture.FixtureRowReader;
+
+import java.util.List;
+
+/**
+ * 按行号逐行生成数据，不在内存中保留已生成的行
+ */
+final class GeneratedRowReader implements FixtureRowReader {
+
+    private final List<String> columns;
+    private final ColumnGenerator[] generators;
+    private final long[] cellKeys;
+    private final long seed;
+    private final long tableKey;
+    private final long rows;
+    private final CellRandom random = new CellRandom();
+
+    private long row;
+
+    GeneratedRowReader(long seed, String table, List<String> columns, ColumnGenerator[] generators, long rows) {
+        this.columns = columns;
+        this.generators = generators;
+        this.seed = seed;
+        this.tableKey = CellRandom.key(table);
+        this.rows = rows;
+        this.cellKeys = new long[columns.size()];
+        for (int i = 0; i < cellKeys.length; i++) {
+            cellKeys[i] = CellRandom.key(columns.get(i));
+        }
+    }
+
+    @Override
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public Object[] next() {
+        if (row >= rows) {
+            return null;
+        }
+        Object[] values = new Object[generators.length];
+        for (int i = 0; i < generators.length; i++) {
+            values[i] = generators[i].generate(row, random.reset(CellRandom.cellSeed(seed, tableKey, cellKeys[i], row)));
+        }
+        row++;
+        return values;
+    }
+
+    @Override
+    public void close() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.brianxiadong.test.db.datagen;
+
+import com.brianxiadong.test.db.fixture.FixtureLoadStats;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次数据生成的结果：按生成顺序排列的各表导入统计和各列使用的生成器
+ */
+public class GenerationReport {
+
+    private final long seed;
+    private final List<FixtureLoadStats> tables;
+    private final Map<String, Map<String, String>> generators;
+    private final long elapsedNanos;
+
+    GenerationReport(long seed, List<FixtureLoadStats> tables, Map<String, Map<String, String>> generators,
+            long elapsedNanos) {
+        this.seed = seed;
+        this.tables = Collections.unmodifiableList(tables);
+        this.generators = Collections.unmodifiableMap(generators);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * 各表的导入统计，父表在前
+     */
+    public List<FixtureLoadStats> getTables() {
+        return tables;
+    }
+
+    /**
+     * 各表每列使用的生成器描述，键为表名和列名
+     */
+    public Map<String, Map<String, String>> getGenerators() {
+        return generators;
+    }
+
+    public long getTotalRows() {
+        long total = 0;
+        for (FixtureLoadStats stats : tables) {
+            total += stats.getRowCount();
+        }
+        return total;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("种子 %d 生成 %d 张表 %d 行，耗时 %.1fms",
+                seed, tables.size(), getTotalRows(), getElapsedMillis()));
+        for (FixtureLoadStats stats : tables) {
+            sb.append("\n  ").append(stats);
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.brianxiadong.test.db.datagen;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 常用的列值生成器
+ * 生成的值只使用整数运算和 JDBC 标准类型，在 MySQL 和 OceanBase 上写入后的结果相同
+ */
+public final class Generators {
+
+    private static final char[] ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+    private Generators() {
+    }
+
+    /**
+     * 从 start 开始连续递增的整数，适合主键
+     */
+    public static ColumnGenerator sequence(long start) {
+        return named("sequence(" + start + ")", (row, random) -> start + row);
+    }
+
+    /**
+     * 前缀加行号的唯一字符串，适合字符串主键和唯一键
+     */
+    public static ColumnGenerator uniqueString(String prefix) {
+        return named("uniqueString(" + prefix + ")", (row, random) -> prefix + Long.toString(row, 36));
+    }
+
+    /**
+     * [min, max] 内均匀分布的整数
+     */
+    public static ColumnGenerator longRange(long min, long max) {
+        if (min > max) {
+            throw new IllegalArgumentException("min > max: " + min + " > " + max);
+        }
+        return named("longRange(" + min + ", " + max + ")", (row, random) -> random.nextLong(min, max));
+    }
+
+    /**
+     * [min, max] 内均匀分布的定点小数，按 scale 位小数取值
+     */
+    public static ColumnGenerator decimal(BigDecimal min, BigDecimal max, int scale) {
+        long low = min.setScale(scale, RoundingMode.CEILING).unscaledValue().longValueExact();
+        long high = max.setScale(scale, RoundingMode.FLOOR).unscaledValue().longValueExact();
+        if (low > high) {
+            throw new IllegalArgumentException("min > max: " + min + " > " + max);
+        }
+        return named("decimal(" + min + ", " + max + ", " + scale + ")",
+                (row, random) -> BigDecimal.valueOf(random.nextLong(low, high), scale));
+    }
+
+    /**
+     * 长度在 [minLength, maxLength] 内的随机字母数字字符串
+     */
+    public static ColumnGenerator alphanumeric(int minLength, int maxLength) {
+        if (minLength < 0 || minLength > maxLength) {
+            throw new IllegalArgumentException("invalid length range: " + minLength + ".." + maxLength);
+        }
+        return named("alphanumeric(" + minLength + ", " + maxLength + ")", (row, random) -> {
+            char[] chars = new char[(int) random.nextLong(minLength, maxLength)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)];
+            }
+            return new String(chars);
+        });
+    }
+
+    /**
+     * 从给定值中均匀选择
+     */
+    public static ColumnGenerator oneOf(Object... values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("values must not be empty");
+        }
+        Object[] copy = values.clone();
+        return named("oneOf" + Arrays.toString(copy), (row, random) -> copy[random.nextInt(copy.length)]);
+    }
+
+    public static ColumnGenerator bool() {
+        return named("bool", (row, random) -> random.nextBoolean());
+    }
+
+    public static ColumnGenerator constant(Object value) {
+        return named("constant(" + value + ")", (row, random) -> value);
+    }
+
+    /**
+     * [from, to] 内均匀分布的日期
+     */
+    public static ColumnGenerator date(LocalDate from, LocalDate to) {
+        long low = from.toEpochDay();
+        long high = to.toEpochDay();
+        return named("date(" + from + ", " + to + ")",
+                (row, random) -> Date.valueOf(LocalDate.ofEpochDay(random.nextLong(low, high))));
+    }
+
+    /**
+     * 一天内均匀分布的时间，精确到秒
+     */
+    public static ColumnGenerator time() {
+        return named("time", (row, random) -> Time.valueOf(LocalTime.ofSecondOfDay(random.nextInt(24 * 60 * 60))));
+    }
+
+    /**
+     * [from, to] 内均匀分布的时间戳，精确到秒
+     */
+    public static ColumnGenerator timestamp(LocalDateTime from, LocalDateTime to) {
+        long low = from.toEpochSecond(ZoneOffset.UTC);
+        long high = to.toEpochSecond(ZoneOffset.UTC);
+        return named("timestamp(" + from + ", " + to + ")", (row, random) -> Timestamp.valueOf(
+                LocalDateTime.ofEpochSecond(random.nextLong(low, high), 0, ZoneOffset.UTC)));
+    }
+
+    /**
+     * 长度在 [minLength, maxLength] 内的随机字节
+     */
+    public static ColumnGenerator bytes(int minLength, int maxLength) {
+        if (minLength < 0 || minLength > maxLength) {
+            throw new IllegalArgumentException("invalid length range: " + minLength + ".." + maxLength);
+        }
+        return named("bytes(" + minLength + ", " + maxLength + ")", (row, random) -> {
+            byte[] bytes = new byte[(int) random.nextLong(minLength, maxLength)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) random.nextLong();
+            }
+            return bytes;
+        });
+    }
+
+    /**
+     * 形如 {"value": 123} 的小 JSON 对象
+     */
+    public static ColumnGenerator json() {
+        return named("json", (row, random) -> "{\"value\": " + random.nextLong(0, 999_999) + "}");
+    }
+
+    /**
+     * 按比例生成 NULL，其余行使用给定生成器
+     *
+     * @param nullRate  NULL 的比例，0 到 1
+     * @param generator 非 NULL 值的生成器
+     */
+    public static ColumnGenerator nullable(double nullRate, ColumnGenerator generator) {
+        if (nullRate < 0 || nullRate > 1) {
+            throw new IllegalArgumentException("nullRate must be between 0 and 1: " + nullRate);
+        }
+        if (generator instanceof ReferenceGenerator) {
+            return ((ReferenceGenerator) generator).withNullRate(nullRate);
+        }
+        return named("nullable(" + nullRate + ", " + generator + ")",
+                (row, random) -> random.nextDouble() < nullRate ? null : generator.generate(row, random));
+    }
+
+    /**
+     * 引用另一张表的列，值取自父表某一行生成的值，保证外键完整性。父表必须在同一次生成中
+     *
+     * @param table  父表
+     * @param column 父表的列，通常是主键
+     */
+    public static ColumnGenerator reference(String table, String column) {
+        return new ReferenceGenerator(table, column, null);
+    }
+
+    private static ColumnGenerator named(String description, ColumnGenerator generator) {
+        return new ColumnGenerator() {
+            @Override
+            public Object generate(long row, CellRandom random) {
+                return generator.generate(row, random);
+            }
+
+            @Override
+            public String toString() {
+                return description;
+            }
+        };
+    }
+}
\ No newline at end of file
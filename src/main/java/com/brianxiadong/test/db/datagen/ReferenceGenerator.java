@@ -0,0 +1,94 @@
+package com.brianxiadong.test.db.datagen;
+
+/**
+ * 引用父表列的生成器
+ * 先用确定性随机数选出父表的一行，再用父表该列的生成器算出这一行的值，不需要读取父表。
+ * 同一个外键的多个列使用相同的分组，选中父表的同一行，复合外键也能保持完整
+ */
+final class ReferenceGenerator implements ColumnGenerator {
+
+    private final String table;
+    private final String column;
+    private final String group;
+    private final double nullRate;
+
+    /**
+     * @param table  父表
+     * @param column 父表的列
+     * @param group  选择父表行的分组，null 时每列单独选择
+     */
+    ReferenceGenerator(String table, String column, String group) {
+        this(table, column, group, 0);
+    }
+
+    private ReferenceGenerator(String table, String column, String group, double nullRate) {
+        this.table = table;
+        this.column = column;
+        this.group = group;
+        this.nullRate = nullRate;
+    }
+
+    ReferenceGenerator withNullRate(double nullRate) {
+        return new ReferenceGenerator(table, column, group, nullRate);
+    }
+
+    String getTable() {
+        return table;
+    }
+
+    String getColumn() {
+        return column;
+    }
+
+    /**
+     * 绑定到一次生成，返回的生成器只能在一个线程上使用
+     *
+     * @param seed            全局种子
+     * @param childTable      子表
+     * @param childColumn     子表的列
+     * @param parentRows      父表的行数
+     * @param stride          大于 0 时按行号顺序选择父表的行（第 row / stride 行取模），用于唯一键；否则随机选择
+     * @param parentGenerator 已绑定的父表该列的生成器
+     * @param parentColumn    父表该列在元数据中的名称
+     */
+    ColumnGenerator bind(long seed, String childTable, String childColumn, long parentRows, long stride,
+            ColumnGenerator parentGenerator, String parentColumn) {
+        long childTableKey = CellRandom.key(childTable);
+        long groupKey = CellRandom.key("->" + (group != null ? group : childColumn));
+        long parentTableKey = CellRandom.key(table);
+        long parentColumnKey = CellRandom.key(parentColumn);
+        CellRandom rowRandom = new CellRandom();
+        CellRandom parentRandom = new CellRandom();
+        String description = stride > 0 ? toString() + " stride " + stride : toString();
+        return new ColumnGenerator() {
+            @Override
+            public Object generate(long row, CellRandom random) {
+                // NULL 的比例使用本列的随机数，同一外键的各列选中的父表行仍然一致
+                if (nullRate > 0 && random.nextDouble() < nullRate) {
+                    return null;
+                }
+                long parentRow = stride > 0
+                        ? row / stride % parentRows
+                        : rowRandom.reset(CellRandom.cellSeed(seed, childTableKey, groupKey, row)).nextLong(parentRows);
+                return parentGenerator.generate(parentRow,
+                        parentRandom.reset(CellRandom.cellSeed(seed, parentTableKey, parentColumnKey, parentRow)));
+            }
+
+            @Override
+            public String toString() {
+                return description;
+            }
+        };
+    }
+
+    @Override
+    public Object generate(long row, CellRandom random) {
+        throw new IllegalStateException("引用生成器需要通过 DataGenerator 使用: " + this);
+    }
+
+    @Override
+    public String toString() {
+        String description = "reference(" + table + "." + column + ")";
+        return nullRate > 0 ? "nullable(" + nullRate + ", " + description + ")" : description;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,307 @@
+package com.brianxiadong.test.db.datagen;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 通过 {@link DatabaseMetaData} 读取的表结构：列、主键、唯一索引和外键
+ */
+final class TableMetadata {
+
+    private final String name;
+    private final List<Column> columns;
+    private final List<List<String>> uniqueKeys;
+    private final List<ForeignKey> foreignKeys;
+
+    private TableMetadata(String name, List<Column> columns, List<List<String>> uniqueKeys,
+            List<ForeignKey> foreignKeys) {
+        this.name = name;
+        this.columns = columns;
+        this.uniqueKeys = uniqueKeys;
+        this.foreignKeys = foreignKeys;
+    }
+
+    /**
+     * 读取表结构，表名不区分大小写
+     *
+     * @param connection 数据库连接
+     * @param table      表名
+     * @return 表结构
+     * @throws SQLException 读取失败或表不存在时抛出异常
+     */
+    static TableMetadata read(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String catalog = connection.getCatalog();
+        String schema = currentSchema(connection);
+        String name = resolveName(metaData, catalog, schema, table);
+
+        List<Column> columns = new ArrayList<>();
+        try (ResultSet rs = metaData.getColumns(catalog, schema, name, "%")) {
+            while (rs.next()) {
+                columns.add(new Column(
+                        rs.getString("COLUMN_NAME"),
+                        rs.getInt("DATA_TYPE"),
+                        rs.getString("TYPE_NAME"),
+                        rs.getInt("COLUMN_SIZE"),
+                        rs.getInt("DECIMAL_DIGITS"),
+                        rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls,
+                        "YES".equalsIgnoreCase(optionalString(rs, "IS_GENERATEDCOLUMN"))));
+            }
+        }
+
+        List<List<String>> uniqueKeys = new ArrayList<>();
+        List<String> primaryKey = new ArrayList<>();
+        try (ResultSet rs = metaData.getPrimaryKeys(catalog, schema, name)) {
+            Map<Integer, String> ordered = new TreeMap<>();
+            while (rs.next()) {
+                ordered.put(rs.getInt("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+            }
+            primaryKey.addAll(ordered.values());
+        }
+        if (!primaryKey.isEmpty()) {
+            uniqueKeys.add(primaryKey);
+        }
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(catalog, schema, name, true, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName != null && column != null && !rs.getBoolean("NON_UNIQUE")) {
+                    indexes.computeIfAbsent(indexName, k -> new ArrayList<>()).add(column);
+                }
+            }
+        }
+        for (List<String> index : indexes.values()) {
+            // 主键通常也会作为唯一索引返回
+            if (!containsKey(uniqueKeys, index)) {
+                uniqueKeys.add(index);
+            }
+        }
+
+        Map<String, ForeignKey> foreignKeys = new LinkedHashMap<>();
+        try (ResultSet rs = metaData.getImportedKeys(catalog, schema, name)) {
+            while (rs.next()) {
+                String parentTable = rs.getString("PKTABLE_NAME");
+                String fkName = rs.getString("FK_NAME");
+                String key = fkName != null ? fkName : parentTable + "#" + foreignKeys.size();
+                ForeignKey foreignKey = foreignKeys.computeIfAbsent(key, k -> new ForeignKey(k, parentTable));
+                foreignKey.add(rs.getInt("KEY_SEQ"), rs.getString("FKCOLUMN_NAME"), rs.getString("PKCOLUMN_NAME"));
+            }
+        }
+
+        if (columns.isEmpty()) {
+            throw new SQLException("无法读取表结构: " + table);
+        }
+        return new TableMetadata(name, Collections.unmodifiableList(columns), uniqueKeys,
+                new ArrayList<>(foreignKeys.values()));
+    }
+
+    private static String resolveName(DatabaseMetaData metaData, String catalog, String schema, String table)
+            throws SQLException {
+        String match = null;
+        try (ResultSet rs = metaData.getTables(catalog, schema, "%", new String[] {"TABLE"})) {
+            while (rs.next()) {
+                String name = rs.getString("TABLE_NAME");
+                if (name.equals(table)) {
+                    return name;
+                }
+                if (name.equalsIgnoreCase(table)) {
+                    match = name;
+                }
+            }
+        }
+        if (match == null) {
+            throw new SQLException("表不存在: " + table);
+        }
+        return match;
+    }
+
+    private static String currentSchema(Connection connection) {
+        try {
+            return connection.getSchema();
+        } catch (SQLException | AbstractMethodError e) {
+            return null;
+        }
+    }
+
+    private static String optionalString(ResultSet rs, String column) {
+        try {
+            return rs.getString(column);
+        } catch (SQLException e) {
+            // IS_GENERATEDCOLUMN 是 JDBC 4.1 新增的列，旧驱动没有
+            return null;
+        }
+    }
+
+    private static boolean containsKey(List<List<String>> keys, List<String> key) {
+        for (List<String> existing : keys) {
+            if (existing.size() == key.size() && containsAll(existing, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsAll(List<String> columns, List<String> others) {
+        for (String column : others) {
+            if (indexOf(columns, column) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(List<String> columns, String column) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    List<Column> getColumns() {
+        return columns;
+    }
+
+    Column getColumn(String column) {
+        for (Column c : columns) {
+            if (c.getName().equalsIgnoreCase(column)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 主键在前，其后是其他唯一索引
+     */
+    List<List<String>> getUniqueKeys() {
+        return uniqueKeys;
+    }
+
+    List<ForeignKey> getForeignKeys() {
+        return foreignKeys;
+    }
+
+    /**
+     * 列定义
+     */
+    static final class Column {
+
+        private final String name;
+        private final int dataType;
+        private final String typeName;
+        private final int size;
+        private final int decimalDigits;
+        private final boolean nullable;
+        private final boolean generated;
+
+        Column(String name, int dataType, String typeName, int size, int decimalDigits, boolean nullable,
+                boolean generated) {
+            this.name = name;
+            this.dataType = dataType;
+            this.typeName = typeName;
+            this.size = size;
+            this.decimalDigits = decimalDigits;
+            this.nullable = nullable;
+            this.generated = generated;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getDataType() {
+            return dataType;
+        }
+
+        String getTypeName() {
+            return typeName;
+        }
+
+        int getSize() {
+            return size;
+        }
+
+        int getDecimalDigits() {
+            return decimalDigits;
+        }
+
+        boolean isNullable() {
+            return nullable;
+        }
+
+        /**
+         * 计算列，值由数据库生成，不能写入
+         */
+        boolean isGenerated() {
+            return generated;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + typeName + (size > 0 ? "(" + size + ")" : "");
+        }
+    }
+
+    /**
+     * 外键，列按 KEY_SEQ 排列
+     */
+    static final class ForeignKey {
+
+        private final String name;
+        private final String parentTable;
+        private final Map<Integer, String[]> columns = new TreeMap<>();
+
+        ForeignKey(String name, String parentTable) {
+            this.name = name;
+            this.parentTable = parentTable;
+        }
+
+        void add(int sequence, String column, String parentColumn) {
+            columns.put(sequence, new String[] {column, parentColumn});
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getParentTable() {
+            return parentTable;
+        }
+
+        List<String> getColumns() {
+            List<String> result = new ArrayList<>();
+            for (String[] pair : columns.values()) {
+                result.add(pair[0]);
+            }
+            return result;
+        }
+
+        List<String> getParentColumns() {
+            List<String> result = new ArrayList<>();
+            for (String[] pair : columns.values()) {
+                result.add(pair[1]);
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + getColumns() + " -> " + parentTable + getParentColumns();
+        }
+    }
+}
\ No newline at end of file
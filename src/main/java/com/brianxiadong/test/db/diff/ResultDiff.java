@@ -0,0 +1,102 @@
+package com.brianxiadong.test.db.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 两个结果集的比较结果
+ * 差异总数完整统计，具体的差异行只保留前若干条
+ */
+public class ResultDiff {
+
+    private final String leftName;
+    private final String rightName;
+    private final List<String> columns;
+    private final String schemaDifference;
+    private final long leftRows;
+    private final long rightRows;
+    private final long differenceCount;
+    private final List<RowDifference> differences;
+
+    ResultDiff(String leftName, String rightName, List<String> columns, String schemaDifference,
+            long leftRows, long rightRows, long differenceCount, List<RowDifference> differences) {
+        this.leftName = leftName;
+        this.rightName = rightName;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.schemaDifference = schemaDifference;
+        this.leftRows = leftRows;
+        this.rightRows = rightRows;
+        this.differenceCount = differenceCount;
+        this.differences = Collections.unmodifiableList(new ArrayList<>(differences));
+    }
+
+    /**
+     * 两边的结果是否相同
+     */
+    public boolean isEqual() {
+        return schemaDifference == null && differenceCount == 0;
+    }
+
+    public String getLeftName() {
+        return leftName;
+    }
+
+    public String getRightName() {
+        return rightName;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * 列数或列名不同时的说明，相同时为 null
+     */
+    public String getSchemaDifference() {
+        return schemaDifference;
+    }
+
+    public long getLeftRows() {
+        return leftRows;
+    }
+
+    public long getRightRows() {
+        return rightRows;
+    }
+
+    /**
+     * 差异行总数
+     */
+    public long getDifferenceCount() {
+        return differenceCount;
+    }
+
+    /**
+     * 前若干条差异行
+     */
+    public List<RowDifference> getDifferences() {
+        return differences;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(leftName).append(" (").append(leftRows).append(" 行) vs ")
+                .append(rightName).append(" (").append(rightRows).append(" 行): ");
+        if (schemaDifference != null) {
+            return text.append("列不同，").append(schemaDifference).toString();
+        }
+        if (differenceCount == 0) {
+            return text.append("结果相同").toString();
+        }
+        text.append(differenceCount).append(" 行不同，列 ").append(columns);
+        for (RowDifference difference : differences) {
+            text.append("\n  ").append(difference);
+        }
+        if (differenceCount > differences.size()) {
+            text.append("\n  ... 另有 ").append(differenceCount - differences.size()).append(" 行");
+        }
+        return text.toString();
+    }
+}
\ No newline at end of file
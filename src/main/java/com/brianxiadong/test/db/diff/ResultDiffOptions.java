@@ -0,0 +1,186 @@
+package com.brianxiadong.test.db.diff;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 结果集比较选项
+ */
+public class ResultDiffOptions {
+
+    /**
+     * 默认最多报告的差异行数
+     */
+    public static final int DEFAULT_MAX_REPORTED_DIFFERENCES = 20;
+
+    /**
+     * 默认每次从数据库读取的行数
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * 默认的哈希分区数
+     */
+    public static final int DEFAULT_PARTITIONS = 64;
+
+    /**
+     * 默认的单个分区最大字节数，超过时再次拆分
+     */
+    public static final long DEFAULT_MAX_PARTITION_BYTES = 32L * 1024 * 1024;
+
+    private boolean ordered;
+    private List<String> keyColumns = Collections.emptyList();
+    private int maxReportedDifferences = DEFAULT_MAX_REPORTED_DIFFERENCES;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int partitions = DEFAULT_PARTITIONS;
+    private long maxPartitionBytes = DEFAULT_MAX_PARTITION_BYTES;
+    private File spillDirectory = new File(System.getProperty("java.io.tmpdir"));
+    private boolean trimTrailingSpaces;
+
+    /**
+     * 设置查询结果是否有序
+     * 有序时两边的结果按顺序归并比较；无序时按哈希分区写入临时文件后逐个分区比较
+     *
+     * @param ordered 是否有序
+     * @return 当前选项实例（支持链式调用）
+     */
+    public ResultDiffOptions withOrdered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * 设置用于配对行的键列
+     * 有序比较时两边结果必须按这些列排序；无序比较时按键配对，报告值不同的列。
+     * 不设置时有序比较按行号配对，无序比较把整行作为键
+     *
+     * @param keyColumns 键列名
+     * @return 当前选项实例（支持链式调用）
+     */
+    public ResultDiffOptions withKeyColumns(String... keyColumns) {
+        this.keyColumns = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(keyColumns)));
+        return this;
+    }
+
+    /**
+     * 设置最多报告的差异行数，差异总数仍然完整统计
+     *
+     * @param maxReportedDifferences 最多报告的差异行数
+     * @return 当前选项实例（支持链式调用）
+     */
+    public ResultDiffOptions withMaxReportedDifferences(int maxReportedDifferences) {
+        if (maxReportedDifferences < 0) {
+            throw new IllegalArgumentException("maxReportedDifferences must not be negative: " + maxReportedDifferences);
+        }
+        this.maxReportedDifferences = maxReportedDifferences;
+        return this;
+    }
+
+    /**
+     * 设置流式读取时每次读取的行数
+     *
+     * @param fetchSize 每次读取的行数
+     * @return 当前选项实例（支持链式调用）
+     */
+    public ResultDiffOptions withFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * 设置无序比较的哈希分区数
+     *
+     * @param partitions 分区数
+     * @return 当前选项实例（支持链式调用）
+     */
+    public ResultDiffOptions withPartitions(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        this.partitions = partitions;
+        return this;
+    }
+
+    /**
+     * 设置单个分区的最大字节数，超过时该分区再次拆分，比较时内存中最多只有一个分区
+     *
+     * @param maxPartitionBytes 最大字节数
+     * @return 当前选项实例（支持链式调用）
+     */
+    public ResultDiffOptions withMaxPartitionBytes(long maxPartitionBytes) {
+        if (maxPartitionBytes < 1) {
+            throw new IllegalArgumentException("maxPartitionBytes must be positive: " + maxPartitionBytes);
+        }
+        this.maxPartitionBytes = maxPartitionBytes;
+        return this;
+    }
+
+    /**
+     * 设置无序比较写入临时文件的目录
+     *
+     * @param spillDirectory 临时目录
+     * @return 当前选项实例（支持链式调用）
+     */
+    public ResultDiffOptions withSpillDirectory(File spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        return this;
+    }
+
+    /**
+     * 设置比较字符串前是否去掉末尾空格（CHAR 列的填充方式不同时使用）
+     *
+     * @param trimTrailingSpaces 是否去掉末尾空格
+     * @return 当前选项实例（支持链式调用）
+     */
+    public ResultDiffOptions withTrimTrailingSpaces(boolean trimTrailingSpaces) {
+        this.trimTrailingSpaces = trimTrailingSpaces;
+        return this;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public List<String> getKeyColumns() {
+        return keyColumns;
+    }
+
+    public int getMaxReportedDifferences() {
+        return maxReportedDifferences;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public long getMaxPartitionBytes() {
+        return maxPartitionBytes;
+    }
+
+    public File getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public boolean isTrimTrailingSpaces() {
+        return trimTrailingSpaces;
+    }
+
+    /**
+     * 创建默认选项（无序比较，报告前 20 行差异）
+     *
+     * @return 新的选项实例
+     */
+    public static ResultDiffOptions create() {
+        return new ResultDiffOptions();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,442 @@
+package com.brianxiadong.test.db.diff;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 结果集比较器
+ * 两边的结果集都只向前读取一遍，内存占用与结果行数无关：
+ * 有序比较按行号或键列归并；无序比较先把两边的行按哈希分区写入临时文件，
+ * 再逐个分区把左边装入内存、流式读取右边进行匹配，分区过大时再次拆分
+ */
+public final class ResultSetComparator {
+
+    /**
+     * 分区最多再拆分的层数，大量重复键无法继续拆分时直接装入内存
+     */
+    private static final int MAX_SPLIT_DEPTH = 4;
+
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final char NULL_MARKER = '\u0001';
+
+    private final ResultDiffOptions options;
+    private final ValueNormalizer normalizer;
+    private final List<String> columns;
+    private final int[] keyIndexes;
+    private final List<RowDifference> differences = new ArrayList<>();
+    private long differenceCount;
+    private long leftRows;
+    private long rightRows;
+
+    private ResultSetComparator(ResultDiffOptions options, List<String> columns) {
+        this.options = options;
+        this.normalizer = new ValueNormalizer(options.isTrimTrailingSpaces());
+        this.columns = columns;
+        this.keyIndexes = resolveKeyIndexes(columns, options.getKeyColumns());
+    }
+
+    /**
+     * 比较两个结果集，两边都会被读取到末尾，但不会被关闭
+     *
+     * @param leftName  左边名称（用于报告）
+     * @param left      左边结果集
+     * @param rightName 右边名称（用于报告）
+     * @param right     右边结果集
+     * @param options   比较选项
+     * @return 比较结果
+     * @throws SQLException 读取结果集失败
+     */
+    public static ResultDiff compare(String leftName, ResultSet left, String rightName, ResultSet right,
+            ResultDiffOptions options) throws SQLException {
+        List<String> leftColumns = columnLabels(left.getMetaData());
+        List<String> rightColumns = columnLabels(right.getMetaData());
+        if (leftColumns.size() != rightColumns.size()) {
+            String schemaDifference = "列数不同: " + leftColumns + " vs " + rightColumns;
+            return new ResultDiff(leftName, rightName, leftColumns, schemaDifference, 0, 0, 0,
+                    Collections.<RowDifference>emptyList());
+        }
+        String schemaDifference = null;
+        for (int i = 0; i < leftColumns.size(); i++) {
+            if (!leftColumns.get(i).equalsIgnoreCase(rightColumns.get(i))) {
+                // 列名不同仍按位置比较值，便于同时看到数据差异
+                schemaDifference = "列名不同: " + leftColumns + " vs " + rightColumns;
+                break;
+            }
+        }
+
+        ResultSetComparator comparator = new ResultSetComparator(options, leftColumns);
+        if (options.isOrdered()) {
+            if (comparator.keyIndexes.length == 0) {
+                comparator.compareByPosition(left, right);
+            } else {
+                comparator.compareByKey(left, right);
+            }
+        } else {
+            try {
+                comparator.compareUnordered(left, right);
+            } catch (IOException e) {
+                throw new UncheckedIOException("写入比较临时文件失败", e);
+            }
+        }
+        return new ResultDiff(leftName, rightName, leftColumns, schemaDifference, comparator.leftRows,
+                comparator.rightRows, comparator.differenceCount, comparator.differences);
+    }
+
+    private void compareByPosition(ResultSet left, ResultSet right) throws SQLException {
+        int columnCount = columns.size();
+        boolean hasLeft = left.next();
+        boolean hasRight = right.next();
+        while (hasLeft || hasRight) {
+            String[] leftRow = hasLeft ? normalizer.readRow(left, columnCount) : null;
+            String[] rightRow = hasRight ? normalizer.readRow(right, columnCount) : null;
+            if (hasLeft) {
+                leftRows++;
+            }
+            if (hasRight) {
+                rightRows++;
+            }
+            String position = "#" + Math.max(leftRows, rightRows);
+            if (leftRow == null) {
+                record(RowDifference.Kind.ONLY_RIGHT, position, null, rightRow);
+            } else if (rightRow == null) {
+                record(RowDifference.Kind.ONLY_LEFT, position, leftRow, null);
+            } else {
+                recordIfDifferent(position, leftRow, rightRow);
+            }
+            // 一边读完后不再调用 next()，部分驱动在结果集耗尽后再调用会抛异常
+            hasLeft = hasLeft && left.next();
+            hasRight = hasRight && right.next();
+        }
+    }
+
+    private void compareByKey(ResultSet left, ResultSet right) throws SQLException {
+        int columnCount = columns.size();
+        String[] leftRow = nextRow(left, columnCount, true);
+        String[] rightRow = nextRow(right, columnCount, false);
+        String[] previousLeft = null;
+        String[] previousRight = null;
+        while (leftRow != null || rightRow != null) {
+            int order;
+            if (leftRow == null) {
+                order = 1;
+            } else if (rightRow == null) {
+                order = -1;
+            } else {
+                order = compareKeys(leftRow, rightRow);
+            }
+            if (order < 0) {
+                record(RowDifference.Kind.ONLY_LEFT, keyText(leftRow), leftRow, null);
+            } else if (order > 0) {
+                record(RowDifference.Kind.ONLY_RIGHT, keyText(rightRow), null, rightRow);
+            } else {
+                recordIfDifferent(keyText(leftRow), leftRow, rightRow);
+            }
+            if (order <= 0) {
+                previousLeft = leftRow;
+                leftRow = nextRow(left, columnCount, true);
+                checkSorted(previousLeft, leftRow);
+            }
+            if (order >= 0) {
+                previousRight = rightRow;
+                rightRow = nextRow(right, columnCount, false);
+                checkSorted(previousRight, rightRow);
+            }
+        }
+    }
+
+    private String[] nextRow(ResultSet resultSet, int columnCount, boolean isLeft) throws SQLException {
+        if (!resultSet.next()) {
+            return null;
+        }
+        if (isLeft) {
+            leftRows++;
+        } else {
+            rightRows++;
+        }
+        return normalizer.readRow(resultSet, columnCount);
+    }
+
+    private void checkSorted(String[] previous, String[] current) {
+        if (previous != null && current != null && compareKeys(previous, current) > 0) {
+            throw new IllegalStateException("有序比较要求结果按键列 " + options.getKeyColumns()
+                    + " 升序排列，但 " + keyText(previous) + " 出现在 " + keyText(current)
+                    + " 之前；排序规则不一致时请使用无序比较");
+        }
+    }
+
+    private void compareUnordered(ResultSet left, ResultSet right) throws SQLException, IOException {
+        int columnCount = columns.size();
+        File directory = Files.createTempDirectory(options.getSpillDirectory().toPath(), "multidb-diff-").toFile();
+        try {
+            SpillFile leftSpill = new SpillFile(directory, "left", options.getPartitions(), columnCount);
+            SpillFile rightSpill = new SpillFile(directory, "right", options.getPartitions(), columnCount);
+            try {
+                while (left.next()) {
+                    leftRows++;
+                    String[] row = normalizer.readRow(left, columnCount);
+                    leftSpill.write(partitionOf(row, 0, leftSpill.partitions()), row);
+                }
+                while (right.next()) {
+                    rightRows++;
+                    String[] row = normalizer.readRow(right, columnCount);
+                    rightSpill.write(partitionOf(row, 0, rightSpill.partitions()), row);
+                }
+            } finally {
+                leftSpill.close();
+                rightSpill.close();
+            }
+            comparePartitions(directory, leftSpill, rightSpill, 0);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private void comparePartitions(File directory, SpillFile leftSpill, SpillFile rightSpill, int depth)
+            throws IOException {
+        for (int partition = 0; partition < leftSpill.partitions(); partition++) {
+            if (leftSpill.size(partition) > options.getMaxPartitionBytes() && depth < MAX_SPLIT_DEPTH) {
+                split(directory, leftSpill, rightSpill, partition, depth + 1);
+            } else {
+                comparePartition(leftSpill, rightSpill, partition);
+            }
+            leftSpill.delete(partition);
+            rightSpill.delete(partition);
+        }
+    }
+
+    private void split(File directory, SpillFile leftSpill, SpillFile rightSpill, int partition, int depth)
+            throws IOException {
+        String prefix = depth + "-" + partition;
+        SpillFile leftParts = respill(directory, "left-" + prefix, leftSpill, partition, depth);
+        SpillFile rightParts = respill(directory, "right-" + prefix, rightSpill, partition, depth);
+        comparePartitions(directory, leftParts, rightParts, depth);
+    }
+
+    private SpillFile respill(File directory, String prefix, SpillFile source, int partition, int depth)
+            throws IOException {
+        SpillFile target = new SpillFile(directory, prefix, options.getPartitions(), columns.size());
+        try (SpillFile.Reader reader = source.open(partition)) {
+            String[] row;
+            while ((row = reader.next()) != null) {
+                target.write(partitionOf(row, depth, target.partitions()), row);
+            }
+        } finally {
+            target.close();
+        }
+        return target;
+    }
+
+    private void comparePartition(SpillFile leftSpill, SpillFile rightSpill, int partition) throws IOException {
+        if (leftSpill.size(partition) == 0 && rightSpill.size(partition) == 0) {
+            return;
+        }
+        Map<String, ArrayDeque<String[]>> leftByKey = new HashMap<>();
+        try (SpillFile.Reader reader = leftSpill.open(partition)) {
+            String[] row;
+            while ((row = reader.next()) != null) {
+                leftByKey.computeIfAbsent(keyOf(row), k -> new ArrayDeque<>(1)).add(row);
+            }
+        }
+        try (SpillFile.Reader reader = rightSpill.open(partition)) {
+            String[] rightRow;
+            while ((rightRow = reader.next()) != null) {
+                String key = keyOf(rightRow);
+                ArrayDeque<String[]> candidates = leftByKey.get(key);
+                if (candidates == null) {
+                    record(RowDifference.Kind.ONLY_RIGHT, keyText(rightRow), null, rightRow);
+                    continue;
+                }
+                String[] leftRow = candidates.poll();
+                if (candidates.isEmpty()) {
+                    leftByKey.remove(key);
+                }
+                if (keyIndexes.length > 0) {
+                    recordIfDifferent(keyText(leftRow), leftRow, rightRow);
+                }
+            }
+        }
+        Iterator<ArrayDeque<String[]>> remaining = leftByKey.values().iterator();
+        while (remaining.hasNext()) {
+            for (String[] leftRow : remaining.next()) {
+                record(RowDifference.Kind.ONLY_LEFT, keyText(leftRow), leftRow, null);
+            }
+            remaining.remove();
+        }
+    }
+
+    private void recordIfDifferent(String position, String[] leftRow, String[] rightRow) {
+        List<String> differingColumns = null;
+        for (int i = 0; i < leftRow.length; i++) {
+            String leftValue = leftRow[i];
+            String rightValue = rightRow[i];
+            if (leftValue == null ? rightValue != null : !leftValue.equals(rightValue)) {
+                if (differingColumns == null) {
+                    differingColumns = new ArrayList<>();
+                }
+                differingColumns.add(columns.get(i));
+            }
+        }
+        if (differingColumns != null) {
+            differenceCount++;
+            if (differences.size() < options.getMaxReportedDifferences()) {
+                differences.add(new RowDifference(RowDifference.Kind.VALUE_MISMATCH, position, leftRow, rightRow,
+                        differingColumns));
+            }
+        }
+    }
+
+    private void record(RowDifference.Kind kind, String position, String[] leftRow, String[] rightRow) {
+        differenceCount++;
+        if (differences.size() < options.getMaxReportedDifferences()) {
+            differences.add(new RowDifference(kind, position, leftRow, rightRow, Collections.<String>emptyList()));
+        }
+    }
+
+    /**
+     * 行的分区号，同一个键在两边一定落在同一个分区；每一层拆分使用不同的种子
+     */
+    private int partitionOf(String[] row, int depth, int partitions) {
+        int hash = 1;
+        if (keyIndexes.length == 0) {
+            for (String value : row) {
+                hash = 31 * hash + (value == null ? 0 : value.hashCode());
+            }
+        } else {
+            for (int index : keyIndexes) {
+                hash = 31 * hash + (row[index] == null ? 0 : row[index].hashCode());
+            }
+        }
+        hash ^= depth * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, partitions);
+    }
+
+    private String keyOf(String[] row) {
+        StringBuilder key = new StringBuilder();
+        if (keyIndexes.length == 0) {
+            for (String value : row) {
+                appendKeyPart(key, value);
+            }
+        } else {
+            for (int index : keyIndexes) {
+                appendKeyPart(key, row[index]);
+            }
+        }
+        return key.toString();
+    }
+
+    private static void appendKeyPart(StringBuilder key, String value) {
+        if (value == null) {
+            key.append(NULL_MARKER);
+        } else {
+            key.append(value);
+        }
+        key.append(KEY_SEPARATOR);
+    }
+
+    private String keyText(String[] row) {
+        if (keyIndexes.length == 0) {
+            return "row";
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < keyIndexes.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(columns.get(keyIndexes[i])).append('=').append(row[keyIndexes[i]]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * 按键列比较两行，数值按大小比较，其他按字符串比较，NULL 排在最前
+     */
+    private int compareKeys(String[] a, String[] b) {
+        for (int index : keyIndexes) {
+            int order = compareValues(a[index], b[index]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    }
+
+    private static int compareValues(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        BigDecimal leftNumber = parseNumber(a);
+        BigDecimal rightNumber = leftNumber != null ? parseNumber(b) : null;
+        if (leftNumber != null && rightNumber != null) {
+            return leftNumber.compareTo(rightNumber);
+        }
+        return a.compareTo(b);
+    }
+
+    private static BigDecimal parseNumber(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        char first = value.charAt(0);
+        if (first != '-' && (first < '0' || first > '9')) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<String> columnLabels(ResultSetMetaData metaData) throws SQLException {
+        List<String> labels = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            labels.add(metaData.getColumnLabel(i));
+        }
+        return labels;
+    }
+
+    private static int[] resolveKeyIndexes(List<String> columns, List<String> keyColumns) {
+        int[] indexes = new int[keyColumns.size()];
+        for (int i = 0; i < keyColumns.size(); i++) {
+            indexes[i] = -1;
+            for (int j = 0; j < columns.size(); j++) {
+                if (columns.get(j).equalsIgnoreCase(keyColumns.get(i))) {
+                    indexes[i] = j;
+                    break;
+                }
+            }
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("键列 " + keyColumns.get(i) + " 不在查询结果中: " + columns);
+            }
+        }
+        return indexes;
+    }
+
+    private static void deleteDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.brianxiadong.test.db.diff;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一行差异
+ */
+public final class RowDifference {
+
+    /**
+     * 差异类型
+     */
+    public enum Kind {
+        /**
+         * 只在左边出现
+         */
+        ONLY_LEFT,
+        /**
+         * 只在右边出现
+         */
+        ONLY_RIGHT,
+        /**
+         * 两边都有这一行，但部分列的值不同
+         */
+        VALUE_MISMATCH
+    }
+
+    private final Kind kind;
+    private final String position;
+    private final String[] leftRow;
+    private final String[] rightRow;
+    private final List<String> differingColumns;
+
+    RowDifference(Kind kind, String position, String[] leftRow, String[] rightRow, List<String> differingColumns) {
+        this.kind = kind;
+        this.position = position;
+        this.leftRow = leftRow;
+        this.rightRow = rightRow;
+        this.differingColumns = Collections.unmodifiableList(differingColumns);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * 行的位置：有序比较时为行号或键，无序比较时为键
+     */
+    public String getPosition() {
+        return position;
+    }
+
+    /**
+     * 左边规范化后的行，只在右边出现时为 null
+     */
+    public String[] getLeftRow() {
+        return leftRow != null ? leftRow.clone() : null;
+    }
+
+    /**
+     * 右边规范化后的行，只在左边出现时为 null
+     */
+    public String[] getRightRow() {
+        return rightRow != null ? rightRow.clone() : null;
+    }
+
+    /**
+     * 值不同的列名
+     */
+    public List<String> getDifferingColumns() {
+        return differingColumns;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case ONLY_LEFT:
+                return "只在左边 " + position + ": " + Arrays.toString(leftRow);
+            case ONLY_RIGHT:
+                return "只在右边 " + position + ": " + Arrays.toString(rightRow);
+            default:
+                return "值不同 " + position + " " + differingColumns + ": "
+                        + Arrays.toString(leftRow) + " <> " + Arrays.toString(rightRow);
+        }
+    }
+}
\ No newline at end of file
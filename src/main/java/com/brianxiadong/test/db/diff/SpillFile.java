@@ -0,0 +1,140 @@
+package com.brianxiadong.test.db.diff;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按哈希分区写入的临时文件
+ * 每行依次写入各列：长度（-1 表示 NULL）加 UTF-8 字节
+ */
+final class SpillFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final File[] files;
+    private final DataOutputStream[] outputs;
+    private final int columnCount;
+
+    SpillFile(File directory, String prefix, int partitions, int columnCount) {
+        this.files = new File[partitions];
+        this.outputs = new DataOutputStream[partitions];
+        this.columnCount = columnCount;
+        for (int i = 0; i < partitions; i++) {
+            files[i] = new File(directory, prefix + "-" + i + ".bin");
+        }
+    }
+
+    int partitions() {
+        return files.length;
+    }
+
+    void write(int partition, String[] row) throws IOException {
+        DataOutputStream output = outputs[partition];
+        if (output == null) {
+            // 分区在第一次写入时才创建文件，避免结果集很小时打开大量空文件
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(files[partition]), BUFFER_SIZE));
+            outputs[partition] = output;
+        }
+        for (String value : row) {
+            if (value == null) {
+                output.writeInt(-1);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * 分区文件大小，没有写入过时为 0
+     */
+    long size(int partition) {
+        return files[partition].length();
+    }
+
+    Reader open(int partition) throws IOException {
+        return new Reader(files[partition], columnCount);
+    }
+
+    void delete(int partition) {
+        files[partition].delete();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < outputs.length; i++) {
+            if (outputs[i] != null) {
+                try {
+                    outputs[i].close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+                outputs[i] = null;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 顺序读取一个分区的行
+     */
+    static final class Reader implements Closeable {
+
+        private final DataInputStream input;
+        private final int columnCount;
+
+        private Reader(File file, int columnCount) throws IOException {
+            this.input = file.exists()
+                    ? new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))
+                    : null;
+            this.columnCount = columnCount;
+        }
+
+        /**
+         * 读取下一行，没有更多行时返回 null
+         */
+        String[] next() throws IOException {
+            if (input == null) {
+                return null;
+            }
+            int length;
+            try {
+                length = input.readInt();
+            } catch (EOFException e) {
+                return null;
+            }
+            String[] row = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    length = input.readInt();
+                }
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    input.readFully(bytes);
+                    row[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (input != null) {
+                input.close();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.brianxiadong.test.db.diff;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * 列值规范化
+ * 不同驱动对同一列返回的 Java 类型可能不同（如 TINYINT(1) 返回 Boolean 或 Integer，
+ * DATETIME 返回 Timestamp 或 LocalDateTime），比较前统一转换为字符串：
+ * 数值去掉多余的 0，布尔值转为 1/0，日期时间转为 ISO 格式，二进制转为十六进制。
+ * NULL 返回 null
+ */
+final class ValueNormalizer {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final boolean trimTrailingSpaces;
+
+    ValueNormalizer(boolean trimTrailingSpaces) {
+        this.trimTrailingSpaces = trimTrailingSpaces;
+    }
+
+    /**
+     * 读取并规范化当前行
+     */
+    String[] readRow(ResultSet resultSet, int columnCount) throws SQLException {
+        String[] row = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            row[i] = normalize(resultSet.getObject(i + 1));
+        }
+        return row;
+    }
+
+    String normalize(Object value) throws SQLException {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal) {
+            return canonical((BigDecimal) value);
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return Long.toString(((Number) value).longValue());
+        }
+        if (value instanceof BigInteger) {
+            return value.toString();
+        }
+        if (value instanceof Double) {
+            double d = (Double) value;
+            return Double.isNaN(d) || Double.isInfinite(d) ? value.toString() : canonical(BigDecimal.valueOf(d));
+        }
+        if (value instanceof Float) {
+            float f = (Float) value;
+            return Float.isNaN(f) || Float.isInfinite(f) ? value.toString() : canonical(new BigDecimal(value.toString()));
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "1" : "0";
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toString();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate().toString();
+        }
+        if (value instanceof Time) {
+            return ((Time) value).toLocalTime().toString();
+        }
+        if (value instanceof TemporalAccessor) {
+            return value.toString();
+        }
+        if (value instanceof byte[]) {
+            return hex((byte[]) value);
+        }
+        if (value instanceof Blob) {
+            Blob blob = (Blob) value;
+            return hex(blob.getBytes(1, (int) blob.length()));
+        }
+        if (value instanceof Clob) {
+            return text(readClob((Clob) value));
+        }
+        return text(value.toString());
+    }
+
+    private String text(String value) {
+        if (!trimTrailingSpaces) {
+            return value;
+        }
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return value.substring(0, end);
+    }
+
+    private static String canonical(BigDecimal value) {
+        if (value.signum() == 0) {
+            return "0";
+        }
+        return value.stripTrailingZeros().toPlainString();
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] chars = new char[2 + bytes.length * 2];
+        chars[0] = '0';
+        chars[1] = 'x';
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 + i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[3 + i * 2] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static String readClob(Clob clob) throws SQLException {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[4096];
+        try (Reader reader = clob.getCharacterStream()) {
+            int read;
+            while ((read = reader.read(buffer)) > 0) {
+                text.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new SQLException("读取 CLOB 失败", e);
+        }
+        return text.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.brianxiadong.test.db.fixture;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 批量写入策略，把一批数据行写入指定表
+ */
+@FunctionalInterface
+public interface BulkWriter {
+
+    /**
+     * 写入一批数据行，事务由调用方提交
+     * 
+     * @param connection 数据库连接
+     * @param table      表名
+     * @param columns    列名
+     * @param rows       数据行
+     * @throws SQLException 写入失败时抛出异常
+     */
+    void write(Connection connection, String table, List<String> columns, List<Object[]> rows) throws SQLException;
+}
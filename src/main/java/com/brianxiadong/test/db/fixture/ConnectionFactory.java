@@ -0,0 +1,19 @@
+package com.brianxiadong.test.db.fixture;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 数据库连接工厂
+ */
+@FunctionalInterface
+public interface ConnectionFactory {
+
+    /**
+     * 打开一个新连接
+     * 
+     * @return 数据库连接
+     * @throws SQLException 连接失败时抛出异常
+     */
+    Connection open() throws SQLException;
+}
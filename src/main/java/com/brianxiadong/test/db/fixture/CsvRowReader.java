@@ -0,0 +1,135 @@
+package com.brianxiadong.test.db.fixture;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CSV 行读取器（RFC 4180）
+ * 第一行为列名；字段可以用双引号包裹，引号内的逗号、换行和连续两个双引号按原义处理。
+ * 未加引号的空字段和 {@code \N} 视为 NULL，{@code ""} 视为空字符串
+ */
+public class CsvRowReader implements FixtureRowReader {
+
+    private static final String NULL_MARKER = "\\N";
+
+    private final BufferedReader reader;
+    private final StringBuilder field = new StringBuilder();
+    private List<String> columns;
+    private long lineNumber;
+
+    public CsvRowReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public List<String> getColumns() throws IOException {
+        if (columns == null) {
+            List<Object> header = readRecord();
+            if (header == null) {
+                throw new IOException("CSV 数据集缺少列名行");
+            }
+            List<String> names = new ArrayList<>(header.size());
+            for (Object name : header) {
+                names.add(name == null ? "" : name.toString().trim());
+            }
+            columns = Collections.unmodifiableList(names);
+        }
+        return columns;
+    }
+
+    @Override
+    public Object[] next() throws IOException {
+        int columnCount = getColumns().size();
+        List<Object> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0) == null && columnCount > 1);
+
+        if (record.size() != columnCount) {
+            throw new IOException("CSV 第 " + lineNumber + " 行有 " + record.size()
+                    + " 个字段，应为 " + columnCount + " 个");
+        }
+        return record.toArray();
+    }
+
+    /**
+     * 读取一条记录，可能跨越多行
+     */
+    private List<Object> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        lineNumber++;
+
+        List<Object> record = new ArrayList<>();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        field.setLength(0);
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("CSV 第 " + lineNumber + " 行的引号没有闭合");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0 && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                record.add(toValue(wasQuoted));
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '\n' || c == -1) {
+                record.add(toValue(wasQuoted));
+                return record;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                record.add(toValue(wasQuoted));
+                return record;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private Object toValue(boolean wasQuoted) {
+        if (wasQuoted) {
+            return field.toString();
+        }
+        if (field.length() == 0 || NULL_MARKER.contentEquals(field)) {
+            return null;
+        }
+        return field.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
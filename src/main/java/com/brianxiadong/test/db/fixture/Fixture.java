@@ -0,0 +1,38 @@
+package com.brianxiadong.test.db.fixture;
+
+/**
+ * 数据集定义：把一个 CSV / JSON Lines 资源导入到指定表
+ */
+public final class Fixture {
+
+    private final String table;
+    private final String resource;
+    private final FixtureFormat format;
+
+    public Fixture(String table, String resource) {
+        this(table, resource, FixtureFormat.fromResource(resource));
+    }
+
+    public Fixture(String table, String resource, FixtureFormat format) {
+        this.table = table;
+        this.resource = resource;
+        this.format = format;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public FixtureFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public String toString() {
+        return table + "<-" + resource;
+    }
+}
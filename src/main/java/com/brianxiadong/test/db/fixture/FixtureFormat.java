@@ -0,0 +1,47 @@
+package com.brianxiadong.test.db.fixture;
+
+import java.io.Reader;
+import java.util.Locale;
+
+/**
+ * 数据集文件格式
+ */
+public enum FixtureFormat {
+
+    /**
+     * CSV，第一行为列名
+     */
+    CSV,
+
+    /**
+     * JSON Lines，每行一个扁平的 JSON 对象，键为列名
+     */
+    JSON_LINES;
+
+    /**
+     * 根据资源名称的扩展名判断格式
+     * 
+     * @param resource 资源名称
+     * @return 数据集格式
+     */
+    public static FixtureFormat fromResource(String resource) {
+        String name = resource.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) {
+            return JSON_LINES;
+        }
+        throw new IllegalArgumentException("无法识别的数据集格式: " + resource);
+    }
+
+    /**
+     * 创建对应格式的行读取器
+     * 
+     * @param reader 字符输入
+     * @return 行读取器
+     */
+    public FixtureRowReader open(Reader reader) {
+        return this == CSV ? new CsvRowReader(reader) : new JsonLinesRowReader(reader);
+    }
+}
@@ -0,0 +1,54 @@
+package com.brianxiadong.test.db.fixture;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据集导入统计
+ */
+public class FixtureLoadStats {
+
+    private final String table;
+    private final long rowCount;
+    private final long batchCount;
+    private final long elapsedNanos;
+
+    public FixtureLoadStats(String table, long rowCount, long batchCount, long elapsedNanos) {
+        this.table = table;
+        this.rowCount = rowCount;
+        this.batchCount = batchCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 每秒导入的行数
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("表 %s 导入 %d 行（%d 批），耗时 %.1fms，%.0f 行/秒",
+                table, rowCount, batchCount, getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,161 @@
+package com.brianxiadong.test.db.fixture;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 数据集导入器
+ * 调用线程流式解析数据集并按批次放入有界队列，多个工作线程各持有一个连接并行写入，
+ * 每批一个事务。内存中最多只保留 2 × 并行度 个批次，与数据集大小无关
+ */
+public class FixtureLoader {
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    private final ConnectionFactory connectionFactory;
+    private final BulkWriter writer;
+    private final FixtureOptions options;
+
+    public FixtureLoader(ConnectionFactory connectionFactory, BulkWriter writer, FixtureOptions options) {
+        this.connectionFactory = connectionFactory;
+        this.writer = writer;
+        this.options = options;
+    }
+
+    /**
+     * 导入数据集
+     *
+     * @param table  目标表
+     * @param reader 数据集行读取器
+     * @return 导入统计
+     * @throws Exception 解析或写入失败时抛出异常
+     */
+    public FixtureLoadStats load(String table, FixtureRowReader reader) throws Exception {
+        long start = System.nanoTime();
+        List<String> columns = reader.getColumns();
+        int parallelism = options.getParallelism();
+        int batchRows = options.getBatchRows();
+
+        List<Object[]> end = new ArrayList<>(0);
+        BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(parallelism * 2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong rowCount = new AtomicLong();
+        AtomicLong batchCount = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "multidb-fixture-" + THREAD_INDEX.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                workers.add(executor.submit(() -> {
+                    runWorker(table, columns, queue, end, failure, rowCount, batchCount);
+                    return null;
+                }));
+            }
+
+            try {
+                List<Object[]> batch = new ArrayList<>(batchRows);
+                Object[] row;
+                while (failure.get() == null && (row = reader.next()) != null) {
+                    batch.add(row);
+                    if (batch.size() >= batchRows) {
+                        queue.put(batch);
+                        batch = new ArrayList<>(batchRows);
+                    }
+                }
+                if (!batch.isEmpty() && failure.get() == null) {
+                    queue.put(batch);
+                }
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                // 工作线程遇到任何错误（包括 Error）后都会继续消费队列直到结束标记，这里不会永久阻塞
+                for (int i = 0; i < parallelism; i++) {
+                    queue.put(end);
+                }
+            }
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof Exception) {
+            throw (Exception) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw new IllegalStateException("导入数据集失败: " + table, error);
+        }
+
+        return new FixtureLoadStats(table, rowCount.get(), batchCount.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * 工作线程：从队列取批次写入，直到取到结束标记。
+     * 打开连接或写入失败（包括 RuntimeException 和 Error）时记录错误，之后的批次只取出丢弃，
+     * 保证调用线程放入队列时不会因为没有消费者而永久阻塞
+     */
+    private void runWorker(String table, List<String> columns, BlockingQueue<List<Object[]>> queue,
+            List<Object[]> end, AtomicReference<Throwable> failure,
+            AtomicLong rowCount, AtomicLong batchCount) throws InterruptedException {
+        Connection connection = null;
+        try {
+            connection = connectionFactory.open();
+            connection.setAutoCommit(false);
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+
+        try {
+            List<Object[]> batch;
+            while ((batch = queue.take()) != end) {
+                if (connection == null || failure.get() != null) {
+                    continue;
+                }
+                try {
+                    writer.write(connection, table, columns, batch);
+                    connection.commit();
+                    rowCount.addAndGet(batch.size());
+                    batchCount.incrementAndGet();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                    rollbackQuietly(connection);
+                }
+            }
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException | RuntimeException e) {
+                    // 忽略关闭异常
+                }
+            }
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException | RuntimeException e) {
+            // 忽略回滚异常，保留原始错误
+        }
+    }
+}
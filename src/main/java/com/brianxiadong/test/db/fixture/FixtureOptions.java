@@ -0,0 +1,60 @@
+package com.brianxiadong.test.db.fixture;
+
+/**
+ * 数据集导入选项
+ */
+public class FixtureOptions {
+
+    /**
+     * 默认每批导入的行数
+     */
+    public static final int DEFAULT_BATCH_ROWS = 1000;
+
+    private int parallelism = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private int batchRows = DEFAULT_BATCH_ROWS;
+
+    /**
+     * 设置并行导入使用的连接数
+     * 
+     * @param parallelism 连接数
+     * @return 当前选项实例（支持链式调用）
+     */
+    public FixtureOptions withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * 设置每批导入的行数，每批在一个事务中提交
+     * 
+     * @param batchRows 每批行数
+     * @return 当前选项实例（支持链式调用）
+     */
+    public FixtureOptions withBatchRows(int batchRows) {
+        if (batchRows < 1) {
+            throw new IllegalArgumentException("batchRows must be positive: " + batchRows);
+        }
+        this.batchRows = batchRows;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getBatchRows() {
+        return batchRows;
+    }
+
+    /**
+     * 创建默认选项
+     * 
+     * @return 新的选项实例
+     */
+    public static FixtureOptions create() {
+        return new FixtureOptions();
+    }
+}
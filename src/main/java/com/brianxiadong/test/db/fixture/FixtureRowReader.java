@@ -0,0 +1,27 @@
+package com.brianxiadong.test.db.fixture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 数据集行读取器，逐行解析数据集文件
+ */
+public interface FixtureRowReader extends Closeable {
+
+    /**
+     * 获取列名
+     * 
+     * @return 列名列表
+     * @throws IOException 读取失败时抛出异常
+     */
+    List<String> getColumns() throws IOException;
+
+    /**
+     * 读取下一行
+     * 
+     * @return 按列顺序排列的值（null 表示 SQL NULL），没有更多数据时返回 null
+     * @throws IOException 读取或解析失败时抛出异常
+     */
+    Object[] next() throws IOException;
+}
@@ -0,0 +1,244 @@
+package com.brianxiadong.test.db.fixture;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON Lines 行读取器
+ * 每行一个扁平 JSON 对象，列名取自第一行对象的键，之后的行按键匹配，缺少的键视为 NULL。
+ * 嵌套的对象和数组按原始 JSON 文本写入（适用于 JSON 类型的列）
+ */
+public class JsonLinesRowReader implements FixtureRowReader {
+
+    private final BufferedReader reader;
+    private List<String> columns;
+    private Map<String, Object> pending;
+    private long lineNumber;
+
+    public JsonLinesRowReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public List<String> getColumns() throws IOException {
+        if (columns == null) {
+            pending = readObject();
+            if (pending == null) {
+                throw new IOException("JSON Lines 数据集为空，无法确定列名");
+            }
+            columns = Collections.unmodifiableList(new ArrayList<>(pending.keySet()));
+        }
+        return columns;
+    }
+
+    @Override
+    public Object[] next() throws IOException {
+        List<String> names = getColumns();
+        Map<String, Object> object = pending != null ? pending : readObject();
+        pending = null;
+        if (object == null) {
+            return null;
+        }
+
+        Object[] row = new Object[names.size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = object.get(names.get(i));
+        }
+        return row;
+    }
+
+    private Map<String, Object> readObject() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.trim().isEmpty()) {
+                return new Parser(line, lineNumber).parseObject();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 单行 JSON 对象解析器
+     */
+    private static final class Parser {
+
+        private final String text;
+        private final long lineNumber;
+        private int pos;
+
+        Parser(String text, long lineNumber) {
+            this.text = text;
+            this.lineNumber = lineNumber;
+        }
+
+        Map<String, Object> parseObject() throws IOException {
+            skipWhitespace();
+            expect('{');
+            Map<String, Object> object = new LinkedHashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                object.put(key, parseValue());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return object;
+                }
+                if (c != ',') {
+                    throw error("应为 ',' 或 '}'");
+                }
+            }
+        }
+
+        private Object parseValue() throws IOException {
+            char c = peek();
+            if (c == '"') {
+                return parseString();
+            }
+            if (c == '{' || c == '[') {
+                return parseRaw();
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("无法解析的值");
+            }
+            return new BigDecimal(text.substring(start, pos));
+        }
+
+        /**
+         * 读取嵌套对象或数组的原始文本
+         */
+        private String parseRaw() throws IOException {
+            int start = pos;
+            int depth = 0;
+            boolean inString = false;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (inString) {
+                    if (c == '\\') {
+                        pos++;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return text.substring(start, pos);
+                    }
+                }
+            }
+            throw error("嵌套值没有闭合");
+        }
+
+        private String parseString() throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("不完整的 unicode 转义");
+                        }
+                        value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() throws IOException {
+            if (pos >= text.length()) {
+                throw error("意外的行尾");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() throws IOException {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) throws IOException {
+            if (next() != expected) {
+                throw error("应为 '" + expected + "'");
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException("JSON Lines 第 " + lineNumber + " 行第 " + (pos + 1) + " 列解析失败: " + message);
+        }
+    }
+}
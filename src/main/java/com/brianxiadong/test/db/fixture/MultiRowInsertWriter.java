@@ -0,0 +1,109 @@
+package com.brianxiadong.test.db.fixture;
+
+import com.brianxiadong.test.db.jdbc.SqlIdentifiers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 多行 INSERT 写入策略
+ * 一条 {@code INSERT INTO t (...) VALUES (...), (...), ...} 写入多行，MySQL 和 OceanBase 通用
+ */
+public class MultiRowInsertWriter implements BulkWriter {
+
+    /**
+     * MySQL 协议单条语句的占位符上限
+     */
+    private static final int MAX_PLACEHOLDERS = 65535;
+
+    /**
+     * 默认单条 INSERT 包含的最大行数
+     */
+    public static final int DEFAULT_ROWS_PER_STATEMENT = 500;
+
+    private final int rowsPerStatement;
+
+    public MultiRowInsertWriter() {
+        this(DEFAULT_ROWS_PER_STATEMENT);
+    }
+
+    public MultiRowInsertWriter(int rowsPerStatement) {
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    @Override
+    public void write(Connection connection, String table, List<String> columns, List<Object[]> rows)
+            throws SQLException {
+        int columnCount = columns.size();
+        int maxRows = Math.max(1, Math.min(rowsPerStatement, MAX_PLACEHOLDERS / columnCount));
+
+        PreparedStatement full = null;
+        try {
+            int offset = 0;
+            while (offset < rows.size()) {
+                int count = Math.min(maxRows, rows.size() - offset);
+                if (count == maxRows) {
+                    // 满批次复用同一条预编译语句
+                    if (full == null) {
+                        full = connection.prepareStatement(buildSql(table, columns, maxRows));
+                    }
+                    bind(full, rows, offset, count, columnCount);
+                    full.executeUpdate();
+                } else {
+                    try (PreparedStatement tail = connection.prepareStatement(buildSql(table, columns, count))) {
+                        bind(tail, rows, offset, count, columnCount);
+                        tail.executeUpdate();
+                    }
+                }
+                offset += count;
+            }
+        } finally {
+            if (full != null) {
+                full.close();
+            }
+        }
+    }
+
+    /**
+     * 生成多行 INSERT 语句
+     * 
+     * @param table   表名
+     * @param columns 列名
+     * @param rows    行数
+     * @return INSERT 语句
+     */
+    public static String buildSql(String table, List<String> columns, int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(SqlIdentifiers.quote(table)).append(" (");
+        StringBuilder placeholders = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+                placeholders.append(", ");
+            }
+            sql.append(SqlIdentifiers.quote(columns.get(i)));
+            placeholders.append('?');
+        }
+        placeholders.append(')');
+        sql.append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement statement, List<Object[]> rows, int offset, int count,
+            int columnCount) throws SQLException {
+        int index = 1;
+        for (int r = offset; r < offset + count; r++) {
+            Object[] row = rows.get(r);
+            for (int c = 0; c < columnCount; c++) {
+                statement.setObject(index++, row[c]);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.brianxiadong.test.db.fixture;
+
+import com.brianxiadong.test.db.jdbc.SqlIdentifiers;
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * MySQL {@code LOAD DATA LOCAL INFILE} 写入策略
+ * 把一批数据行序列化为 CSV 放在内存中，通过驱动的本地文件流交给服务端导入，
+ * 需要连接参数 {@code allowLoadLocalInfile=true} 且服务端开启 {@code local_infile}
+ */
+public class MySqlLoadDataWriter implements BulkWriter {
+
+    @Override
+    public void write(Connection connection, String table, List<String> columns, List<Object[]> rows)
+            throws SQLException {
+        StringBuilder csv = new StringBuilder(rows.size() * columns.size() * 16);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                appendValue(csv, row[i]);
+            }
+            csv.append('\n');
+        }
+
+        StringBuilder sql = new StringBuilder("LOAD DATA LOCAL INFILE 'fixture.csv' INTO TABLE ")
+                .append(SqlIdentifiers.quote(table))
+                .append(" CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'")
+                .append(" ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(SqlIdentifiers.quote(columns.get(i)));
+        }
+        sql.append(')');
+
+        try (Statement statement = connection.createStatement()) {
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(
+                    new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+            statement.execute(sql.toString());
+        }
+    }
+
+    private static void appendValue(StringBuilder csv, Object value) {
+        if (value == null) {
+            csv.append("\\N");
+            return;
+        }
+        if (value instanceof Boolean) {
+            csv.append((Boolean) value ? '1' : '0');
+            return;
+        }
+        String text = value.toString();
+        csv.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    csv.append("\\\\");
+                    break;
+                case '"':
+                    csv.append("\\\"");
+                    break;
+                case '\n':
+                    csv.append("\\n");
+                    break;
+                case '\r':
+                    csv.append("\\r");
+                    break;
+                case '\0':
+                    csv.append("\\0");
+                    break;
+                default:
+                    csv.append(c);
+            }
+        }
+        csv.append('"');
+    }
+}
@@ -1,13 +1,41 @@
 package com.brianxiadong.test.db.handler;
 
 import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.DurabilityMode;
+
+import com.brianxiadong.test.db.fixture.BulkWriter;
+import com.brianxiadong.test.db.fixture.Fixture;
+import com.brianxiadong.test.db.fixture.FixtureFormat;
+import com.brianxiadong.test.db.fixture.FixtureLoadStats;
+import com.brianxiadong.test.db.fixture.FixtureLoader;
+import com.brianxiadong.test.db.fixture.FixtureOptions;
+import com.brianxiadong.test.db.fixture.FixtureRowReader;
+import com.brianxiadong.test.db.fixture.MultiRowInsertWriter;
+import com.brianxiadong.test.db.jdbc.DirtyTableTracker;
+import com.brianxiadong.test.db.jdbc.SqlIdentifiers;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.lifecycle.Phase;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.readiness.BackoffReadinessStrategy;
+import com.brianxiadong.test.db.readiness.ReadinessProbe;
+import com.brianxiadong.test.db.readiness.ReadinessReport;
+import com.brianxiadong.test.db.readiness.ReadinessStrategy;
+import com.brianxiadong.test.db.script.ParsedScriptCache;
+import com.brianxiadong.test.db.script.ScriptExecutionStats;
+import com.brianxiadong.test.db.script.SqlScriptExecutor;
+import com.brianxiadong.test.db.script.SqlScriptOptions;
+import com.brianxiadong.test.db.script.SqlStatementSource;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 数据库处理器抽象基类
@@ -15,73 +43,373 @@ import java.sql.Statement;
  */
 public abstract class AbstractDatabaseHandler implements DatabaseHandler {
 
+    private final SnapshotMetrics snapshotMetrics = new SnapshotMetrics();
+
+    private volatile SchemaSnapshot schemaSnapshot;
+
+    private ReadinessStrategy readinessStrategy = BackoffReadinessStrategy.create();
+
+    private volatile ReadinessReport readinessReport;
+
+    private boolean prebakeEnabled;
+
+    private String prebakedImage;
+
+    private DurabilityMode durabilityMode = DurabilityMode.DEFAULT;
+
+    @Override
+    public void setReadinessStrategy(ReadinessStrategy readinessStrategy) {
+        this.readinessStrategy = readinessStrategy;
+    }
+
+    protected ReadinessStrategy getReadinessStrategy() {
+        return readinessStrategy;
+    }
+
+    @Override
+    public ReadinessReport getReadinessReport() {
+        return readinessReport;
+    }
+
+    /**
+     * 按当前策略等待就绪并记录就绪报告
+     * 
+     * @param name  等待对象的名称
+     * @param probe 就绪探针
+     * @throws InterruptedException 等待被中断时抛出异常
+     */
+    protected void awaitReady(String name, ReadinessProbe probe) throws InterruptedException {
+        readinessReport = null;
+        long start = Lifecycle.start();
+        try {
+            readinessReport = readinessStrategy.await(name, probe);
+        } catch (InterruptedException | RuntimeException e) {
+            Lifecycle.end(Phase.READINESS_WAIT, start, e);
+            throw e;
+        }
+        Lifecycle.end(Phase.READINESS_WAIT, start);
+        MultiDbLog.info("就绪检查完成 " + readinessReport);
+    }
+
     @Override
     public void executeInitScript(DatabaseInfo dbInfo, String scriptName) throws Exception {
+        executeInitScript(dbInfo, scriptName, SqlScriptOptions.create());
+    }
+
+    @Override
+    public void executeInitScript(DatabaseInfo dbInfo, String scriptName, SqlScriptOptions options) throws Exception {
         if (scriptName == null || scriptName.trim().isEmpty()) {
             return;
         }
 
-        System.out.println("执行初始化脚本: " + scriptName);
+        MultiDbLog.info("执行初始化脚本: " + scriptName);
 
-        // 读取脚本内容
-        InputStream inputStream = getClass().getClassLoader().getResourceAsStream(scriptName);
-        if (inputStream == null) {
+        // 查找脚本资源
+        URL resource = getClass().getClassLoader().getResource(scriptName);
+        if (resource == null) {
             throw new RuntimeException("找不到初始化脚本: " + scriptName);
         }
 
-        StringBuilder sqlContent = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sqlContent.append(line).append("\n");
+        // 解析结果按内容哈希缓存，过大的脚本流式解析；语句分批执行
+        long start = Lifecycle.start();
+        // 测试中执行的脚本计入写入过的表
+        try (SqlStatementSource source = ParsedScriptCache.shared().open(scriptName, resource);
+                Connection connection = DirtyTableTracker.shared().wrap(dbInfo.getJdbcUrl(),
+                        DriverManager.getConnection(getScriptJdbcUrl(dbInfo), dbInfo.getUsername(),
+                                dbInfo.getPassword()))) {
+
+            ScriptExecutionStats stats = new SqlScriptExecutor(options).execute(connection, source);
+            Lifecycle.end(Phase.INIT_SCRIPT, start);
+            if (stats.getStatementCount() == 0) {
+                MultiDbLog.info("脚本内容为空，跳过执行");
+            } else {
+                MultiDbLog.info("初始化脚本执行完成 ✓ " + stats);
             }
+
+        } catch (Exception e) {
+            Lifecycle.end(Phase.INIT_SCRIPT, start, e);
+            MultiDbLog.error("执行初始化脚本失败: " + e.getMessage());
+            throw e;
         }
+    }
 
-        // 清理SQL内容（移除注释等）
-        String cleanSql = cleanSqlContent(sqlContent.toString());
-        if (cleanSql.trim().isEmpty()) {
-            System.out.println("脚本内容为空，跳过执行");
-            return;
+    /**
+     * 获取执行脚本使用的JDBC URL
+     * 开启驱动的批量改写，使 executeBatch 合并为更少的网络往返
+     * 
+     * @param dbInfo 数据库连接信息
+     * @return JDBC URL
+     */
+    protected String getScriptJdbcUrl(DatabaseInfo dbInfo) {
+        return appendUrlParameter(dbInfo.getJdbcUrl(), "rewriteBatchedStatements", "true");
+    }
+
+    @Override
+    public FixtureLoadStats loadFixture(DatabaseInfo dbInfo, Fixture fixture, FixtureOptions options) throws Exception {
+        URL resource = getClass().getClassLoader().getResource(fixture.getResource());
+        if (resource == null) {
+            throw new RuntimeException("找不到数据集: " + fixture.getResource());
         }
 
-        // 执行SQL
+        MultiDbLog.info("导入数据集: " + fixture);
+        DirtyTableTracker.shared().recordTable(dbInfo.getJdbcUrl(), fixture.getTable());
+
+        String jdbcUrl = getFixtureJdbcUrl(dbInfo);
+        FixtureLoader loader = new FixtureLoader(
+                () -> DriverManager.getConnection(jdbcUrl, dbInfo.getUsername(), dbInfo.getPassword()),
+                createBulkWriter(dbInfo, fixture.getFormat()),
+                options);
+
+        long start = Lifecycle.start();
+        try (FixtureRowReader reader = fixture.getFormat().open(
+                new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            FixtureLoadStats stats = loader.load(fixture.getTable(), reader);
+            Lifecycle.end(Phase.FIXTURE_LOAD, start);
+            MultiDbLog.info("数据集导入完成 ✓ " + stats);
+            return stats;
+        } catch (Exception e) {
+            Lifecycle.end(Phase.FIXTURE_LOAD, start, e);
+            MultiDbLog.error("导入数据集失败: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * 获取导入数据集使用的JDBC URL
+     * 
+     * @param dbInfo 数据库连接信息
+     * @return JDBC URL
+     */
+    protected String getFixtureJdbcUrl(DatabaseInfo dbInfo) {
+        return getScriptJdbcUrl(dbInfo);
+    }
+
+    /**
+     * 选择导入数据集的写入策略，默认使用多行 INSERT
+     * 子类可以根据数据库能力返回更快的原生导入方式
+     * 
+     * @param dbInfo 数据库连接信息
+     * @param format 数据集格式
+     * @return 写入策略
+     * @throws Exception 检测数据库能力失败时抛出异常
+     */
+    protected BulkWriter createBulkWriter(DatabaseInfo dbInfo, FixtureFormat format) throws Exception {
+        return new MultiRowInsertWriter();
+    }
+
+    /**
+     * 在JDBC URL上追加连接参数，已存在同名参数时保持不变
+     * 
+     * @param jdbcUrl JDBC URL
+     * @param name    参数名
+     * @param value   参数值
+     * @return 追加参数后的JDBC URL
+     */
+    protected static String appendUrlParameter(String jdbcUrl, String name, String value) {
+        if (jdbcUrl.contains(name + "=")) {
+            return jdbcUrl;
+        }
+        return jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + name + "=" + value;
+    }
+
+    @Override
+    public void resetDatabase(DatabaseInfo dbInfo) throws Exception {
+        long start = Lifecycle.start();
         try (Connection connection = DriverManager.getConnection(
                 dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword());
                 Statement statement = connection.createStatement()) {
 
-            // 分割SQL语句并执行
-            String[] statements = cleanSql.split(";");
-            for (String sql : statements) {
-                sql = sql.trim();
-                if (!sql.isEmpty()) {
-                    System.out.println("执行SQL: " + sql);
-                    statement.execute(sql);
+            // 删除并重建当前连接所在的数据库
+            String schema = getSchema(connection, dbInfo);
+            statement.execute("DROP DATABASE IF EXISTS " + SqlIdentifiers.quote(schema));
+            statement.execute("CREATE DATABASE " + SqlIdentifiers.quote(schema));
+            statement.execute("USE " + SqlIdentifiers.quote(schema));
+            Lifecycle.end(Phase.STATE_RESET, start);
+
+            MultiDbLog.info("数据库 " + schema + " 已重置");
+        } catch (Exception e) {
+            Lifecycle.end(Phase.STATE_RESET, start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void truncateTables(DatabaseInfo dbInfo) throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword());
+                Statement statement = connection.createStatement()) {
+
+            String schema = getSchema(connection, dbInfo);
+            List<String> tables = new ArrayList<>();
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE'")) {
+                query.setString(1, schema);
+                try (ResultSet rs = query.executeQuery()) {
+                    while (rs.next()) {
+                        tables.add(rs.getString(1));
+                    }
                 }
             }
 
-            System.out.println("初始化脚本执行完成 ✓");
+            // 关闭外键检查，清空顺序不受外键约束影响
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            try {
+                for (String table : tables) {
+                    statement.execute(clearTableSql(SqlIdentifiers.qualify(schema, table)));
+                }
+            } finally {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+            MultiDbLog.info("数据库 " + schema + " 已清空 " + tables.size() + " 张表");
+        }
+    }
 
+    @Override
+    public void snapshot(DatabaseInfo dbInfo) throws Exception {
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword())) {
+            schemaSnapshot = SchemaSnapshot.take(connection, getSchema(connection, dbInfo));
         } catch (Exception e) {
-            System.err.println("执行初始化脚本失败: " + e.getMessage());
+            Lifecycle.end(Phase.SNAPSHOT_SAVE, start, e);
             throw e;
         }
+        Lifecycle.end(Phase.SNAPSHOT_SAVE, start);
+        snapshotMetrics.recordSnapshot(System.nanoTime() - start);
+
+        MultiDbLog.info(String.format("模板快照已保存: %d 张表，耗时 %.1fms",
+                schemaSnapshot.getTableCount(), snapshotMetrics.getLastSnapshotMillis()));
+    }
+
+    @Override
+    public void restore(DatabaseInfo dbInfo) throws Exception {
+        SchemaSnapshot snapshot = schemaSnapshot;
+        if (snapshot == null) {
+            throw new IllegalStateException("尚未保存模板快照，请先调用 snapshot()");
+        }
+
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword())) {
+            snapshot.restore(connection, this::clearTableSql);
+        } catch (Exception e) {
+            Lifecycle.end(Phase.SNAPSHOT_RESTORE, start, e);
+            throw e;
+        }
+        Lifecycle.end(Phase.SNAPSHOT_RESTORE, start);
+        snapshotMetrics.recordRestore(System.nanoTime() - start);
+
+        MultiDbLog.info(String.format("已从模板快照恢复 %s，耗时 %.1fms",
+                snapshot.getSchema(), snapshotMetrics.getLastRestoreMillis()));
     }
 
     /**
-     * 清理SQL内容，移除注释和空行
+     * 只清空并回填测试写入过的表和级联修改的子表，表不在快照中或存在触发器时恢复整个数据库
      */
-    private String cleanSqlContent(String sqlContent) {
-        StringBuilder cleaned = new StringBuilder();
-        String[] lines = sqlContent.split("\n");
-
-        for (String line : lines) {
-            line = line.trim();
-            // 跳过注释行和空行
-            if (!line.startsWith("--") && !line.isEmpty()) {
-                cleaned.append(line).append("\n");
+    @Override
+    public void restore(DatabaseInfo dbInfo, List<String> tables) throws Exception {
+        SchemaSnapshot snapshot = schemaSnapshot;
+        if (snapshot == null) {
+            throw new IllegalStateException("尚未保存模板快照，请先调用 snapshot()");
+        }
+        if (!snapshot.containsTables(tables)) {
+            restore(dbInfo);
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<String> restored;
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword())) {
+            restored = snapshot.restoreTables(connection, tables, this::clearTableSql);
+        } catch (Exception e) {
+            Lifecycle.end(Phase.SNAPSHOT_RESTORE, start, e);
+            throw e;
+        }
+        if (restored == null) {
+            MultiDbLog.info("数据库 " + snapshot.getSchema() + " 存在触发器或无法读取外键信息，恢复所有表");
+            restore(dbInfo);
+            return;
+        }
+        Lifecycle.end(Phase.SNAPSHOT_RESTORE, start);
+        snapshotMetrics.recordRestore(System.nanoTime() - start);
+
+        MultiDbLog.info(String.format("已从模板快照恢复 %s 中写入过的 %d 张表 %s（含级联修改的子表），耗时 %.1fms",
+                snapshot.getSchema(), restored.size(), restored, snapshotMetrics.getLastRestoreMillis()));
+    }
+
+    @Override
+    public boolean hasSnapshot() {
+        return schemaSnapshot != null;
+    }
+
+    @Override
+    public SnapshotMetrics getSnapshotMetrics() {
+        return snapshotMetrics;
+    }
+
+    @Override
+    public void setDurabilityMode(DurabilityMode durabilityMode) {
+        this.durabilityMode = durabilityMode;
+    }
+
+    @Override
+    public DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+    @Override
+    public void usePrebakedImage(String prebakedImage) {
+        if (!supportsPrebakedImage()) {
+            DatabaseHandler.super.usePrebakedImage(prebakedImage);
+        }
+        this.prebakeEnabled = true;
+        this.prebakedImage = prebakedImage;
+    }
+
+    @Override
+    public boolean isPrebakeEnabled() {
+        return prebakeEnabled;
+    }
+
+    /**
+     * 获取用于启动的预构建镜像
+     * 
+     * @return 预构建镜像，未开启或需要重新构建时返回 null
+     */
+    protected String getPrebakedImage() {
+        return prebakedImage;
+    }
+
+    @Override
+    public boolean verifyPrebakedState(DatabaseInfo dbInfo, boolean expectTables) throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword());
+                PreparedStatement statement = connection.prepareStatement(
+                        "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = ?")) {
+            statement.setString(1, getSchema(connection, dbInfo));
+            try (ResultSet rs = statement.executeQuery()) {
+                return !expectTables || (rs.next() && rs.getInt(1) > 0);
             }
         }
+    }
+
+    /**
+     * 生成恢复快照时清空表数据的语句
+     * 默认使用 TRUNCATE，子类可以根据数据库特点选择更快的方式
+     * 
+     * @param qualifiedTable 带库名的表名
+     * @return 清空表的SQL
+     */
+    protected String clearTableSql(String qualifiedTable) {
+        return "TRUNCATE TABLE " + qualifiedTable;
+    }
 
-        return cleaned.toString();
+    private String getSchema(Connection connection, DatabaseInfo dbInfo) throws Exception {
+        String schema = connection.getCatalog();
+        if (schema == null || schema.isEmpty()) {
+            throw new IllegalStateException("无法确定当前数据库: " + dbInfo.getJdbcUrl());
+        }
+        return schema;
     }
 }
\ No newline at end of file
@@ -0,0 +1,453 @@
+package com.brianxiadong.test.db.handler;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.jdbc.DirtyTableTracker;
+import com.brianxiadong.test.db.jdbc.DirtyTables;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.resource.ResourceEstimate;
+import com.brianxiadong.test.db.resource.ResourceReclaimer;
+import com.brianxiadong.test.db.resource.ResourceScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 数据库容器注册表
+ * 在JVM范围内按数据库类型和镜像复用容器：每个容器只启动一次（持久化方式等启动配置变化时重新启动），
+ * 之后的测试拿到同一个 DatabaseInfo，测试之间重置数据库状态，JVM退出时统一关闭。
+ * 已保存模板快照的容器在初始化内容不变时直接从快照恢复。
+ * 容器启动前向 {@link ResourceScheduler} 申请资源配额，其他容器排队等待配额时关闭空闲的容器
+ */
+public class ContainerRegistry implements ResourceReclaimer {
+
+    private static volatile ContainerRegistry instance;
+
+    private final BiFunction<DatabaseType, String, DatabaseHandler> handlerFactory;
+    private final ResourceScheduler scheduler;
+    private final ConcurrentMap<ContainerKey, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bootCount = new AtomicLong();
+    private final AtomicLong reuseCount = new AtomicLong();
+
+    /**
+     * 创建注册表
+     *
+     * @param handlerFactory 根据数据库类型和镜像创建处理器的工厂
+     */
+    public ContainerRegistry(BiFunction<DatabaseType, String, DatabaseHandler> handlerFactory) {
+        this(handlerFactory, ResourceScheduler.shared());
+    }
+
+    /**
+     * 创建注册表
+     *
+     * @param handlerFactory 根据数据库类型和镜像创建处理器的工厂
+     * @param scheduler      容器启动前申请资源配额的调度器
+     */
+    public ContainerRegistry(BiFunction<DatabaseType, String, DatabaseHandler> handlerFactory,
+            ResourceScheduler scheduler) {
+        this.handlerFactory = handlerFactory;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 获取JVM范围内共享的注册表，首次调用时注册关闭钩子
+     *
+     * @return 共享的注册表实例
+     */
+    public static ContainerRegistry getInstance() {
+        if (instance == null) {
+            synchronized (ContainerRegistry.class) {
+                if (instance == null) {
+                    ContainerRegistry registry = new ContainerRegistry(DatabaseHandlerFactory::createHandler);
+                    Runtime.getRuntime().addShutdownHook(
+                            new Thread(registry::stopAll, "multidb-container-shutdown"));
+                    instance = registry;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 获取容器的独占使用权
+     * 容器未启动时启动容器，已启动时直接复用。
+     * 复用的容器需要通过 {@link Entry#restoreOrReset(String)} 清理上一次测试的状态，
+     * 使用完毕后必须调用 {@link #release(Entry)}
+     *
+     * @param type        数据库类型
+     * @param dockerImage Docker镜像
+     * @return 容器条目
+     * @throws Exception 启动失败时抛出异常
+     */
+    public Entry acquire(DatabaseType type, String dockerImage) throws Exception {
+        return acquire(type, dockerImage, handler -> {
+        });
+    }
+
+    /**
+     * 获取容器的独占使用权，启动前先对处理器进行配置
+     * 配置后的持久化方式和预构建镜像模式与运行中的容器不同时，先关闭容器再按新的配置启动
+     *
+     * @param type        数据库类型
+     * @param dockerImage Docker镜像
+     * @param beforeStart 对处理器执行的配置，在申请资源配额和启动容器之前执行
+     * @return 容器条目
+     * @throws Exception 启动失败时抛出异常
+     */
+    public Entry acquire(DatabaseType type, String dockerImage, Consumer<DatabaseHandler> beforeStart)
+            throws Exception {
+        Entry entry = entries.computeIfAbsent(new ContainerKey(type, dockerImage),
+                key -> new Entry(key, handlerFactory.apply(type, dockerImage)));
+
+        entry.permit.acquire();
+        try {
+            // 先配置再比较和估算资源，例如快速模式下的 OceanBase 占用更少的内存
+            boolean running = entry.dbInfo != null && entry.handler.isRunning();
+            try {
+                beforeStart.accept(entry.handler);
+            } catch (RuntimeException | Error e) {
+                if (!running) {
+                    entry.handler.stopContainer();
+                }
+                throw e;
+            }
+            if (running && !entry.startedWith(entry.handler)) {
+                MultiDbLog.info("请求的启动配置与运行中的 " + type.getDisplayName() + " 容器不同（"
+                        + entry.startSettings + " -> " + Entry.settingsOf(entry.handler) + "），重新启动容器");
+                entry.handler.stopContainer();
+                running = false;
+            }
+            if (running) {
+                entry.reused = true;
+                entry.claimLease();
+                reuseCount.incrementAndGet();
+                MultiDbLog.info("复用 " + type.getDisplayName() + " 容器（已节省启动 " + reuseCount.get() + " 次）");
+            } else {
+                entry.dbInfo = null;
+                entry.snapshotKey = null;
+                entry.cleanKey = null;
+                entry.dirtyKey = null;
+                entry.closeLease();
+                scheduler.addReclaimer(this);
+                entry.lease = scheduler.acquire(type, entry.handler);
+                try {
+                    entry.dbInfo = entry.handler.startContainer();
+                } catch (Exception e) {
+                    entry.handler.stopContainer();
+                    entry.closeLease();
+                    throw e;
+                }
+                entry.startSettings = Entry.settingsOf(entry.handler);
+                entry.reused = false;
+                bootCount.incrementAndGet();
+            }
+            return entry;
+        } catch (Exception | Error e) {
+            entry.permit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 归还容器的使用权，容器保持运行供后续测试复用
+     *
+     * @param entry 容器条目
+     */
+    public void release(Entry entry) {
+        // 空闲的容器不属于任何线程，排队的线程不会被当作在等待自己
+        ResourceScheduler.Lease lease = entry.lease;
+        if (lease != null) {
+            lease.detach();
+        }
+        entry.permit.release();
+    }
+
+    /**
+     * 关闭一个空闲的容器，把资源让给排队中的启动请求
+     * 正在被测试使用的容器不会被关闭，被关闭的容器下次获取时重新启动
+     *
+     * @param needed 排队请求需要的资源
+     * @return 是否关闭了容器
+     */
+    @Override
+    public boolean reclaim(ResourceEstimate needed) {
+        for (Entry entry : entries.values()) {
+            if (!holdsResources(entry) || !entry.permit.tryAcquire()) {
+                continue;
+            }
+            try {
+                if (!holdsResources(entry)) {
+                    continue;
+                }
+                MultiDbLog.info("关闭空闲的 " + entry.key.type.getDisplayName() + " 容器，为等待中的容器释放 "
+                        + entry.lease.getEstimate());
+                try {
+                    entry.handler.stopContainer();
+                } catch (Exception e) {
+                    MultiDbLog.error("关闭 " + entry.key.type.getDisplayName() + " 容器失败: " + e.getMessage());
+                }
+                entry.dbInfo = null;
+                entry.snapshotKey = null;
+                entry.cleanKey = null;
+                entry.dirtyKey = null;
+                entry.closeLease();
+                return true;
+            } finally {
+                entry.permit.release();
+            }
+        }
+        return false;
+    }
+
+    private static boolean holdsResources(Entry entry) {
+        ResourceScheduler.Lease lease = entry.lease;
+        return lease != null && !lease.getEstimate().isNone();
+    }
+
+    /**
+     * 关闭所有已启动的容器
+     */
+    public void stopAll() {
+        scheduler.removeReclaimer(this);
+        List<Entry> stopping = new ArrayList<>(entries.values());
+        entries.clear();
+        for (Entry entry : stopping) {
+            try {
+                entry.handler.stopContainer();
+            } catch (Exception e) {
+                MultiDbLog.error("关闭 " + entry.key.type.getDisplayName() + " 容器失败: " + e.getMessage());
+            } finally {
+                entry.closeLease();
+            }
+        }
+        if (!stopping.isEmpty()) {
+            MultiDbLog.info(String.format("容器注册表已关闭：启动 %d 次，复用 %d 次",
+                    bootCount.get(), reuseCount.get()));
+        }
+    }
+
+    /**
+     * 获取容器实际启动次数
+     */
+    public long getBootCount() {
+        return bootCount.get();
+    }
+
+    /**
+     * 获取容器复用次数，即节省的启动次数
+     */
+    public long getReuseCount() {
+        return reuseCount.get();
+    }
+
+    /**
+     * 获取当前登记的容器数量
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 注册表中的容器条目
+     */
+    public static final class Entry {
+
+        private final ContainerKey key;
+        private final DatabaseHandler handler;
+        private final Semaphore permit = new Semaphore(1, true);
+        private volatile DatabaseInfo dbInfo;
+        private volatile boolean reused;
+        private volatile String snapshotKey;
+        private volatile String cleanKey;
+        private volatile String dirtyKey;
+        private volatile DirtyTables dirtyTables;
+        private volatile ResourceScheduler.Lease lease;
+        private volatile String startSettings;
+
+        private Entry(ContainerKey key, DatabaseHandler handler) {
+            this.key = key;
+            this.handler = handler;
+        }
+
+        /**
+         * 影响容器启动方式的配置：持久化方式和预构建镜像模式
+         * 预构建镜像的标签不参与比较：第一次启动的容器提交镜像后标签就会变化，复用的容器从快照恢复，与启动镜像无关
+         */
+        private static String settingsOf(DatabaseHandler handler) {
+            return handler.getDurabilityMode() + (handler.isPrebakeEnabled() ? "/prebaked" : "");
+        }
+
+        private boolean startedWith(DatabaseHandler handler) {
+            return settingsOf(handler).equals(startSettings);
+        }
+
+        private void claimLease() {
+            ResourceScheduler.Lease current = lease;
+            if (current != null) {
+                current.claim();
+            }
+        }
+
+        private void closeLease() {
+            ResourceScheduler.Lease current = lease;
+            lease = null;
+            if (current != null) {
+                current.close();
+            }
+        }
+
+        public DatabaseHandler getHandler() {
+            return handler;
+        }
+
+        public DatabaseInfo getDatabaseInfo() {
+            return dbInfo;
+        }
+
+        public String getDockerImage() {
+            return key.dockerImage;
+        }
+
+        /**
+         * 本次获取是否复用了已启动的容器
+         */
+        public boolean isReused() {
+            return reused;
+        }
+
+        /**
+         * 清理复用容器中上一次测试留下的状态
+         * 如果已有相同初始化内容的模板快照则从快照恢复（记录了上一次测试写入的表时只恢复这些表），
+         * 否则重置数据库
+         *
+         * @param stateKey 初始化内容的标识，例如初始化脚本名称
+         * @return 是否已从快照恢复（为 true 时无需再执行初始化）
+         * @throws Exception 恢复或重置失败时抛出异常
+         */
+        public boolean restoreOrReset(String stateKey) throws Exception {
+            if (!reused) {
+                return false;
+            }
+            String clean = cleanKey;
+            cleanKey = null;
+            DirtyTables dirty = stateKey.equals(dirtyKey) ? dirtyTables : null;
+            dirtyKey = null;
+            dirtyTables = null;
+            if (clean != null && clean.equals(stateKey)) {
+                // 上一次测试已经回滚，数据库仍是初始化后的状态
+                return true;
+            }
+            if (handler.hasSnapshot() && snapshotKey != null && snapshotKey.equals(stateKey)) {
+                if (dirty == null) {
+                    handler.restore(dbInfo);
+                } else if (!dirty.isPrecise()) {
+                    MultiDbLog.info("上一次测试" + dirty + "，恢复所有表");
+                    handler.restore(dbInfo);
+                } else if (dirty.getTables().isEmpty()) {
+                    MultiDbLog.info("上一次测试没有写入任何表，跳过快照恢复");
+                } else {
+                    handler.restore(dbInfo, dirty.getTables());
+                }
+                return true;
+            }
+            snapshotKey = null;
+            handler.resetDatabase(dbInfo);
+            return false;
+        }
+
+        /**
+         * 将初始化完成后的状态保存为模板快照
+         *
+         * @param stateKey 初始化内容的标识
+         * @throws Exception 创建快照失败时抛出异常
+         */
+        public void saveSnapshot(String stateKey) throws Exception {
+            snapshotKey = null;
+            handler.snapshot(dbInfo);
+            snapshotKey = stateKey;
+        }
+
+        /**
+         * 标记数据库仍处于初始化后的状态，例如测试事务已经完整回滚，
+         * 下一次获取时 {@link #restoreOrReset(String)} 无需任何操作
+         *
+         * @param stateKey 初始化内容的标识
+         */
+        public void markClean(String stateKey) {
+            cleanKey = stateKey;
+        }
+
+        /**
+         * 开始记录本次测试写入的表，测试结束后调用 {@link #endWriteTracking(String)}
+         */
+        public void beginWriteTracking() {
+            DirtyTableTracker.shared().begin(dbInfo.getJdbcUrl());
+        }
+
+        /**
+         * 结束记录，下一次以相同初始化内容获取时只从快照恢复写入过的表
+         *
+         * @param stateKey 初始化内容的标识
+         * @return 本次测试写入的表，没有开始记录时返回 null
+         */
+        public DirtyTables endWriteTracking(String stateKey) {
+            DirtyTables tables = DirtyTableTracker.shared().end(dbInfo.getJdbcUrl());
+            dirtyTables = tables;
+            dirtyKey = tables != null ? stateKey : null;
+            return tables;
+        }
+
+        /**
+         * 测试执行了不能回滚的语句后恢复状态
+         * 有相同初始化内容的模板快照时从快照恢复，否则清空所有表，下一次获取时再重置并重新初始化
+         *
+         * @param stateKey 初始化内容的标识
+         * @throws Exception 恢复失败时抛出异常
+         */
+        public void recoverAfterRollback(String stateKey) throws Exception {
+            cleanKey = null;
+            if (handler.hasSnapshot() && stateKey.equals(snapshotKey)) {
+                handler.restore(dbInfo);
+                cleanKey = stateKey;
+            } else {
+                handler.truncateTables(dbInfo);
+            }
+        }
+    }
+
+    private static final class ContainerKey {
+
+        private final DatabaseType type;
+        private final String dockerImage;
+
+        private ContainerKey(DatabaseType type, String dockerImage) {
+            this.type = type;
+            this.dockerImage = dockerImage;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ContainerKey)) {
+                return false;
+            }
+            ContainerKey that = (ContainerKey) o;
+            return type == that.type && Objects.equals(dockerImage, that.dockerImage);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, dockerImage);
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,22 @@
 package com.brianxiadong.test.db.handler;
 
 import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.DurabilityMode;
+import com.brianxiadong.test.db.fixture.Fixture;
+import com.brianxiadong.test.db.fixture.FixtureLoadStats;
+import com.brianxiadong.test.db.fixture.FixtureOptions;
+import com.brianxiadong.test.db.plan.PlanExplainer;
+import com.brianxiadong.test.db.pool.PoolSettings;
+import com.brianxiadong.test.db.readiness.ReadinessReport;
+import com.brianxiadong.test.db.readiness.ReadinessStrategy;
+import com.brianxiadong.test.db.resource.ResourceEstimate;
+import com.brianxiadong.test.db.script.SqlScriptOptions;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 
 /**
  * 数据库处理器接口
@@ -25,6 +41,95 @@ public interface DatabaseHandler {
      */
     void executeInitScript(DatabaseInfo dbInfo, String scriptName) throws Exception;
 
+    /**
+     * 使用指定选项执行初始化脚本
+     * 
+     * @param dbInfo     数据库连接信息
+     * @param scriptName 初始化脚本名称
+     * @param options    脚本执行选项（批大小、事务等）
+     * @throws Exception 执行失败时抛出异常
+     */
+    default void executeInitScript(DatabaseInfo dbInfo, String scriptName, SqlScriptOptions options) throws Exception {
+        executeInitScript(dbInfo, scriptName);
+    }
+
+    /**
+     * 导入数据集
+     * 
+     * @param dbInfo  数据库连接信息
+     * @param fixture 数据集定义
+     * @param options 导入选项
+     * @return 导入统计
+     * @throws Exception 导入失败时抛出异常
+     */
+    default FixtureLoadStats loadFixture(DatabaseInfo dbInfo, Fixture fixture, FixtureOptions options) throws Exception {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " 不支持导入数据集");
+    }
+
+    /**
+     * 获取该数据库推荐的连接池设置
+     * 未在 DatabaseTestConfig 中配置连接池时使用
+     * 
+     * @return 连接池设置
+     */
+    default PoolSettings getDefaultPoolSettings() {
+        return PoolSettings.create();
+    }
+
+    /**
+     * 创建流式读取结果的语句，驱动每次只从服务端读取一部分行，不会把整个结果集缓存在内存中
+     * 默认创建只向前、只读的语句并设置 fetch size，驱动需要其他方式开启流式读取时重写
+     * 
+     * @param connection 数据库连接
+     * @param fetchSize  每次读取的行数
+     * @return 语句
+     * @throws SQLException 创建失败时抛出异常
+     */
+    default Statement createStreamingStatement(Connection connection, int fetchSize) throws SQLException {
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    /**
+     * 获取执行计划解析器，用于收集测试语句的执行计划
+     * 默认返回 null，表示不支持
+     * 
+     * @return 执行计划解析器
+     */
+    default PlanExplainer getPlanExplainer() {
+        return null;
+    }
+
+    /**
+     * 设置数据库的持久化方式，在 {@link #startContainer()} 之前调用
+     * 默认忽略，例如内存数据库本来就不刷盘
+     * 
+     * @param durabilityMode 持久化方式
+     */
+    default void setDurabilityMode(DurabilityMode durabilityMode) {
+    }
+
+    /**
+     * 获取启动容器时使用的持久化方式，{@link ContainerRegistry} 只复用持久化方式相同的容器
+     * 
+     * @return 持久化方式，默认忽略设置时返回 {@link DurabilityMode#DEFAULT}
+     */
+    default DurabilityMode getDurabilityMode() {
+        return DurabilityMode.DEFAULT;
+    }
+
+    /**
+     * 获取容器运行时预计占用的宿主机资源，{@link com.brianxiadong.test.db.resource.ResourceScheduler} 据此决定能否启动
+     * 在启动前的配置（例如持久化方式）完成之后调用；
+     * 默认按 1GB 内存、1 核 CPU 估算，进程内数据库返回 {@link ResourceEstimate#NONE}
+     * 
+     * @return 资源估算
+     */
+    default ResourceEstimate getResourceEstimate() {
+        return ResourceEstimate.of(1024, 1);
+    }
+
     /**
      * 停止并清理数据库容器
      */
@@ -46,4 +151,155 @@ public interface DatabaseHandler {
     default void waitForReady() throws Exception {
         // 默认实现为空，子类可以根据需要重写
     }
+
+    /**
+     * 设置就绪等待策略
+     * 
+     * @param readinessStrategy 就绪等待策略
+     */
+    default void setReadinessStrategy(ReadinessStrategy readinessStrategy) {
+        // 默认实现为空，不需要等待就绪的处理器可以忽略
+    }
+
+    /**
+     * 获取最近一次启动的就绪报告
+     * 
+     * @return 就绪报告，尚未启动或不需要等待时返回 null
+     */
+    default ReadinessReport getReadinessReport() {
+        return null;
+    }
+
+    /**
+     * 重置数据库状态
+     * 容器复用时在两次测试之间调用，清空上一次测试留下的表和数据
+     * 
+     * @param dbInfo 数据库连接信息
+     * @throws Exception 重置失败时抛出异常
+     */
+    default void resetDatabase(DatabaseInfo dbInfo) throws Exception {
+        // 默认实现为空，子类可以根据需要重写
+    }
+
+    /**
+     * 清空当前数据库中所有表的数据，表结构保持不变
+     * 
+     * @param dbInfo 数据库连接信息
+     * @throws Exception 清空失败时抛出异常
+     */
+    default void truncateTables(DatabaseInfo dbInfo) throws Exception {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " 不支持清空表");
+    }
+
+    /**
+     * 将初始化完成后的数据库保存为模板快照
+     * 之后可以通过 {@link #restore(DatabaseInfo)} 快速恢复，无需重新执行初始化脚本
+     * 
+     * @param dbInfo 数据库连接信息
+     * @throws Exception 创建快照失败时抛出异常
+     */
+    default void snapshot(DatabaseInfo dbInfo) throws Exception {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " 不支持模板快照");
+    }
+
+    /**
+     * 将数据库恢复到模板快照时的状态
+     * 
+     * @param dbInfo 数据库连接信息
+     * @throws Exception 恢复失败时抛出异常
+     */
+    default void restore(DatabaseInfo dbInfo) throws Exception {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " 不支持模板快照");
+    }
+
+    /**
+     * 只把指定的表恢复到模板快照时的状态，其他表保持不变
+     * 实现需要一起恢复通过级联外键间接修改的子表，存在触发器等无法确定写入范围时恢复整个数据库；
+     * 默认恢复整个数据库；表不在快照中时也恢复整个数据库
+     * 
+     * @param dbInfo 数据库连接信息
+     * @param tables 测试写入过的表
+     * @throws Exception 恢复失败时抛出异常
+     */
+    default void restore(DatabaseInfo dbInfo, List<String> tables) throws Exception {
+        restore(dbInfo);
+    }
+
+    /**
+     * 检查是否已经保存了模板快照
+     * 
+     * @return 是否存在快照
+     */
+    default boolean hasSnapshot() {
+        return false;
+    }
+
+    /**
+     * 获取模板快照的耗时统计
+     * 
+     * @return 快照统计
+     */
+    default SnapshotMetrics getSnapshotMetrics() {
+        return new SnapshotMetrics();
+    }
+
+    /**
+     * 是否支持预构建镜像
+     * 支持时可以把初始化完成的容器提交为本地镜像，之后直接从该镜像启动
+     * 
+     * @return 是否支持
+     */
+    default boolean supportsPrebakedImage() {
+        return false;
+    }
+
+    /**
+     * 开启预构建镜像模式，需要在启动容器前调用
+     * 
+     * @param prebakedImage 已缓存的预构建镜像，为 null 时从基础镜像启动，初始化后用于提交新镜像
+     */
+    default void usePrebakedImage(String prebakedImage) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " 不支持预构建镜像");
+    }
+
+    /**
+     * 是否开启了预构建镜像模式（包括从预构建镜像启动和为提交镜像而启动两种情况）
+     * 开启后容器的启动方式可能不同（例如数据目录不放在 tmpfs 上），{@link ContainerRegistry} 不在两种模式之间复用容器
+     * 
+     * @return 是否开启
+     */
+    default boolean isPrebakeEnabled() {
+        return false;
+    }
+
+    /**
+     * 检查从预构建镜像启动的数据库是否保留了初始化后的状态
+     * 
+     * @param dbInfo       数据库连接信息
+     * @param expectTables 初始化内容是否会创建表
+     * @return 状态是否完整
+     * @throws Exception 检查失败时抛出异常
+     */
+    default boolean verifyPrebakedState(DatabaseInfo dbInfo, boolean expectTables) throws Exception {
+        return true;
+    }
+
+    /**
+     * 获取处理器版本，作为预构建镜像缓存键的一部分
+     * 处理器的启动或初始化逻辑发生变化时需要修改，使旧镜像失效
+     * 
+     * @return 处理器版本
+     */
+    default String getHandlerVersion() {
+        return getClass().getName();
+    }
+
+    /**
+     * 获取正在运行的容器ID
+     * 
+     * @return 容器ID，容器未启动时返回 null
+     */
+    default String getContainerId() {
+        return null;
+    }
 }
\ No newline at end of file
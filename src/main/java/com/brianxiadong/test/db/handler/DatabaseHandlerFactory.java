@@ -1,13 +1,32 @@
 package com.brianxiadong.test.db.handler;
 
 import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.log.MultiDbLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 数据库处理器工厂
- * 根据数据库类型创建对应的处理器实例
+ * 根据数据库类型创建对应的处理器实例。内置类型直接注册（打包时合并 services 文件出错也不受影响），
+ * 其他类型的处理器通过 {@link ServiceLoader} 加载 {@link DatabaseHandlerProvider}
  */
 public class DatabaseHandlerFactory {
 
+    private static final Map<DatabaseType, DatabaseHandlerProvider> PROVIDERS = new ConcurrentHashMap<>();
+
+    static {
+        PROVIDERS.put(DatabaseType.MYSQL, new BuiltinProvider(DatabaseType.MYSQL, MySQLHandler::new));
+        PROVIDERS.put(DatabaseType.OCEANBASE, new BuiltinProvider(DatabaseType.OCEANBASE, OceanBaseHandler::new));
+        PROVIDERS.put(DatabaseType.H2, new BuiltinProvider(DatabaseType.H2, image -> new H2Handler()));
+        loadProviders();
+    }
+
     /**
      * 创建数据库处理器
      * 
@@ -15,22 +34,99 @@ public class DatabaseHandlerFactory {
      * @return 对应的数据库处理器
      */
     public static DatabaseHandler createHandler(DatabaseType type) {
-        switch (type) {
-            case MYSQL:
-                return new MySQLHandler();
-            case OCEANBASE:
-                return new OceanBaseHandler();
-            default:
-                throw new UnsupportedOperationException("不支持的数据库类型: " + type);
+        return createHandler(type, type.getDefaultDockerImage());
+    }
+
+    /**
+     * 使用指定镜像创建数据库处理器
+     * 
+     * @param type        数据库类型
+     * @param dockerImage Docker镜像
+     * @return 对应的数据库处理器
+     */
+    public static DatabaseHandler createHandler(DatabaseType type, String dockerImage) {
+        DatabaseHandlerProvider provider = PROVIDERS.get(type);
+        if (provider == null) {
+            throw new UnsupportedOperationException("不支持的数据库类型: " + type
+                    + "，请通过 DatabaseHandlerProvider 注册处理器");
         }
+        return provider.createHandler(dockerImage);
     }
 
     /**
-     * 获取所有支持的数据库类型
+     * 手动注册处理器提供者，同一类型已有提供者时替换
+     * 
+     * @param provider 处理器提供者
+     */
+    public static void registerProvider(DatabaseHandlerProvider provider) {
+        DatabaseType type = provider.getType();
+        DatabaseHandlerProvider previous = PROVIDERS.put(type, provider);
+        if (previous != null && previous.getClass() != provider.getClass()) {
+            MultiDbLog.info("数据库类型 " + type + " 的处理器由 " + provider.getClass().getName() + " 提供");
+        }
+    }
+
+    /**
+     * 按名称查找数据库类型，会先加载所有处理器提供者，使扩展注册的类型可以被找到
+     * 
+     * @param name 类型名称（不区分大小写）
+     * @return 数据库类型
+     * @throws IllegalArgumentException 类型未注册
+     */
+    public static DatabaseType resolveType(String name) {
+        return DatabaseType.valueOf(name);
+    }
+
+    /**
+     * 获取所有支持的数据库类型，即已注册处理器的类型
      * 
      * @return 数据库类型数组
      */
     public static DatabaseType[] getSupportedTypes() {
-        return DatabaseType.values();
+        List<DatabaseType> types = new ArrayList<>();
+        for (DatabaseType type : DatabaseType.values()) {
+            if (PROVIDERS.containsKey(type)) {
+                types.add(type);
+            }
+        }
+        return types.toArray(new DatabaseType[0]);
+    }
+
+    private static void loadProviders() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = DatabaseHandlerFactory.class.getClassLoader();
+        }
+        try {
+            for (DatabaseHandlerProvider provider : ServiceLoader.load(DatabaseHandlerProvider.class, classLoader)) {
+                registerProvider(provider);
+            }
+        } catch (ServiceConfigurationError e) {
+            MultiDbLog.error("加载 DatabaseHandlerProvider 失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 内置类型的处理器提供者
+     */
+    private static final class BuiltinProvider implements DatabaseHandlerProvider {
+
+        private final DatabaseType type;
+        private final Function<String, DatabaseHandler> factory;
+
+        BuiltinProvider(DatabaseType type, Function<String, DatabaseHandler> factory) {
+            this.type = type;
+            this.factory = factory;
+        }
+
+        @Override
+        public DatabaseType getType() {
+            return type;
+        }
+
+        @Override
+        public DatabaseHandler createHandler(String dockerImage) {
+            return factory.apply(dockerImage);
+        }
     }
 }
\ No newline at end of file
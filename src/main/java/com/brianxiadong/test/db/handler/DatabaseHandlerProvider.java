@@ -0,0 +1,43 @@
+package com.brianxiadong.test.db.handler;
+
+import com.brianxiadong.test.db.DatabaseType;
+
+/**
+ * 数据库处理器提供者
+ * 扩展新数据库时实现该接口，并在 META-INF/services/com.brianxiadong.test.db.handler.DatabaseHandlerProvider
+ * 中登记实现类，{@link DatabaseHandlerFactory} 通过 {@link java.util.ServiceLoader} 发现。
+ * 提供内置类型的处理器时会替换内置实现
+ *
+ * <pre>
+ * public class PostgreSQLHandlerProvider implements DatabaseHandlerProvider {
+ *
+ *     public static final DatabaseType POSTGRESQL = DatabaseType.register(
+ *             "POSTGRESQL", "PostgreSQL", "org.postgresql.Driver", "postgres:13");
+ *
+ *     public DatabaseType getType() {
+ *         return POSTGRESQL;
+ *     }
+ *
+ *     public DatabaseHandler createHandler(String dockerImage) {
+ *         return new PostgreSQLHandler(dockerImage);
+ *     }
+ * }
+ * </pre>
+ */
+public interface DatabaseHandlerProvider {
+
+    /**
+     * 获取提供的数据库类型
+     * 
+     * @return 数据库类型
+     */
+    DatabaseType getType();
+
+    /**
+     * 创建数据库处理器
+     * 
+     * @param dockerImage Docker镜像，内嵌数据库为 null
+     * @return 数据库处理器
+     */
+    DatabaseHandler createHandler(String dockerImage);
+}
\ No newline at end of file
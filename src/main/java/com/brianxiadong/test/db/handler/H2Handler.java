@@ -0,0 +1,232 @@
+package com.brianxiadong.test.db.handler;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.jdbc.SqlIdentifiers;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.lifecycle.Phase;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.plan.H2PlanExplainer;
+import com.brianxiadong.test.db.plan.PlanExplainer;
+import com.brianxiadong.test.db.resource.ResourceEstimate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内嵌 H2 数据库处理器
+ * 在当前进程中创建 MySQL 兼容模式的内存数据库，启动只需几毫秒，不需要 Docker。
+ * 适合在本地快速运行测试，MySQL 特有的语法和行为仍以容器数据库为准
+ */
+public class H2Handler extends AbstractDatabaseHandler {
+
+    private static final AtomicInteger DATABASE_INDEX = new AtomicInteger();
+
+    private final DatabaseType type;
+
+    private final SnapshotMetrics snapshotMetrics = new SnapshotMetrics();
+
+    private volatile DatabaseInfo dbInfo;
+
+    private volatile List<String> snapshotScript;
+
+    public H2Handler() {
+        this(DatabaseType.H2);
+    }
+
+    /**
+     * 为自定义的内嵌数据库类型创建处理器，例如用不同的兼容模式注册新类型
+     *
+     * @param type 数据库类型，驱动必须是 H2
+     */
+    public H2Handler(DatabaseType type) {
+        this.type = type;
+    }
+
+    @Override
+    public DatabaseInfo startContainer() throws Exception {
+        try {
+            Class.forName(type.getDriverClassName());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("类路径上没有 H2 驱动，请添加 com.h2database:h2 依赖", e);
+        }
+
+        // 每个处理器使用独立的内存数据库，最后一个连接关闭后保留数据，直到 stopContainer
+        String jdbcUrl = "jdbc:h2:mem:multidb_" + DATABASE_INDEX.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        DatabaseInfo info = new DatabaseInfo(type, jdbcUrl, "sa", "");
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            // 首次连接时创建数据库
+            connection.getCatalog();
+        }
+        dbInfo = info;
+        MultiDbLog.info("H2 内存数据库已创建: " + jdbcUrl);
+        return info;
+    }
+
+    /**
+     * H2 的连接参数用分号分隔，不支持 MySQL 驱动的批量改写参数
+     */
+    @Override
+    protected String getScriptJdbcUrl(DatabaseInfo dbInfo) {
+        return dbInfo.getJdbcUrl();
+    }
+
+    /**
+     * H2 的计划只能说明测试本身的语句是否用到了索引，不代表 MySQL 上的计划
+     */
+    @Override
+    public PlanExplainer getPlanExplainer() {
+        return new H2PlanExplainer();
+    }
+
+    /**
+     * 数据库在当前进程中运行，不占用容器资源
+     */
+    @Override
+    public ResourceEstimate getResourceEstimate() {
+        return ResourceEstimate.NONE;
+    }
+
+    @Override
+    public void resetDatabase(DatabaseInfo dbInfo) throws Exception {
+        long start = Lifecycle.start();
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword());
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        } catch (Exception e) {
+            Lifecycle.end(Phase.STATE_RESET, start, e);
+            throw e;
+        }
+        Lifecycle.end(Phase.STATE_RESET, start);
+        MultiDbLog.info("H2 数据库已重置");
+    }
+
+    @Override
+    public void truncateTables(DatabaseInfo dbInfo) throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword());
+                Statement statement = connection.createStatement()) {
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery("SELECT TABLE_NAME FROM information_schema.TABLES"
+                    + " WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_TYPE = 'BASE TABLE'")) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            try {
+                for (String table : tables) {
+                    statement.execute("TRUNCATE TABLE " + SqlIdentifiers.quote(table));
+                }
+            } finally {
+                statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+            MultiDbLog.info("H2 数据库已清空 " + tables.size() + " 张表");
+        }
+    }
+
+    /**
+     * 用 SCRIPT 导出表结构和数据，保存在内存中
+     */
+    @Override
+    public void snapshot(DatabaseInfo dbInfo) throws Exception {
+        long start = System.nanoTime();
+        List<String> script = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword());
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SCRIPT NOPASSWORDS NOSETTINGS")) {
+            while (rs.next()) {
+                script.add(rs.getString(1));
+            }
+        } catch (Exception e) {
+            Lifecycle.end(Phase.SNAPSHOT_SAVE, start, e);
+            throw e;
+        }
+        snapshotScript = Collections.unmodifiableList(script);
+        Lifecycle.end(Phase.SNAPSHOT_SAVE, start);
+        snapshotMetrics.recordSnapshot(System.nanoTime() - start);
+
+        MultiDbLog.info(String.format("模板快照已保存: %d 条语句，耗时 %.1fms",
+                script.size(), snapshotMetrics.getLastSnapshotMillis()));
+    }
+
+    /**
+     * 删除所有对象后重新执行快照脚本
+     */
+    @Override
+    public void restore(DatabaseInfo dbInfo) throws Exception {
+        List<String> script = snapshotScript;
+        if (script == null) {
+            throw new IllegalStateException("尚未保存模板快照，请先调用 snapshot()");
+        }
+
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword());
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        } catch (Exception e) {
+            Lifecycle.end(Phase.SNAPSHOT_RESTORE, start, e);
+            throw e;
+        }
+        Lifecycle.end(Phase.SNAPSHOT_RESTORE, start);
+        snapshotMetrics.recordRestore(System.nanoTime() - start);
+
+        MultiDbLog.info(String.format("已从模板快照恢复 H2 数据库，耗时 %.1fms",
+                snapshotMetrics.getLastRestoreMillis()));
+    }
+
+    /**
+     * 快照是内存中的脚本，整体重放的开销很小，不按表恢复
+     */
+    @Override
+    public void restore(DatabaseInfo dbInfo, List<String> tables) throws Exception {
+        restore(dbInfo);
+    }
+
+    @Override
+    public boolean hasSnapshot() {
+        return snapshotScript != null;
+    }
+
+    @Override
+    public SnapshotMetrics getSnapshotMetrics() {
+        return snapshotMetrics;
+    }
+
+    @Override
+    public void stopContainer() {
+        DatabaseInfo info = dbInfo;
+        if (info == null) {
+            return;
+        }
+        dbInfo = null;
+        snapshotScript = null;
+        try (Connection connection = DriverManager.getConnection(
+                info.getJdbcUrl(), info.getUsername(), info.getPassword());
+                Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+            MultiDbLog.info("H2 内存数据库已关闭");
+        } catch (Exception e) {
+            MultiDbLog.error("关闭 H2 数据库失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return dbInfo != null;
+    }
+}
\ No newline at end of file
@@ -2,46 +2,222 @@ package com.brianxiadong.test.db.handler;
 
 import com.brianxiadong.test.db.DatabaseInfo;
 import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.DurabilityMode;
+import com.brianxiadong.test.db.fixture.BulkWriter;
+import com.brianxiadong.test.db.fixture.FixtureFormat;
+import com.brianxiadong.test.db.fixture.MySqlLoadDataWriter;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.plan.MySqlPlanExplainer;
+import com.brianxiadong.test.db.plan.PlanExplainer;
+import com.brianxiadong.test.db.pool.PoolSettings;
+import com.brianxiadong.test.db.readiness.ReadinessState;
+import com.brianxiadong.test.db.resource.ResourceEstimate;
 import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * MySQL数据库处理器
  */
 public class MySQLHandler extends AbstractDatabaseHandler {
 
+    /**
+     * 处理器版本，启动或初始化方式变化时递增，使旧的预构建镜像失效
+     */
+    private static final String HANDLER_VERSION = "1";
+
+    /**
+     * 预构建模式下的数据目录
+     * 官方镜像把 /var/lib/mysql 声明为卷，卷中的数据不会被 docker commit 提交，需要换到卷之外的目录
+     */
+    private static final String PREBAKED_DATADIR = "/var/lib/mysql-prebaked";
+
+    /**
+     * {@link DurabilityMode#FAST} 下的服务端参数：提交时不刷 redo log、不写二进制日志、关闭双写缓冲，
+     * 缓冲池放大到 256MB 使测试数据常驻内存，关闭 performance_schema 减少启动时间和内存
+     */
+    private static final List<String> FAST_OPTIONS = Collections.unmodifiableList(Arrays.asList(
+            "--innodb-flush-log-at-trx-commit=0",
+            "--sync-binlog=0",
+            "--skip-log-bin",
+            "--innodb-doublewrite=0",
+            "--innodb-buffer-pool-size=256M",
+            "--performance-schema=OFF"));
+
+    private final String dockerImage;
+
     private MySQLContainer<?> container;
 
+    public MySQLHandler() {
+        this(DatabaseType.MYSQL.getDefaultDockerImage());
+    }
+
+    public MySQLHandler(String dockerImage) {
+        this.dockerImage = dockerImage;
+    }
+
     @Override
     public DatabaseInfo startContainer() throws Exception {
-        System.out.println("\n========================================");
-        System.out.println("开始启动 MySQL 容器");
-        System.out.println("========================================");
+        MultiDbLog.info("\n========================================");
+        MultiDbLog.info("开始启动 MySQL 容器");
+        MultiDbLog.info("========================================");
 
-        // 启动 MySQL 容器
-        container = new MySQLContainer<>(DatabaseType.MYSQL.getDefaultDockerImage())
+        // 启动 MySQL 容器（预构建模式下优先使用已缓存的镜像）
+        String prebakedImage = getPrebakedImage();
+        DockerImageName imageName = prebakedImage != null
+                ? DockerImageName.parse(prebakedImage).asCompatibleSubstituteFor("mysql")
+                : DockerImageName.parse(dockerImage);
+        container = new MySQLContainer<>(imageName)
                 .withDatabaseName("security")
                 .withUsername("root")
                 .withPassword("password");
+        List<String> command = new ArrayList<>();
+        if (isPrebakeEnabled()) {
+            command.add("--datadir=" + PREBAKED_DATADIR);
+            if (prebakedImage != null) {
+                MultiDbLog.info("使用预构建镜像: " + prebakedImage);
+            }
+        }
+        if (getDurabilityMode() == DurabilityMode.FAST) {
+            command.addAll(FAST_OPTIONS);
+            // 预构建模式下数据目录要随容器提交，不能放在 tmpfs 上
+            if (!isPrebakeEnabled()) {
+                container.withTmpFs(Collections.singletonMap("/var/lib/mysql", "rw"));
+            }
+            MultiDbLog.info("MySQL 使用快速持久化设置" + (isPrebakeEnabled() ? "" : "，数据目录位于 tmpfs"));
+        }
+        if (!command.isEmpty()) {
+            container.withCommand(command.toArray(new String[0]));
+        }
 
         container.start();
 
+        // 等待 MySQL 可以执行查询
+        waitForReady();
+
         DatabaseInfo dbInfo = new DatabaseInfo(
                 DatabaseType.MYSQL,
                 container.getJdbcUrl(),
                 container.getUsername(),
                 container.getPassword());
 
-        System.out.println("MySQL 容器启动成功");
-        System.out.println("数据库URL: " + dbInfo.getJdbcUrl());
+        MultiDbLog.info("MySQL 容器启动成功");
+        MultiDbLog.info("数据库URL: " + dbInfo.getJdbcUrl());
 
         return dbInfo;
     }
 
+    @Override
+    public void waitForReady() throws Exception {
+        awaitReady("MySQL", () -> {
+            if (!container.isRunning()) {
+                throw new IllegalStateException("MySQL 容器已退出");
+            }
+            try (Connection connection = DriverManager.getConnection(
+                    container.getJdbcUrl(), container.getUsername(), container.getPassword());
+                    Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+                return ReadinessState.READY;
+            }
+        });
+    }
+
+    /**
+     * 开启客户端预处理语句缓存、服务端预处理和批量改写
+     */
+    @Override
+    public PoolSettings getDefaultPoolSettings() {
+        return PoolSettings.create()
+                .withDataSourceProperty("cachePrepStmts", "true")
+                .withDataSourceProperty("prepStmtCacheSize", "250")
+                .withDataSourceProperty("prepStmtCacheSqlLimit", "2048")
+                .withDataSourceProperty("useServerPrepStmts", "true")
+                .withDataSourceProperty("rewriteBatchedStatements", "true");
+    }
+
+    /**
+     * MySQL 驱动默认把整个结果集读入内存，fetch size 为 Integer.MIN_VALUE 时才逐行流式读取
+     */
+    @Override
+    public Statement createStreamingStatement(Connection connection, int fetchSize) throws SQLException {
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(Integer.MIN_VALUE);
+        return statement;
+    }
+
+    /**
+     * 使用 EXPLAIN FORMAT=JSON
+     */
+    @Override
+    public PlanExplainer getPlanExplainer() {
+        return new MySqlPlanExplainer();
+    }
+
+    /**
+     * 默认配置的 MySQL 8.0（InnoDB 缓冲池 128MB）在测试负载下常驻内存约 500MB，按 1GB 预留
+     */
+    @Override
+    public ResourceEstimate getResourceEstimate() {
+        return ResourceEstimate.of(1024, 1);
+    }
+
+    @Override
+    protected String getFixtureJdbcUrl(DatabaseInfo dbInfo) {
+        return appendUrlParameter(super.getFixtureJdbcUrl(dbInfo), "allowLoadLocalInfile", "true");
+    }
+
+    /**
+     * CSV 数据集优先使用 LOAD DATA LOCAL INFILE，服务端无法开启 local_infile 时退回多行 INSERT
+     */
+    @Override
+    protected BulkWriter createBulkWriter(DatabaseInfo dbInfo, FixtureFormat format) throws Exception {
+        if (format == FixtureFormat.CSV && enableLocalInfile(dbInfo)) {
+            return new MySqlLoadDataWriter();
+        }
+        return super.createBulkWriter(dbInfo, format);
+    }
+
+    private boolean enableLocalInfile(DatabaseInfo dbInfo) {
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword());
+                Statement statement = connection.createStatement()) {
+            statement.execute("SET GLOBAL local_infile = 1");
+            return true;
+        } catch (SQLException e) {
+            MultiDbLog.info("无法开启 local_infile，改用多行 INSERT 导入: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean supportsPrebakedImage() {
+        return true;
+    }
+
+    @Override
+    public String getHandlerVersion() {
+        return getClass().getName() + ":" + HANDLER_VERSION;
+    }
+
+    @Override
+    public String getContainerId() {
+        return container != null ? container.getContainerId() : null;
+    }
+
     @Override
     public void stopContainer() {
         if (container != null && container.isRunning()) {
             container.stop();
-            System.out.println("MySQL 容器已关闭");
+            MultiDbLog.info("MySQL 容器已关闭");
         }
     }
 
@@ -2,12 +2,21 @@ package com.brianxiadong.test.db.handler;
 
 import com.brianxiadong.test.db.DatabaseInfo;
 import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.DurabilityMode;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.plan.OceanBasePlanExplainer;
+import com.brianxiadong.test.db.plan.PlanExplainer;
+import com.brianxiadong.test.db.pool.PoolSettings;
+import com.brianxiadong.test.db.readiness.ReadinessProbes;
+import com.brianxiadong.test.db.readiness.ReadinessState;
+import com.brianxiadong.test.db.resource.ResourceEstimate;
 import org.testcontainers.oceanbase.OceanBaseCEContainer;
 import org.testcontainers.utility.DockerImageName;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.Duration;
 
@@ -16,22 +25,65 @@ import java.time.Duration;
  */
 public class OceanBaseHandler extends AbstractDatabaseHandler {
 
+    /**
+     * 处理器版本，启动或初始化方式变化时递增，使旧的预构建镜像失效
+     */
+    private static final String HANDLER_VERSION = "1";
+
+    /**
+     * {@link DurabilityMode#FAST} 下在 sys 租户执行的集群参数：只记录错误日志并限制日志文件数量，
+     * 关闭 SQL 审计、性能事件和 trace 日志的采集，减少每条语句的额外写入
+     */
+    private static final String[] FAST_SETTINGS = {
+            "ALTER SYSTEM SET syslog_level = 'ERROR'",
+            "ALTER SYSTEM SET enable_syslog_recycle = True",
+            "ALTER SYSTEM SET max_syslog_file_count = 4",
+            "ALTER SYSTEM SET enable_sql_audit = False",
+            "ALTER SYSTEM SET enable_perf_event = False",
+            "ALTER SYSTEM SET enable_record_trace_log = False"
+    };
+
+    private final String dockerImage;
+
     private OceanBaseCEContainer container;
 
+    public OceanBaseHandler() {
+        this(DatabaseType.OCEANBASE.getDefaultDockerImage());
+    }
+
+    public OceanBaseHandler(String dockerImage) {
+        this.dockerImage = dockerImage;
+    }
+
     @Override
     public DatabaseInfo startContainer() throws Exception {
-        System.out.println("\n========================================");
-        System.out.println("开始启动 OceanBase 容器");
-        System.out.println("========================================");
-
-        // 启动 OceanBase 容器
-        container = new OceanBaseCEContainer(DockerImageName.parse(DatabaseType.OCEANBASE.getDefaultDockerImage()))
+        MultiDbLog.info("\n========================================");
+        MultiDbLog.info("开始启动 OceanBase 容器");
+        MultiDbLog.info("========================================");
+
+        // 启动 OceanBase 容器（预构建模式下优先使用已缓存的镜像，跳过集群部署和租户创建）
+        String prebakedImage = getPrebakedImage();
+        DockerImageName imageName = prebakedImage != null
+                ? DockerImageName.parse(prebakedImage).asCompatibleSubstituteFor("oceanbase/oceanbase-ce")
+                : DockerImageName.parse(dockerImage);
+        if (prebakedImage != null) {
+            MultiDbLog.info("使用预构建镜像: " + prebakedImage);
+        }
+        container = new OceanBaseCEContainer(imageName)
                 .withStartupTimeout(Duration.ofMinutes(5));
+        boolean fast = getDurabilityMode() == DurabilityMode.FAST;
+        if (fast) {
+            // slim 模式面向测试场景，使用更少的内存和磁盘，不启动 obagent
+            container.withEnv("MODE", "slim");
+        }
 
         container.start();
 
         // 等待 OceanBase 准备就绪
         waitForReady();
+        if (fast) {
+            applyFastSettings();
+        }
 
         // 创建 security 数据库
         String oceanbaseJdbcUrl = container.getJdbcUrl().replace("/test", "/security");
@@ -41,8 +93,8 @@ public class OceanBaseHandler extends AbstractDatabaseHandler {
                 container.getUsername(),
                 container.getPassword());
 
-        System.out.println("OceanBase 容器启动成功");
-        System.out.println("数据库URL: " + dbInfo.getJdbcUrl());
+        MultiDbLog.info("OceanBase 容器启动成功");
+        MultiDbLog.info("数据库URL: " + dbInfo.getJdbcUrl());
 
         return dbInfo;
     }
@@ -50,36 +102,31 @@ public class OceanBaseHandler extends AbstractDatabaseHandler {
     @Override
     public void waitForReady() throws Exception {
         // 等待 OceanBase 的 test 租户变为 NORMAL 状态
-        String sysUrl = String.format("jdbc:oceanbase://%s:%d/oceanbase",
-                container.getHost(), container.getMappedPort(2881));
+        String host = container.getHost();
+        int port = container.getMappedPort(2881);
+        String sysUrl = String.format("jdbc:oceanbase://%s:%d/oceanbase", host, port);
         String sysUser = "root@sys";
         String sysPassword = container.getPassword();
 
-        boolean tenantReady = false;
-        for (int i = 0; i < 120; i++) {
+        awaitReady("OceanBase tenant 'test'", () -> {
+            if (!container.isRunning()) {
+                throw new IllegalStateException("OceanBase 容器已退出");
+            }
+            // 先用TCP探测端口，避免在端口未开放时反复建立JDBC连接
+            if (!ReadinessProbes.isPortOpen(host, port, 1000)) {
+                return ReadinessState.UNREACHABLE;
+            }
             try (Connection sysConnection = DriverManager.getConnection(sysUrl, sysUser, sysPassword);
                     Statement statement = sysConnection.createStatement();
                     ResultSet rs = statement.executeQuery(
                             "select status from oceanbase.DBA_OB_TENANTS where tenant_name = 'test'")) {
 
-                if (rs.next()) {
-                    String status = rs.getString(1);
-                    if ("NORMAL".equalsIgnoreCase(status)) {
-                        tenantReady = true;
-                        break;
-                    }
+                if (rs.next() && "NORMAL".equalsIgnoreCase(rs.getString(1))) {
+                    return ReadinessState.READY;
                 }
-
-            } catch (Exception e) {
-                // 忽略异常，继续重试
+                return ReadinessState.CONNECTED;
             }
-
-            Thread.sleep(5000); // 等待5秒后重试
-        }
-
-        if (!tenantReady) {
-            throw new RuntimeException("OceanBase tenant 'test' failed to become ready");
-        }
+        });
 
         // 创建 security 数据库
         try (Connection connection = DriverManager.getConnection(
@@ -87,15 +134,89 @@ public class OceanBaseHandler extends AbstractDatabaseHandler {
                 Statement statement = connection.createStatement()) {
 
             statement.execute("CREATE DATABASE IF NOT EXISTS security");
-            System.out.println("OceanBase security 数据库创建成功");
+            MultiDbLog.info("OceanBase security 数据库创建成功");
         }
     }
 
+    /**
+     * 在 sys 租户上应用快速模式的参数，不同版本支持的参数不同，单个参数失败只记录日志
+     */
+    private void applyFastSettings() throws SQLException {
+        String sysUrl = String.format("jdbc:oceanbase://%s:%d/oceanbase",
+                container.getHost(), container.getMappedPort(2881));
+        int applied = 0;
+        try (Connection connection = DriverManager.getConnection(sysUrl, "root@sys", container.getPassword());
+                Statement statement = connection.createStatement()) {
+            for (String sql : FAST_SETTINGS) {
+                try {
+                    statement.execute(sql);
+                    applied++;
+                } catch (SQLException e) {
+                    MultiDbLog.info("OceanBase 不支持快速模式参数，已跳过: " + sql + "（" + e.getMessage() + "）");
+                }
+            }
+        }
+        MultiDbLog.info("OceanBase 使用快速持久化设置，已应用 " + applied + "/" + FAST_SETTINGS.length + " 个参数");
+    }
+
+    /**
+     * 开启客户端预处理语句缓存和批量改写
+     * OceanBase 的服务端预处理会占用租户的计划缓存，默认不开启
+     */
+    @Override
+    public PoolSettings getDefaultPoolSettings() {
+        return PoolSettings.create()
+                .withDataSourceProperty("cachePrepStmts", "true")
+                .withDataSourceProperty("prepStmtCacheSize", "250")
+                .withDataSourceProperty("prepStmtCacheSqlLimit", "2048")
+                .withDataSourceProperty("rewriteBatchedStatements", "true");
+    }
+
+    @Override
+    public PlanExplainer getPlanExplainer() {
+        return new OceanBasePlanExplainer();
+    }
+
+    /**
+     * 默认的 mini 模式 observer 启动时预留约 6GB 内存，快速模式下的 slim 模式约 4GB，两者都至少需要 2 个核
+     * 需要在 {@link #setDurabilityMode} 之后调用
+     */
+    @Override
+    public ResourceEstimate getResourceEstimate() {
+        return getDurabilityMode() == DurabilityMode.FAST
+                ? ResourceEstimate.of(4096, 2)
+                : ResourceEstimate.of(6144, 2);
+    }
+
+    /**
+     * OceanBase 的 TRUNCATE 属于DDL，耗时远高于小表上的 DELETE，恢复快照时使用 DELETE 清空数据
+     * DELETE 不会重置自增计数，快照回填后把计数恢复到快照时的值
+     */
+    @Override
+    protected String clearTableSql(String qualifiedTable) {
+        return "DELETE FROM " + qualifiedTable;
+    }
+
+    @Override
+    public boolean supportsPrebakedImage() {
+        return true;
+    }
+
+    @Override
+    public String getHandlerVersion() {
+        return getClass().getName() + ":" + HANDLER_VERSION;
+    }
+
+    @Override
+    public String getContainerId() {
+        return container != null ? container.getContainerId() : null;
+    }
+
     @Override
     public void stopContainer() {
         if (container != null && container.isRunning()) {
             container.stop();
-            System.out.println("OceanBase 容器已关闭");
+            MultiDbLog.info("OceanBase 容器已关闭");
         }
     }
 
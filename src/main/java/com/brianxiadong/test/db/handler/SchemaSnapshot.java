@@ -0,0 +1,384 @@
+package com.brianxiadong.test.db.handler;
+
+import com.brianxiadong.test.db.jdbc.SqlIdentifiers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 初始化完成后的数据库模板快照
+ * 表结构保存在内存中（SHOW CREATE TABLE），数据复制到同实例的影子库中，
+ * 恢复时只清空表并从影子库回填数据，表结构未变化的表不会重新执行DDL，自增计数恢复到快照时的值；
+ * 知道测试写入过哪些表时可以只恢复这些表（以及通过级联外键间接修改的子表）
+ */
+final class SchemaSnapshot {
+
+    static final String SHADOW_SUFFIX = "__snapshot";
+
+    private static final Pattern AUTO_INCREMENT = Pattern.compile("\\s+AUTO_INCREMENT\\s*=\\s*\\d+", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern AUTO_INCREMENT_COUNTER = Pattern.compile("\\bAUTO_INCREMENT\\s*=\\s*(\\d+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern AUTO_INCREMENT_COLUMN = Pattern.compile("\\bAUTO_INCREMENT\\b(?!\\s*=)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final String schema;
+    private final String shadowSchema;
+    private final Map<String, TableSnapshot> tables;
+    private final Map<String, String> views;
+
+    private SchemaSnapshot(String schema, String shadowSchema,
+            Map<String, TableSnapshot> tables, Map<String, String> views) {
+        this.schema = schema;
+        this.shadowSchema = shadowSchema;
+        this.tables = tables;
+        this.views = views;
+    }
+
+    /**
+     * 为指定数据库创建快照
+     */
+    static SchemaSnapshot take(Connection connection, String schema) throws SQLException {
+        String shadowSchema = schema + SHADOW_SUFFIX;
+        Map<String, TableSnapshot> tables = new LinkedHashMap<>();
+        Map<String, String> views = new LinkedHashMap<>();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            try {
+                statement.execute("DROP DATABASE IF EXISTS " + SqlIdentifiers.quote(shadowSchema));
+                statement.execute("CREATE DATABASE " + SqlIdentifiers.quote(shadowSchema));
+
+                for (Map.Entry<String, String> table : listTables(connection, schema).entrySet()) {
+                    String name = table.getKey();
+                    if ("VIEW".equalsIgnoreCase(table.getValue())) {
+                        views.put(name, showCreate(statement, "VIEW", schema, name));
+                        continue;
+                    }
+
+                    String ddl = showCreate(statement, "TABLE", schema, name);
+                    statement.execute("CREATE TABLE " + SqlIdentifiers.qualify(shadowSchema, name)
+                            + " LIKE " + SqlIdentifiers.qualify(schema, name));
+                    int rows = statement.executeUpdate("INSERT INTO " + SqlIdentifiers.qualify(shadowSchema, name)
+                            + " SELECT * FROM " + SqlIdentifiers.qualify(schema, name));
+                    tables.put(name, new TableSnapshot(ddl, rows));
+                }
+            } finally {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+        }
+
+        return new SchemaSnapshot(schema, shadowSchema, tables, views);
+    }
+
+    /**
+     * 将数据库恢复到快照时的状态
+     *
+     * @param connection    数据库连接
+     * @param clearTableSql 生成清空表语句的函数，参数为带库名的表名
+     */
+    void restore(Connection connection, Function<String, String> clearTableSql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE IF NOT EXISTS " + SqlIdentifiers.quote(schema));
+            statement.execute("USE " + SqlIdentifiers.quote(schema));
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            try {
+                Map<String, String> current = listTables(connection, schema);
+
+                // 视图和测试中新建的表直接删除
+                List<String> existingTables = new ArrayList<>();
+                for (Map.Entry<String, String> table : current.entrySet()) {
+                    String name = table.getKey();
+                    if ("VIEW".equalsIgnoreCase(table.getValue())) {
+                        statement.execute("DROP VIEW " + SqlIdentifiers.qualify(schema, name));
+                    } else if (!tables.containsKey(name)) {
+                        statement.execute("DROP TABLE " + SqlIdentifiers.qualify(schema, name));
+                    } else {
+                        existingTables.add(name);
+                    }
+                }
+
+                // 重新建表时 DDL 中带有快照时的计数，只清空的表回填后再重置计数
+                List<String> cleared = new ArrayList<>();
+                for (Map.Entry<String, TableSnapshot> table : tables.entrySet()) {
+                    String name = table.getKey();
+                    TableSnapshot snapshot = table.getValue();
+
+                    if (!existingTables.contains(name)) {
+                        statement.execute(snapshot.ddl);
+                    } else if (!sameStructure(showCreate(statement, "TABLE", schema, name), snapshot.ddl)) {
+                        statement.execute("DROP TABLE " + SqlIdentifiers.qualify(schema, name));
+                        statement.execute(snapshot.ddl);
+                    } else {
+                        statement.execute(clearTableSql.apply(SqlIdentifiers.qualify(schema, name)));
+                        cleared.add(name);
+                    }
+
+                    if (snapshot.rows > 0) {
+                        statement.execute("INSERT INTO " + SqlIdentifiers.qualify(schema, name)
+                                + " SELECT * FROM " + SqlIdentifiers.qualify(shadowSchema, name));
+                    }
+                }
+                for (String name : cleared) {
+                    resetAutoIncrement(statement, name);
+                }
+
+                for (String viewDdl : views.values()) {
+                    statement.execute(viewDdl);
+                }
+            } finally {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+        }
+    }
+
+    /**
+     * 快照中是否包含所有指定的表（不区分大小写）
+     */
+    boolean containsTables(List<String> names) {
+        for (String name : names) {
+            if (resolve(name) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 只恢复指定表的数据，表结构和其他表保持不变
+     * 通过 ON DELETE/UPDATE CASCADE、SET NULL、SET DEFAULT 外键间接修改的子表一起恢复；
+     * 关闭外键检查后按外键依赖先清空子表、再从父表开始回填
+     *
+     * @param connection    数据库连接
+     * @param names         要恢复的表，必须都在快照中
+     * @param clearTableSql 生成清空表语句的函数，参数为带库名的表名
+     * @return 恢复的表；存在触发器或读取不到外键信息、无法确定写入范围时返回 null，调用方应恢复所有表
+     */
+    List<String> restoreTables(Connection connection, List<String> names, Function<String, String> clearTableSql)
+            throws SQLException {
+        Set<String> resolved = new LinkedHashSet<>();
+        for (String name : names) {
+            resolved.add(resolve(name));
+        }
+        List<String> ordered = parentsFirst(connection, resolved);
+        if (ordered == null) {
+            return null;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("USE " + SqlIdentifiers.quote(schema));
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            try {
+                for (int i = ordered.size() - 1; i >= 0; i--) {
+                    statement.execute(clearTableSql.apply(SqlIdentifiers.qualify(schema, ordered.get(i))));
+                }
+                for (String name : ordered) {
+                    if (tables.get(name).rows > 0) {
+                        statement.execute("INSERT INTO " + SqlIdentifiers.qualify(schema, name)
+                                + " SELECT * FROM " + SqlIdentifiers.qualify(shadowSchema, name));
+                    }
+                }
+                for (String name : ordered) {
+                    resetAutoIncrement(statement, name);
+                }
+            } finally {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * 把自增计数恢复到快照时的值，使恢复后生成的ID与重新初始化一致
+     * TRUNCATE 会把计数重置为回填数据的最大值加一，DELETE 不会重置计数；
+     * 只在计数与快照不同时执行 ALTER TABLE，OceanBase 上这是一条DDL
+     */
+    private void resetAutoIncrement(Statement statement, String name) throws SQLException {
+        TableSnapshot snapshot = tables.get(name);
+        if (!snapshot.autoIncrementColumn) {
+            return;
+        }
+        long current = autoIncrement(showCreate(statement, "TABLE", schema, name));
+        if (current != snapshot.autoIncrement) {
+            statement.execute("ALTER TABLE " + SqlIdentifiers.qualify(schema, name)
+                    + " AUTO_INCREMENT = " + snapshot.autoIncrement);
+        }
+    }
+
+    private String resolve(String name) {
+        if (tables.containsKey(name)) {
+            return name;
+        }
+        for (String table : tables.keySet()) {
+            if (table.equalsIgnoreCase(name)) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 加上通过级联外键间接修改的子表（传递），再按外键依赖排序，父表在前；存在循环时保持原有顺序
+     * 触发器可能写入任意表，存在触发器或读取不到外键信息时返回 null
+     */
+    private List<String> parentsFirst(Connection connection, Set<String> names) {
+        Map<String, Set<String>> parents = new HashMap<>();
+        Map<String, Set<String>> cascades = new HashMap<>();
+        try {
+            if (hasTriggers(connection)) {
+                return null;
+            }
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT TABLE_NAME, REFERENCED_TABLE_NAME, DELETE_RULE, UPDATE_RULE"
+                            + " FROM information_schema.REFERENTIAL_CONSTRAINTS WHERE CONSTRAINT_SCHEMA = ?")) {
+                query.setString(1, schema);
+                try (ResultSet rs = query.executeQuery()) {
+                    while (rs.next()) {
+                        String child = resolve(rs.getString(1));
+                        String parent = resolve(rs.getString(2));
+                        if (child == null || parent == null || child.equals(parent)) {
+                            continue;
+                        }
+                        parents.computeIfAbsent(child, k -> new HashSet<>()).add(parent);
+                        if (isCascading(rs.getString(3)) || isCascading(rs.getString(4))) {
+                            cascades.computeIfAbsent(parent, k -> new HashSet<>()).add(child);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            // 无法确定级联修改的子表
+            return null;
+        }
+
+        Set<String> affected = new LinkedHashSet<>(names);
+        Deque<String> queue = new ArrayDeque<>(names);
+        while (!queue.isEmpty()) {
+            for (String child : cascades.getOrDefault(queue.poll(), Collections.<String>emptySet())) {
+                if (affected.add(child)) {
+                    queue.add(child);
+                }
+            }
+        }
+
+        List<String> ordered = new ArrayList<>();
+        List<String> pending = new ArrayList<>(affected);
+        while (!pending.isEmpty()) {
+            String next = null;
+            for (String name : pending) {
+                Set<String> required = new HashSet<>(parents.getOrDefault(name, Collections.<String>emptySet()));
+                required.retainAll(affected);
+                if (ordered.containsAll(required)) {
+                    next = name;
+                    break;
+                }
+            }
+            if (next == null) {
+                // 循环依赖
+                ordered.addAll(pending);
+                break;
+            }
+            pending.remove(next);
+            ordered.add(next);
+        }
+        return ordered;
+    }
+
+    private boolean hasTriggers(Connection connection) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.TRIGGERS WHERE TRIGGER_SCHEMA = ?")) {
+            query.setString(1, schema);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() && rs.getLong(1) > 0;
+            }
+        }
+    }
+
+    /**
+     * 外键规则是否会修改子表的行
+     */
+    private static boolean isCascading(String rule) {
+        return "CASCADE".equalsIgnoreCase(rule) || "SET NULL".equalsIgnoreCase(rule)
+                || "SET DEFAULT".equalsIgnoreCase(rule);
+    }
+
+    String getSchema() {
+        return schema;
+    }
+
+    int getTableCount() {
+        return tables.size();
+    }
+
+    private static Map<String, String> listTables(Connection connection, String schema) throws SQLException {
+        Map<String, String> tables = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT TABLE_NAME, TABLE_TYPE FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME")) {
+            statement.setString(1, schema);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    tables.put(rs.getString(1), rs.getString(2));
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static String showCreate(Statement statement, String kind, String schema, String name) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SHOW CREATE " + kind + " " + SqlIdentifiers.qualify(schema, name))) {
+            if (!rs.next()) {
+                throw new SQLException("无法获取 " + name + " 的定义");
+            }
+            return rs.getString(2);
+        }
+    }
+
+    /**
+     * 比较表结构，忽略随数据变化的 AUTO_INCREMENT 计数
+     */
+    private static boolean sameStructure(String currentDdl, String snapshotDdl) {
+        return AUTO_INCREMENT.matcher(currentDdl).replaceAll("")
+                .equals(AUTO_INCREMENT.matcher(snapshotDdl).replaceAll(""));
+    }
+
+    /**
+     * DDL 中的自增计数，没有 AUTO_INCREMENT 表选项时计数为 1
+     */
+    private static long autoIncrement(String ddl) {
+        Matcher matcher = AUTO_INCREMENT_COUNTER.matcher(ddl);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 1;
+    }
+
+    private static final class TableSnapshot {
+
+        private final String ddl;
+        private final int rows;
+        private final boolean autoIncrementColumn;
+        private final long autoIncrement;
+
+        private TableSnapshot(String ddl, int rows) {
+            this.ddl = ddl;
+            this.rows = rows;
+            this.autoIncrementColumn = AUTO_INCREMENT_COLUMN.matcher(ddl).find();
+            this.autoIncrement = autoIncrement(ddl);
+        }
+    }
+}
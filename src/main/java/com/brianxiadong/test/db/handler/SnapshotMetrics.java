@@ -0,0 +1,65 @@
+package com.brianxiadong.test.db.handler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 模板快照的耗时统计
+ */
+public class SnapshotMetrics {
+
+    private final AtomicLong snapshotCount = new AtomicLong();
+    private final AtomicLong lastSnapshotNanos = new AtomicLong();
+    private final AtomicLong restoreCount = new AtomicLong();
+    private final AtomicLong totalRestoreNanos = new AtomicLong();
+    private final AtomicLong lastRestoreNanos = new AtomicLong();
+    private final AtomicLong maxRestoreNanos = new AtomicLong();
+
+    void recordSnapshot(long nanos) {
+        snapshotCount.incrementAndGet();
+        lastSnapshotNanos.set(nanos);
+    }
+
+    void recordRestore(long nanos) {
+        restoreCount.incrementAndGet();
+        totalRestoreNanos.addAndGet(nanos);
+        lastRestoreNanos.set(nanos);
+        maxRestoreNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getSnapshotCount() {
+        return snapshotCount.get();
+    }
+
+    public double getLastSnapshotMillis() {
+        return toMillis(lastSnapshotNanos.get());
+    }
+
+    public long getRestoreCount() {
+        return restoreCount.get();
+    }
+
+    public double getLastRestoreMillis() {
+        return toMillis(lastRestoreNanos.get());
+    }
+
+    public double getMaxRestoreMillis() {
+        return toMillis(maxRestoreNanos.get());
+    }
+
+    public double getAverageRestoreMillis() {
+        long count = restoreCount.get();
+        return count == 0 ? 0 : toMillis(totalRestoreNanos.get()) / count;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SnapshotMetrics{snapshots=%d, lastSnapshot=%.1fms, restores=%d, avgRestore=%.1fms, maxRestore=%.1fms}",
+                getSnapshotCount(), getLastSnapshotMillis(), getRestoreCount(),
+                getAverageRestoreMillis(), getMaxRestoreMillis());
+    }
+}
@@ -0,0 +1,34 @@
+package com.brianxiadong.test.db.image;
+
+/**
+ * 已缓存的预构建镜像
+ */
+public final class CachedImage {
+
+    private final String name;
+    private final long lastUsedMillis;
+
+    public CachedImage(String name, long lastUsedMillis) {
+        this.name = name;
+        this.lastUsedMillis = lastUsedMillis;
+    }
+
+    /**
+     * 镜像名称（repository:tag）
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 最近一次使用时间（毫秒时间戳）
+     */
+    public long getLastUsedMillis() {
+        return lastUsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
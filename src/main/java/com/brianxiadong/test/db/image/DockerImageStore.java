@@ -0,0 +1,152 @@
+package com.brianxiadong.test.db.image;
+
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Image;
+import org.testcontainers.DockerClientFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 基于本地 Docker 守护进程的镜像仓库
+ * Docker 不记录镜像的使用时间，最近使用时间保存在索引文件中
+ * （默认 ~/.multidb/prebaked-images.properties，可以通过系统属性 multidb.prebaked.index 修改），
+ * 不在索引中的镜像按创建时间计算
+ */
+public class DockerImageStore implements ImageStore {
+
+    private final File indexFile;
+
+    public DockerImageStore() {
+        this(new File(System.getProperty("multidb.prebaked.index",
+                System.getProperty("user.home") + "/.multidb/prebaked-images.properties")));
+    }
+
+    public DockerImageStore(File indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    @Override
+    public boolean exists(String imageName) {
+        try {
+            client().inspectImageCmd(imageName).exec();
+            return true;
+        } catch (NotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void commit(String containerId, String imageName, Map<String, String> labels) {
+        warnAboutVolumes(containerId);
+
+        int separator = imageName.lastIndexOf(':');
+        Map<String, String> imageLabels = new LinkedHashMap<>(labels);
+        // 提交的镜像会继承容器的标签，覆盖会话标签，避免 Ryuk 在本次 JVM 退出时把镜像一起清理掉
+        imageLabels.put(DockerClientFactory.TESTCONTAINERS_SESSION_ID_LABEL, "prebaked");
+
+        client().commitCmd(containerId)
+                .withRepository(imageName.substring(0, separator))
+                .withTag(imageName.substring(separator + 1))
+                .withLabels(imageLabels)
+                .withPause(true)
+                .exec();
+    }
+
+    @Override
+    public List<CachedImage> list(String repository) {
+        Properties index = readIndex();
+        List<CachedImage> images = new ArrayList<>();
+        for (Image image : client().listImagesCmd().withImageNameFilter(repository).exec()) {
+            if (image.getRepoTags() == null) {
+                continue;
+            }
+            for (String tag : image.getRepoTags()) {
+                if (tag.startsWith(repository + ":")) {
+                    String lastUsed = index.getProperty(tag);
+                    long created = image.getCreated() != null ? image.getCreated() * 1000 : 0;
+                    images.add(new CachedImage(tag, lastUsed != null ? Long.parseLong(lastUsed) : created));
+                }
+            }
+        }
+        return images;
+    }
+
+    @Override
+    public void remove(String imageName) {
+        try {
+            client().removeImageCmd(imageName).exec();
+        } catch (NotFoundException e) {
+            // 已经被删除
+        }
+        synchronized (this) {
+            Properties index = readIndex();
+            if (index.remove(imageName) != null) {
+                writeIndex(index);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void touch(String imageName) {
+        Properties index = readIndex();
+        index.setProperty(imageName, String.valueOf(System.currentTimeMillis()));
+        writeIndex(index);
+    }
+
+    /**
+     * 卷中的数据不会包含在提交的镜像中，处理器需要把数据目录放在卷之外
+     */
+    private void warnAboutVolumes(String containerId) {
+        InspectContainerResponse container = client().inspectContainerCmd(containerId).exec();
+        if (container.getMounts() == null) {
+            return;
+        }
+        for (InspectContainerResponse.Mount mount : container.getMounts()) {
+            if (mount.getDestination() != null) {
+                MultiDbLog.info("提示: 卷 " + mount.getDestination().getPath() + " 中的数据不会包含在预构建镜像中");
+            }
+        }
+    }
+
+    private Properties readIndex() {
+        Properties index = new Properties();
+        if (indexFile.isFile()) {
+            try (InputStream inputStream = Files.newInputStream(indexFile.toPath())) {
+                index.load(inputStream);
+            } catch (IOException e) {
+                MultiDbLog.error("读取预构建镜像索引失败: " + e.getMessage());
+            }
+        }
+        return index;
+    }
+
+    private void writeIndex(Properties index) {
+        try {
+            File parent = indexFile.getParentFile();
+            if (parent != null) {
+                Files.createDirectories(parent.toPath());
+            }
+            try (OutputStream outputStream = Files.newOutputStream(indexFile.toPath())) {
+                index.store(outputStream, "multidb prebaked images - last used time");
+            }
+        } catch (IOException e) {
+            MultiDbLog.error("写入预构建镜像索引失败: " + e.getMessage());
+        }
+    }
+
+    private static DockerClient client() {
+        return DockerClientFactory.instance().client();
+    }
+}
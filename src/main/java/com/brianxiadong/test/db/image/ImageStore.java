@@ -0,0 +1,50 @@
+package com.brianxiadong.test.db.image;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 本地镜像仓库
+ * 预构建镜像缓存通过该接口读写镜像，测试中可以替换为内存实现
+ */
+public interface ImageStore {
+
+    /**
+     * 检查镜像是否存在
+     * 
+     * @param imageName 镜像名称（repository:tag）
+     * @return 是否存在
+     */
+    boolean exists(String imageName);
+
+    /**
+     * 将容器提交为镜像
+     * 
+     * @param containerId 容器ID
+     * @param imageName   镜像名称（repository:tag）
+     * @param labels      镜像标签
+     */
+    void commit(String containerId, String imageName, Map<String, String> labels);
+
+    /**
+     * 列出指定仓库下的镜像
+     * 
+     * @param repository 镜像仓库
+     * @return 镜像列表
+     */
+    List<CachedImage> list(String repository);
+
+    /**
+     * 删除镜像
+     * 
+     * @param imageName 镜像名称（repository:tag）
+     */
+    void remove(String imageName);
+
+    /**
+     * 记录镜像被使用，用于 LRU 淘汰
+     * 
+     * @param imageName 镜像名称（repository:tag）
+     */
+    void touch(String imageName);
+}
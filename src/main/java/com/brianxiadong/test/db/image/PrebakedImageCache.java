@@ -0,0 +1,246 @@
+package com.brianxiadong.test.db.image;
+
+import com.brianxiadong.test.db.fixture.Fixture;
+import com.brianxiadong.test.db.log.MultiDbLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 预构建镜像缓存
+ * 将初始化完成的容器提交为本地镜像，标签取自基础镜像、处理器版本和初始化资源内容的哈希。
+ * 之后的运行直接从该镜像启动，跳过数据库引导和初始化脚本。每个仓库只保留最近使用的若干个镜像，
+ * 其余按 LRU 删除
+ */
+public class PrebakedImageCache {
+
+    /**
+     * 默认每个仓库保留的镜像数量
+     */
+    public static final int DEFAULT_MAX_IMAGES = 3;
+
+    /**
+     * 预构建镜像的仓库前缀
+     */
+    public static final String REPOSITORY_PREFIX = "multidb/prebaked-";
+
+    /**
+     * 镜像标签：基础镜像
+     */
+    public static final String LABEL_BASE_IMAGE = "com.brianxiadong.multidb.base-image";
+
+    /**
+     * 镜像标签：缓存键
+     */
+    public static final String LABEL_KEY = "com.brianxiadong.multidb.key";
+
+    private static final int KEY_LENGTH = 16;
+
+    private static volatile PrebakedImageCache shared;
+
+    private final ImageStore imageStore;
+    private final int maxImages;
+
+    public PrebakedImageCache(ImageStore imageStore, int maxImages) {
+        this.imageStore = imageStore;
+        this.maxImages = maxImages;
+    }
+
+    /**
+     * 获取使用本地 Docker 的共享缓存
+     * 每个仓库保留的镜像数量可以通过系统属性 multidb.prebaked.images.max 配置
+     *
+     * @return 共享缓存
+     */
+    public static PrebakedImageCache shared() {
+        if (shared == null) {
+            synchronized (PrebakedImageCache.class) {
+                if (shared == null) {
+                    shared = new PrebakedImageCache(new DockerImageStore(),
+                            Integer.getInteger("multidb.prebaked.images.max", DEFAULT_MAX_IMAGES));
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * 计算缓存键
+     *
+     * @param baseImage      基础镜像
+     * @param handlerVersion 处理器版本，处理器的初始化逻辑变化时需要同步修改
+     * @param contentHashes  初始化资源（脚本、数据集）的内容哈希，顺序有意义
+     * @return 缓存键，可以直接作为镜像标签
+     */
+    public static String computeKey(String baseImage, String handlerVersion, List<String> contentHashes) {
+        MessageDigest digest = newDigest();
+        update(digest, baseImage);
+        update(digest, handlerVersion);
+        for (String contentHash : contentHashes) {
+            update(digest, contentHash);
+        }
+        return toHex(digest.digest()).substring(0, KEY_LENGTH);
+    }
+
+    /**
+     * 收集初始化内容的哈希，作为 {@link #computeKey(String, String, List)} 的输入
+     * 只按迁移目录区分镜像，新增的迁移在启动后增量执行并重新提交镜像
+     *
+     * @param initScript 初始化脚本，可以为 null
+     * @param migrations 迁移目录，可以为 null
+     * @param fixtures   数据集
+     * @return 内容哈希，顺序与初始化顺序一致
+     * @throws IOException 读取资源失败时抛出异常
+     */
+    public static List<String> contentHashes(String initScript, String migrations, List<Fixture> fixtures)
+            throws IOException {
+        List<String> contentHashes = new ArrayList<>();
+        if (initScript != null && !initScript.trim().isEmpty()) {
+            contentHashes.add(hashResource(initScript));
+        }
+        if (migrations != null) {
+            contentHashes.add("migrations=" + migrations);
+        }
+        for (Fixture fixture : fixtures) {
+            contentHashes.add(fixture.getTable() + "=" + hashResource(fixture.getResource()));
+        }
+        return contentHashes;
+    }
+
+    /**
+     * 计算类路径资源的内容哈希
+     *
+     * @param resource 资源路径
+     * @return 内容哈希，资源不存在时返回 "missing:资源路径"
+     * @throws IOException 读取资源失败时抛出异常
+     */
+    public static String hashResource(String resource) throws IOException {
+        InputStream inputStream = PrebakedImageCache.class.getClassLoader().getResourceAsStream(resource);
+        if (inputStream == null) {
+            return "missing:" + resource;
+        }
+        MessageDigest digest = newDigest();
+        try (InputStream in = inputStream) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return resource + ":" + toHex(digest.digest());
+    }
+
+    /**
+     * 获取处理器对应的镜像仓库
+     *
+     * @param name 处理器名称，例如 mysql
+     * @return 镜像仓库
+     */
+    public static String repositoryFor(String name) {
+        return REPOSITORY_PREFIX + name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 查找已缓存的镜像，命中时更新使用时间
+     *
+     * @param repository 镜像仓库
+     * @param key        缓存键
+     * @return 镜像名称，未命中时返回 null
+     */
+    public String lookup(String repository, String key) {
+        String imageName = repository + ":" + key;
+        if (!imageStore.exists(imageName)) {
+            return null;
+        }
+        imageStore.touch(imageName);
+        return imageName;
+    }
+
+    /**
+     * 将容器提交为缓存镜像，之后按 LRU 清理同一仓库中多余的镜像
+     *
+     * @param containerId 已完成初始化的容器ID
+     * @param repository  镜像仓库
+     * @param key         缓存键
+     * @param baseImage   基础镜像
+     * @return 镜像名称
+     */
+    public String store(String containerId, String repository, String key, String baseImage) {
+        String imageName = repository + ":" + key;
+        Map<String, String> labels = new LinkedHashMap<>();
+        labels.put(LABEL_BASE_IMAGE, baseImage);
+        labels.put(LABEL_KEY, key);
+        imageStore.commit(containerId, imageName, labels);
+        imageStore.touch(imageName);
+        evict(repository);
+        return imageName;
+    }
+
+    /**
+     * 删除缓存镜像，例如镜像内容已经损坏时
+     *
+     * @param imageName 镜像名称
+     */
+    public void invalidate(String imageName) {
+        imageStore.remove(imageName);
+    }
+
+    /**
+     * 按最近使用时间清理仓库，只保留最近使用的镜像
+     *
+     * @param repository 镜像仓库
+     * @return 被删除的镜像名称
+     */
+    public List<String> evict(String repository) {
+        List<CachedImage> images = new ArrayList<>(imageStore.list(repository));
+        if (images.size() <= maxImages) {
+            return Collections.emptyList();
+        }
+        images.sort(Comparator.comparingLong(CachedImage::getLastUsedMillis).reversed());
+
+        List<String> removed = new ArrayList<>();
+        for (CachedImage image : images.subList(Math.max(maxImages, 0), images.size())) {
+            try {
+                imageStore.remove(image.getName());
+                removed.add(image.getName());
+            } catch (RuntimeException e) {
+                // 镜像可能仍被容器使用，下次再清理
+                MultiDbLog.error("删除预构建镜像失败: " + image.getName() + " - " + e.getMessage());
+            }
+        }
+        return removed;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        digest.update(bytes);
+        // 分隔符，避免 ("ab", "c") 与 ("a", "bc") 得到相同的哈希
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.brianxiadong.test.db.jdbc;
+
+import java.sql.Connection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按数据库记录测试写入过的表
+ * 复用容器时在测试开始前 {@link #begin(String)}，框架交出的连接（{@code SwitchableDataSource}、
+ * 初始化脚本、数据集导入和数据生成）执行的写入语句都会记录下来，测试结束后 {@link #end(String)}
+ * 取出写入过的表，下一次测试前只恢复这些表。
+ * 测试逻辑自行通过 {@code DriverManager} 建立的连接不经过记录，使用前需要确认测试只通过框架的数据源写入
+ */
+public final class DirtyTableTracker {
+
+    private static final DirtyTableTracker SHARED = new DirtyTableTracker();
+
+    private final ConcurrentMap<String, DirtyTables> active = new ConcurrentHashMap<>();
+
+    /**
+     * 获取进程内共享的记录器
+     */
+    public static DirtyTableTracker shared() {
+        return SHARED;
+    }
+
+    /**
+     * 开始记录数据库的写入，之前未结束的记录被丢弃
+     *
+     * @param jdbcUrl 数据库的 JDBC URL
+     * @return 本次记录
+     */
+    public DirtyTables begin(String jdbcUrl) {
+        DirtyTables tables = new DirtyTables();
+        active.put(jdbcUrl, tables);
+        return tables;
+    }
+
+    /**
+     * 结束记录
+     *
+     * @param jdbcUrl 数据库的 JDBC URL
+     * @return 本次记录，没有开始记录时返回 null
+     */
+    public DirtyTables end(String jdbcUrl) {
+        return active.remove(jdbcUrl);
+    }
+
+    /**
+     * 获取正在进行的记录
+     *
+     * @param jdbcUrl 数据库的 JDBC URL
+     * @return 正在进行的记录，没有时返回 null
+     */
+    public DirtyTables get(String jdbcUrl) {
+        return jdbcUrl != null && !active.isEmpty() ? active.get(jdbcUrl) : null;
+    }
+
+    /**
+     * 记录直接写入的表，用于不经过 SQL 的批量写入
+     *
+     * @param jdbcUrl 数据库的 JDBC URL
+     * @param table   表名
+     */
+    public void recordTable(String jdbcUrl, String table) {
+        DirtyTables tables = get(jdbcUrl);
+        if (tables != null) {
+            tables.recordTable(table);
+        }
+    }
+
+    /**
+     * 正在记录该数据库时为连接套上记录代理，否则原样返回
+     *
+     * @param jdbcUrl    数据库的 JDBC URL
+     * @param connection 数据库连接
+     * @return 记录写入的连接
+     */
+    public Connection wrap(String jdbcUrl, Connection connection) {
+        DirtyTables tables = get(jdbcUrl);
+        return tables != null ? TrackingConnection.wrap(connection, tables) : connection;
+    }
+}
\ No newline at end of file
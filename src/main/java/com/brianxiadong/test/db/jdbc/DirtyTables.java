@@ -0,0 +1,90 @@
+package com.brianxiadong.test.db.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 一次测试写入过的表
+ * 表名不区分大小写；执行过无法确定写入范围的语句（DDL、存储过程、多表更新等）后不再精确，
+ * 调用方应退回到恢复所有表
+ */
+public class DirtyTables {
+
+    private final Map<String, String> tables = new LinkedHashMap<>();
+    private String untrackedStatement;
+
+    /**
+     * 记录一条执行的语句
+     *
+     * @param sql SQL语句
+     */
+    public void record(String sql) {
+        List<String> targets = WriteStatements.targetTables(sql);
+        if (targets == null) {
+            markUntracked(sql);
+            return;
+        }
+        for (String table : targets) {
+            recordTable(table);
+        }
+    }
+
+    /**
+     * 记录写入了一张表
+     *
+     * @param table 表名
+     */
+    public synchronized void recordTable(String table) {
+        tables.putIfAbsent(table.toLowerCase(Locale.ROOT), table);
+    }
+
+    /**
+     * 标记写入范围无法确定
+     *
+     * @param statement 无法解析的语句或原因
+     */
+    public synchronized void markUntracked(String statement) {
+        if (untrackedStatement == null) {
+            untrackedStatement = statement;
+        }
+    }
+
+    /**
+     * 写入范围是否确定，为 false 时需要恢复所有表
+     */
+    public synchronized boolean isPrecise() {
+        return untrackedStatement == null;
+    }
+
+    /**
+     * 第一条无法确定写入范围的语句，写入范围确定时返回 null
+     */
+    public synchronized String getUntrackedStatement() {
+        return untrackedStatement;
+    }
+
+    /**
+     * 写入过的表，按第一次写入的顺序排列
+     */
+    public synchronized List<String> getTables() {
+        return Collections.unmodifiableList(new ArrayList<>(tables.values()));
+    }
+
+    /**
+     * 是否没有写入任何表
+     */
+    public synchronized boolean isEmpty() {
+        return untrackedStatement == null && tables.isEmpty();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return untrackedStatement != null
+                ? "无法确定写入范围: " + untrackedStatement
+                : "写入 " + tables.size() + " 张表 " + tables.values();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.brianxiadong.test.db.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * 拦截语句的 JDBC 连接代理
+ * 连接代理按身份实现 equals 和 hashCode，为创建的普通语句套上 {@link StatementHandler} 代理，
+ * 语句代理的 getConnection 返回连接代理而不是物理连接。
+ * 预处理语句在创建时、普通语句在执行或加入批次时把 SQL 交给 {@link #onStatement(String)}；
+ * 需要更多控制的子类可以覆盖 {@link #interceptConnection} 和 {@link #wrapStatement}
+ */
+public abstract class InterceptingConnection implements InvocationHandler {
+
+    private final Connection target;
+    private final String label;
+
+    protected InterceptingConnection(Connection target, String label) {
+        this.target = target;
+        this.label = label;
+    }
+
+    /**
+     * 创建使用这个处理器的连接代理
+     */
+    public Connection newProxy() {
+        return (Connection) newProxy(Connection.class, this);
+    }
+
+    protected Connection getTarget() {
+        return target;
+    }
+
+    @Override
+    public final Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxyInstance == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxyInstance);
+            case "toString":
+                return label + "[" + target + "]";
+            default:
+                return interceptConnection(proxyInstance, method, args);
+        }
+    }
+
+    /**
+     * 处理连接上的方法调用，默认把预处理语句的 SQL 交给 {@link #onStatement(String)}，
+     * 调用物理连接后通过 {@link #wrapStatement} 包装结果
+     */
+    protected Object interceptConnection(Object connectionProxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if ((name.equals("prepareStatement") || name.equals("prepareCall"))
+                && args != null && args[0] instanceof String) {
+            onStatement((String) args[0]);
+        }
+        return wrapStatement(connectionProxy, invokeTarget(target, method, args), args);
+    }
+
+    /**
+     * 包装连接方法的返回值，默认为普通语句套上 {@link StatementHandler} 代理
+     *
+     * @param connectionProxy 连接代理
+     * @param result          物理连接的返回值
+     * @param args            调用参数
+     */
+    protected Object wrapStatement(Object connectionProxy, Object result, Object[] args) {
+        if (result instanceof Statement && !(result instanceof PreparedStatement)
+                && !(result instanceof CallableStatement)) {
+            return newProxy(Statement.class, new StatementHandler((Statement) result, connectionProxy));
+        }
+        return result;
+    }
+
+    /**
+     * 即将执行一条 SQL：预处理语句创建时，或普通语句执行、加入批次时
+     *
+     * @param sql SQL语句
+     */
+    protected void onStatement(String sql) {
+    }
+
+    /**
+     * 调用被代理对象的方法，抛出原始异常
+     */
+    public static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    protected static Object newProxy(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(InterceptingConnection.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * 语句代理：getConnection 返回连接代理，其他方法交给 {@link #interceptStatement}
+     */
+    protected class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final Object connectionProxy;
+
+        protected StatementHandler(Statement statement, Object connectionProxy) {
+            this.statement = statement;
+            this.connectionProxy = connectionProxy;
+        }
+
+        protected Statement getStatement() {
+            return statement;
+        }
+
+        @Override
+        public final Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                case "getConnection":
+                    return connectionProxy;
+                default:
+                    return interceptStatement(method, args);
+            }
+        }
+
+        /**
+         * 处理语句上的方法调用，默认在执行或加入批次前把 SQL 交给 {@link #onStatement(String)}
+         */
+        protected Object interceptStatement(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ((name.startsWith("execute") || name.equals("addBatch"))
+                    && args != null && args.length > 0 && args[0] instanceof String) {
+                onStatement((String) args[0]);
+            }
+            return invokeTarget(statement, method, args);
+        }
+    }
+}
\ No newline at end of file
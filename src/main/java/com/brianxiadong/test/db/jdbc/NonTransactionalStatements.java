@@ -0,0 +1,77 @@
+package com.brianxiadong.test.db.jdbc;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 识别不能回滚的语句
+ * MySQL 和 OceanBase 在执行 DDL、权限管理、锁表以及显式事务控制语句时会隐式提交当前事务，
+ * 之后的回滚无法撤销这些语句之前的修改
+ */
+public final class NonTransactionalStatements {
+
+    /**
+     * 语句开头的注释和空白
+     */
+    private static final Pattern LEADING_NOISE = Pattern.compile("^(\\s+|--[^\\n]*\\n?|#[^\\n]*\\n?|/\\*.*?\\*/)+",
+            Pattern.DOTALL);
+
+    private static final Pattern FIRST_WORDS = Pattern.compile("^([A-Za-z]+)(?:\\s+([A-Za-z]+))?");
+
+    private NonTransactionalStatements() {
+    }
+
+    /**
+     * 判断语句是否会隐式提交事务或本身不受事务保护
+     *
+     * @param sql SQL语句
+     * @return 是否不能回滚
+     */
+    public static boolean isNonTransactional(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String statement = LEADING_NOISE.matcher(sql).replaceFirst("");
+        Matcher matcher = FIRST_WORDS.matcher(statement);
+        if (!matcher.find()) {
+            return false;
+        }
+        String first = matcher.group(1).toUpperCase(Locale.ROOT);
+        String second = matcher.group(2) != null ? matcher.group(2).toUpperCase(Locale.ROOT) : "";
+
+        switch (first) {
+            case "CREATE":
+                // CREATE TEMPORARY TABLE 不会隐式提交
+                return !"TEMPORARY".equals(second);
+            case "DROP":
+                return !"TEMPORARY".equals(second);
+            case "ALTER":
+            case "TRUNCATE":
+            case "RENAME":
+            case "GRANT":
+            case "REVOKE":
+            case "LOCK":
+            case "UNLOCK":
+            case "COMMIT":
+            case "BEGIN":
+            case "ANALYZE":
+            case "OPTIMIZE":
+            case "REPAIR":
+            case "FLUSH":
+            case "INSTALL":
+            case "UNINSTALL":
+                return true;
+            case "START":
+                return "TRANSACTION".equals(second);
+            case "LOAD":
+                // LOAD DATA / LOAD XML 受事务保护，LOAD INDEX 等会隐式提交
+                return !"DATA".equals(second) && !"XML".equals(second);
+            case "SET":
+                // SET autocommit = 1 会提交当前事务，按保守方式处理所有 SET autocommit
+                return "AUTOCOMMIT".equals(second) || "PASSWORD".equals(second);
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.brianxiadong.test.db.jdbc;
+
+import com.brianxiadong.test.db.log.MultiDbLog;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 固定在一个连接上的测试事务
+ * 测试逻辑通过数据源拿到的都是同一个连接的代理：关闭、提交和开启自动提交都会被忽略，
+ * 测试结束后整体回滚。执行的语句会被检查，DDL 等会隐式提交的语句被记录下来，
+ * 调用方据此决定是否需要通过快照恢复或清空表来补救。
+ * <p>
+ * 类路径上存在 Spring 事务支持时，连接同时绑定到 TransactionSynchronizationManager，
+ * JdbcTemplate、MyBatis-Spring 以及 {@code @Transactional} 会加入这个事务而不是另开连接
+ */
+public class PinnedTransaction {
+
+    private static final boolean SPRING_PRESENT =
+            isClassPresent("org.springframework.transaction.support.TransactionSynchronizationManager")
+                    && isClassPresent("org.springframework.jdbc.datasource.ConnectionHolder");
+
+    private final Connection physical;
+    private final boolean originalAutoCommit;
+    private final Connection proxy;
+    private final Object springResourceKey;
+    private final List<String> nonTransactionalStatements = Collections.synchronizedList(new ArrayList<>());
+    private volatile int ignoredCommits;
+    private boolean finished;
+
+    private PinnedTransaction(Connection physical, DataSource springResourceKey) throws SQLException {
+        this.physical = physical;
+        this.originalAutoCommit = physical.getAutoCommit();
+        physical.setAutoCommit(false);
+        this.proxy = new ConnectionHandler(physical).newProxy();
+        this.springResourceKey = springResourceKey != null && SPRING_PRESENT
+                ? SpringTransactionSupport.bind(springResourceKey, proxy)
+                : null;
+    }
+
+    /**
+     * 从数据源借出一个连接并开启事务
+     *
+     * @param dataSource        提供物理连接的数据源
+     * @param springResourceKey 绑定到 Spring 事务同步的数据源（一般是应用中注入的数据源 Bean），为 null 时不绑定
+     * @return 固定连接的事务
+     * @throws SQLException 获取连接失败时抛出异常
+     */
+    public static PinnedTransaction begin(DataSource dataSource, DataSource springResourceKey) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            return new PinnedTransaction(connection, springResourceKey);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 获取测试逻辑使用的连接代理
+     */
+    public Connection getConnection() {
+        return proxy;
+    }
+
+    /**
+     * 是否执行过不能回滚的语句
+     */
+    public boolean isNonRollbackable() {
+        return !nonTransactionalStatements.isEmpty();
+    }
+
+    /**
+     * 获取执行过的不能回滚的语句
+     */
+    public List<String> getNonTransactionalStatements() {
+        synchronized (nonTransactionalStatements) {
+            return new ArrayList<>(nonTransactionalStatements);
+        }
+    }
+
+    /**
+     * 测试逻辑调用 commit 被忽略的次数
+     */
+    public int getIgnoredCommits() {
+        return ignoredCommits;
+    }
+
+    /**
+     * 回滚事务，解除 Spring 绑定并归还物理连接
+     *
+     * @throws SQLException 回滚失败时抛出异常
+     */
+    public synchronized void rollback() throws SQLException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            if (springResourceKey != null) {
+                SpringTransactionSupport.unbind(springResourceKey);
+            }
+            physical.rollback();
+            physical.setAutoCommit(originalAutoCommit);
+        } finally {
+            physical.close();
+        }
+    }
+
+    private void inspect(String sql) {
+        if (NonTransactionalStatements.isNonTransactional(sql)) {
+            nonTransactionalStatements.add(sql);
+            MultiDbLog.error("事务回滚模式下执行了不能回滚的语句，测试结束后将通过快照或清空表恢复: " + sql);
+        }
+    }
+
+    private static boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, PinnedTransaction.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 连接代理：忽略关闭和提交，检查预处理语句和普通语句执行的SQL
+     */
+    private final class ConnectionHandler extends InterceptingConnection {
+
+        ConnectionHandler(Connection physical) {
+            super(physical, "PinnedConnection");
+        }
+
+        @Override
+        protected Object interceptConnection(Object connectionProxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    // 连接在整个测试期间保持借出，由 rollback() 归还
+                    return null;
+                case "isClosed":
+                    return finished;
+                case "commit":
+                    ignoredCommits++;
+                    return null;
+                case "setAutoCommit":
+                    // 保持事务开启，开启自动提交会提交当前事务
+                    return null;
+                case "getAutoCommit":
+                    return false;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(connectionProxy)) {
+                        return connectionProxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(connectionProxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return super.interceptConnection(connectionProxy, method, args);
+        }
+
+        @Override
+        protected void onStatement(String sql) {
+            inspect(sql);
+        }
+    }
+}
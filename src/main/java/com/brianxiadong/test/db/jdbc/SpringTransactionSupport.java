@@ -0,0 +1,41 @@
+package com.brianxiadong.test.db.jdbc;
+
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+
+/**
+ * 与 Spring 事务同步的绑定
+ * 这个类直接引用 Spring，只能在确认类路径上存在 spring-jdbc 后使用
+ */
+final class SpringTransactionSupport {
+
+    private SpringTransactionSupport() {
+    }
+
+    /**
+     * 把连接作为一个进行中的事务绑定到当前线程，Spring 的事务管理器会加入该事务而不是提交
+     *
+     * @return 绑定使用的资源键，解除绑定时传入
+     */
+    static Object bind(Object dataSource, Connection connection) {
+        TransactionSynchronizationManager.bindResource(dataSource, new PinnedConnectionHolder(connection));
+        return dataSource;
+    }
+
+    static void unbind(Object dataSource) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(dataSource);
+    }
+
+    /**
+     * 标记为事务进行中的连接持有者
+     */
+    private static final class PinnedConnectionHolder extends ConnectionHolder {
+
+        PinnedConnectionHolder(Connection connection) {
+            super(connection, true);
+            setTransactionActive(true);
+        }
+    }
+}
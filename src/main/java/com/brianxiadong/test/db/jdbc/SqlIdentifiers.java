@@ -0,0 +1,32 @@
+package com.brianxiadong.test.db.jdbc;
+
+/**
+ * MySQL 兼容数据库的标识符引用
+ * 拼接到 SQL 中的库名、表名和列名都通过这里加反引号，名称中的反引号重复一次转义
+ */
+public final class SqlIdentifiers {
+
+    private SqlIdentifiers() {
+    }
+
+    /**
+     * 为标识符加反引号
+     *
+     * @param identifier 标识符
+     * @return 加引号后的标识符
+     */
+    public static String quote(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    /**
+     * 带库名的表名
+     *
+     * @param schema 库名
+     * @param name   表名
+     * @return 加引号后的 {@code `库名`.`表名`}
+     */
+    public static String qualify(String schema, String name) {
+        return quote(schema) + "." + quote(name);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.brianxiadong.test.db.jdbc;
+
+import java.sql.Connection;
+
+/**
+ * 记录写入表的 JDBC 代理
+ * 预处理语句在创建时记录，普通语句在执行或加入批次时记录；语句执行失败也按已写入处理
+ */
+final class TrackingConnection extends InterceptingConnection {
+
+    private final DirtyTables tables;
+
+    private TrackingConnection(Connection connection, DirtyTables tables) {
+        super(connection, "TrackingConnection");
+        this.tables = tables;
+    }
+
+    static Connection wrap(Connection connection, DirtyTables tables) {
+        return new TrackingConnection(connection, tables).newProxy();
+    }
+
+    @Override
+    protected void onStatement(String sql) {
+        tables.record(sql);
+    }
+}
\ No newline at end of file
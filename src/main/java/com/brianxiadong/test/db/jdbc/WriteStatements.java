@@ -0,0 +1,200 @@
+package com.brianxiadong.test.db.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 识别语句写入的表
+ * 只解析单表的 INSERT、REPLACE、UPDATE、DELETE、TRUNCATE、MERGE 和 LOAD DATA，
+ * 多表更新、存储过程调用、DDL 等无法确定写入范围的语句返回 null，调用方应按写入了所有表处理
+ */
+public final class WriteStatements {
+
+    private static final Pattern LEADING_NOISE = Pattern.compile("^(\\s+|--[^\\n]*\\n?|#[^\\n]*\\n?|/\\*.*?\\*/)+",
+            Pattern.DOTALL);
+
+    private static final Pattern WORD = Pattern.compile("^([A-Za-z_]+)\\s*");
+
+    /**
+     * 表名：可带库名，各部分可以用反引号或双引号括起
+     */
+    private static final Pattern TABLE_NAME = Pattern.compile(
+            "^((?:`(?:[^`]|``)+`|\"(?:[^\"]|\"\")+\"|[A-Za-z0-9_$]+)(?:\\s*\\.\\s*(?:`(?:[^`]|``)+`|\"(?:[^\"]|\"\")+\"|[A-Za-z0-9_$]+))?)");
+
+    /**
+     * 单表 UPDATE 的表名之后只能是别名和 SET
+     */
+    private static final Pattern UPDATE_TAIL = Pattern.compile("^(?:(?:AS\\s+)?[A-Za-z0-9_$`\"]+\\s+)?SET\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 单表 DELETE 的表名之后不能是 USING 或逗号
+     */
+    private static final Pattern DELETE_MULTI_TABLE = Pattern.compile("^(?:,|USING\\b)", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern DATA_CHANGE = Pattern.compile("\\b(?:INSERT|UPDATE|DELETE|REPLACE)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern LOAD_DATA = Pattern.compile(
+            "^LOAD\\s+(?:DATA|XML)\\b.*?\\bINTO\\s+TABLE\\s+", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private WriteStatements() {
+    }
+
+    /**
+     * 解析语句写入的表
+     *
+     * @param sql SQL语句
+     * @return 写入的表名（去掉引号，带库名时只保留表名）；不写入任何表时返回空列表；无法确定时返回 null
+     */
+    public static List<String> targetTables(String sql) {
+        if (sql == null) {
+            return Collections.emptyList();
+        }
+        String statement = LEADING_NOISE.matcher(sql).replaceFirst("");
+        if (statement.startsWith("(")) {
+            // (SELECT ...) UNION (SELECT ...)
+            return targetTables(statement.substring(1));
+        }
+        Matcher word = WORD.matcher(statement);
+        if (!word.find()) {
+            return statement.trim().isEmpty() ? Collections.<String>emptyList() : null;
+        }
+        String first = word.group(1).toUpperCase(Locale.ROOT);
+        String rest = statement.substring(word.end());
+
+        switch (first) {
+            case "SELECT":
+                // SELECT ... INTO 变量或文件不写表；SELECT ... FOR UPDATE 只加锁
+                return Collections.emptyList();
+            case "SHOW":
+            case "DESCRIBE":
+            case "DESC":
+            case "EXPLAIN":
+            case "SET":
+            case "BEGIN":
+            case "START":
+            case "COMMIT":
+            case "ROLLBACK":
+            case "SAVEPOINT":
+            case "RELEASE":
+            case "VALUES":
+            case "DO":
+            case "LOCK":
+            case "UNLOCK":
+            case "ANALYZE":
+            case "CHECK":
+            case "CHECKSUM":
+                return Collections.emptyList();
+            case "WITH":
+                // 公用表表达式后面的 UPDATE、DELETE 可能写入多张表，只有查询可以确定
+                return DATA_CHANGE.matcher(rest).find() ? null : Collections.<String>emptyList();
+            case "INSERT":
+                return single(skip(rest, "LOW_PRIORITY", "DELAYED", "HIGH_PRIORITY", "IGNORE", "INTO"), null);
+            case "REPLACE":
+            case "MERGE":
+                return single(skip(rest, "LOW_PRIORITY", "DELAYED", "INTO"), null);
+            case "UPDATE":
+                return single(skip(rest, "LOW_PRIORITY", "IGNORE"), UPDATE_TAIL);
+            case "DELETE":
+                return delete(skip(rest, "LOW_PRIORITY", "QUICK", "IGNORE"));
+            case "TRUNCATE":
+                return single(skip(rest, "TABLE"), null);
+            case "LOAD": {
+                Matcher matcher = LOAD_DATA.matcher(statement);
+                return matcher.find() ? single(statement.substring(matcher.end()), null) : null;
+            }
+            case "CREATE":
+            case "DROP":
+                // 临时表只在当前会话可见，不影响其他测试
+                return rest.toUpperCase(Locale.ROOT).startsWith("TEMPORARY") ? Collections.<String>emptyList() : null;
+            default:
+                // DDL、USE、CALL、WITH 等无法确定写入范围
+                return null;
+        }
+    }
+
+    private static List<String> delete(String rest) {
+        if (!rest.toUpperCase(Locale.ROOT).startsWith("FROM")) {
+            // DELETE t1, t2 FROM ...
+            return null;
+        }
+        return single(rest.substring(4).trim(), null);
+    }
+
+    /**
+     * 读取一个表名，tail 不为 null 时表名之后的内容必须匹配
+     */
+    private static List<String> single(String rest, Pattern tail) {
+        Matcher matcher = TABLE_NAME.matcher(rest);
+        if (!matcher.find()) {
+            return null;
+        }
+        String after = rest.substring(matcher.end()).trim();
+        if (tail != null && !tail.matcher(after).find()) {
+            return null;
+        }
+        if (tail == null && DELETE_MULTI_TABLE.matcher(after).find()) {
+            return null;
+        }
+        List<String> tables = new ArrayList<>(1);
+        tables.add(tableName(matcher.group(1)));
+        return tables;
+    }
+
+    private static String skip(String rest, String... keywords) {
+        String remaining = rest;
+        boolean skipped = true;
+        while (skipped) {
+            skipped = false;
+            for (String keyword : keywords) {
+                Matcher matcher = WORD.matcher(remaining);
+                if (matcher.find() && matcher.group(1).equalsIgnoreCase(keyword)) {
+                    remaining = remaining.substring(matcher.end());
+                    skipped = true;
+                }
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * 去掉库名和引号
+     */
+    private static String tableName(String qualified) {
+        String name = qualified;
+        int dot = lastUnquotedDot(qualified);
+        if (dot >= 0) {
+            name = qualified.substring(dot + 1).trim();
+        }
+        if (name.length() >= 2 && name.startsWith("`") && name.endsWith("`")) {
+            return name.substring(1, name.length() - 1).replace("``", "`");
+        }
+        if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+            return name.substring(1, name.length() - 1).replace("\"\"", "\"");
+        }
+        return name;
+    }
+
+    private static int lastUnquotedDot(String qualified) {
+        char quote = 0;
+        int dot = -1;
+        for (int i = 0; i < qualified.length(); i++) {
+            char c = qualified.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '`' || c == '"') {
+                quote = c;
+            } else if (c == '.') {
+                dot = i;
+            }
+        }
+        return dot;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.brianxiadong.test.db.junit;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.DatabaseTestConfig;
+import com.brianxiadong.test.db.MultiDbHelper;
+import com.brianxiadong.test.db.handler.ContainerRegistry;
+import com.brianxiadong.test.db.handler.DatabaseHandlerFactory;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 保存在 {@link ExtensionContext.Store} 中的容器注册表
+ * 所在范围结束时由 JUnit 关闭：先让连接池退役，再关闭容器
+ */
+final class ContainerResource implements ExtensionContext.Store.CloseableResource {
+
+    private final ContainerRegistry registry;
+    private final boolean owned;
+    private final Set<DatabaseInfo> started = ConcurrentHashMap.newKeySet();
+
+    private ContainerResource(ContainerRegistry registry, boolean owned) {
+        this.registry = registry;
+        this.owned = owned;
+    }
+
+    /**
+     * 开启了容器复用时使用JVM范围内共享的注册表，否则创建新的注册表
+     */
+    static ContainerResource create(DatabaseTestConfig config) {
+        if (config.isContainerReuse()) {
+            return new ContainerResource(ContainerRegistry.getInstance(), false);
+        }
+        return new ContainerResource(new ContainerRegistry(DatabaseHandlerFactory::createHandler), true);
+    }
+
+    ContainerRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 记录已经使用过的数据库，关闭时让对应的连接池退役
+     */
+    void started(DatabaseInfo dbInfo) {
+        started.add(dbInfo);
+    }
+
+    @Override
+    public void close() {
+        for (DatabaseInfo dbInfo : started) {
+            MultiDbHelper.getSwitchableDataSource().retire(dbInfo);
+        }
+        if (owned) {
+            registry.stopAll();
+        }
+    }
+}
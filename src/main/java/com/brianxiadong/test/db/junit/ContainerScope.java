@@ -0,0 +1,17 @@
+package com.brianxiadong.test.db.junit;
+
+/**
+ * {@link MultiDbTest} 中容器的生命周期范围
+ */
+public enum ContainerScope {
+
+    /**
+     * 容器在测试类的第一个方法执行前启动，测试类结束后关闭
+     */
+    CLASS,
+
+    /**
+     * 容器在整个测试引擎范围内共享，所有测试类结束后关闭
+     */
+    ENGINE
+}
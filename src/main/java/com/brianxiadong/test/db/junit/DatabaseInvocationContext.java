@@ -0,0 +1,174 @@
+package com.brianxiadong.test.db.junit;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.DatabasePreparation;
+import com.brianxiadong.test.db.DatabaseTestConfig;
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.MultiDbHelper;
+import com.brianxiadong.test.db.TestExecution;
+import com.brianxiadong.test.db.handler.ContainerRegistry;
+import com.brianxiadong.test.db.handler.DatabaseHandler;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.lifecycle.Phase;
+import com.brianxiadong.test.db.pool.PoolSettings;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.Extension;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 在某个数据库上执行一次测试模板
+ * 测试方法执行前独占容器、恢复初始化状态并把数据源绑定到当前线程，执行后解绑并归还容器
+ */
+final class DatabaseInvocationContext implements TestTemplateInvocationContext {
+
+    private static final String STATE_KEY = "state";
+
+    private final DatabaseType type;
+    private final DatabaseTestConfig config;
+    private final ContainerResource containers;
+    private final String testClass;
+
+    DatabaseInvocationContext(DatabaseType type, DatabaseTestConfig config, ContainerResource containers,
+            String testClass) {
+        this.type = type;
+        this.config = config;
+        this.containers = containers;
+        this.testClass = testClass;
+    }
+
+    @Override
+    public String getDisplayName(int invocationIndex) {
+        return "[" + type.getDisplayName() + "]";
+    }
+
+    @Override
+    public List<Extension> getAdditionalExtensions() {
+        return Collections.singletonList(new Callbacks());
+    }
+
+    /**
+     * 单次调用的状态，保存在方法级别的 Store 中
+     */
+    private static final class InvocationState {
+        private Lifecycle.Context previousContext;
+        private ContainerRegistry.Entry entry;
+        private DatabaseInfo dbInfo;
+        private boolean bound;
+        private TestExecution execution;
+        private long testStart;
+    }
+
+    private final class Callbacks implements BeforeEachCallback, AfterEachCallback,
+            BeforeTestExecutionCallback, AfterTestExecutionCallback, ParameterResolver {
+
+        @Override
+        public void beforeEach(ExtensionContext context) throws Exception {
+            InvocationState state = new InvocationState();
+            context.getStore(MultiDbTestExtension.NAMESPACE).put(STATE_KEY, state);
+            state.previousContext = Lifecycle.enter(testClass, type, config.getLifecycleListeners());
+
+            // 获取容器的独占使用权，第一次使用时启动容器（开启预构建镜像时从已缓存的镜像启动）
+            DatabasePreparation preparation = new DatabasePreparation(type, config);
+            long start = Lifecycle.start();
+            try {
+                state.entry = containers.getRegistry().acquire(type, config.getDockerImage(type),
+                        preparation::configure);
+            } catch (Exception e) {
+                Lifecycle.end(Phase.CONTAINER_START, start, e);
+                throw e;
+            }
+            Lifecycle.end(Phase.CONTAINER_START, start);
+            state.dbInfo = state.entry.getDatabaseInfo();
+            containers.started(state.dbInfo);
+
+            // 从模板快照或预构建镜像恢复（只执行新增的迁移），都没有时重置后执行初始化
+            DatabaseHandler handler = state.entry.getHandler();
+            String stateKey = preparation.prepare(handler, state.dbInfo, state.entry);
+
+            // 数据源只绑定到当前线程，支持并行执行
+            start = Lifecycle.start();
+            PoolSettings poolSettings = config.getPoolSettings(type);
+            MultiDbHelper.getSwitchableDataSource().bindToCurrentThread(state.dbInfo,
+                    poolSettings != null ? poolSettings : handler.getDefaultPoolSettings());
+            state.bound = true;
+            Lifecycle.end(Phase.DATASOURCE_SWITCH, start);
+
+            // 记录 @BeforeEach、测试方法和 @AfterEach 写入的表，下一次只恢复这些表；
+            // 事务回滚模式下三者都在同一个事务中执行
+            state.execution = TestExecution.begin(state.dbInfo, handler, config,
+                    MultiDbHelper.getSwitchableDataSource(), state.entry, stateKey, testClass);
+        }
+
+        @Override
+        public void beforeTestExecution(ExtensionContext context) {
+            // 只有测试方法执行的语句计入 N+1 检测和执行计划收集
+            InvocationState state = getState(context);
+            state.execution.openScope();
+            state.testStart = Lifecycle.start();
+        }
+
+        @Override
+        public void afterTestExecution(ExtensionContext context) {
+            InvocationState state = getState(context);
+            Lifecycle.end(Phase.TEST_LOGIC, state.testStart, context.getExecutionException().orElse(null));
+            state.execution.closeScope();
+        }
+
+        @Override
+        public void afterEach(ExtensionContext context) throws Exception {
+            InvocationState state = getState(context);
+            if (state == null) {
+                return;
+            }
+            try {
+                if (state.execution != null) {
+                    state.execution.finish(!context.getExecutionException().isPresent());
+                }
+            } finally {
+                long start = Lifecycle.start();
+                try {
+                    if (state.bound) {
+                        MultiDbHelper.getSwitchableDataSource().unbindCurrentThread();
+                    }
+                    if (state.entry != null) {
+                        containers.getRegistry().release(state.entry);
+                    }
+                    Lifecycle.end(Phase.TEARDOWN, start);
+                } finally {
+                    Lifecycle.exit(state.previousContext);
+                }
+            }
+        }
+
+        @Override
+        public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+            Class<?> parameterType = parameterContext.getParameter().getType();
+            return parameterType == DatabaseInfo.class || parameterType == DatabaseType.class;
+        }
+
+        @Override
+        public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+            if (parameterContext.getParameter().getType() == DatabaseType.class) {
+                return type;
+            }
+            InvocationState state = getState(extensionContext);
+            if (state == null || state.dbInfo == null) {
+                throw new IllegalStateException(type.getDisplayName() + " 数据库尚未启动");
+            }
+            return state.dbInfo;
+        }
+
+        private InvocationState getState(ExtensionContext context) {
+            return context.getStore(MultiDbTestExtension.NAMESPACE).get(STATE_KEY, InvocationState.class);
+        }
+    }
+}
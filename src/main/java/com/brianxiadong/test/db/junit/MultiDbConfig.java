@@ -0,0 +1,17 @@
+package com.brianxiadong.test.db.junit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注测试类中返回 {@link com.brianxiadong.test.db.DatabaseTestConfig} 的无参静态方法，
+ * 为 {@link MultiDbTest} 提供初始化脚本、数据集、镜像等配置
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface MultiDbConfig {
+}
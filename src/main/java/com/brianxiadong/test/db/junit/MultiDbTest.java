@@ -0,0 +1,56 @@
+package com.brianxiadong.test.db.junit;
+
+import com.brianxiadong.test.db.DatabaseType;
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 多数据库测试模板
+ * 被注解的方法在每个数据库上各执行一次，测试方法可以声明 {@link com.brianxiadong.test.db.DatabaseInfo}
+ * 或 {@link DatabaseType} 参数。容器按 {@link #scope()} 在多个测试方法之间共享，
+ * 每次执行前从模板快照恢复初始化后的状态。
+ * <p>
+ * 初始化脚本等配置来自测试类中标注了 {@link MultiDbConfig} 的静态方法；没有该方法时，
+ * 如果类路径上存在 init-mysql.sql / init-oceanbase.sql 这样的脚本则自动使用
+ *
+ * <pre>
+ * class UserMapperTest {
+ *
+ *     &#64;MultiDbConfig
+ *     static DatabaseTestConfig config() {
+ *         return DatabaseTestConfig.create()
+ *                 .withInitScript(DatabaseType.MYSQL, "init-mysql.sql")
+ *                 .withInitScript(DatabaseType.OCEANBASE, "init-oceanbase.sql");
+ *     }
+ *
+ *     &#64;MultiDbTest(databases = {"MYSQL", "OCEANBASE"})
+ *     void testInsert(DatabaseInfo dbInfo) {
+ *         // ...
+ *     }
+ * }
+ * </pre>
+ */
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@TestTemplate
+@ExtendWith(MultiDbTestExtension.class)
+public @interface MultiDbTest {
+
+    /**
+     * 要测试的数据库类型名称（见 {@link DatabaseType#name()}），默认测试 MySQL 和 OceanBase。
+     * 系统属性 multidb.databases（逗号分隔）会覆盖该设置，例如本地使用 -Dmultidb.databases=H2 快速运行
+     */
+    String[] databases() default {"MYSQL", "OCEANBASE"};
+
+    /**
+     * 容器的生命周期范围
+     */
+    ContainerScope scope() default ContainerScope.CLASS;
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.brianxiadong.test.db.junit;
+
+import com.brianxiadong.test.db.DatabaseTestConfig;
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.handler.DatabaseHandlerFactory;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
+import org.junit.jupiter.api.extension.TestTemplateInvocationContextProvider;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link MultiDbTest} 的 JUnit Jupiter 扩展
+ * 为每个数据库生成一次测试调用。容器注册表保存在测试类或测试引擎范围的
+ * {@link ExtensionContext.Store} 中，同一范围内的测试方法共享同一个容器，范围结束时统一关闭。
+ * <p>
+ * 支持 JUnit 的并行执行：同一个容器同一时间只被一个测试方法独占，不同数据库上的测试可以并行，
+ * 数据源绑定到执行测试的线程
+ * <p>
+ * 开启 SQL 分析或执行计划收集时，同一测试类的调用汇总为一份报告，执行计划退化时测试类失败
+ */
+public class MultiDbTestExtension implements TestTemplateInvocationContextProvider {
+
+    static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(MultiDbTestExtension.class);
+
+    private static final String CONFIG_KEY = "config";
+    private static final String CONTAINERS_KEY = "containers";
+    private static final String PROFILING_KEY = "profiling";
+
+    private static final String DATABASES_PROPERTY = "multidb.databases";
+
+    @Override
+    public boolean supportsTestTemplate(ExtensionContext context) {
+        return context.getTestMethod()
+                .map(method -> AnnotationSupport.isAnnotated(method, MultiDbTest.class))
+                .orElse(false);
+    }
+
+    @Override
+    public Stream<TestTemplateInvocationContext> provideTestTemplateInvocationContexts(ExtensionContext context) {
+        MultiDbTest annotation = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MultiDbTest.class)
+                .orElseThrow(() -> new ExtensionConfigurationException("缺少 @MultiDbTest 注解"));
+        List<DatabaseType> databases = resolveDatabases(annotation);
+
+        ExtensionContext classContext = getClassContext(context);
+        DatabaseTestConfig config = classContext.getStore(NAMESPACE).getOrComputeIfAbsent(
+                CONFIG_KEY, key -> loadConfig(classContext.getRequiredTestClass()), DatabaseTestConfig.class);
+
+        ExtensionContext scopeContext = annotation.scope() == ContainerScope.ENGINE ? context.getRoot() : classContext;
+        ContainerResource containers = scopeContext.getStore(NAMESPACE).getOrComputeIfAbsent(
+                CONTAINERS_KEY, key -> ContainerResource.create(config), ContainerResource.class);
+
+        String testClass = classContext.getRequiredTestClass().getName();
+        // SQL 分析和执行计划按测试类汇总，测试类结束时输出报告
+        if (config.isSqlProfiling() || config.isPlanCapture()) {
+            classContext.getStore(NAMESPACE).getOrComputeIfAbsent(
+                    PROFILING_KEY, key -> ProfilingResource.create(config, testClass), ProfilingResource.class);
+        }
+        return databases.stream()
+                .map(type -> new DatabaseInvocationContext(type, config, containers, testClass));
+    }
+
+    /**
+     * 解析要测试的数据库，系统属性 {@value #DATABASES_PROPERTY} 优先于注解
+     */
+    private static List<DatabaseType> resolveDatabases(MultiDbTest annotation) {
+        String override = System.getProperty(DATABASES_PROPERTY);
+        String[] names = override != null && !override.trim().isEmpty()
+                ? override.split(",")
+                : annotation.databases();
+        List<DatabaseType> databases = new ArrayList<>();
+        for (String name : names) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                databases.add(DatabaseHandlerFactory.resolveType(name));
+            } catch (IllegalArgumentException e) {
+                throw new ExtensionConfigurationException(e.getMessage(), e);
+            }
+        }
+        if (databases.isEmpty()) {
+            throw new ExtensionConfigurationException("@MultiDbTest 至少需要指定一个数据库");
+        }
+        return databases;
+    }
+
+    /**
+     * 找到最近的测试类上下文
+     */
+    private static ExtensionContext getClassContext(ExtensionContext context) {
+        ExtensionContext current = context;
+        while (!(current.getElement().orElse(null) instanceof Class)) {
+            Optional<ExtensionContext> parent = current.getParent();
+            if (!parent.isPresent()) {
+                return context;
+            }
+            current = parent.get();
+        }
+        return current;
+    }
+
+    /**
+     * 调用测试类中标注了 {@link MultiDbConfig} 的静态方法获取配置，没有时按约定查找初始化脚本
+     */
+    private static DatabaseTestConfig loadConfig(Class<?> testClass) {
+        List<Method> methods = AnnotationSupport.findAnnotatedMethods(
+                testClass, MultiDbConfig.class, HierarchyTraversalMode.BOTTOM_UP);
+        if (methods.size() > 1) {
+            throw new ExtensionConfigurationException(testClass.getName() + " 中只能有一个 @MultiDbConfig 方法");
+        }
+        if (methods.isEmpty()) {
+            return conventionConfig();
+        }
+
+        Method method = methods.get(0);
+        if (!Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0
+                || !DatabaseTestConfig.class.isAssignableFrom(method.getReturnType())) {
+            throw new ExtensionConfigurationException("@MultiDbConfig 方法必须是返回 DatabaseTestConfig 的无参静态方法: "
+                    + method);
+        }
+        DatabaseTestConfig config = (DatabaseTestConfig) ReflectionSupport.invokeMethod(method, null);
+        if (config == null) {
+            throw new ExtensionConfigurationException("@MultiDbConfig 方法返回了 null: " + method);
+        }
+        return config;
+    }
+
+    private static DatabaseTestConfig conventionConfig() {
+        DatabaseTestConfig config = DatabaseTestConfig.create();
+        ClassLoader classLoader = MultiDbTestExtension.class.getClassLoader();
+        for (DatabaseType type : DatabaseHandlerFactory.getSupportedTypes()) {
+            String script = "init-" + type.name().toLowerCase(Locale.ROOT) + ".sql";
+            if (classLoader.getResource(script) != null) {
+                config.withInitScript(type, script);
+            }
+        }
+        return config;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.brianxiadong.test.db.junit;
+
+import com.brianxiadong.test.db.DatabaseTestConfig;
+import com.brianxiadong.test.db.MultiDbHelper;
+import com.brianxiadong.test.db.ProfilingSession;
+import com.brianxiadong.test.db.plan.PlanRegressionException;
+import com.brianxiadong.test.db.plan.PlanReport;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * 保存在测试类 {@link ExtensionContext.Store} 中的 SQL 分析会话
+ * 测试类结束时由 JUnit 关闭：输出 SQL 分析和执行计划报告，执行计划退化时让测试类失败
+ */
+final class ProfilingResource implements ExtensionContext.Store.CloseableResource {
+
+    private final ProfilingSession session;
+
+    private ProfilingResource(ProfilingSession session) {
+        this.session = session;
+    }
+
+    /**
+     * 开启 SQL 分析，收集执行计划同样需要分析器记录执行过的语句
+     */
+    static ProfilingResource create(DatabaseTestConfig config, String testClass) {
+        return new ProfilingResource(
+                ProfilingSession.start(config, MultiDbHelper.getSwitchableDataSource(), testClass));
+    }
+
+    @Override
+    public void close() {
+        PlanReport plans = session.finish();
+        if (plans != null && plans.hasRegressions()) {
+            throw new PlanRegressionException(plans);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.brianxiadong.test.db.lifecycle;
+
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.log.MultiDbLog;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 生命周期事件分发
+ * 测试执行器在执行某个数据库的测试前通过 {@link #enter} 设置当前线程的测试上下文，
+ * 处理器在同一线程上用 {@link #start()} / {@link #end} 记录阶段耗时，事件会带上该上下文。
+ * 没有注册任何监听器时只有一次 {@link System#nanoTime()} 的开销。
+ * <p>
+ * 设置系统属性 multidb.lifecycle.report=true 时自动注册 {@link PhaseReportAggregator}
+ */
+public final class Lifecycle {
+
+    private static final List<LifecycleListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static final ThreadLocal<Context> CONTEXT = new ThreadLocal<>();
+
+    static {
+        if (Boolean.getBoolean("multidb.lifecycle.report")) {
+            LISTENERS.add(PhaseReportAggregator.create());
+        }
+    }
+
+    private Lifecycle() {
+    }
+
+    /**
+     * 注册全局监听器
+     * 
+     * @param listener 监听器
+     */
+    public static void addListener(LifecycleListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * 移除全局监听器
+     * 
+     * @param listener 监听器
+     */
+    public static void removeListener(LifecycleListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * 设置当前线程的测试上下文
+     * 
+     * @param testClass    发起测试的类名
+     * @param databaseType 数据库类型
+     * @param listeners    只对本次测试生效的监听器
+     * @return 之前的上下文，需要在结束时传给 {@link #exit(Context)}
+     */
+    public static Context enter(String testClass, DatabaseType databaseType, List<LifecycleListener> listeners) {
+        Context previous = CONTEXT.get();
+        CONTEXT.set(new Context(testClass, databaseType, listeners));
+        return previous;
+    }
+
+    /**
+     * 恢复之前的测试上下文
+     * 
+     * @param previous {@link #enter} 返回的上下文
+     */
+    public static void exit(Context previous) {
+        if (previous != null) {
+            CONTEXT.set(previous);
+        } else {
+            CONTEXT.remove();
+        }
+    }
+
+    /**
+     * 获取当前线程的测试上下文
+     * 
+     * @return 测试上下文，不在测试中时返回 null
+     */
+    public static Context current() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * 记录阶段开始时间
+     * 
+     * @return 开始时间（纳秒）
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 记录阶段成功结束
+     * 
+     * @param phase      阶段
+     * @param startNanos {@link #start()} 返回的开始时间
+     */
+    public static void end(Phase phase, long startNanos) {
+        end(phase, startNanos, null);
+    }
+
+    /**
+     * 记录阶段结束
+     * 
+     * @param phase      阶段
+     * @param startNanos {@link #start()} 返回的开始时间
+     * @param failure    失败时的异常，成功时为 null
+     */
+    public static void end(Phase phase, long startNanos, Throwable failure) {
+        long duration = System.nanoTime() - startNanos;
+        Context context = CONTEXT.get();
+        if (LISTENERS.isEmpty() && (context == null || context.listeners.isEmpty())) {
+            return;
+        }
+
+        PhaseEvent event = context != null
+                ? new PhaseEvent(context.testClass, context.databaseType, phase, startNanos, duration, failure)
+                : new PhaseEvent("unknown", null, phase, startNanos, duration, failure);
+        for (LifecycleListener listener : LISTENERS) {
+            notify(listener, event);
+        }
+        if (context != null) {
+            for (LifecycleListener listener : context.listeners) {
+                notify(listener, event);
+            }
+        }
+    }
+
+    /**
+     * 通知监听器一次多数据库测试已经结束
+     * 
+     * @param testClass 发起测试的类名
+     * @param listeners 只对本次测试生效的监听器
+     */
+    public static void runFinished(String testClass, List<LifecycleListener> listeners) {
+        for (LifecycleListener listener : LISTENERS) {
+            finish(listener, testClass);
+        }
+        for (LifecycleListener listener : listeners) {
+            finish(listener, testClass);
+        }
+    }
+
+    private static void notify(LifecycleListener listener, PhaseEvent event) {
+        try {
+            listener.onPhase(event);
+        } catch (RuntimeException e) {
+            // 监听器的异常不能影响测试结果
+            MultiDbLog.error("生命周期监听器执行失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static void finish(LifecycleListener listener, String testClass) {
+        try {
+            listener.onRunFinished(testClass);
+        } catch (RuntimeException e) {
+            MultiDbLog.error("生命周期监听器执行失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 线程上的测试上下文
+     */
+    public static final class Context {
+
+        private final String testClass;
+        private final DatabaseType databaseType;
+        private final List<LifecycleListener> listeners;
+
+        private Context(String testClass, DatabaseType databaseType, List<LifecycleListener> listeners) {
+            this.testClass = testClass;
+            this.databaseType = databaseType;
+            this.listeners = listeners != null ? listeners : Collections.<LifecycleListener>emptyList();
+        }
+
+        public String getTestClass() {
+            return testClass;
+        }
+
+        public DatabaseType getDatabaseType() {
+            return databaseType;
+        }
+    }
+}
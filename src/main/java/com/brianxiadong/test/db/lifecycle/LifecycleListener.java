@@ -0,0 +1,26 @@
+package com.brianxiadong.test.db.lifecycle;
+
+/**
+ * 测试生命周期监听器
+ * 通过 {@link Lifecycle#addListener(LifecycleListener)} 全局注册，
+ * 或者通过 DatabaseTestConfig.withLifecycleListener 只对某次测试生效。
+ * 回调在执行测试的线程上同步调用，实现需要线程安全且尽量轻量
+ */
+public interface LifecycleListener {
+
+    /**
+     * 某个阶段结束（成功或失败）
+     * 
+     * @param event 阶段事件
+     */
+    void onPhase(PhaseEvent event);
+
+    /**
+     * 一次多数据库测试在所有数据库上执行完毕
+     * 
+     * @param testClass 发起测试的类名
+     */
+    default void onRunFinished(String testClass) {
+        // 默认实现为空
+    }
+}
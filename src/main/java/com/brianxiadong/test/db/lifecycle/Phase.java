@@ -0,0 +1,89 @@
+package com.brianxiadong.test.db.lifecycle;
+
+/**
+ * 测试生命周期阶段
+ * 阶段之间可能嵌套：{@link #CONTAINER_START} 包含 {@link #RESOURCE_WAIT} 和 {@link #READINESS_WAIT}，
+ * {@link #MIGRATION} 包含每个迁移脚本的 {@link #INIT_SCRIPT}，{@link #TOTAL} 包含所有阶段
+ */
+public enum Phase {
+
+    /**
+     * 启动容器（复用模式下为获取容器），包含就绪等待
+     */
+    CONTAINER_START,
+
+    /**
+     * 资源预算不足时排队等待容器配额，没有排队时不记录
+     */
+    RESOURCE_WAIT,
+
+    /**
+     * 等待数据库就绪
+     */
+    READINESS_WAIT,
+
+    /**
+     * 复用容器时重置数据库
+     */
+    STATE_RESET,
+
+    /**
+     * 复用容器时从模板快照恢复
+     */
+    SNAPSHOT_RESTORE,
+
+    /**
+     * 执行初始化脚本
+     */
+    INIT_SCRIPT,
+
+    /**
+     * 执行版本迁移（只执行尚未执行的版本）
+     */
+    MIGRATION,
+
+    /**
+     * 导入数据集（每个数据集一次）
+     */
+    FIXTURE_LOAD,
+
+    /**
+     * 保存模板快照
+     */
+    SNAPSHOT_SAVE,
+
+    /**
+     * 提交预构建镜像
+     */
+    IMAGE_COMMIT,
+
+    /**
+     * 切换或绑定数据源
+     */
+    DATASOURCE_SWITCH,
+
+    /**
+     * 执行测试逻辑
+     */
+    TEST_LOGIC,
+
+    /**
+     * 事务回滚模式下回滚测试事务（包括不能回滚时的快照恢复或清空表）
+     */
+    ROLLBACK,
+
+    /**
+     * 获取测试执行过的语句的执行计划
+     */
+    PLAN_CAPTURE,
+
+    /**
+     * 关闭或归还容器
+     */
+    TEARDOWN,
+
+    /**
+     * 单个数据库上的完整测试
+     */
+    TOTAL
+}
\ No newline at end of file
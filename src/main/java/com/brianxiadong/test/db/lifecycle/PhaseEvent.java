@@ -0,0 +1,71 @@
+package com.brianxiadong.test.db.lifecycle;
+
+import com.brianxiadong.test.db.DatabaseType;
+
+/**
+ * 生命周期阶段事件
+ * 时间使用 {@link System#nanoTime()}，只能用于计算耗时，不能当作时间戳
+ */
+public final class PhaseEvent {
+
+    private final String testClass;
+    private final DatabaseType databaseType;
+    private final Phase phase;
+    private final long startNanos;
+    private final long durationNanos;
+    private final Throwable failure;
+
+    public PhaseEvent(String testClass, DatabaseType databaseType, Phase phase,
+            long startNanos, long durationNanos, Throwable failure) {
+        this.testClass = testClass;
+        this.databaseType = databaseType;
+        this.phase = phase;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.failure = failure;
+    }
+
+    /**
+     * 发起测试的类名，无法确定时为 "unknown"
+     */
+    public String getTestClass() {
+        return testClass;
+    }
+
+    /**
+     * 数据库类型，不在测试执行器中调用处理器时可能为 null
+     */
+    public DatabaseType getDatabaseType() {
+        return databaseType;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * 阶段失败时的异常，成功时为 null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PhaseEvent{testClass=%s, database=%s, phase=%s, duration=%.3fms%s}",
+                testClass, databaseType != null ? databaseType.getDisplayName() : "-", phase,
+                durationNanos / 1_000_000.0, failure != null ? ", failed" : "");
+    }
+}
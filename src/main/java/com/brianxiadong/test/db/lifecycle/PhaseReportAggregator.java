@@ -0,0 +1,207 @@
+package com.brianxiadong.test.db.lifecycle;
+
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.pool.PoolMetrics;
+import com.brianxiadong.test.db.report.JsonStrings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 阶段耗时报告
+ * 按测试类汇总各数据库、各阶段的耗时分布，每次多数据库测试结束后把该测试类的报告写成
+ * {@code <测试类>.json} 和 {@code <测试类>.csv}。报告目录默认为 build/multidb-reports，
+ * 可以通过系统属性 multidb.report.dir 修改。
+ * JSON 报告同时带上各连接池截至报告时的累计指标（见 {@link PoolMetrics}）
+ */
+public class PhaseReportAggregator implements LifecycleListener {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+
+    private final File reportDir;
+    private final Map<String, Map<String, Samples>> samplesByClass = new TreeMap<>();
+
+    public PhaseReportAggregator(File reportDir) {
+        this.reportDir = reportDir;
+    }
+
+    /**
+     * 创建写入默认目录的报告
+     * 
+     * @return 报告实例
+     */
+    public static PhaseReportAggregator create() {
+        return new PhaseReportAggregator(new File(System.getProperty("multidb.report.dir", "build/multidb-reports")));
+    }
+
+    @Override
+    public void onPhase(PhaseEvent event) {
+        DatabaseType databaseType = event.getDatabaseType();
+        String key = (databaseType != null ? databaseType.getDisplayName() : "-") + "\t" + event.getPhase().name();
+        synchronized (samplesByClass) {
+            samplesByClass.computeIfAbsent(event.getTestClass(), name -> new LinkedHashMap<>())
+                    .computeIfAbsent(key, name -> new Samples())
+                    .add(event.getDurationNanos(), event.isSuccess());
+        }
+    }
+
+    @Override
+    public void onRunFinished(String testClass) {
+        try {
+            writeReport(testClass);
+        } catch (IOException e) {
+            MultiDbLog.error("写入阶段耗时报告失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 写出指定测试类的 JSON 和 CSV 报告
+     * 
+     * @param testClass 测试类名
+     * @throws IOException 写入失败时抛出异常
+     */
+    public void writeReport(String testClass) throws IOException {
+        Map<String, Samples> samples;
+        synchronized (samplesByClass) {
+            Map<String, Samples> recorded = samplesByClass.get(testClass);
+            if (recorded == null) {
+                return;
+            }
+            samples = new LinkedHashMap<>();
+            for (Map.Entry<String, Samples> entry : recorded.entrySet()) {
+                samples.put(entry.getKey(), entry.getValue().copy());
+            }
+        }
+
+        Files.createDirectories(reportDir.toPath());
+        String fileName = testClass.replaceAll("[^A-Za-z0-9._-]", "_");
+
+        try (Writer json = Files.newBufferedWriter(new File(reportDir, fileName + ".json").toPath(),
+                StandardCharsets.UTF_8);
+                Writer csv = Files.newBufferedWriter(new File(reportDir, fileName + ".csv").toPath(),
+                        StandardCharsets.UTF_8)) {
+            csv.write("database,phase,count,failures,minMs,meanMs,p50Ms,p90Ms,p95Ms,p99Ms,maxMs\n");
+            json.write("{\n  \"testClass\": \"" + JsonStrings.escape(testClass) + "\",\n  \"phases\": [");
+
+            boolean first = true;
+            for (Map.Entry<String, Samples> entry : samples.entrySet()) {
+                String[] key = entry.getKey().split("\t");
+                Samples phase = entry.getValue();
+                long[] sorted = phase.sorted();
+
+                StringBuilder row = new StringBuilder();
+                row.append(key[0]).append(',').append(key[1]).append(',')
+                        .append(sorted.length).append(',').append(phase.failures).append(',')
+                        .append(millis(sorted[0])).append(',').append(millis(phase.mean()));
+                json.write(first ? "\n" : ",\n");
+                json.write("    {\"database\": \"" + JsonStrings.escape(key[0]) + "\", \"phase\": \"" + key[1]
+                        + "\", \"count\": " + sorted.length + ", \"failures\": " + phase.failures
+                        + ", \"minMs\": " + millis(sorted[0]) + ", \"meanMs\": " + millis(phase.mean()));
+                for (double percentile : PERCENTILES) {
+                    String value = millis(percentile(sorted, percentile));
+                    row.append(',').append(value);
+                    json.write(", \"p" + (int) percentile + "Ms\": " + value);
+                }
+                row.append(',').append(millis(sorted[sorted.length - 1])).append('\n');
+                json.write(", \"maxMs\": " + millis(sorted[sorted.length - 1]) + "}");
+                csv.write(row.toString());
+                first = false;
+            }
+            json.write("\n  ],\n  \"pools\": [");
+            writePools(json);
+            json.write("\n  ]\n}\n");
+        }
+    }
+
+    private static void writePools(Writer json) throws IOException {
+        boolean first = true;
+        for (PoolMetrics pool : PoolMetrics.all()) {
+            json.write(first ? "\n" : ",\n");
+            json.write("    {\"name\": \"" + JsonStrings.escape(pool.getName()) + "\", \"maximumPoolSize\": "
+                    + pool.getMaximumPoolSize() + ", \"active\": " + pool.getActiveConnections()
+                    + ", \"idle\": " + pool.getIdleConnections() + ", \"pending\": " + pool.getPendingThreads()
+                    + ", \"peakActive\": " + pool.getPeakActiveConnections()
+                    + ", \"peakPending\": " + pool.getPeakPendingThreads()
+                    + ", \"acquireCount\": " + pool.getAcquireCount()
+                    + ", \"acquireP50Ms\": " + millis(pool.getAcquirePercentile(50))
+                    + ", \"acquireP95Ms\": " + millis(pool.getAcquirePercentile(95))
+                    + ", \"acquireP99Ms\": " + millis(pool.getAcquirePercentile(99))
+                    + ", \"acquireMaxMs\": " + millis(pool.getAcquireMaxMillis() * 1_000_000.0)
+                    + ", \"usageP99Ms\": " + millis(pool.getUsageP99Millis() * 1_000_000.0)
+                    + ", \"timeouts\": " + pool.getTimeoutCount() + ", \"leakCount\": " + pool.getLeakCount()
+                    + ", \"leaks\": [");
+            boolean firstLeak = true;
+            for (PoolMetrics.LeakReport leak : pool.getLeakReports()) {
+                json.write((firstLeak ? "" : ", ") + "{\"heldMs\": " + millis(leak.getHeldNanos())
+                        + ", \"thread\": \"" + JsonStrings.escape(leak.getThreadName())
+                        + "\", \"stackTrace\": \"" + JsonStrings.escape(leak.getStackTrace()) + "\"}");
+                firstLeak = false;
+            }
+            json.write("]}");
+            first = false;
+        }
+    }
+
+    /**
+     * 最近秩法计算百分位
+     */
+    static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static String millis(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * 单个阶段的耗时样本
+     */
+    private static final class Samples {
+
+        private long[] values = new long[16];
+        private int size;
+        private long failures;
+
+        void add(long nanos, boolean success) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            if (!success) {
+                failures++;
+            }
+        }
+
+        Samples copy() {
+            Samples copy = new Samples();
+            copy.values = Arrays.copyOf(values, size);
+            copy.size = size;
+            copy.failures = failures;
+            return copy;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        double mean() {
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                total += values[i];
+            }
+            return size == 0 ? 0 : total / (double) size;
+        }
+    }
+}
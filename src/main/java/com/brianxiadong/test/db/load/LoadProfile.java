@@ -0,0 +1,158 @@
+package com.brianxiadong.test.db.load;
+
+import java.time.Duration;
+
+/**
+ * 压测配置
+ * 指定并发数、结束条件（持续时间或操作总数）和可选的目标速率
+ */
+public class LoadProfile {
+
+    /**
+     * 默认并发数
+     */
+    public static final int DEFAULT_CONCURRENCY = 8;
+
+    /**
+     * 默认持续时间
+     */
+    public static final Duration DEFAULT_DURATION = Duration.ofSeconds(30);
+
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private Duration duration = DEFAULT_DURATION;
+    private long operations;
+    private double targetRate;
+    private Duration warmup = Duration.ZERO;
+    private boolean virtualThreads = true;
+
+    /**
+     * 设置并发执行的工作线程数，数据源的连接池会扩大到同样的大小
+     *
+     * @param concurrency 并发数
+     * @return 当前配置实例（支持链式调用）
+     */
+    public LoadProfile withConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * 按持续时间结束压测
+     *
+     * @param duration 持续时间
+     * @return 当前配置实例（支持链式调用）
+     */
+    public LoadProfile withDuration(Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("duration must be positive: " + duration);
+        }
+        this.duration = duration;
+        this.operations = 0;
+        return this;
+    }
+
+    /**
+     * 按操作总数结束压测
+     *
+     * @param operations 所有工作线程合计执行的操作数
+     * @return 当前配置实例（支持链式调用）
+     */
+    public LoadProfile withOperations(long operations) {
+        if (operations < 1) {
+            throw new IllegalArgumentException("operations must be positive: " + operations);
+        }
+        this.operations = operations;
+        this.duration = null;
+        return this;
+    }
+
+    /**
+     * 设置目标速率，所有工作线程合计每秒最多开始这么多次操作
+     * 延迟从计划开始的时间算起，数据库变慢导致的排队会计入延迟
+     *
+     * @param operationsPerSecond 每秒操作数，0 表示不限速
+     * @return 当前配置实例（支持链式调用）
+     */
+    public LoadProfile withTargetRate(double operationsPerSecond) {
+        if (operationsPerSecond < 0) {
+            throw new IllegalArgumentException("targetRate must not be negative: " + operationsPerSecond);
+        }
+        this.targetRate = operationsPerSecond;
+        return this;
+    }
+
+    /**
+     * 设置预热时间，预热期间的操作不计入结果
+     *
+     * @param warmup 预热时间
+     * @return 当前配置实例（支持链式调用）
+     */
+    public LoadProfile withWarmup(Duration warmup) {
+        if (warmup.isNegative()) {
+            throw new IllegalArgumentException("warmup must not be negative: " + warmup);
+        }
+        this.warmup = warmup;
+        return this;
+    }
+
+    /**
+     * 设置在 Java 21 及以上版本是否使用虚拟线程
+     *
+     * @param virtualThreads 是否使用虚拟线程
+     * @return 当前配置实例（支持链式调用）
+     */
+    public LoadProfile withVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * 持续时间，按操作总数结束时为 null
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * 操作总数，按持续时间结束时为 0
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadProfile{concurrency=" + concurrency
+                + (duration != null ? ", duration=" + duration : ", operations=" + operations)
+                + (targetRate > 0 ? ", targetRate=" + targetRate : "")
+                + ", warmup=" + warmup + "}";
+    }
+
+    /**
+     * 创建默认配置（8 个并发，持续 30 秒，不限速）
+     *
+     * @return 新的配置实例
+     */
+    public static LoadProfile create() {
+        return new LoadProfile();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.brianxiadong.test.db.load;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.MultiDbTestRunner.DatabaseTestLogic;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.profile.LatencyHistogram;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 在一个数据库上执行压测
+ * 多个工作线程循环执行同一个测试逻辑，直到持续时间结束或操作总数用完。
+ * 运行在 Java 21 及以上版本时每个工作线程是一个虚拟线程，否则使用固定大小的线程池
+ */
+public final class LoadTestExecutor {
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    private LoadTestExecutor() {
+    }
+
+    /**
+     * 执行压测
+     *
+     * @param dbInfo            数据库连接信息，传给测试逻辑
+     * @param profile           压测配置
+     * @param logic             每次操作执行的测试逻辑
+     * @param activeConnections 当前借出的连接数，用于记录连接池峰值，可以为 null
+     * @return 压测结果
+     * @throws InterruptedException 等待工作线程时被中断
+     */
+    public static LoadTestResult run(DatabaseInfo dbInfo, LoadProfile profile, DatabaseTestLogic logic,
+            IntSupplier activeConnections) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder operations = new LongAdder();
+        LongAdder errors = new LongAdder();
+        Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+        AtomicBoolean firstErrorLogged = new AtomicBoolean();
+        AtomicInteger peakActive = new AtomicInteger(activeConnections != null ? 0 : -1);
+
+        long startNanos = System.nanoTime();
+        long measureStart = startNanos + profile.getWarmup().toNanos();
+        long deadline = profile.getDuration() != null ? measureStart + profile.getDuration().toNanos() : 0;
+        AtomicLong remaining = profile.getDuration() == null ? new AtomicLong(profile.getOperations()) : null;
+        RateLimiter limiter = profile.getTargetRate() > 0 ? new RateLimiter(profile.getTargetRate(), startNanos) : null;
+
+        Runnable worker = () -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long scheduled = limiter != null ? limiter.acquire() : System.nanoTime();
+                boolean measuring = scheduled - measureStart >= 0;
+                if (remaining != null ? measuring && remaining.decrementAndGet() < 0 : scheduled - deadline >= 0) {
+                    return;
+                }
+
+                boolean success = false;
+                try {
+                    logic.test(dbInfo);
+                    success = true;
+                } catch (Exception e) {
+                    if (measuring) {
+                        errorsByType.computeIfAbsent(e.getClass().getSimpleName(), type -> new LongAdder())
+                                .increment();
+                    }
+                    if (firstErrorLogged.compareAndSet(false, true)) {
+                        MultiDbLog.error("压测操作失败（只输出第一次）: " + e.getMessage(), e);
+                    }
+                }
+                if (measuring) {
+                    latency.record(System.nanoTime() - scheduled);
+                    operations.increment();
+                    if (!success) {
+                        errors.increment();
+                    }
+                }
+            }
+        };
+
+        ScheduledExecutorService sampler = activeConnections != null ? startSampler(activeConnections, peakActive) : null;
+        ExecutorService executor = newExecutor(profile);
+        try {
+            for (int i = 0; i < profile.getConcurrency(); i++) {
+                executor.execute(worker);
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // 等待所有工作线程结束
+            }
+        } finally {
+            executor.shutdownNow();
+            if (sampler != null) {
+                sampler.shutdownNow();
+            }
+        }
+        long elapsed = Math.max(0, System.nanoTime() - measureStart);
+
+        Map<String, Long> errorCounts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : errorsByType.entrySet()) {
+            errorCounts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return new LoadTestResult(dbInfo.getType(), profile, operations.sum(), errors.sum(), elapsed, latency,
+                errorCounts, peakActive.get());
+    }
+
+    /**
+     * 创建工作线程的执行器：优先使用虚拟线程（通过反射调用，保持 Java 8 兼容）
+     */
+    private static ExecutorService newExecutor(LoadProfile profile) {
+        if (profile.isVirtualThreads()) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (NoSuchMethodException e) {
+                // Java 21 之前没有虚拟线程
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Java 19/20 未开启预览特性
+                MultiDbLog.info("虚拟线程不可用，使用平台线程: " + e);
+            }
+        }
+        return Executors.newFixedThreadPool(profile.getConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "multidb-load-" + THREAD_INDEX.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 每 10ms 采样一次借出的连接数
+     */
+    private static ScheduledExecutorService startSampler(IntSupplier activeConnections, AtomicInteger peakActive) {
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "multidb-load-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> {
+            int active = activeConnections.getAsInt();
+            peakActive.accumulateAndGet(active, Math::max);
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        return sampler;
+    }
+}
\ No newline at end of file
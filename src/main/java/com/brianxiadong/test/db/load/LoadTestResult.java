@@ -0,0 +1,103 @@
+package com.brianxiadong.test.db.load;
+
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.profile.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 一个数据库上的压测结果
+ */
+public class LoadTestResult {
+
+    private final DatabaseType databaseType;
+    private final LoadProfile profile;
+    private final long operations;
+    private final long errors;
+    private final long elapsedNanos;
+    private final LatencyHistogram latency;
+    private final Map<String, Long> errorsByType;
+    private final int peakActiveConnections;
+
+    LoadTestResult(DatabaseType databaseType, LoadProfile profile, long operations, long errors, long elapsedNanos,
+            LatencyHistogram latency, Map<String, Long> errorsByType, int peakActiveConnections) {
+        this.databaseType = databaseType;
+        this.profile = profile;
+        this.operations = operations;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+        this.errorsByType = Collections.unmodifiableMap(errorsByType);
+        this.peakActiveConnections = peakActiveConnections;
+    }
+
+    public DatabaseType getDatabaseType() {
+        return databaseType;
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * 计入结果的操作数（包含失败的操作）
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 每秒完成的操作数
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : operations * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * 延迟百分位（纳秒）
+     *
+     * @param percentile 百分位（0-100）
+     * @return 延迟
+     */
+    public long getLatencyPercentile(double percentile) {
+        return latency.percentile(percentile);
+    }
+
+    /**
+     * 按异常类型统计的失败次数
+     */
+    public Map<String, Long> getErrorsByType() {
+        return errorsByType;
+    }
+
+    /**
+     * 压测期间同时借出的最大连接数，无法获取时为 -1
+     */
+    public int getPeakActiveConnections() {
+        return peakActiveConnections;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s: %d ops, %.1f ops/s, p50=%.3fms, p90=%.3fms, p99=%.3fms, p99.9=%.3fms, errors=%d%s",
+                databaseType.getDisplayName(), operations, getThroughput(),
+                millis(getLatencyPercentile(50)), millis(getLatencyPercentile(90)),
+                millis(getLatencyPercentile(99)), millis(getLatencyPercentile(99.9)), errors,
+                errorsByType.isEmpty() ? "" : " " + errorsByType);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
\ No newline at end of file
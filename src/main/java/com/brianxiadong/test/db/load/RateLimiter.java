@@ -0,0 +1,37 @@
+package com.brianxiadong.test.db.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 按固定间隔分配操作开始时间的限速器
+ * 每次获取都领取下一个时间槽并等待到该时刻；工作线程落后时时间槽早于当前时间，不再等待，
+ * 返回的计划开始时间用于计算延迟，避免数据库变慢时少算排队时间
+ */
+final class RateLimiter {
+
+    private final long intervalNanos;
+    private final AtomicLong nextSlot;
+
+    RateLimiter(double operationsPerSecond, long startNanos) {
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000.0 / operationsPerSecond));
+        this.nextSlot = new AtomicLong(startNanos);
+    }
+
+    /**
+     * 等待下一个时间槽
+     *
+     * @return 计划开始时间（纳秒）
+     */
+    long acquire() {
+        long slot = nextSlot.getAndAdd(intervalNanos);
+        long wait;
+        while ((wait = slot - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        return slot;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.brianxiadong.test.db.log;
+
+/**
+ * 控制台日志输出
+ * 普通信息输出到 System.out，错误信息和异常堆栈输出到 System.err
+ */
+public class ConsoleLogger implements MultiDbLogger {
+
+    @Override
+    public void info(String message) {
+        System.out.println(message);
+    }
+
+    @Override
+    public void error(String message, Throwable error) {
+        System.err.println(message);
+        if (error != null) {
+            error.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.brianxiadong.test.db.log;
+
+/**
+ * 框架日志入口
+ * 默认输出到控制台；通过 {@link #setLogger(MultiDbLogger)} 替换输出方式，
+ * 或者通过 {@link #disable()} / 系统属性 multidb.log=off 关闭输出，避免控制台 I/O 计入测量的耗时
+ */
+public final class MultiDbLog {
+
+    private static final MultiDbLogger NONE = new MultiDbLogger() {
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void error(String message, Throwable error) {
+        }
+    };
+
+    private static volatile MultiDbLogger logger =
+            "off".equalsIgnoreCase(System.getProperty("multidb.log")) ? NONE : new ConsoleLogger();
+
+    private MultiDbLog() {
+    }
+
+    /**
+     * 替换日志输出
+     * 
+     * @param logger 日志输出，为 null 时关闭输出
+     */
+    public static void setLogger(MultiDbLogger logger) {
+        MultiDbLog.logger = logger != null ? logger : NONE;
+    }
+
+    /**
+     * 关闭日志输出
+     */
+    public static void disable() {
+        logger = NONE;
+    }
+
+    /**
+     * 是否开启了日志输出，拼接开销较大的日志前可以先检查
+     */
+    public static boolean isEnabled() {
+        return logger != NONE;
+    }
+
+    public static void info(String message) {
+        logger.info(message);
+    }
+
+    public static void error(String message) {
+        logger.error(message, null);
+    }
+
+    public static void error(String message, Throwable error) {
+        logger.error(message, error);
+    }
+}
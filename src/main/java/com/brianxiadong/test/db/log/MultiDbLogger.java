@@ -0,0 +1,23 @@
+package com.brianxiadong.test.db.log;
+
+/**
+ * 框架日志输出接口
+ * 默认输出到控制台，可以替换为其他日志框架的适配实现，或者关闭输出
+ */
+public interface MultiDbLogger {
+
+    /**
+     * 输出普通信息
+     * 
+     * @param message 日志内容
+     */
+    void info(String message);
+
+    /**
+     * 输出错误信息
+     * 
+     * @param message 日志内容
+     * @param error   异常，可以为 null
+     */
+    void error(String message, Throwable error);
+}
@@ -0,0 +1,131 @@
+package com.brianxiadong.test.db.migration;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 一个版本迁移脚本
+ * 文件名格式为 V&lt;版本&gt;__&lt;描述&gt;.sql，版本由数字组成，用点或下划线分隔，例如 V1__init.sql、V2.1__add_email.sql，
+ * 按版本的数值顺序执行
+ */
+public final class Migration implements Comparable<Migration> {
+
+    private static final Pattern FILE_NAME = Pattern.compile("[Vv](\\d+(?:[._]\\d+)*)__(.+)\\.sql");
+
+    private final String version;
+    private final List<BigInteger> versionParts;
+    private final String description;
+    private final String script;
+    private final String checksum;
+
+    Migration(String version, String description, String script, String checksum) {
+        this.version = version;
+        this.versionParts = parseVersion(version);
+        this.description = description;
+        this.script = script;
+        this.checksum = checksum;
+    }
+
+    /**
+     * 从文件名解析版本和描述
+     *
+     * @param fileName 文件名
+     * @return 版本和描述，文件名不符合格式时返回 null
+     */
+    static String[] parseFileName(String fileName) {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new String[] {matcher.group(1).replace('_', '.'), matcher.group(2).replace('_', ' ')};
+    }
+
+    private static List<BigInteger> parseVersion(String version) {
+        List<BigInteger> parts = new ArrayList<>();
+        for (String part : version.split("\\.")) {
+            parts.add(new BigInteger(part));
+        }
+        // 去掉末尾的 0，使 1 和 1.0 是同一个版本
+        while (parts.size() > 1 && parts.get(parts.size() - 1).signum() == 0) {
+            parts.remove(parts.size() - 1);
+        }
+        return Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * 获取版本，例如 2.1
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 获取脚本的类路径资源
+     */
+    public String getScript() {
+        return script;
+    }
+
+    /**
+     * 获取脚本内容的 SHA-256
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * 规范化的版本号，表示同一个版本的写法（如 1、1.0、1_0）得到相同的结果
+     */
+    String getCanonicalVersion() {
+        return canonical(versionParts);
+    }
+
+    static String canonicalVersion(String version) {
+        return canonical(parseVersion(version));
+    }
+
+    private static String canonical(List<BigInteger> parts) {
+        StringBuilder builder = new StringBuilder();
+        for (BigInteger part : parts) {
+            if (builder.length() > 0) {
+                builder.append('.');
+            }
+            builder.append(part);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public int compareTo(Migration other) {
+        return compareVersions(versionParts, other.versionParts);
+    }
+
+    static int compareVersions(String left, String right) {
+        return compareVersions(parseVersion(left), parseVersion(right));
+    }
+
+    private static int compareVersions(List<BigInteger> left, List<BigInteger> right) {
+        for (int i = 0; i < Math.max(left.size(), right.size()); i++) {
+            BigInteger l = i < left.size() ? left.get(i) : BigInteger.ZERO;
+            BigInteger r = i < right.size() ? right.get(i) : BigInteger.ZERO;
+            int result = l.compareTo(r);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " " + description;
+    }
+}
\ No newline at end of file
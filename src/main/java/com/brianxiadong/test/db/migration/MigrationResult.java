@@ -0,0 +1,74 @@
+package com.brianxiadong.test.db.migration;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一次迁移的结果
+ */
+public final class MigrationResult {
+
+    private final String location;
+    private final List<String> appliedVersions;
+    private final String currentVersion;
+    private final String rebuildReason;
+    private final long durationNanos;
+
+    MigrationResult(String location, List<String> appliedVersions, String currentVersion, String rebuildReason,
+            long durationNanos) {
+        this.location = location;
+        this.appliedVersions = Collections.unmodifiableList(appliedVersions);
+        this.currentVersion = currentVersion;
+        this.rebuildReason = rebuildReason;
+        this.durationNanos = durationNanos;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * 获取本次执行的迁移版本
+     */
+    public List<String> getAppliedVersions() {
+        return appliedVersions;
+    }
+
+    public int getAppliedCount() {
+        return appliedVersions.size();
+    }
+
+    /**
+     * 获取迁移后的数据库版本，没有任何迁移时为 null
+     */
+    public String getCurrentVersion() {
+        return currentVersion;
+    }
+
+    /**
+     * 已执行的迁移与脚本不一致，需要重建数据库后重新迁移。此时没有执行任何迁移
+     */
+    public boolean isRebuildRequired() {
+        return rebuildReason != null;
+    }
+
+    /**
+     * 获取需要重建的原因
+     */
+    public String getRebuildReason() {
+        return rebuildReason;
+    }
+
+    public long getDurationMillis() {
+        return durationNanos / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        if (rebuildReason != null) {
+            return location + " 需要重建: " + rebuildReason;
+        }
+        return String.format("%s 执行 %d 个迁移，当前版本 %s，耗时 %dms",
+                location, appliedVersions.size(), currentVersion, getDurationMillis());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.brianxiadong.test.db.migration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 扫描类路径目录中的迁移脚本
+ * 支持目录和 jar 中的资源，类路径在 JVM 内不会变化，扫描结果按目录缓存
+ */
+final class MigrationScanner {
+
+    private static final ConcurrentMap<String, List<Migration>> CACHE = new ConcurrentHashMap<>();
+
+    private MigrationScanner() {
+    }
+
+    /**
+     * 规范化迁移目录：去掉开头的 /，以 / 结尾
+     */
+    static String normalize(String location) {
+        String normalized = location.trim().replace('\\', '/');
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized.endsWith("/") ? normalized : normalized + "/";
+    }
+
+    /**
+     * 获取目录中的迁移脚本，按版本排序
+     *
+     * @param location 类路径目录，例如 db/migration/mysql/
+     * @return 迁移脚本
+     * @throws IOException 读取失败时抛出异常
+     */
+    static List<Migration> scan(String location) throws IOException {
+        String normalized = normalize(location);
+        List<Migration> migrations = CACHE.get(normalized);
+        if (migrations == null) {
+            migrations = Collections.unmodifiableList(load(normalized));
+            CACHE.putIfAbsent(normalized, migrations);
+        }
+        return migrations;
+    }
+
+    private static List<Migration> load(String location) throws IOException {
+        ClassLoader classLoader = MigrationScanner.class.getClassLoader();
+        Enumeration<URL> roots = classLoader.getResources(location);
+        if (!roots.hasMoreElements()) {
+            throw new IllegalArgumentException("找不到迁移脚本目录: " + location);
+        }
+
+        Set<String> fileNames = new LinkedHashSet<>();
+        while (roots.hasMoreElements()) {
+            listFileNames(roots.nextElement(), location, fileNames);
+        }
+
+        List<Migration> migrations = new ArrayList<>();
+        for (String fileName : fileNames) {
+            String[] parsed = Migration.parseFileName(fileName);
+            if (parsed == null) {
+                throw new IllegalArgumentException("迁移脚本文件名不符合 V<版本>__<描述>.sql 格式: " + location + fileName);
+            }
+            String script = location + fileName;
+            Migration migration = new Migration(parsed[0], parsed[1], script, checksum(classLoader, script));
+            for (Migration existing : migrations) {
+                if (existing.compareTo(migration) == 0) {
+                    throw new IllegalArgumentException("迁移脚本版本重复: " + existing.getScript() + ", " + script);
+                }
+            }
+            migrations.add(migration);
+        }
+        Collections.sort(migrations);
+        return migrations;
+    }
+
+    private static void listFileNames(URL root, String location, Set<String> fileNames) throws IOException {
+        if ("file".equals(root.getProtocol())) {
+            File[] files;
+            try {
+                files = new File(root.toURI()).listFiles();
+            } catch (URISyntaxException e) {
+                throw new IOException("无效的迁移脚本目录: " + root, e);
+            }
+            if (files != null) {
+                for (File file : files) {
+                    if (file.isFile() && file.getName().endsWith(".sql")) {
+                        fileNames.add(file.getName());
+                    }
+                }
+            }
+            return;
+        }
+
+        URLConnection connection = root.openConnection();
+        if (!(connection instanceof JarURLConnection)) {
+            throw new IOException("不支持扫描该类路径中的迁移脚本: " + root);
+        }
+        connection.setUseCaches(false);
+        try (JarFile jar = ((JarURLConnection) connection).getJarFile()) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(location) && name.endsWith(".sql")
+                        && name.indexOf('/', location.length()) < 0) {
+                    fileNames.add(name.substring(location.length()));
+                }
+            }
+        }
+    }
+
+    private static String checksum(ClassLoader classLoader, String script) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = classLoader.getResourceAsStream(script)) {
+            if (in == null) {
+                throw new IOException("找不到迁移脚本: " + script);
+            }
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
\ No newline at end of file
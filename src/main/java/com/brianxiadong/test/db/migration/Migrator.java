@@ -0,0 +1,161 @@
+package com.brianxiadong.test.db.migration;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.handler.DatabaseHandler;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.lifecycle.Phase;
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.script.SqlScriptOptions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 版本迁移
+ * 迁移脚本按版本顺序执行，每执行一个就在 {@value #HISTORY_TABLE} 表中记录版本和内容校验和。
+ * 复用容器或从快照恢复后只执行新增的版本；已执行的脚本内容被修改、删除，
+ * 或者新增的版本低于已执行的最高版本时，返回需要重建的结果，由调用方重置数据库后重新迁移
+ */
+public final class Migrator {
+
+    /**
+     * 记录已执行迁移的表，和业务表一起保存在快照中
+     */
+    public static final String HISTORY_TABLE = "multidb_schema_history";
+
+    private static final String CREATE_HISTORY_SQL = "CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+            + "version VARCHAR(50) NOT NULL PRIMARY KEY, "
+            + "description VARCHAR(200) NOT NULL, "
+            + "script VARCHAR(500) NOT NULL, "
+            + "checksum VARCHAR(64) NOT NULL, "
+            + "execution_ms BIGINT NOT NULL)";
+
+    private Migrator() {
+    }
+
+    /**
+     * 执行尚未执行的迁移
+     *
+     * @param handler  数据库处理器，用于执行脚本
+     * @param dbInfo   数据库连接信息
+     * @param location 迁移脚本所在的类路径目录
+     * @param options  脚本执行选项
+     * @return 迁移结果，需要重建时没有执行任何迁移
+     * @throws Exception 读取脚本或执行迁移失败时抛出异常，已成功的迁移保留记录
+     */
+    public static MigrationResult migrate(DatabaseHandler handler, DatabaseInfo dbInfo, String location,
+            SqlScriptOptions options) throws Exception {
+        long start = Lifecycle.start();
+        try {
+            MigrationResult result = doMigrate(handler, dbInfo, MigrationScanner.normalize(location), options, start);
+            Lifecycle.end(Phase.MIGRATION, start);
+            return result;
+        } catch (Exception e) {
+            Lifecycle.end(Phase.MIGRATION, start, e);
+            MultiDbLog.error("执行迁移失败: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static MigrationResult doMigrate(DatabaseHandler handler, DatabaseInfo dbInfo, String location,
+            SqlScriptOptions options, long start) throws Exception {
+        List<Migration> migrations = MigrationScanner.scan(location);
+        Map<String, String> applied = loadHistory(dbInfo);
+
+        // 校验已执行的迁移，任何不一致都需要重建
+        Map<String, Migration> byVersion = new HashMap<>();
+        for (Migration migration : migrations) {
+            byVersion.put(migration.getCanonicalVersion(), migration);
+        }
+        String highestApplied = null;
+        for (Map.Entry<String, String> row : applied.entrySet()) {
+            Migration migration = byVersion.get(row.getKey());
+            if (migration == null) {
+                return rebuild(location, "已执行的迁移 V" + row.getKey() + " 已被删除", start);
+            }
+            if (!migration.getChecksum().equals(row.getValue())) {
+                return rebuild(location, "已执行的迁移 " + migration.getScript() + " 内容已修改", start);
+            }
+            if (highestApplied == null || Migration.compareVersions(row.getKey(), highestApplied) > 0) {
+                highestApplied = row.getKey();
+            }
+        }
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.getCanonicalVersion())) {
+                if (highestApplied != null && Migration.compareVersions(migration.getVersion(), highestApplied) < 0) {
+                    return rebuild(location, "新增的迁移 " + migration.getScript() + " 低于已执行的版本 V" + highestApplied,
+                            start);
+                }
+                pending.add(migration);
+            }
+        }
+
+        List<String> appliedVersions = new ArrayList<>();
+        for (Migration migration : pending) {
+            MultiDbLog.info("执行迁移 " + migration);
+            long migrationStart = System.nanoTime();
+            handler.executeInitScript(dbInfo, migration.getScript(), options);
+            record(dbInfo, migration, (System.nanoTime() - migrationStart) / 1_000_000);
+            appliedVersions.add(migration.getVersion());
+        }
+
+        String currentVersion = !migrations.isEmpty() ? migrations.get(migrations.size() - 1).getVersion() : null;
+        MigrationResult result = new MigrationResult(location, appliedVersions, currentVersion, null,
+                System.nanoTime() - start);
+        MultiDbLog.info(pending.isEmpty() ? "迁移已是最新版本 " + currentVersion + "（" + location + "）" : result.toString());
+        return result;
+    }
+
+    private static MigrationResult rebuild(String location, String reason, long start) {
+        MultiDbLog.info("迁移需要重建数据库: " + reason);
+        return new MigrationResult(location, new ArrayList<>(), null, reason, System.nanoTime() - start);
+    }
+
+    /**
+     * 创建历史表并读取已执行的版本（规范化后）和校验和
+     */
+    private static Map<String, String> loadHistory(DatabaseInfo dbInfo) throws SQLException {
+        Map<String, String> applied = new LinkedHashMap<>();
+        try (Connection connection = connect(dbInfo);
+                Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_HISTORY_SQL);
+            try (ResultSet rs = statement.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE)) {
+                while (rs.next()) {
+                    applied.put(Migration.canonicalVersion(rs.getString(1)), rs.getString(2));
+                }
+            }
+        }
+        return applied;
+    }
+
+    private static void record(DatabaseInfo dbInfo, Migration migration, long executionMillis) throws SQLException {
+        try (Connection connection = connect(dbInfo);
+                PreparedStatement statement = connection.prepareStatement("INSERT INTO " + HISTORY_TABLE
+                        + " (version, description, script, checksum, execution_ms) VALUES (?, ?, ?, ?, ?)")) {
+            statement.setString(1, migration.getVersion());
+            statement.setString(2, truncate(migration.getDescription(), 200));
+            statement.setString(3, truncate(migration.getScript(), 500));
+            statement.setString(4, migration.getChecksum());
+            statement.setLong(5, executionMillis);
+            statement.executeUpdate();
+        }
+    }
+
+    private static Connection connect(DatabaseInfo dbInfo) throws SQLException {
+        return DriverManager.getConnection(dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword());
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.brianxiadong.test.db.plan;
+
+import java.util.Locale;
+
+/**
+ * 归一化后的表访问方式，按代价从低到高排列
+ * 各数据库的访问方式映射到这里后才能互相比较，也才能判断计划是否变差
+ */
+public enum AccessType {
+
+    /**
+     * 最多一行，优化阶段已经确定（MySQL 的 const / system）
+     */
+    CONST,
+
+    /**
+     * 按主键或唯一索引的等值查找（MySQL 的 eq_ref，OceanBase 的 TABLE GET）
+     */
+    UNIQUE,
+
+    /**
+     * 按非唯一索引的等值查找
+     */
+    REF,
+
+    /**
+     * 索引范围扫描
+     */
+    RANGE,
+
+    /**
+     * 扫描整个索引
+     */
+    INDEX,
+
+    /**
+     * 全表扫描
+     */
+    ALL;
+
+    /**
+     * 写入基线和报告的名称
+     */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 是否比另一种访问方式代价更高
+     *
+     * @param other 另一种访问方式
+     * @return 代价更高时返回 true
+     */
+    public boolean isWorseThan(AccessType other) {
+        return ordinal() > other.ordinal();
+    }
+
+    static AccessType fromLabel(String label) {
+        return valueOf(label.trim().toUpperCase(Locale.ROOT));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.brianxiadong.test.db.plan;
+
+/**
+ * 某个数据库上一个 SQL 指纹的执行计划
+ */
+public final class CapturedPlan {
+
+    private final String database;
+    private final String fingerprint;
+    private final String sql;
+    private final QueryPlan plan;
+
+    CapturedPlan(String database, String fingerprint, String sql, QueryPlan plan) {
+        this.database = database;
+        this.fingerprint = fingerprint;
+        this.sql = sql;
+        this.plan = plan;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 获取计划时使用的语句样本（SQL 和参数）
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public QueryPlan getPlan() {
+        return plan;
+    }
+
+    @Override
+    public String toString() {
+        return database + " " + plan + ": " + fingerprint;
+    }
+}
\ No newline at end of file
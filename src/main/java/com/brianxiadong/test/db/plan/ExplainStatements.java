@@ -0,0 +1,41 @@
+package com.brianxiadong.test.db.plan;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 执行 EXPLAIN 的公共逻辑
+ */
+final class ExplainStatements {
+
+    private ExplainStatements() {
+    }
+
+    /**
+     * 在语句前加上 EXPLAIN 前缀执行，绑定样本的参数
+     *
+     * @return 结果的第一列，每行一个元素
+     */
+    static List<String> explain(Connection connection, String prefix, PlanSample sample) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(prefix + sample.getSql())) {
+            List<Object> parameters = sample.getParameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String row = resultSet.getString(1);
+                    if (row != null) {
+                        rows.add(row);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.brianxiadong.test.db.plan;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * H2 的执行计划
+ * H2 的 EXPLAIN 返回改写后的 SQL，每张表后面用注释标出访问方式：
+ * {@code /* public.t.tableScan *}{@code /} 为全表扫描，{@code /* public.idx: name = ?1 *}{@code /} 为按索引查找，
+ * 索引后面没有条件时为全索引扫描，条件中有比较、BETWEEN、LIKE 或 IN 列表时为范围扫描。
+ * ORDER BY 没有 index sorted 注释时记为额外排序，GROUP BY 没有 group sorted 注释时记为临时表
+ */
+public class H2PlanExplainer implements PlanExplainer {
+
+    private static final Pattern TABLE = Pattern.compile(
+            "(?i)\\b(?:FROM|JOIN|UPDATE)\\s+((?:\"?[\\w$]+\"?\\.)?\"?[\\w$]+\"?)(?:\\s+\"?([\\w$]+)\"?)?\\s*/\\*\\s*([^*]*?)\\s*\\*/");
+
+    private static final Pattern RANGE_CONDITION = Pattern.compile("[<>]|\\bBETWEEN\\b|\\bLIKE\\b|\\bIN\\s*\\(",
+            Pattern.CASE_INSENSITIVE);
+
+    @Override
+    public QueryPlan explain(Connection connection, PlanSample sample) throws SQLException {
+        return parse(String.join("\n", ExplainStatements.explain(connection, "EXPLAIN ", sample)));
+    }
+
+    /**
+     * 解析 EXPLAIN 的输出
+     *
+     * @param plan 输出文本
+     * @return 归一化的执行计划
+     */
+    public static QueryPlan parse(String plan) {
+        List<TableAccess> accesses = new ArrayList<>();
+        Set<PlanFlag> flags = EnumSet.noneOf(PlanFlag.class);
+        Matcher matcher = TABLE.matcher(plan);
+        while (matcher.find()) {
+            String table = unquote(matcher.group(2) != null ? matcher.group(2) : lastPart(matcher.group(1)));
+            accesses.add(access(table, matcher.group(3)));
+        }
+        String upper = plan.toUpperCase(Locale.ROOT);
+        if (upper.contains("ORDER BY") && !upper.contains("INDEX SORTED")) {
+            flags.add(PlanFlag.FILESORT);
+        }
+        if (upper.contains("GROUP BY") && !upper.contains("GROUP SORTED")) {
+            flags.add(PlanFlag.TEMPORARY);
+        }
+        return new QueryPlan(accesses, flags, plan);
+    }
+
+    private static TableAccess access(String table, String comment) {
+        if (comment.endsWith(".tableScan") || comment.endsWith(".scan")) {
+            return new TableAccess(table, AccessType.ALL, null);
+        }
+        int colon = comment.indexOf(':');
+        String index = lastPart(colon >= 0 ? comment.substring(0, colon) : comment);
+        boolean primary = index.toUpperCase(Locale.ROOT).startsWith("PRIMARY_KEY");
+        if (primary) {
+            index = TableAccess.PRIMARY;
+        }
+        if (colon < 0) {
+            return new TableAccess(table, AccessType.INDEX, index);
+        }
+        String condition = comment.substring(colon + 1);
+        if (RANGE_CONDITION.matcher(condition).find()) {
+            return new TableAccess(table, AccessType.RANGE, index);
+        }
+        return new TableAccess(table, primary ? AccessType.UNIQUE : AccessType.REF, index);
+    }
+
+    private static String lastPart(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : name;
+    }
+
+    private static String unquote(String name) {
+        return name.replace("\"", "");
+    }
+}
\ No newline at end of file
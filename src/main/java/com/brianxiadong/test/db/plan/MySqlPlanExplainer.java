@@ -0,0 +1,89 @@
+package com.brianxiadong.test.db.plan;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MySQL 的执行计划
+ * 使用 EXPLAIN FORMAT=JSON，遍历输出中所有带 table_name 和 access_type 的表，
+ * 以及 using_filesort、using_temporary_table 标记。派生表、子查询结果等内部表（名称以 &lt; 开头）不计入
+ */
+public class MySqlPlanExplainer implements PlanExplainer {
+
+    @Override
+    public QueryPlan explain(Connection connection, PlanSample sample) throws SQLException {
+        String json = String.join("\n", ExplainStatements.explain(connection, "EXPLAIN FORMAT=JSON ", sample));
+        return parse(json);
+    }
+
+    /**
+     * 解析 EXPLAIN FORMAT=JSON 的输出
+     *
+     * @param json 输出文本
+     * @return 归一化的执行计划
+     */
+    public static QueryPlan parse(String json) {
+        List<TableAccess> accesses = new ArrayList<>();
+        Set<PlanFlag> flags = EnumSet.noneOf(PlanFlag.class);
+        collect(Json.parse(json), accesses, flags);
+        return new QueryPlan(accesses, flags, json);
+    }
+
+    private static void collect(Object node, List<TableAccess> accesses, Set<PlanFlag> flags) {
+        if (node instanceof List) {
+            for (Object element : (List<?>) node) {
+                collect(element, accesses, flags);
+            }
+            return;
+        }
+        if (!(node instanceof Map)) {
+            return;
+        }
+        Map<?, ?> object = (Map<?, ?>) node;
+        Object tableName = object.get("table_name");
+        Object accessType = object.get("access_type");
+        if (tableName instanceof String && accessType instanceof String && !((String) tableName).startsWith("<")) {
+            Object key = object.get("key");
+            accesses.add(new TableAccess((String) tableName, accessType((String) accessType),
+                    key instanceof String ? (String) key : null));
+        }
+        if (Boolean.TRUE.equals(object.get("using_filesort"))) {
+            flags.add(PlanFlag.FILESORT);
+        }
+        if (Boolean.TRUE.equals(object.get("using_temporary_table"))) {
+            flags.add(PlanFlag.TEMPORARY);
+        }
+        for (Object value : object.values()) {
+            collect(value, accesses, flags);
+        }
+    }
+
+    private static AccessType accessType(String type) {
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "system":
+            case "const":
+                return AccessType.CONST;
+            case "eq_ref":
+            case "unique_subquery":
+                return AccessType.UNIQUE;
+            case "ref":
+            case "ref_or_null":
+            case "fulltext":
+            case "index_subquery":
+                return AccessType.REF;
+            case "range":
+            case "index_merge":
+                return AccessType.RANGE;
+            case "index":
+                return AccessType.INDEX;
+            default:
+                return AccessType.ALL;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.brianxiadong.test.db.plan;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * OceanBase 的执行计划
+ * 使用 EXPLAIN 的算子表格（各版本的 JSON 格式差别较大，表格格式稳定），按算子归一化：
+ * TABLE GET 为唯一查找，TABLE RANGE SCAN 为范围扫描，TABLE FULL SCAN 为全表扫描（名称带索引时为全索引扫描），
+ * SORT 类算子记为额外排序，MATERIAL 和 HASH GROUP BY / HASH DISTINCT 记为临时表。
+ * 名称列为 {@code 表(索引)} 时使用该索引，只有表名时使用主键
+ */
+public class OceanBasePlanExplainer implements PlanExplainer {
+
+    @Override
+    public QueryPlan explain(Connection connection, PlanSample sample) throws SQLException {
+        return parse(ExplainStatements.explain(connection, "EXPLAIN ", sample));
+    }
+
+    /**
+     * 解析 EXPLAIN 的输出
+     *
+     * @param lines 输出的各行，也可以是一行包含全部内容的文本
+     * @return 归一化的执行计划
+     */
+    public static QueryPlan parse(List<String> lines) {
+        List<TableAccess> accesses = new ArrayList<>();
+        Set<PlanFlag> flags = EnumSet.noneOf(PlanFlag.class);
+        StringBuilder raw = new StringBuilder();
+        for (String text : lines) {
+            raw.append(text).append('\n');
+            for (String line : text.split("\n")) {
+                String[] columns = line.trim().split("\\|");
+                // 算子行形如 |0 |TABLE FULL SCAN|t1(idx_c1)|1 |3 |
+                if (columns.length < 4 || !columns[1].trim().matches("\\d+")) {
+                    continue;
+                }
+                String operator = stripTree(columns[2]).toUpperCase(Locale.ROOT);
+                String name = columns[3].trim();
+                collect(operator, name, accesses, flags);
+            }
+        }
+        return new QueryPlan(accesses, flags, raw.toString());
+    }
+
+    private static void collect(String operator, String name, List<TableAccess> accesses, Set<PlanFlag> flags) {
+        if (operator.endsWith("SORT")) {
+            flags.add(PlanFlag.FILESORT);
+        } else if (operator.startsWith("MATERIAL") || operator.startsWith("HASH GROUP BY")
+                || operator.startsWith("HASH DISTINCT")) {
+            flags.add(PlanFlag.TEMPORARY);
+        }
+        if (!operator.contains("TABLE ") || name.isEmpty()) {
+            return;
+        }
+        String table = name;
+        String index = TableAccess.PRIMARY;
+        int paren = name.indexOf('(');
+        if (paren > 0 && name.endsWith(")")) {
+            table = name.substring(0, paren);
+            // 名称可能带有 Reverse 等附加说明，例如 t1(idx_c1,Reverse)
+            index = name.substring(paren + 1, name.length() - 1).split(",")[0].trim();
+        }
+        AccessType type;
+        if (operator.contains("TABLE GET")) {
+            type = AccessType.UNIQUE;
+        } else if (operator.contains("RANGE SCAN")) {
+            type = AccessType.RANGE;
+        } else if (operator.contains("SCAN")) {
+            // 全表扫描；3.x 的 TABLE SCAN 不区分范围扫描，同样按全表扫描处理
+            type = paren > 0 ? AccessType.INDEX : AccessType.ALL;
+        } else {
+            return;
+        }
+        accesses.add(new TableAccess(table, type, type == AccessType.ALL ? null : index));
+    }
+
+    /**
+     * 去掉算子前面表示树形结构的缩进和连线
+     */
+    private static String stripTree(String operator) {
+        int start = 0;
+        while (start < operator.length() && !Character.isLetter(operator.charAt(start))) {
+            start++;
+        }
+        return operator.substring(start).trim();
+    }
+}
\ No newline at end of file
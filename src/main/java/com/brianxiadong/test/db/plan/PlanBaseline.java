@@ -0,0 +1,75 @@
+package com.brianxiadong.test.db.plan;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 执行计划基线文件
+ * 每行一条语句：数据库、SQL 指纹和规范形式的执行计划，用制表符分隔；# 开头的行是注释。
+ * 按数据库和指纹排序写出，便于在代码评审中查看变化
+ */
+final class PlanBaseline {
+
+    private PlanBaseline() {
+    }
+
+    static String key(String database, String fingerprint) {
+        return database + "\t" + fingerprint;
+    }
+
+    /**
+     * 读取基线
+     *
+     * @return 以 {@link #key} 为键的执行计划
+     */
+    static Map<String, QueryPlan> read(File file) throws IOException {
+        Map<String, QueryPlan> plans = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t");
+                if (columns.length != 3) {
+                    throw new IOException("执行计划基线格式错误: " + file + " 第 " + lineNumber + " 行");
+                }
+                try {
+                    plans.put(key(columns[0], columns[1]), QueryPlan.parse(columns[2]));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("执行计划基线格式错误: " + file + " 第 " + lineNumber + " 行: " + e.getMessage(), e);
+                }
+            }
+        }
+        return plans;
+    }
+
+    static void write(File file, String testClass, Collection<CapturedPlan> plans) throws IOException {
+        List<CapturedPlan> sorted = new ArrayList<>(plans);
+        sorted.sort(Comparator.comparing(CapturedPlan::getDatabase).thenComparing(CapturedPlan::getFingerprint));
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("# 执行计划基线: " + testClass + "\n");
+            writer.write("# 数据库\tSQL 指纹\t执行计划\n");
+            for (CapturedPlan plan : sorted) {
+                writer.write(plan.getDatabase() + "\t" + plan.getFingerprint() + "\t" + plan.getPlan().toCanonical()
+                        + "\n");
+            }
+        }
+    }
+}
\ No newline at end of file
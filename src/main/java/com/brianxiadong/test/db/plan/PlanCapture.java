@@ -0,0 +1,196 @@
+package com.brianxiadong.test.db.plan;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.log.MultiDbLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 执行计划收集
+ * 测试逻辑在某个数据库上执行完后，对执行过的每个 SQL 指纹取一次执行计划；
+ * 所有数据库测试结束后跨数据库比较，并与基线文件比较。
+ * <p>
+ * 基线文件为基线目录下的 {@code <测试类>.plans}，目录默认为 src/test/resources/multidb-plans，
+ * 可以通过系统属性 multidb.plan.baseline.dir 修改。基线不存在时用本次的计划生成；
+ * 设置系统属性 multidb.plan.baseline.update=true 时用本次的计划覆盖
+ */
+public class PlanCapture {
+
+    private static final PlanCapture SHARED = new PlanCapture(
+            new File(System.getProperty("multidb.plan.baseline.dir", "src/test/resources/multidb-plans")),
+            Boolean.getBoolean("multidb.plan.baseline.update"));
+
+    private final File baselineDir;
+    private final boolean updateBaseline;
+    private final Map<String, Map<String, CapturedPlan>> runs = new ConcurrentHashMap<>();
+
+    /**
+     * @param baselineDir    基线目录
+     * @param updateBaseline 是否用本次的计划覆盖基线
+     */
+    public PlanCapture(File baselineDir, boolean updateBaseline) {
+        this.baselineDir = baselineDir;
+        this.updateBaseline = updateBaseline;
+    }
+
+    /**
+     * 获取共享的执行计划收集器
+     *
+     * @return 收集器实例
+     */
+    public static PlanCapture shared() {
+        return SHARED;
+    }
+
+    /**
+     * 在指定数据库上获取语句样本的执行计划
+     * 单条语句无法解释时（例如引用了测试中创建的临时表）跳过该语句；同一个指纹在一次测试中只取一次
+     *
+     * @param testClass 测试类名
+     * @param dbInfo    数据库连接信息
+     * @param explainer 该数据库的执行计划解析器
+     * @param samples   SQL 指纹到语句样本的映射
+     */
+    public void explain(String testClass, DatabaseInfo dbInfo, PlanExplainer explainer, Map<String, PlanSample> samples) {
+        String database = dbInfo.getType().getDisplayName();
+        if (explainer == null) {
+            MultiDbLog.info(database + " 不支持获取执行计划，跳过");
+            return;
+        }
+        Map<String, CapturedPlan> captured = runs.computeIfAbsent(testClass, name -> new LinkedHashMap<>());
+        try (Connection connection = DriverManager.getConnection(
+                dbInfo.getJdbcUrl(), dbInfo.getUsername(), dbInfo.getPassword())) {
+            for (Map.Entry<String, PlanSample> sample : samples.entrySet()) {
+                String key = PlanBaseline.key(database, sample.getKey());
+                synchronized (captured) {
+                    if (captured.containsKey(key)) {
+                        continue;
+                    }
+                }
+                try {
+                    QueryPlan plan = explainer.explain(connection, sample.getValue());
+                    synchronized (captured) {
+                        captured.put(key, new CapturedPlan(database, sample.getKey(),
+                                sample.getValue().toString(), plan));
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    MultiDbLog.error("获取执行计划失败（" + database + "）: " + sample.getKey() + ", " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            MultiDbLog.error("获取执行计划失败，无法连接 " + database + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 结束测试类的收集：跨数据库比较、与基线比较，基线不存在或要求更新时写入基线
+     *
+     * @param testClass 测试类名
+     * @return 执行计划报告，没有收集到计划时为空报告
+     * @throws IOException 读写基线失败时抛出异常
+     */
+    public PlanReport finish(String testClass) throws IOException {
+        Map<String, CapturedPlan> captured = runs.remove(testClass);
+        File baselineFile = new File(baselineDir, testClass.replaceAll("[^A-Za-z0-9._-]", "_") + ".plans");
+        List<CapturedPlan> plans = new ArrayList<>();
+        if (captured != null) {
+            synchronized (captured) {
+                plans.addAll(captured.values());
+            }
+        }
+        if (plans.isEmpty()) {
+            return new PlanReport(testClass, plans, new ArrayList<>(), new ArrayList<>(), baselineFile, false, 0);
+        }
+
+        List<PlanFinding> findings = compare(plans);
+        if (updateBaseline || !baselineFile.exists()) {
+            PlanBaseline.write(baselineFile, testClass, plans);
+            return new PlanReport(testClass, plans, findings, new ArrayList<>(), baselineFile, true, 0);
+        }
+
+        Map<String, QueryPlan> baseline = PlanBaseline.read(baselineFile);
+        List<PlanRegression> regressions = new ArrayList<>();
+        int newStatements = 0;
+        for (CapturedPlan plan : plans) {
+            QueryPlan expected = baseline.get(PlanBaseline.key(plan.getDatabase(), plan.getFingerprint()));
+            if (expected == null) {
+                newStatements++;
+                continue;
+            }
+            List<String> changes = plan.getPlan().regressionsFrom(expected);
+            if (!changes.isEmpty()) {
+                regressions.add(new PlanRegression(plan.getDatabase(), plan.getFingerprint(), expected,
+                        plan.getPlan(), changes));
+            } else if (!expected.equals(plan.getPlan())) {
+                MultiDbLog.info("执行计划有变化但没有变差（" + plan.getDatabase() + "）: " + expected + " -> "
+                        + plan.getPlan() + ": " + plan.getFingerprint());
+            }
+        }
+        return new PlanReport(testClass, plans, findings, regressions, baselineFile, false, newStatements);
+    }
+
+    /**
+     * 标出每条计划中的全表扫描、额外排序和临时表，
+     * 同一个指纹在多个数据库上都有计划时，比较每张表使用的索引
+     */
+    static List<PlanFinding> compare(List<CapturedPlan> plans) {
+        Map<String, List<CapturedPlan>> byFingerprint = new LinkedHashMap<>();
+        for (CapturedPlan plan : plans) {
+            byFingerprint.computeIfAbsent(plan.getFingerprint(), f -> new ArrayList<>()).add(plan);
+        }
+
+        List<PlanFinding> findings = new ArrayList<>();
+        for (Map.Entry<String, List<CapturedPlan>> entry : byFingerprint.entrySet()) {
+            String fingerprint = entry.getKey();
+            List<CapturedPlan> databases = entry.getValue();
+            for (CapturedPlan plan : databases) {
+                for (String table : plan.getPlan().getFullScanTables()) {
+                    findings.add(new PlanFinding(PlanFinding.Kind.FULL_SCAN, fingerprint,
+                            plan.getDatabase() + " 全表扫描 " + table));
+                }
+                for (PlanFlag flag : plan.getPlan().getFlags()) {
+                    findings.add(new PlanFinding(flag == PlanFlag.FILESORT
+                            ? PlanFinding.Kind.FILESORT : PlanFinding.Kind.TEMPORARY, fingerprint,
+                            plan.getDatabase() + " 需要 " + flag.label()));
+                }
+            }
+            if (databases.size() < 2) {
+                continue;
+            }
+            for (String table : databases.get(0).getPlan().byTable().keySet()) {
+                StringBuilder detail = new StringBuilder();
+                String firstIndex = null;
+                boolean mismatch = false;
+                int present = 0;
+                for (CapturedPlan plan : databases) {
+                    TableAccess access = plan.getPlan().byTable().get(table);
+                    if (access == null) {
+                        continue;
+                    }
+                    if (present++ == 0) {
+                        firstIndex = access.getIndex();
+                    } else if (!Objects.equals(firstIndex, access.getIndex())) {
+                        mismatch = true;
+                    }
+                    detail.append(detail.length() == 0 ? "" : ", ").append(plan.getDatabase()).append('=')
+                            .append(access.describe());
+                }
+                if (mismatch) {
+                    findings.add(new PlanFinding(PlanFinding.Kind.INDEX_MISMATCH, fingerprint,
+                            "表 " + table + " " + detail));
+                }
+            }
+        }
+        return findings;
+    }
+}
\ No newline at end of file
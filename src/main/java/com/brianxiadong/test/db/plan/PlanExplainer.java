@@ -0,0 +1,21 @@
+package com.brianxiadong.test.db.plan;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 获取并归一化某种数据库的执行计划
+ * 由 {@link com.brianxiadong.test.db.handler.DatabaseHandler#getPlanExplainer()} 提供
+ */
+public interface PlanExplainer {
+
+    /**
+     * 获取语句的执行计划
+     *
+     * @param connection 数据库连接
+     * @param sample     语句样本
+     * @return 归一化的执行计划
+     * @throws SQLException 数据库不能解释该语句时抛出异常
+     */
+    QueryPlan explain(Connection connection, PlanSample sample) throws SQLException;
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.brianxiadong.test.db.plan;
+
+/**
+ * 执行计划中发现的问题
+ */
+public final class PlanFinding {
+
+    /**
+     * 问题类型
+     */
+    public enum Kind {
+
+        /**
+         * 全表扫描
+         */
+        FULL_SCAN,
+
+        /**
+         * 额外排序
+         */
+        FILESORT,
+
+        /**
+         * 临时表
+         */
+        TEMPORARY,
+
+        /**
+         * 同一条语句在不同数据库上对同一张表选择了不同的索引
+         */
+        INDEX_MISMATCH
+    }
+
+    private final Kind kind;
+    private final String fingerprint;
+    private final String detail;
+
+    PlanFinding(Kind kind, String fingerprint, String detail) {
+        this.kind = kind;
+        this.fingerprint = fingerprint;
+        this.detail = detail;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 问题说明，包含数据库和表
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    @Override
+    public String toString() {
+        return detail + ": " + fingerprint;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.brianxiadong.test.db.plan;
+
+import java.util.Locale;
+
+/**
+ * 执行计划中需要关注的额外操作
+ */
+public enum PlanFlag {
+
+    /**
+     * 不能利用索引顺序，需要额外排序（MySQL 的 Using filesort，OceanBase 的 SORT）
+     */
+    FILESORT,
+
+    /**
+     * 需要临时表（MySQL 的 Using temporary，OceanBase 的 MATERIAL 和 HASH GROUP BY）
+     */
+    TEMPORARY;
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static PlanFlag fromLabel(String label) {
+        return valueOf(label.trim().toUpperCase(Locale.ROOT));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.brianxiadong.test.db.plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 执行计划相对基线变差
+ */
+public final class PlanRegression {
+
+    private final String database;
+    private final String fingerprint;
+    private final QueryPlan baseline;
+    private final QueryPlan current;
+    private final List<String> changes;
+
+    PlanRegression(String database, String fingerprint, QueryPlan baseline, QueryPlan current, List<String> changes) {
+        this.database = database;
+        this.fingerprint = fingerprint;
+        this.baseline = baseline;
+        this.current = current;
+        this.changes = Collections.unmodifiableList(new ArrayList<>(changes));
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public QueryPlan getBaseline() {
+        return baseline;
+    }
+
+    public QueryPlan getCurrent() {
+        return current;
+    }
+
+    /**
+     * 变差的地方，例如"表 u 的访问方式从 ref(idx_name) 变为 all"
+     */
+    public List<String> getChanges() {
+        return changes;
+    }
+
+    @Override
+    public String toString() {
+        return database + " " + String.join("，", changes) + "（基线 " + baseline + "，本次 " + current + "）: "
+                + fingerprint;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.brianxiadong.test.db.plan;
+
+import java.util.List;
+
+/**
+ * 执行计划相对基线变差
+ */
+public class PlanRegressionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<PlanRegression> regressions;
+
+    public PlanRegressionException(PlanReport report) {
+        super(buildMessage(report));
+        this.regressions = report.getRegressions();
+    }
+
+    /**
+     * 获取变差的执行计划
+     *
+     * @return 退化列表
+     */
+    public List<PlanRegression> getRegressions() {
+        return regressions;
+    }
+
+    private static String buildMessage(PlanReport report) {
+        StringBuilder message = new StringBuilder();
+        message.append(report.getRegressions().size()).append(" 条语句的执行计划相对基线变差（")
+                .append(report.getBaselineFile().getPath()).append("）:");
+        for (PlanRegression regression : report.getRegressions()) {
+            message.append("\n  ").append(regression);
+        }
+        message.append("\n确认新的计划符合预期后，使用 -Dmultidb.plan.baseline.update=true 更新基线");
+        return message.toString();
+    }
+}
\ No newline at end of file
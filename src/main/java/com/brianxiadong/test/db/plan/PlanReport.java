@@ -0,0 +1,157 @@
+package com.brianxiadong.test.db.plan;
+
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.report.JsonStrings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一个测试类的执行计划报告
+ * 包含各数据库上每个 SQL 指纹的执行计划、跨数据库比较发现的问题和相对基线的退化
+ */
+public class PlanReport {
+
+    private final String testClass;
+    private final List<CapturedPlan> plans;
+    private final List<PlanFinding> findings;
+    private final List<PlanRegression> regressions;
+    private final File baselineFile;
+    private final boolean baselineWritten;
+    private final int newStatements;
+
+    PlanReport(String testClass, List<CapturedPlan> plans, List<PlanFinding> findings,
+            List<PlanRegression> regressions, File baselineFile, boolean baselineWritten, int newStatements) {
+        this.testClass = testClass;
+        this.plans = Collections.unmodifiableList(new ArrayList<>(plans));
+        this.findings = Collections.unmodifiableList(new ArrayList<>(findings));
+        this.regressions = Collections.unmodifiableList(new ArrayList<>(regressions));
+        this.baselineFile = baselineFile;
+        this.baselineWritten = baselineWritten;
+        this.newStatements = newStatements;
+    }
+
+    public String getTestClass() {
+        return testClass;
+    }
+
+    public List<CapturedPlan> getPlans() {
+        return plans;
+    }
+
+    public List<PlanFinding> getFindings() {
+        return findings;
+    }
+
+    public List<PlanRegression> getRegressions() {
+        return regressions;
+    }
+
+    public File getBaselineFile() {
+        return baselineFile;
+    }
+
+    /**
+     * 本次是否生成或更新了基线（基线不存在或要求更新时），此时不检查退化
+     */
+    public boolean isBaselineWritten() {
+        return baselineWritten;
+    }
+
+    /**
+     * 基线中没有的语句数
+     */
+    public int getNewStatements() {
+        return newStatements;
+    }
+
+    public boolean isEmpty() {
+        return plans.isEmpty();
+    }
+
+    public boolean hasRegressions() {
+        return !regressions.isEmpty();
+    }
+
+    /**
+     * 输出发现的问题和退化；不同数据库选择了不同索引和退化作为错误输出
+     */
+    public void log() {
+        if (isEmpty()) {
+            return;
+        }
+        MultiDbLog.info("执行计划报告: " + testClass + "，" + plans.size() + " 条计划，" + findings.size() + " 个问题");
+        for (PlanFinding finding : findings) {
+            if (finding.getKind() == PlanFinding.Kind.INDEX_MISMATCH) {
+                MultiDbLog.error("索引选择不一致，" + finding);
+            } else {
+                MultiDbLog.info(finding.toString());
+            }
+        }
+        if (baselineWritten) {
+            MultiDbLog.info("执行计划基线已写入: " + baselineFile.getPath());
+        } else if (newStatements > 0) {
+            MultiDbLog.info(newStatements + " 条语句不在执行计划基线中，使用 -Dmultidb.plan.baseline.update=true 加入基线");
+        }
+        for (PlanRegression regression : regressions) {
+            MultiDbLog.error("执行计划退化，" + regression);
+        }
+    }
+
+    /**
+     * 把报告写成 {@code <测试类>.plans.json}
+     *
+     * @param reportDir 报告目录
+     * @return 报告文件
+     * @throws IOException 写入失败时抛出异常
+     */
+    public File writeTo(File reportDir) throws IOException {
+        Files.createDirectories(reportDir.toPath());
+        File file = new File(reportDir, testClass.replaceAll("[^A-Za-z0-9._-]", "_") + ".plans.json");
+        try (Writer json = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            json.write("{\n  \"testClass\": \"" + JsonStrings.escape(testClass) + "\",\n  \"plans\": [");
+            boolean first = true;
+            for (CapturedPlan plan : plans) {
+                json.write(first ? "\n" : ",\n");
+                json.write("    {\"database\": \"" + JsonStrings.escape(plan.getDatabase())
+                        + "\", \"fingerprint\": \"" + JsonStrings.escape(plan.getFingerprint())
+                        + "\", \"sql\": \"" + JsonStrings.escape(plan.getSql())
+                        + "\", \"plan\": \"" + JsonStrings.escape(plan.getPlan().toCanonical())
+                        + "\", \"raw\": \"" + JsonStrings.escape(String.valueOf(plan.getPlan().getRaw())) + "\"}");
+                first = false;
+            }
+            json.write("\n  ],\n  \"findings\": [");
+            first = true;
+            for (PlanFinding finding : findings) {
+                json.write(first ? "\n" : ",\n");
+                json.write("    {\"kind\": \"" + finding.getKind().name()
+                        + "\", \"fingerprint\": \"" + JsonStrings.escape(finding.getFingerprint())
+                        + "\", \"detail\": \"" + JsonStrings.escape(finding.getDetail()) + "\"}");
+                first = false;
+            }
+            json.write("\n  ],\n  \"regressions\": [");
+            first = true;
+            for (PlanRegression regression : regressions) {
+                json.write(first ? "\n" : ",\n");
+                json.write("    {\"database\": \"" + JsonStrings.escape(regression.getDatabase())
+                        + "\", \"fingerprint\": \"" + JsonStrings.escape(regression.getFingerprint())
+                        + "\", \"baseline\": \"" + JsonStrings.escape(regression.getBaseline().toCanonical())
+                        + "\", \"current\": \"" + JsonStrings.escape(regression.getCurrent().toCanonical())
+                        + "\", \"changes\": [");
+                for (int i = 0; i < regression.getChanges().size(); i++) {
+                    json.write((i > 0 ? ", " : "") + "\"" + JsonStrings.escape(regression.getChanges().get(i)) + "\"");
+                }
+                json.write("]}");
+                first = false;
+            }
+            json.write("\n  ]\n}\n");
+        }
+        return file;
+    }
+}
\ No newline at end of file
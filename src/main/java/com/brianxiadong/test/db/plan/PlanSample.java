@@ -0,0 +1,36 @@
+package com.brianxiadong.test.db.plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 用于获取执行计划的语句样本：某个 SQL 指纹第一次执行时的 SQL 和绑定的参数
+ */
+public final class PlanSample {
+
+    private final String sql;
+    private final List<Object> parameters;
+
+    /**
+     * @param sql        原始 SQL
+     * @param parameters 按位置排列的参数，普通语句为空列表
+     */
+    public PlanSample(String sql, List<Object> parameters) {
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public String toString() {
+        return parameters.isEmpty() ? sql : sql + " " + parameters;
+    }
+}
\ No newline at end of file
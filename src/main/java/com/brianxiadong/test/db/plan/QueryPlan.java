@@ -0,0 +1,186 @@
+package com.brianxiadong.test.db.plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 归一化的执行计划
+ * 只保留可以跨数据库比较的部分：每张表的访问方式和索引、是否需要额外排序和临时表。
+ * 规范形式为一行文本，例如 {@code u=ref(idx_name) o=all | filesort}，写入基线文件
+ */
+public final class QueryPlan {
+
+    private static final String NO_TABLES = "-";
+
+    private final List<TableAccess> accesses;
+    private final Set<PlanFlag> flags;
+    private final String raw;
+
+    /**
+     * @param accesses 按计划顺序排列的表访问
+     * @param flags    额外操作
+     * @param raw      数据库返回的原始计划，从基线读取时为 null
+     */
+    public QueryPlan(List<TableAccess> accesses, Set<PlanFlag> flags, String raw) {
+        this.accesses = Collections.unmodifiableList(new ArrayList<>(accesses));
+        this.flags = flags.isEmpty() ? Collections.<PlanFlag>emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(flags));
+        this.raw = raw;
+    }
+
+    /**
+     * 从规范形式解析
+     *
+     * @param canonical {@link #toCanonical()} 的结果
+     * @return 执行计划
+     * @throws IllegalArgumentException 格式不正确
+     */
+    public static QueryPlan parse(String canonical) {
+        String text = canonical.trim();
+        Set<PlanFlag> flags = EnumSet.noneOf(PlanFlag.class);
+        int bar = text.indexOf('|');
+        if (bar >= 0) {
+            for (String flag : text.substring(bar + 1).split(",")) {
+                if (!flag.trim().isEmpty()) {
+                    flags.add(PlanFlag.fromLabel(flag));
+                }
+            }
+            text = text.substring(0, bar).trim();
+        }
+        List<TableAccess> accesses = new ArrayList<>();
+        if (!text.equals(NO_TABLES) && !text.isEmpty()) {
+            for (String token : text.split("\\s+")) {
+                int equals = token.lastIndexOf('=');
+                if (equals <= 0) {
+                    throw new IllegalArgumentException("无法解析的表访问: " + token);
+                }
+                String access = token.substring(equals + 1);
+                int paren = access.indexOf('(');
+                String index = paren >= 0 && access.endsWith(")") ? access.substring(paren + 1, access.length() - 1) : null;
+                String type = paren >= 0 ? access.substring(0, paren) : access;
+                accesses.add(new TableAccess(token.substring(0, equals), AccessType.fromLabel(type), index));
+            }
+        }
+        return new QueryPlan(accesses, flags, null);
+    }
+
+    public List<TableAccess> getAccesses() {
+        return accesses;
+    }
+
+    public Set<PlanFlag> getFlags() {
+        return flags;
+    }
+
+    /**
+     * 数据库返回的原始计划
+     *
+     * @return 原始计划，从基线读取时为 null
+     */
+    public String getRaw() {
+        return raw;
+    }
+
+    /**
+     * 全表扫描的表
+     *
+     * @return 表名或别名
+     */
+    public List<String> getFullScanTables() {
+        List<String> tables = new ArrayList<>();
+        for (TableAccess access : accesses) {
+            if (access.getAccessType() == AccessType.ALL) {
+                tables.add(access.getTable());
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 按表名索引的表访问，同一张表出现多次时（自连接）后面的加上 #2、#3
+     */
+    Map<String, TableAccess> byTable() {
+        Map<String, TableAccess> byTable = new LinkedHashMap<>();
+        for (TableAccess access : accesses) {
+            String key = access.getTable();
+            for (int i = 2; byTable.containsKey(key); i++) {
+                key = access.getTable() + "#" + i;
+            }
+            byTable.put(key, access);
+        }
+        return byTable;
+    }
+
+    /**
+     * 与基线相比变差的地方：表的访问方式代价更高，或者新增了额外排序、临时表。
+     * 访问方式相同只是换了索引不算变差
+     *
+     * @param baseline 基线中的计划
+     * @return 变差的描述，没有变差时为空列表
+     */
+    public List<String> regressionsFrom(QueryPlan baseline) {
+        List<String> regressions = new ArrayList<>();
+        Map<String, TableAccess> before = baseline.byTable();
+        for (Map.Entry<String, TableAccess> entry : byTable().entrySet()) {
+            TableAccess previous = before.get(entry.getKey());
+            TableAccess current = entry.getValue();
+            if (previous != null && current.getAccessType().isWorseThan(previous.getAccessType())) {
+                regressions.add("表 " + entry.getKey() + " 的访问方式从 " + previous.describe() + " 变为 "
+                        + current.describe());
+            }
+        }
+        for (PlanFlag flag : flags) {
+            if (!baseline.flags.contains(flag)) {
+                regressions.add("新增 " + flag.label());
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * 规范形式
+     *
+     * @return 例如 {@code u=ref(idx_name) o=all | filesort}
+     */
+    public String toCanonical() {
+        StringBuilder builder = new StringBuilder();
+        for (TableAccess access : accesses) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(access);
+        }
+        if (builder.length() == 0) {
+            builder.append(NO_TABLES);
+        }
+        if (!flags.isEmpty()) {
+            builder.append(" |");
+            boolean first = true;
+            for (PlanFlag flag : flags) {
+                builder.append(first ? " " : ",").append(flag.label());
+                first = false;
+            }
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof QueryPlan && toCanonical().equals(((QueryPlan) o).toCanonical());
+    }
+
+    @Override
+    public int hashCode() {
+        return toCanonical().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toCanonical();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.brianxiadong.test.db.plan;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * 执行计划中对一张表的访问
+ * 表名使用语句中的别名（没有别名时为表名），转为小写；主键索引统一记为 primary
+ */
+public final class TableAccess {
+
+    /**
+     * 主键索引的统一名称
+     */
+    public static final String PRIMARY = "primary";
+
+    private final String table;
+    private final AccessType accessType;
+    private final String index;
+
+    /**
+     * @param table      表名或别名
+     * @param accessType 访问方式
+     * @param index      使用的索引，没有使用索引时为 null
+     */
+    public TableAccess(String table, AccessType accessType, String index) {
+        this.table = table.toLowerCase(Locale.ROOT);
+        this.accessType = accessType;
+        this.index = index != null && !index.isEmpty() ? index.toLowerCase(Locale.ROOT) : null;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public AccessType getAccessType() {
+        return accessType;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    /**
+     * 访问方式和索引，例如 ref(idx_name)、all
+     */
+    public String describe() {
+        return index != null ? accessType.label() + "(" + index + ")" : accessType.label();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TableAccess)) {
+            return false;
+        }
+        TableAccess that = (TableAccess) o;
+        return table.equals(that.table) && accessType == that.accessType && Objects.equals(index, that.index);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(table, accessType, index);
+    }
+
+    @Override
+    public String toString() {
+        return table + "=" + describe();
+    }
+}
\ No newline at end of file
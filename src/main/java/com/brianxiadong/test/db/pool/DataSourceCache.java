@@ -0,0 +1,268 @@
+package com.brianxiadong.test.db.pool;
+
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 连接池缓存
+ * 按连接信息缓存 HikariCP 连接池，切换数据源时不再关闭重建。
+ * 新连接池可以在返回前预热到最小空闲连接数；不再需要的连接池会先退役：
+ * 空闲连接立即关闭，借出的连接归还后再关闭整个连接池，超时后强制关闭。
+ * 每个连接池按名称前缀登记 {@link PoolMetrics}，重建的连接池沿用同一份指标
+ */
+public class DataSourceCache {
+
+    private static final long RETIRE_POLL_MILLIS = 100;
+
+    private final Map<PoolKey, Holder> pools = new ConcurrentHashMap<>();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong reusedCount = new AtomicLong();
+    private final AtomicLong retiredCount = new AtomicLong();
+
+    private final ScheduledExecutorService retireExecutor;
+
+    public DataSourceCache() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "multidb-pool-retire");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.retireExecutor = executor;
+    }
+
+    /**
+     * 获取连接池，不存在或设置发生变化时创建新的连接池
+     * 
+     * @param poolName        连接池名称前缀
+     * @param jdbcUrl         JDBC URL
+     * @param username        用户名
+     * @param password        密码
+     * @param driverClassName 驱动类名
+     * @param settings        连接池设置
+     * @return 连接池，开启预热时已经建立了最小空闲数量的连接
+     */
+    public HikariDataSource acquire(String poolName, String jdbcUrl, String username, String password,
+            String driverClassName, PoolSettings settings) {
+        PoolKey key = new PoolKey(jdbcUrl, username, password, driverClassName);
+        Holder holder = pools.computeIfAbsent(key, k -> new Holder());
+
+        HikariDataSource retired;
+        PoolSettings retiredSettings;
+        HikariDataSource dataSource;
+        synchronized (holder) {
+            if (holder.removed) {
+                // 并发退役时拿到了已移除的条目，重新获取
+                return acquire(poolName, jdbcUrl, username, password, driverClassName, settings);
+            }
+            String description = settings.toString();
+            if (holder.dataSource != null && !holder.dataSource.isClosed()
+                    && description.equals(holder.settingsDescription)) {
+                reusedCount.incrementAndGet();
+                return holder.dataSource;
+            }
+
+            retired = holder.dataSource;
+            retiredSettings = holder.settings;
+            dataSource = create(poolName, poolName + "-" + createdCount.incrementAndGet(),
+                    jdbcUrl, username, password, driverClassName, settings);
+            if (settings.isPrewarm()) {
+                prewarm(dataSource, settings.getMinimumIdle());
+            }
+            holder.dataSource = dataSource;
+            holder.settings = settings;
+            holder.settingsDescription = description;
+        }
+
+        if (retired != null) {
+            retire(retired, retiredSettings);
+        }
+        return dataSource;
+    }
+
+    /**
+     * 让指定连接信息的连接池退役，例如数据库容器即将关闭时
+     * 
+     * @param jdbcUrl         JDBC URL
+     * @param username        用户名
+     * @param password        密码
+     * @param driverClassName 驱动类名
+     */
+    public void retire(String jdbcUrl, String username, String password, String driverClassName) {
+        Holder holder = pools.remove(new PoolKey(jdbcUrl, username, password, driverClassName));
+        if (holder != null) {
+            synchronized (holder) {
+                holder.removed = true;
+                if (holder.dataSource != null) {
+                    retire(holder.dataSource, holder.settings);
+                    holder.dataSource = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * 让所有连接池退役
+     */
+    public void retireAll() {
+        List<PoolKey> keys = new ArrayList<>(pools.keySet());
+        for (PoolKey key : keys) {
+            retire(key.jdbcUrl, key.username, key.password, key.driverClassName);
+        }
+    }
+
+    public int size() {
+        return pools.size();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    /**
+     * 切换数据源时直接使用已缓存连接池的次数
+     */
+    public long getReusedCount() {
+        return reusedCount.get();
+    }
+
+    public long getRetiredCount() {
+        return retiredCount.get();
+    }
+
+    private HikariDataSource create(String metricsName, String poolName, String jdbcUrl, String username, String password,
+            String driverClassName, PoolSettings settings) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setDriverClassName(driverClassName);
+        config.setMaximumPoolSize(settings.getMaximumPoolSize());
+        config.setMinimumIdle(settings.getMinimumIdle());
+        config.setConnectionTimeout(settings.getConnectionTimeout().toMillis());
+        for (Map.Entry<String, String> property : settings.getDataSourceProperties().entrySet()) {
+            config.addDataSourceProperty(property.getKey(), property.getValue());
+        }
+        PoolMetrics metrics = PoolMetrics.attach(metricsName, jdbcUrl);
+        config.setMetricsTrackerFactory((name, stats) -> metrics.createTracker());
+        MeteredDataSource dataSource = new MeteredDataSource(config, metrics,
+                settings.getLeakDetectionThreshold().toNanos());
+        metrics.bind(dataSource);
+        return dataSource;
+    }
+
+    /**
+     * 同时借出指定数量的连接再归还，使连接池在发布前就持有这些物理连接
+     */
+    private static void prewarm(HikariDataSource dataSource, int connections) {
+        long start = System.nanoTime();
+        List<Connection> borrowed = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            // 预热失败不影响使用，第一次请求时会重新建立连接
+            MultiDbLog.error("连接池预热失败: " + e.getMessage());
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    // 忽略归还异常
+                }
+            }
+        }
+        MultiDbLog.info(String.format("连接池 %s 已预热 %d 个连接，耗时 %.1fms",
+                dataSource.getPoolName(), borrowed.size(), (System.nanoTime() - start) / 1_000_000.0));
+    }
+
+    /**
+     * 退役连接池：关闭空闲连接，等待借出的连接归还后关闭连接池
+     */
+    private void retire(HikariDataSource dataSource, PoolSettings settings) {
+        retiredCount.incrementAndGet();
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null || pool.getActiveConnections() == 0) {
+            dataSource.close();
+            return;
+        }
+
+        pool.softEvictConnections();
+        long deadline = System.nanoTime() + settings.getRetireTimeout().toNanos();
+        AtomicReference<ScheduledFuture<?>> task = new AtomicReference<>();
+        task.set(retireExecutor.scheduleWithFixedDelay(() -> {
+            boolean drained = pool.getActiveConnections() == 0;
+            if (drained || System.nanoTime() > deadline) {
+                if (!drained) {
+                    MultiDbLog.error("连接池 " + dataSource.getPoolName() + " 仍有 "
+                            + pool.getActiveConnections() + " 个连接未归还，强制关闭");
+                }
+                dataSource.close();
+                ScheduledFuture<?> future = task.get();
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        }, RETIRE_POLL_MILLIS, RETIRE_POLL_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    private static final class Holder {
+        private HikariDataSource dataSource;
+        private PoolSettings settings;
+        private String settingsDescription;
+        private boolean removed;
+    }
+
+    private static final class PoolKey {
+
+        private final String jdbcUrl;
+        private final String username;
+        private final String password;
+        private final String driverClassName;
+
+        PoolKey(String jdbcUrl, String username, String password, String driverClassName) {
+            this.jdbcUrl = jdbcUrl;
+            this.username = username;
+            this.password = password;
+            this.driverClassName = driverClassName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey that = (PoolKey) o;
+            return Objects.equals(jdbcUrl, that.jdbcUrl)
+                    && Objects.equals(username, that.username)
+                    && Objects.equals(password, that.password)
+                    && Objects.equals(driverClassName, that.driverClassName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(jdbcUrl, username, password, driverClassName);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.brianxiadong.test.db.pool;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 记录指标的连接池
+ * 获取连接前采样等待的线程数；设置了泄漏检测阈值时记录借出连接的调用栈，
+ * 返回的连接是代理，关闭时解除记录
+ */
+final class MeteredDataSource extends HikariDataSource {
+
+    private final PoolMetrics metrics;
+    private final long leakDetectionThresholdNanos;
+
+    MeteredDataSource(HikariConfig config, PoolMetrics metrics, long leakDetectionThresholdNanos) {
+        super(config);
+        this.metrics = metrics;
+        this.leakDetectionThresholdNanos = leakDetectionThresholdNanos;
+    }
+
+    long getLeakDetectionThresholdNanos() {
+        return leakDetectionThresholdNanos;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        HikariPoolMXBean pool = getHikariPoolMXBean();
+        if (pool != null) {
+            metrics.samplePending(pool);
+        }
+        Connection connection = super.getConnection();
+        if (leakDetectionThresholdNanos <= 0) {
+            return connection;
+        }
+        LeakHandler handler = new LeakHandler(connection);
+        metrics.borrowed(handler, this);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, handler);
+    }
+
+    /**
+     * 连接关闭时解除借出记录
+     */
+    private final class LeakHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        LeakHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                metrics.returned(this);
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.brianxiadong.test.db.pool;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.TimeGauge;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把连接池指标注册到 Micrometer 的全局注册表
+ * Spring Boot 默认会把应用的注册表加入全局注册表，其他情况可以用 {@code Metrics.addRegistry} 加入。
+ * 这个类直接引用 Micrometer，只能在确认类路径上存在 micrometer-core 后使用
+ */
+final class MicrometerPoolMetrics {
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private MicrometerPoolMetrics() {
+    }
+
+    static void register(PoolMetrics metrics) {
+        MeterRegistry registry = Metrics.globalRegistry;
+        String pool = metrics.getName();
+        Gauge.builder("multidb.connections.active", metrics, PoolMetrics::getActiveConnections)
+                .tag("pool", pool).description("借出的连接数").register(registry);
+        Gauge.builder("multidb.connections.idle", metrics, PoolMetrics::getIdleConnections)
+                .tag("pool", pool).description("空闲的连接数").register(registry);
+        Gauge.builder("multidb.connections.pending", metrics, PoolMetrics::getPendingThreads)
+                .tag("pool", pool).description("等待连接的线程数").register(registry);
+        Gauge.builder("multidb.connections", metrics, PoolMetrics::getTotalConnections)
+                .tag("pool", pool).description("连接总数").register(registry);
+        Gauge.builder("multidb.connections.max", metrics, PoolMetrics::getMaximumPoolSize)
+                .tag("pool", pool).description("最大连接数").register(registry);
+        FunctionTimer.builder("multidb.connections.acquire", metrics, PoolMetrics::getAcquireCount,
+                PoolMetrics::getAcquireTotalNanos, TimeUnit.NANOSECONDS)
+                .tag("pool", pool).description("获取连接的等待时间").register(registry);
+        for (double percentile : PERCENTILES) {
+            TimeGauge.builder("multidb.connections.acquire.percentile", metrics, TimeUnit.NANOSECONDS,
+                    m -> m.getAcquirePercentile(percentile))
+                    .tags("pool", pool, "percentile", String.valueOf((int) percentile))
+                    .register(registry);
+        }
+        FunctionCounter.builder("multidb.connections.timeout", metrics, PoolMetrics::getTimeoutCount)
+                .tag("pool", pool).description("获取连接超时的次数").register(registry);
+        FunctionCounter.builder("multidb.connections.leak", metrics, PoolMetrics::getLeakCount)
+                .tag("pool", pool).description("疑似泄漏的连接数").register(registry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,479 @@
+package com.brianxiadong.test.db.pool;
+
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.profile.LatencyHistogram;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个数据库的连接池指标
+ * 指标按稳定的名称登记（例如 multidb-mysql），不带连接池的创建序号：连接池因设置变化重建、
+ * 或者容器重启后换了 JDBC URL，指标仍然累计在同一个名称下。同一时刻有两个不同 URL 的连接池
+ * 使用同一个前缀时，后来的使用 {@code <前缀>-2}、{@code <前缀>-3}。
+ * <p>
+ * 指标注册为 JMX MBean；类路径上有 Micrometer 时同时注册到 {@code Metrics.globalRegistry}。
+ * 连接池设置了泄漏检测阈值时，借出超过阈值仍未归还的连接会连同借出时的调用栈一起输出并计入报告
+ */
+public final class PoolMetrics implements PoolMetricsMBean {
+
+    /**
+     * JMX 注册域
+     */
+    public static final String JMX_DOMAIN = "com.brianxiadong.test.db";
+
+    private static final boolean MICROMETER_PRESENT = isClassPresent("io.micrometer.core.instrument.Metrics");
+
+    private static final long LEAK_CHECK_MILLIS = 500;
+
+    /**
+     * 报告中保留的泄漏记录数
+     */
+    private static final int MAX_LEAK_REPORTS = 10;
+
+    private static final int MAX_STACK_FRAMES = 20;
+
+    private static final String PACKAGE_PREFIX = PoolMetrics.class.getPackage().getName() + ".";
+
+    private static final Map<String, PoolMetrics> REGISTRY = new LinkedHashMap<>();
+
+    private static ScheduledExecutorService leakChecker;
+
+    private final String name;
+    private volatile String jdbcUrl;
+    private volatile MeteredDataSource dataSource;
+
+    private final LatencyHistogram acquireNanos = new LatencyHistogram();
+    private final LatencyHistogram usageNanos = new LatencyHistogram();
+    private final LongAdder acquireTotalNanos = new LongAdder();
+    private final LongAccumulator acquireMaxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final LongAccumulator peakActive = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator peakPending = new LongAccumulator(Math::max, 0);
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+
+    private final Map<Object, Borrow> borrowed = new ConcurrentHashMap<>();
+    private final Deque<LeakReport> leakReports = new ArrayDeque<>();
+
+    private PoolMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 获取已登记的所有连接池指标，按登记顺序排列
+     *
+     * @return 连接池指标
+     */
+    public static synchronized List<PoolMetrics> all() {
+        return Collections.unmodifiableList(new ArrayList<>(REGISTRY.values()));
+    }
+
+    /**
+     * 按名称获取连接池指标
+     *
+     * @param name 连接池名称，例如 multidb-mysql
+     * @return 连接池指标，不存在时返回 null
+     */
+    public static synchronized PoolMetrics get(String name) {
+        return REGISTRY.get(name);
+    }
+
+    /**
+     * 为新的连接池找到指标：同名指标空闲（连接池已关闭）或者属于同一个 URL 时沿用，否则追加序号
+     */
+    static synchronized PoolMetrics attach(String baseName, String jdbcUrl) {
+        for (int i = 1;; i++) {
+            String name = i == 1 ? baseName : baseName + "-" + i;
+            PoolMetrics metrics = REGISTRY.get(name);
+            if (metrics == null) {
+                metrics = new PoolMetrics(name);
+                REGISTRY.put(name, metrics);
+                metrics.register();
+            } else if (!metrics.isAvailableFor(jdbcUrl)) {
+                continue;
+            }
+            metrics.jdbcUrl = jdbcUrl;
+            metrics.dataSource = null;
+            return metrics;
+        }
+    }
+
+    private boolean isAvailableFor(String url) {
+        MeteredDataSource current = dataSource;
+        return url.equals(jdbcUrl) || current == null || current.isClosed();
+    }
+
+    /**
+     * 连接池创建完成后绑定，指标的连接数读取当前绑定的连接池
+     */
+    void bind(MeteredDataSource dataSource) {
+        this.dataSource = dataSource;
+        if (dataSource.getLeakDetectionThresholdNanos() > 0) {
+            startLeakChecker();
+        }
+    }
+
+    /**
+     * 创建交给 HikariCP 的指标记录器，记录获取连接的等待时间、连接占用时间和获取超时
+     */
+    IMetricsTracker createTracker() {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireNanos.record(elapsedAcquiredNanos);
+                acquireTotalNanos.add(elapsedAcquiredNanos);
+                acquireMaxNanos.accumulate(elapsedAcquiredNanos);
+                peakActive.accumulate(inUse.incrementAndGet());
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                inUse.decrementAndGet();
+                usageNanos.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.incrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * 获取连接前采样等待的线程数，只取连接池报告的值：没有空闲连接时连接池可能马上建立新连接，
+     * 当前线程不一定需要等待，不能据此计入
+     */
+    void samplePending(HikariPoolMXBean pool) {
+        int pending = pool.getThreadsAwaitingConnection();
+        if (pending > 0) {
+            peakPending.accumulate(pending);
+        }
+    }
+
+    /**
+     * 记录一次借出，返回的键在归还时传给 {@link #returned(Object)}
+     */
+    void borrowed(Object key, MeteredDataSource source) {
+        borrowed.put(key, new Borrow(source, Thread.currentThread().getName(), new Exception("连接借出位置")));
+    }
+
+    void returned(Object key) {
+        Borrow borrow = borrowed.remove(key);
+        if (borrow != null && borrow.reported) {
+            MultiDbLog.info(String.format("连接池 %s 之前报告泄漏的连接已归还，共借出 %.1fms",
+                    name, (System.nanoTime() - borrow.startNanos) / 1_000_000.0));
+        }
+    }
+
+    private void checkLeaks() {
+        long now = System.nanoTime();
+        for (Map.Entry<Object, Borrow> entry : borrowed.entrySet()) {
+            Borrow borrow = entry.getValue();
+            if (borrow.source.isClosed()) {
+                // 连接池已经关闭，连接随之关闭
+                borrowed.remove(entry.getKey());
+                continue;
+            }
+            long heldNanos = now - borrow.startNanos;
+            if (borrow.reported || heldNanos < borrow.source.getLeakDetectionThresholdNanos()) {
+                continue;
+            }
+            borrow.reported = true;
+            leaks.incrementAndGet();
+            LeakReport report = new LeakReport(heldNanos, borrow.threadName, stackOf(borrow.stack));
+            synchronized (leakReports) {
+                if (leakReports.size() == MAX_LEAK_REPORTS) {
+                    leakReports.removeFirst();
+                }
+                leakReports.addLast(report);
+            }
+            MultiDbLog.error(String.format("连接池 %s 疑似连接泄漏：线程 %s 借出的连接已经 %.1fms 未归还",
+                    name, borrow.threadName, heldNanos / 1_000_000.0), borrow.stack);
+        }
+    }
+
+    private static String stackOf(Throwable stack) {
+        StringBuilder builder = new StringBuilder();
+        StackTraceElement[] elements = stack.getStackTrace();
+        // 跳过连接池自身的栈帧，从调用方开始
+        int start = 0;
+        while (start < elements.length - 1 && elements[start].getClassName().startsWith(PACKAGE_PREFIX)) {
+            start++;
+        }
+        int end = Math.min(elements.length, start + MAX_STACK_FRAMES);
+        for (int i = start; i < end; i++) {
+            builder.append("at ").append(elements[i]).append('\n');
+        }
+        if (end < elements.length) {
+            builder.append("... ").append(elements.length - end).append(" more\n");
+        }
+        return builder.toString();
+    }
+
+    private static synchronized void startLeakChecker() {
+        if (leakChecker != null) {
+            return;
+        }
+        leakChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "multidb-pool-leak");
+            thread.setDaemon(true);
+            return thread;
+        });
+        leakChecker.scheduleWithFixedDelay(() -> {
+            for (PoolMetrics metrics : all()) {
+                try {
+                    metrics.checkLeaks();
+                } catch (RuntimeException e) {
+                    MultiDbLog.error("连接泄漏检查失败: " + e.getMessage(), e);
+                }
+            }
+        }, LEAK_CHECK_MILLIS, LEAK_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName(name));
+        } catch (JMException | SecurityException e) {
+            // 另一个类加载器已经注册了同名 MBean 等情况下只是不能通过 JMX 查看
+            MultiDbLog.error("注册连接池 MBean 失败: " + name + ", " + e.getMessage());
+        }
+        if (MICROMETER_PRESENT) {
+            try {
+                MicrometerPoolMetrics.register(this);
+            } catch (LinkageError e) {
+                MultiDbLog.error("注册连接池 Micrometer 指标失败: " + name + ", " + e);
+            }
+        }
+    }
+
+    /**
+     * 连接池指标的 JMX 名称
+     *
+     * @param name 连接池名称
+     * @return JMX 名称
+     * @throws JMException 名称不合法时抛出异常
+     */
+    public static ObjectName objectName(String name) throws JMException {
+        String value = name.matches("[A-Za-z0-9._-]+") ? name : ObjectName.quote(name);
+        return new ObjectName(JMX_DOMAIN + ":type=ConnectionPool,name=" + value);
+    }
+
+    private HikariPoolMXBean pool() {
+        MeteredDataSource current = dataSource;
+        return current != null && !current.isClosed() ? current.getHikariPoolMXBean() : null;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    @Override
+    public int getActiveConnections() {
+        HikariPoolMXBean pool = pool();
+        return pool != null ? pool.getActiveConnections() : 0;
+    }
+
+    @Override
+    public int getIdleConnections() {
+        HikariPoolMXBean pool = pool();
+        return pool != null ? pool.getIdleConnections() : 0;
+    }
+
+    @Override
+    public int getPendingThreads() {
+        HikariPoolMXBean pool = pool();
+        return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    }
+
+    @Override
+    public int getTotalConnections() {
+        HikariPoolMXBean pool = pool();
+        return pool != null ? pool.getTotalConnections() : 0;
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        MeteredDataSource current = dataSource;
+        return current != null ? current.getMaximumPoolSize() : 0;
+    }
+
+    /**
+     * 同时借出的最大连接数，包括已经退役但仍在使用的连接池
+     */
+    @Override
+    public int getPeakActiveConnections() {
+        return (int) peakActive.get();
+    }
+
+    /**
+     * 获取连接时采样到的最大等待线程数
+     */
+    @Override
+    public int getPeakPendingThreads() {
+        return (int) peakPending.get();
+    }
+
+    @Override
+    public long getAcquireCount() {
+        return acquireNanos.getCount();
+    }
+
+    public long getAcquireTotalNanos() {
+        return acquireTotalNanos.sum();
+    }
+
+    /**
+     * 获取连接等待时间的百分位
+     *
+     * @param percentile 百分位（0-100）
+     * @return 等待时间（纳秒），没有记录时返回 0
+     */
+    public long getAcquirePercentile(double percentile) {
+        // 直方图返回桶的上界，不超过实际的最大值
+        return Math.min(acquireNanos.percentile(percentile), acquireMaxNanos.get());
+    }
+
+    @Override
+    public double getAcquireP50Millis() {
+        return getAcquirePercentile(50) / 1_000_000.0;
+    }
+
+    @Override
+    public double getAcquireP95Millis() {
+        return getAcquirePercentile(95) / 1_000_000.0;
+    }
+
+    @Override
+    public double getAcquireP99Millis() {
+        return getAcquirePercentile(99) / 1_000_000.0;
+    }
+
+    @Override
+    public double getAcquireMaxMillis() {
+        return acquireMaxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * 连接占用时间（借出到归还）的 p99
+     */
+    @Override
+    public double getUsageP99Millis() {
+        return usageNanos.percentile(99) / 1_000_000.0;
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    @Override
+    public long getLeakCount() {
+        return leaks.get();
+    }
+
+    /**
+     * 最近报告的连接泄漏，最多保留 10 条
+     *
+     * @return 泄漏记录
+     */
+    public List<LeakReport> getLeakReports() {
+        synchronized (leakReports) {
+            return Collections.unmodifiableList(new ArrayList<>(leakReports));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{active=%d, idle=%d, pending=%d, max=%d, peakActive=%d, peakPending=%d, "
+                + "acquires=%d, acquireP99=%.3fms, timeouts=%d, leaks=%d}",
+                name, getActiveConnections(), getIdleConnections(), getPendingThreads(), getMaximumPoolSize(),
+                getPeakActiveConnections(), getPeakPendingThreads(), getAcquireCount(), getAcquireP99Millis(),
+                getTimeoutCount(), getLeakCount());
+    }
+
+    private static boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, PoolMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 一次借出
+     */
+    private static final class Borrow {
+
+        private final MeteredDataSource source;
+        private final String threadName;
+        private final Throwable stack;
+        private final long startNanos = System.nanoTime();
+        private volatile boolean reported;
+
+        Borrow(MeteredDataSource source, String threadName, Throwable stack) {
+            this.source = source;
+            this.threadName = threadName;
+            this.stack = stack;
+        }
+    }
+
+    /**
+     * 一次连接泄漏：借出超过阈值仍未归还
+     */
+    public static final class LeakReport {
+
+        private final long heldNanos;
+        private final String threadName;
+        private final String stackTrace;
+
+        LeakReport(long heldNanos, String threadName, String stackTrace) {
+            this.heldNanos = heldNanos;
+            this.threadName = threadName;
+            this.stackTrace = stackTrace;
+        }
+
+        /**
+         * 发现泄漏时连接已经借出的时间（纳秒）
+         */
+        public long getHeldNanos() {
+            return heldNanos;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * 借出连接时的调用栈
+         */
+        public String getStackTrace() {
+            return stackTrace;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.brianxiadong.test.db.pool;
+
+/**
+ * 连接池指标的 JMX 接口
+ * 注册名为 {@code com.brianxiadong.test.db:type=ConnectionPool,name=<连接池名称>}
+ */
+public interface PoolMetricsMBean {
+
+    String getName();
+
+    String getJdbcUrl();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getPendingThreads();
+
+    int getTotalConnections();
+
+    int getMaximumPoolSize();
+
+    int getPeakActiveConnections();
+
+    int getPeakPendingThreads();
+
+    long getAcquireCount();
+
+    double getAcquireP50Millis();
+
+    double getAcquireP95Millis();
+
+    double getAcquireP99Millis();
+
+    double getAcquireMaxMillis();
+
+    double getUsageP99Millis();
+
+    long getTimeoutCount();
+
+    long getLeakCount();
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.brianxiadong.test.db.pool;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 连接池设置
+ * 控制测试数据源的连接池大小、预热和传给JDBC驱动的连接属性
+ */
+public class PoolSettings {
+
+    /**
+     * 默认最大连接数
+     */
+    public static final int DEFAULT_MAXIMUM_POOL_SIZE = 5;
+
+    /**
+     * 默认最小空闲连接数
+     */
+    public static final int DEFAULT_MINIMUM_IDLE = 1;
+
+    private int maximumPoolSize = DEFAULT_MAXIMUM_POOL_SIZE;
+    private int minimumIdle = DEFAULT_MINIMUM_IDLE;
+    private boolean prewarm = true;
+    private Duration connectionTimeout = Duration.ofSeconds(30);
+    private Duration retireTimeout = Duration.ofSeconds(30);
+    private Duration leakDetectionThreshold = Duration.ofMillis(Long.getLong("multidb.pool.leak.threshold", 0));
+    private final Map<String, String> dataSourceProperties = new TreeMap<>();
+
+    /**
+     * 设置最大连接数
+     * 
+     * @param maximumPoolSize 最大连接数
+     * @return 当前设置实例（支持链式调用）
+     */
+    public PoolSettings withMaximumPoolSize(int maximumPoolSize) {
+        if (maximumPoolSize < 1) {
+            throw new IllegalArgumentException("maximumPoolSize must be positive: " + maximumPoolSize);
+        }
+        this.maximumPoolSize = maximumPoolSize;
+        return this;
+    }
+
+    /**
+     * 设置最小空闲连接数，开启预热时切换数据源前会先建立这么多连接
+     * 
+     * @param minimumIdle 最小空闲连接数
+     * @return 当前设置实例（支持链式调用）
+     */
+    public PoolSettings withMinimumIdle(int minimumIdle) {
+        if (minimumIdle < 0) {
+            throw new IllegalArgumentException("minimumIdle must not be negative: " + minimumIdle);
+        }
+        this.minimumIdle = minimumIdle;
+        return this;
+    }
+
+    /**
+     * 设置是否在切换数据源前预热连接池
+     * 
+     * @param prewarm 是否预热
+     * @return 当前设置实例（支持链式调用）
+     */
+    public PoolSettings withPrewarm(boolean prewarm) {
+        this.prewarm = prewarm;
+        return this;
+    }
+
+    /**
+     * 设置获取连接的超时时间
+     * 
+     * @param connectionTimeout 超时时间
+     * @return 当前设置实例（支持链式调用）
+     */
+    public PoolSettings withConnectionTimeout(Duration connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+        return this;
+    }
+
+    /**
+     * 设置退役连接池等待借出连接归还的最长时间，超时后强制关闭
+     * 
+     * @param retireTimeout 超时时间
+     * @return 当前设置实例（支持链式调用）
+     */
+    public PoolSettings withRetireTimeout(Duration retireTimeout) {
+        this.retireTimeout = retireTimeout;
+        return this;
+    }
+
+    /**
+     * 设置连接泄漏检测阈值，连接借出超过该时间仍未归还时输出借出位置的调用栈
+     * 默认取系统属性 multidb.pool.leak.threshold（毫秒），为 0 时不检测
+     * 
+     * @param leakDetectionThreshold 阈值，{@link Duration#ZERO} 表示不检测
+     * @return 当前设置实例（支持链式调用）
+     */
+    public PoolSettings withLeakDetectionThreshold(Duration leakDetectionThreshold) {
+        if (leakDetectionThreshold.isNegative()) {
+            throw new IllegalArgumentException("leakDetectionThreshold must not be negative: " + leakDetectionThreshold);
+        }
+        this.leakDetectionThreshold = leakDetectionThreshold;
+        return this;
+    }
+
+    /**
+     * 设置传给JDBC驱动的连接属性，例如 cachePrepStmts、useServerPrepStmts、rewriteBatchedStatements
+     * 
+     * @param name  属性名
+     * @param value 属性值
+     * @return 当前设置实例（支持链式调用）
+     */
+    public PoolSettings withDataSourceProperty(String name, String value) {
+        this.dataSourceProperties.put(name, value);
+        return this;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * 最小空闲连接数，不会超过最大连接数
+     */
+    public int getMinimumIdle() {
+        return Math.min(minimumIdle, maximumPoolSize);
+    }
+
+    public boolean isPrewarm() {
+        return prewarm;
+    }
+
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public Duration getRetireTimeout() {
+        return retireTimeout;
+    }
+
+    public Duration getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    public Map<String, String> getDataSourceProperties() {
+        return Collections.unmodifiableMap(dataSourceProperties);
+    }
+
+    @Override
+    public String toString() {
+        return "PoolSettings{maximumPoolSize=" + maximumPoolSize
+                + ", minimumIdle=" + minimumIdle
+                + ", prewarm=" + prewarm
+                + ", connectionTimeout=" + connectionTimeout
+                + ", retireTimeout=" + retireTimeout
+                + ", leakDetectionThreshold=" + leakDetectionThreshold
+                + ", dataSourceProperties=" + dataSourceProperties + "}";
+    }
+
+    /**
+     * 复制当前设置
+     * 
+     * @return 新的设置实例，修改它不会影响当前实例
+     */
+    public PoolSettings copy() {
+        PoolSettings copy = new PoolSettings();
+        copy.maximumPoolSize = maximumPoolSize;
+        copy.minimumIdle = minimumIdle;
+        copy.prewarm = prewarm;
+        copy.connectionTimeout = connectionTimeout;
+        copy.retireTimeout = retireTimeout;
+        copy.leakDetectionThreshold = leakDetectionThreshold;
+        copy.dataSourceProperties.putAll(dataSourceProperties);
+        return copy;
+    }
+
+    /**
+     * 创建默认设置（5 个连接，1 个空闲连接，不设置驱动属性）
+     * 
+     * @return 新的设置实例
+     */
+    public static PoolSettings create() {
+        return new PoolSettings();
+    }
+}
@@ -0,0 +1,91 @@
+package com.brianxiadong.test.db.profile;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 对数线性分桶的延迟直方图（与 HdrHistogram 的分桶方式相同）
+ * 每个 2 的幂区间再均分为 32 个子桶，相对误差不超过 1/32；桶数组在创建时分配，
+ * 记录时只做一次原子自增，不分配内存，可以在多个线程上并发记录
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 可区分的最大值，约 1.1 小时（纳秒），更大的值记入最后一个桶
+     */
+    private static final long MAX_VALUE = (1L << 42) - 1;
+
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * 记录一个值
+     *
+     * @param value 值（纳秒），负数按 0 记录
+     */
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(Math.max(0, Math.min(value, MAX_VALUE))));
+    }
+
+    /**
+     * 计算百分位，返回所在桶的上界
+     *
+     * @param percentile 百分位（0-100）
+     * @return 百分位对应的值，没有记录时返回 0
+     */
+    public long percentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    /**
+     * 记录的值的数量
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * 值所在的桶：小于 2 × 子桶数的值每个值一个桶，之后每个 2 的幂区间分为子桶数个桶
+     */
+    static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT * (shift + 1) + subBucket;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.brianxiadong.test.db.profile;
+
+/**
+ * 疑似 N+1 查询：同一个指纹在一次测试中执行的次数达到阈值
+ */
+public final class NPlusOneFinding {
+
+    private final String database;
+    private final String fingerprint;
+    private final int executions;
+
+    NPlusOneFinding(String database, String fingerprint, int executions) {
+        this.database = database;
+        this.fingerprint = fingerprint;
+        this.executions = executions;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getExecutions() {
+        return executions;
+    }
+
+    @Override
+    public String toString() {
+        return database + " 上执行了 " + executions + " 次: " + fingerprint;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,222 @@
+package com.brianxiadong.test.db.profile;
+
+import com.brianxiadong.test.db.jdbc.InterceptingConnection;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 记录执行统计的 JDBC 代理
+ * 连接代理为创建的语句再套一层代理，语句代理在执行时计时并统计影响的行数和批大小，
+ * 查询结果集代理统计返回的行数。
+ * 分析范围要求收集执行计划时，语句代理还会记录绑定的参数，每个指纹第一次执行时留下语句样本
+ */
+final class ProfilingConnection {
+
+    private ProfilingConnection() {
+    }
+
+    static Connection wrap(Connection connection, SqlProfiler.StatsTable table, SqlProfiler.Scope scope) {
+        return new ConnectionHandler(connection, table, scope).newProxy();
+    }
+
+    /**
+     * 连接代理：为创建的语句套上统计代理
+     */
+    private static final class ConnectionHandler extends InterceptingConnection {
+
+        private final SqlProfiler.StatsTable table;
+        private final SqlProfiler.Scope scope;
+
+        ConnectionHandler(Connection target, SqlProfiler.StatsTable table, SqlProfiler.Scope scope) {
+            super(target, "ProfilingConnection");
+            this.table = table;
+            this.scope = scope;
+        }
+
+        @Override
+        protected Object wrapStatement(Object connectionProxy, Object result, Object[] args) {
+            if (result instanceof CallableStatement) {
+                return newProxy(CallableStatement.class, new StatementHandler((Statement) result, connectionProxy,
+                        table.statsFor((String) args[0]), (String) args[0]));
+            }
+            if (result instanceof PreparedStatement) {
+                return newProxy(PreparedStatement.class, new StatementHandler((Statement) result, connectionProxy,
+                        table.statsFor((String) args[0]), (String) args[0]));
+            }
+            if (result instanceof Statement) {
+                return newProxy(Statement.class,
+                        new StatementHandler((Statement) result, connectionProxy, null, null));
+            }
+            return result;
+        }
+
+        /**
+         * 语句代理：预处理语句的指纹在创建时确定，普通语句按每次执行的 SQL 确定
+         */
+        private final class StatementHandler extends InterceptingConnection.StatementHandler {
+
+            private final StatementStats prepared;
+            private final String preparedSql;
+            private Object[] parameters;
+            private int parameterCount;
+            private StatementStats current;
+            private StatementStats batch;
+            private int batchSize;
+
+            StatementHandler(Statement statement, Object connectionProxy, StatementStats prepared,
+                    String preparedSql) {
+                super(statement, connectionProxy);
+                this.prepared = prepared;
+                this.preparedSql = preparedSql;
+                this.current = prepared;
+            }
+
+            @Override
+            protected Object interceptStatement(Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                switch (name) {
+                    case "addBatch":
+                        if (batch == null) {
+                            batch = prepared != null ? prepared : table.statsFor((String) args[0]);
+                        }
+                        batchSize++;
+                        return invokeTarget(getStatement(), method, args);
+                    case "clearBatch":
+                        batch = null;
+                        batchSize = 0;
+                        return invokeTarget(getStatement(), method, args);
+                    case "getResultSet":
+                        return wrapResultSet(invokeTarget(getStatement(), method, args));
+                    case "executeBatch":
+                    case "executeLargeBatch":
+                        return executeBatch(method, args);
+                    case "executeQuery":
+                    case "executeUpdate":
+                    case "executeLargeUpdate":
+                    case "execute":
+                        return execute(method, args);
+                    case "clearParameters":
+                        parameters = null;
+                        parameterCount = 0;
+                        return invokeTarget(getStatement(), method, args);
+                    default:
+                        if (scope != null && scope.isCapturingPlans() && name.startsWith("set")
+                                && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                            recordParameter(name, (Integer) args[0], args[1]);
+                        }
+                        return invokeTarget(getStatement(), method, args);
+                }
+            }
+
+            private Object execute(Method method, Object[] args) throws Throwable {
+                StatementStats stats = args != null && args.length > 0 && args[0] instanceof String
+                        ? table.statsFor((String) args[0])
+                        : prepared;
+                if (stats == null) {
+                    return invokeTarget(getStatement(), method, args);
+                }
+                current = stats;
+                if (scope != null && scope.needsPlanSample(stats.getFingerprint())) {
+                    boolean direct = args != null && args.length > 0 && args[0] instanceof String;
+                    scope.samplePlan(stats.getFingerprint(), direct ? (String) args[0] : preparedSql,
+                            direct ? Collections.emptyList() : parameterList());
+                }
+                Object result = timed(stats, method, args);
+                if (result instanceof Number) {
+                    stats.recordRows(((Number) result).longValue());
+                }
+                return result instanceof ResultSet ? wrapResultSet(result) : result;
+            }
+
+            private Object executeBatch(Method method, Object[] args) throws Throwable {
+                StatementStats stats = batch;
+                int size = batchSize;
+                batch = null;
+                batchSize = 0;
+                if (stats == null) {
+                    return invokeTarget(getStatement(), method, args);
+                }
+                stats.recordBatch(size);
+                Object result = timed(stats, method, args);
+                if (result instanceof int[]) {
+                    for (int count : (int[]) result) {
+                        stats.recordRows(count);
+                    }
+                } else if (result instanceof long[]) {
+                    for (long count : (long[]) result) {
+                        stats.recordRows(count);
+                    }
+                }
+                return result;
+            }
+
+            private Object timed(StatementStats stats, Method method, Object[] args) throws Throwable {
+                if (scope != null) {
+                    scope.countExecution(stats.getFingerprint());
+                }
+                long start = System.nanoTime();
+                boolean success = false;
+                try {
+                    Object result = invokeTarget(getStatement(), method, args);
+                    success = true;
+                    return result;
+                } finally {
+                    stats.recordExecution(System.nanoTime() - start, success);
+                }
+            }
+
+            /**
+             * 记录按位置绑定的参数；流、Blob 等无法重复使用的值记为 NULL
+             */
+            private void recordParameter(String method, int index, Object value) {
+                if (index < 1) {
+                    return;
+                }
+                if (parameters == null || parameters.length < index) {
+                    parameters = parameters == null ? new Object[Math.max(index, 8)]
+                            : Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+                }
+                boolean replayable = !method.startsWith("setNull") && !(value instanceof InputStream)
+                        && !(value instanceof Reader) && !(value instanceof Blob) && !(value instanceof Clob);
+                parameters[index - 1] = replayable ? value : null;
+                parameterCount = Math.max(parameterCount, index);
+            }
+
+            private List<Object> parameterList() {
+                List<Object> list = new ArrayList<>(parameterCount);
+                for (int i = 0; i < parameterCount; i++) {
+                    list.add(parameters[i]);
+                }
+                return list;
+            }
+
+            private Object wrapResultSet(Object resultSet) {
+                if (!(resultSet instanceof ResultSet) || current == null) {
+                    return resultSet;
+                }
+                StatementStats stats = current;
+                ResultSet target = (ResultSet) resultSet;
+                return newProxy(ResultSet.class, (proxy, method, args) -> {
+                    Object result = invokeTarget(target, method, args);
+                    if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                        stats.recordRows(1);
+                    }
+                    return result;
+                });
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.brianxiadong.test.db.profile;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL 指纹
+ * 去掉注释、把字符串和数字字面量替换成 ?、合并空白并转为小写，
+ * IN 列表和多行 VALUES 折叠为一项，参数不同的同一条语句得到相同的指纹
+ */
+public final class SqlFingerprint {
+
+    private static final int MAX_CACHED = 4096;
+
+    private static final ConcurrentHashMap<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {
+    }
+
+    /**
+     * 计算 SQL 指纹，结果按原始 SQL 缓存
+     *
+     * @param sql 原始 SQL
+     * @return 指纹
+     */
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String fingerprint = CACHE.get(sql);
+        if (fingerprint == null) {
+            fingerprint = normalize(sql);
+            if (CACHE.size() >= MAX_CACHED) {
+                // 拼接了字面量的 SQL 可能无穷多，超过上限后整体清空
+                CACHE.clear();
+            }
+            CACHE.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if ((c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') || c == '#') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+                appendSpace(out);
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                appendSpace(out);
+            } else if (c == '\'' || c == '"') {
+                i = skipQuoted(sql, i, c);
+                out.append('?');
+            } else if (c == '`') {
+                int end = sql.indexOf('`', i + 1);
+                end = end < 0 ? length : end + 1;
+                out.append(sql, i, end);
+                i = end;
+            } else if (Character.isWhitespace(c)) {
+                appendSpace(out);
+                i++;
+            } else if (isNumberStart(sql, i, out)) {
+                i++;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return collapseLists(out.toString().trim());
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                if (i < sql.length() && sql.charAt(i) == quote) {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+        }
+        return i;
+    }
+
+    /**
+     * 数字字面量只出现在标识符之外
+     */
+    private static boolean isNumberStart(String sql, int i, StringBuilder out) {
+        char c = sql.charAt(i);
+        boolean digit = Character.isDigit(c)
+                || (c == '.' && i + 1 < sql.length() && Character.isDigit(sql.charAt(i + 1)));
+        if (!digit) {
+            return false;
+        }
+        if (out.length() == 0) {
+            return true;
+        }
+        char previous = out.charAt(out.length() - 1);
+        return !Character.isLetterOrDigit(previous) && previous != '_' && previous != '$' && previous != '`';
+    }
+
+    private static void appendSpace(StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+
+    /**
+     * 折叠 IN (?, ?, ?) 和 VALUES (?, ?), (?, ?)
+     */
+    private static String collapseLists(String sql) {
+        String collapsed = sql.replaceAll("\\( ?\\?( ?, ?\\?)+ ?\\)", "(?+)");
+        collapsed = collapsed.replaceAll("(\\([^()]*\\))( ?, ?\\1)+", "$1");
+        return collapsed.toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
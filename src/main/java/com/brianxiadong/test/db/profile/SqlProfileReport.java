@@ -0,0 +1,122 @@
+package com.brianxiadong.test.db.profile;
+
+import com.brianxiadong.test.db.log.MultiDbLog;
+import com.brianxiadong.test.db.report.JsonStrings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 一个测试类的 SQL 分析报告
+ * 语句统计按总耗时从高到低排列
+ */
+public class SqlProfileReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    private final String testClass;
+    private final List<StatementStats> statements;
+    private final List<NPlusOneFinding> nPlusOneFindings;
+
+    SqlProfileReport(String testClass, List<StatementStats> statements, List<NPlusOneFinding> nPlusOneFindings) {
+        List<StatementStats> sorted = new ArrayList<>(statements);
+        sorted.sort(Comparator.comparingLong(StatementStats::getTotalNanos).reversed());
+        this.testClass = testClass;
+        this.statements = Collections.unmodifiableList(sorted);
+        this.nPlusOneFindings = Collections.unmodifiableList(new ArrayList<>(nPlusOneFindings));
+    }
+
+    public String getTestClass() {
+        return testClass;
+    }
+
+    public List<StatementStats> getStatements() {
+        return statements;
+    }
+
+    public List<NPlusOneFinding> getNPlusOneFindings() {
+        return nPlusOneFindings;
+    }
+
+    public boolean isEmpty() {
+        return statements.isEmpty();
+    }
+
+    /**
+     * 输出总耗时最高的语句和疑似 N+1 查询
+     *
+     * @param limit 最多输出的语句数
+     */
+    public void log(int limit) {
+        if (isEmpty()) {
+            return;
+        }
+        MultiDbLog.info("SQL 分析报告: " + testClass);
+        MultiDbLog.info(String.format(Locale.ROOT, "%-12s %8s %10s %10s %10s %10s %8s  %s",
+                "database", "count", "totalMs", "p50Ms", "p99Ms", "rows", "maxBatch", "fingerprint"));
+        for (StatementStats stats : statements.subList(0, Math.min(limit, statements.size()))) {
+            MultiDbLog.info(String.format(Locale.ROOT, "%-12s %8d %10s %10s %10s %10d %8d  %s",
+                    stats.getDatabase(), stats.getExecutions(), millis(stats.getTotalNanos()),
+                    millis(stats.getLatencyPercentile(50)), millis(stats.getLatencyPercentile(99)),
+                    stats.getRows(), stats.getMaxBatchSize(), stats.getFingerprint()));
+        }
+        for (NPlusOneFinding finding : nPlusOneFindings) {
+            MultiDbLog.error("疑似 N+1 查询，" + finding);
+        }
+    }
+
+    /**
+     * 把报告写成 {@code <测试类>.sql.json}
+     *
+     * @param reportDir 报告目录
+     * @return 报告文件
+     * @throws IOException 写入失败时抛出异常
+     */
+    public File writeTo(File reportDir) throws IOException {
+        Files.createDirectories(reportDir.toPath());
+        File file = new File(reportDir, testClass.replaceAll("[^A-Za-z0-9._-]", "_") + ".sql.json");
+        try (Writer json = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            json.write("{\n  \"testClass\": \"" + JsonStrings.escape(testClass) + "\",\n  \"statements\": [");
+            boolean first = true;
+            for (StatementStats stats : statements) {
+                json.write(first ? "\n" : ",\n");
+                json.write("    {\"database\": \"" + JsonStrings.escape(stats.getDatabase())
+                        + "\", \"fingerprint\": \"" + JsonStrings.escape(stats.getFingerprint())
+                        + "\", \"executions\": " + stats.getExecutions()
+                        + ", \"failures\": " + stats.getFailures()
+                        + ", \"totalMs\": " + millis(stats.getTotalNanos()));
+                for (double percentile : PERCENTILES) {
+                    json.write(", \"p" + (int) percentile + "Ms\": " + millis(stats.getLatencyPercentile(percentile)));
+                }
+                json.write(", \"rows\": " + stats.getRows()
+                        + ", \"batches\": " + stats.getBatches()
+                        + ", \"batchedStatements\": " + stats.getBatchedStatements()
+                        + ", \"maxBatchSize\": " + stats.getMaxBatchSize() + "}");
+                first = false;
+            }
+            json.write("\n  ],\n  \"nPlusOne\": [");
+            first = true;
+            for (NPlusOneFinding finding : nPlusOneFindings) {
+                json.write(first ? "\n" : ",\n");
+                json.write("    {\"database\": \"" + JsonStrings.escape(finding.getDatabase())
+                        + "\", \"fingerprint\": \"" + JsonStrings.escape(finding.getFingerprint())
+                        + "\", \"executions\": " + finding.getExecutions() + "}");
+                first = false;
+            }
+            json.write("\n  ]\n}\n");
+        }
+        return file;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
\ No newline at end of file
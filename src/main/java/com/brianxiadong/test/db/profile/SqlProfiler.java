@@ -0,0 +1,260 @@
+package com.brianxiadong.test.db.profile;
+
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.plan.PlanSample;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SQL 执行分析器
+ * 开启后 {@link com.brianxiadong.test.db.SwitchableDataSource} 返回的连接会被包装，
+ * 按测试类、数据库和 SQL 指纹统计执行次数、延迟分布、行数和批大小。
+ * 测试逻辑在 {@link #openScope} 和 {@link #closeScope} 之间执行时，同一个指纹在一次测试中
+ * 执行的次数达到阈值会被记为疑似 N+1 查询；分析范围要求收集执行计划时，还会为每个指纹留下一条语句样本。
+ * <p>
+ * 阈值默认为 10，可以通过系统属性 multidb.sql.nplusone.threshold 修改
+ */
+public class SqlProfiler {
+
+    /**
+     * 默认的 N+1 判定阈值
+     */
+    public static final int DEFAULT_N_PLUS_ONE_THRESHOLD = 10;
+
+    private static final SqlProfiler SHARED = new SqlProfiler(
+            Integer.getInteger("multidb.sql.nplusone.threshold", DEFAULT_N_PLUS_ONE_THRESHOLD));
+
+    private final int nPlusOneThreshold;
+    private final AtomicInteger activeRuns = new AtomicInteger();
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+
+    public SqlProfiler(int nPlusOneThreshold) {
+        if (nPlusOneThreshold < 2) {
+            throw new IllegalArgumentException("nPlusOneThreshold must be at least 2: " + nPlusOneThreshold);
+        }
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    /**
+     * 获取共享的分析器
+     *
+     * @return 分析器实例
+     */
+    public static SqlProfiler shared() {
+        return SHARED;
+    }
+
+    /**
+     * 开始分析，可以被多个测试同时开启，全部结束后才停止包装连接
+     */
+    public void enable() {
+        activeRuns.incrementAndGet();
+    }
+
+    /**
+     * 结束一次 {@link #enable()}
+     */
+    public void disable() {
+        activeRuns.updateAndGet(count -> Math.max(0, count - 1));
+    }
+
+    public boolean isActive() {
+        return activeRuns.get() > 0;
+    }
+
+    /**
+     * 包装连接，语句的统计归入当前线程的分析范围；没有分析范围时按生命周期上下文归类
+     *
+     * @param connection 原始连接
+     * @return 记录统计的连接代理
+     */
+    public Connection wrap(Connection connection) {
+        Scope scope = currentScope.get();
+        if (scope != null) {
+            return ProfilingConnection.wrap(connection, scope.table, scope);
+        }
+        Lifecycle.Context context = Lifecycle.current();
+        String testClass = context != null ? context.getTestClass() : "unknown";
+        DatabaseType databaseType = context != null ? context.getDatabaseType() : null;
+        return ProfilingConnection.wrap(connection, table(testClass, databaseType), null);
+    }
+
+    /**
+     * 在当前线程上开始一次测试的分析范围
+     *
+     * @param testClass    测试类名
+     * @param databaseType 数据库类型
+     * @return 分析范围，需要传给 {@link #closeScope(Scope)}
+     */
+    public Scope openScope(String testClass, DatabaseType databaseType) {
+        return openScope(testClass, databaseType, false);
+    }
+
+    /**
+     * 在当前线程上开始一次测试的分析范围
+     *
+     * @param testClass    测试类名
+     * @param databaseType 数据库类型
+     * @param capturePlans 是否为每个可以解释的指纹留下语句样本，见 {@link Scope#getPlanSamples()}
+     * @return 分析范围，需要传给 {@link #closeScope(Scope)}
+     */
+    public Scope openScope(String testClass, DatabaseType databaseType, boolean capturePlans) {
+        Scope scope = new Scope(table(testClass, databaseType), currentScope.get(), capturePlans);
+        currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * 结束分析范围，记录执行次数达到阈值的指纹
+     *
+     * @param scope {@link #openScope} 返回的分析范围
+     * @return 本次测试中发现的疑似 N+1 查询
+     */
+    public List<NPlusOneFinding> closeScope(Scope scope) {
+        if (scope.previous != null) {
+            currentScope.set(scope.previous);
+        } else {
+            currentScope.remove();
+        }
+
+        List<NPlusOneFinding> findings = new ArrayList<>();
+        for (Map.Entry<String, AtomicInteger> entry : scope.executions.entrySet()) {
+            int executions = entry.getValue().get();
+            if (executions >= nPlusOneThreshold) {
+                findings.add(new NPlusOneFinding(scope.table.database, entry.getKey(), executions));
+            }
+        }
+        scope.table.run.findings.addAll(findings);
+        return findings;
+    }
+
+    /**
+     * 取出测试类的分析报告并清除其统计
+     *
+     * @param testClass 测试类名
+     * @return 分析报告
+     */
+    public SqlProfileReport takeReport(String testClass) {
+        Run run = runs.remove(testClass);
+        List<StatementStats> statements = new ArrayList<>();
+        List<NPlusOneFinding> findings = new ArrayList<>();
+        if (run != null) {
+            for (StatsTable table : run.tables.values()) {
+                statements.addAll(table.statements.values());
+            }
+            findings.addAll(run.findings);
+        }
+        return new SqlProfileReport(testClass, statements, findings);
+    }
+
+    public int getNPlusOneThreshold() {
+        return nPlusOneThreshold;
+    }
+
+    private StatsTable table(String testClass, DatabaseType databaseType) {
+        String database = databaseType != null ? databaseType.getDisplayName() : "unknown";
+        Run run = runs.computeIfAbsent(testClass, name -> new Run());
+        StatsTable table = run.tables.get(database);
+        return table != null ? table : run.tables.computeIfAbsent(database, name -> new StatsTable(name, run));
+    }
+
+    /**
+     * 一个测试类的统计
+     */
+    private static final class Run {
+        private final Map<String, StatsTable> tables = new ConcurrentHashMap<>();
+        private final Collection<NPlusOneFinding> findings = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * 一个测试类在某个数据库上按指纹划分的统计
+     */
+    static final class StatsTable {
+
+        private final String database;
+        private final Run run;
+        private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+        private StatsTable(String database, Run run) {
+            this.database = database;
+            this.run = run;
+        }
+
+        StatementStats statsFor(String sql) {
+            String fingerprint = SqlFingerprint.of(sql);
+            StatementStats stats = statements.get(fingerprint);
+            return stats != null ? stats : statements.computeIfAbsent(fingerprint, f -> new StatementStats(database, f));
+        }
+    }
+
+    /**
+     * 一次测试的分析范围，统计每个指纹的执行次数
+     */
+    public static final class Scope {
+
+        private final StatsTable table;
+        private final Scope previous;
+        private final boolean capturePlans;
+        private final Map<String, AtomicInteger> executions = new ConcurrentHashMap<>();
+        private final Map<String, PlanSample> planSamples = Collections.synchronizedMap(new LinkedHashMap<>());
+
+        private Scope(StatsTable table, Scope previous, boolean capturePlans) {
+            this.table = table;
+            this.previous = previous;
+            this.capturePlans = capturePlans;
+        }
+
+        boolean isCapturingPlans() {
+            return capturePlans;
+        }
+
+        /**
+         * 是否还需要该指纹的语句样本：只收集查询、UPDATE 和 DELETE，每个指纹一条
+         */
+        boolean needsPlanSample(String fingerprint) {
+            return capturePlans && isExplainable(fingerprint) && !planSamples.containsKey(fingerprint);
+        }
+
+        void samplePlan(String fingerprint, String sql, List<Object> parameters) {
+            if (sql != null) {
+                planSamples.putIfAbsent(fingerprint, new PlanSample(sql, parameters));
+            }
+        }
+
+        /**
+         * 获取本次测试中每个指纹第一次执行时的语句样本
+         *
+         * @return 指纹到语句样本的映射，按第一次执行的顺序排列
+         */
+        public Map<String, PlanSample> getPlanSamples() {
+            synchronized (planSamples) {
+                return Collections.unmodifiableMap(new LinkedHashMap<>(planSamples));
+            }
+        }
+
+        private static boolean isExplainable(String fingerprint) {
+            return ((fingerprint.startsWith("select ") || fingerprint.startsWith("with "))
+                    && fingerprint.contains(" from "))
+                    || fingerprint.startsWith("update ") || fingerprint.startsWith("delete ");
+        }
+
+        void countExecution(String fingerprint) {
+            AtomicInteger count = executions.get(fingerprint);
+            if (count == null) {
+                count = executions.computeIfAbsent(fingerprint, f -> new AtomicInteger());
+            }
+            count.incrementAndGet();
+        }
+    }
+}
\ No newline at end of file
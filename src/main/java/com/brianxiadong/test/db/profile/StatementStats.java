@@ -0,0 +1,99 @@
+package com.brianxiadong.test.db.profile;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 某个数据库上一个 SQL 指纹的执行统计
+ */
+public final class StatementStats {
+
+    private final String database;
+    private final String fingerprint;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedStatements = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+
+    StatementStats(String database, String fingerprint) {
+        this.database = database;
+        this.fingerprint = fingerprint;
+    }
+
+    void recordExecution(long nanos, boolean success) {
+        executions.increment();
+        totalNanos.add(nanos);
+        latency.record(nanos);
+        if (!success) {
+            failures.increment();
+        }
+    }
+
+    void recordRows(long count) {
+        if (count > 0) {
+            rows.add(count);
+        }
+    }
+
+    void recordBatch(int size) {
+        batches.increment();
+        batchedStatements.add(size);
+        long max;
+        while (size > (max = maxBatchSize.get()) && !maxBatchSize.compareAndSet(max, size)) {
+            // 并发更新时重试
+        }
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 延迟百分位（纳秒）
+     *
+     * @param percentile 百分位（0-100）
+     * @return 延迟
+     */
+    public long getLatencyPercentile(double percentile) {
+        return latency.percentile(percentile);
+    }
+
+    /**
+     * 查询返回的行数与更新影响的行数之和
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getBatchedStatements() {
+        return batchedStatements.sum();
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.brianxiadong.test.db.readiness;
+
+import java.sql.SQLException;
+import java.sql.SQLInvalidAuthorizationSpecException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 指数退避的就绪等待策略
+ * 首次间隔很短，之后按倍数递增到上限；不可恢复的错误连续出现若干次后立即失败，而不是等到超时。
+ * 数据库启动过程中也会短暂出现认证失败等错误（例如 OceanBase 引导期间 sys 密码尚未设置），
+ * 探针还没有连上过数据库时，连续错误需要持续一段时间才会失败
+ */
+public class BackoffReadinessStrategy implements ReadinessStrategy {
+
+    private Duration initialInterval = Duration.ofMillis(100);
+    private Duration maxInterval = Duration.ofSeconds(3);
+    private double multiplier = 1.5;
+    private Duration timeout = Duration.ofMinutes(10);
+    private int failFastThreshold = 3;
+    private Duration failFastMinDuration = Duration.ofSeconds(10);
+    private Predicate<Throwable> nonTransient = BackoffReadinessStrategy::isNonTransient;
+
+    /**
+     * 设置首次重试间隔
+     */
+    public BackoffReadinessStrategy withInitialInterval(Duration initialInterval) {
+        this.initialInterval = initialInterval;
+        return this;
+    }
+
+    /**
+     * 设置重试间隔上限
+     */
+    public BackoffReadinessStrategy withMaxInterval(Duration maxInterval) {
+        this.maxInterval = maxInterval;
+        return this;
+    }
+
+    /**
+     * 设置每次重试后间隔的增长倍数
+     */
+    public BackoffReadinessStrategy withMultiplier(double multiplier) {
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("multiplier must be >= 1: " + multiplier);
+        }
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    /**
+     * 设置总超时时间
+     */
+    public BackoffReadinessStrategy withTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * 设置不可恢复错误连续出现多少次后立即失败
+     */
+    public BackoffReadinessStrategy withFailFastThreshold(int failFastThreshold) {
+        this.failFastThreshold = failFastThreshold;
+        return this;
+    }
+
+    /**
+     * 设置探针连上数据库之前，不可恢复错误至少连续出现多久才立即失败
+     * 连上过数据库之后只按次数判断
+     */
+    public BackoffReadinessStrategy withFailFastMinDuration(Duration failFastMinDuration) {
+        this.failFastMinDuration = failFastMinDuration;
+        return this;
+    }
+
+    /**
+     * 设置判断不可恢复错误的规则
+     */
+    public BackoffReadinessStrategy withNonTransientErrors(Predicate<Throwable> nonTransient) {
+        this.nonTransient = nonTransient;
+        return this;
+    }
+
+    @Override
+    public ReadinessReport await(String name, ReadinessProbe probe) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long interval = initialInterval.toNanos();
+        long firstConnection = -1;
+        int attempts = 0;
+        int consecutiveNonTransient = 0;
+        long streakStart = 0;
+        Throwable lastError = null;
+
+        while (true) {
+            attempts++;
+            ReadinessState state;
+            try {
+                state = probe.check();
+                consecutiveNonTransient = 0;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                lastError = e;
+                state = ReadinessState.UNREACHABLE;
+                if (!nonTransient.test(e)) {
+                    consecutiveNonTransient = 0;
+                } else {
+                    long failedAt = System.nanoTime();
+                    if (consecutiveNonTransient++ == 0) {
+                        streakStart = failedAt;
+                    }
+                    boolean lastedLongEnough = firstConnection >= 0
+                            || failedAt - streakStart >= failFastMinDuration.toNanos();
+                    if (consecutiveNonTransient >= failFastThreshold && lastedLongEnough) {
+                        throw new ReadinessException(name + " 遇到不可恢复的错误: " + e.getMessage(),
+                                new ReadinessReport(name, attempts, firstConnection, -1), e);
+                    }
+                }
+            }
+
+            long now = System.nanoTime();
+            if (state != ReadinessState.UNREACHABLE && firstConnection < 0) {
+                firstConnection = now - start;
+            }
+            if (state == ReadinessState.READY) {
+                return new ReadinessReport(name, attempts, firstConnection, now - start);
+            }
+            if (now >= deadline) {
+                throw new ReadinessException(name + " 在 " + timeout.toMillis() + "ms 内未能就绪",
+                        new ReadinessReport(name, attempts, firstConnection, -1), lastError);
+            }
+
+            TimeUnit.NANOSECONDS.sleep(Math.min(interval, deadline - now));
+            interval = Math.min((long) (interval * multiplier), maxInterval.toNanos());
+        }
+    }
+
+    /**
+     * 默认的不可恢复错误：认证失败、找不到驱动以及容器已退出
+     * SQL 语法错误不算在内，数据库引导期间查询的系统表可能还不存在
+     */
+    static boolean isNonTransient(Throwable error) {
+        if (error instanceof SQLInvalidAuthorizationSpecException) {
+            return true;
+        }
+        if (error instanceof SQLException) {
+            String message = error.getMessage();
+            return message != null && message.startsWith("No suitable driver");
+        }
+        return error instanceof IllegalStateException;
+    }
+
+    /**
+     * 创建默认策略：首次间隔 100ms，按 1.5 倍增长到 3s，超时 10 分钟；
+     * 不可恢复的错误连续出现 3 次，且连上数据库之前持续至少 10s 后立即失败
+     * 
+     * @return 新的策略实例
+     */
+    public static BackoffReadinessStrategy create() {
+        return new BackoffReadinessStrategy();
+    }
+}
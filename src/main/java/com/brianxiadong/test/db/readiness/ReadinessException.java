@@ -0,0 +1,23 @@
+package com.brianxiadong.test.db.readiness;
+
+/**
+ * 数据库未能就绪
+ */
+public class ReadinessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ReadinessReport report;
+
+    public ReadinessException(String message, ReadinessReport report, Throwable cause) {
+        super(message, cause);
+        this.report = report;
+    }
+
+    /**
+     * 获取失败前的就绪过程报告
+     */
+    public ReadinessReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,16 @@
+package com.brianxiadong.test.db.readiness;
+
+/**
+ * 就绪探针，执行一次检查并返回观察到的状态
+ */
+@FunctionalInterface
+public interface ReadinessProbe {
+
+    /**
+     * 执行一次就绪检查
+     * 
+     * @return 当前状态
+     * @throws Exception 检查失败时抛出异常，由就绪策略判断是否可以重试
+     */
+    ReadinessState check() throws Exception;
+}
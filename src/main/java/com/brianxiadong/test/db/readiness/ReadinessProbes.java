@@ -0,0 +1,60 @@
+package com.brianxiadong.test.db.readiness;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 常用的就绪探针
+ */
+public final class ReadinessProbes {
+
+    private ReadinessProbes() {
+    }
+
+    /**
+     * 检查TCP端口是否可以连接
+     * 比建立JDBC连接便宜得多，适合在JDBC探测之前快速判断
+     * 
+     * @param host      主机
+     * @param port      端口
+     * @param timeoutMs 连接超时（毫秒）
+     * @return 端口是否可以连接
+     */
+    public static boolean isPortOpen(String host, int port, int timeoutMs) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 基于TCP端口的探针，端口可连接即视为就绪
+     */
+    public static ReadinessProbe port(String host, int port) {
+        return () -> isPortOpen(host, port, 1000) ? ReadinessState.READY : ReadinessState.UNREACHABLE;
+    }
+
+    /**
+     * 基于容器日志的探针
+     * 日志中出现就绪标记即视为就绪，出现失败标记时立即失败
+     * 
+     * @param logs    获取当前日志的函数
+     * @param ready   就绪标记
+     * @param failure 失败标记，可以为 null
+     * @return 就绪探针
+     */
+    public static ReadinessProbe logMessage(Supplier<String> logs, Pattern ready, Pattern failure) {
+        return () -> {
+            String output = logs.get();
+            if (failure != null && failure.matcher(output).find()) {
+                throw new IllegalStateException("容器日志中出现失败标记: " + failure.pattern());
+            }
+            return ready.matcher(output).find() ? ReadinessState.READY : ReadinessState.UNREACHABLE;
+        };
+    }
+}
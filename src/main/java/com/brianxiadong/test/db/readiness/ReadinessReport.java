@@ -0,0 +1,60 @@
+package com.brianxiadong.test.db.readiness;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 就绪过程的耗时报告
+ */
+public class ReadinessReport {
+
+    private final String name;
+    private final int attempts;
+    private final long timeToFirstConnectionNanos;
+    private final long timeToReadyNanos;
+
+    public ReadinessReport(String name, int attempts, long timeToFirstConnectionNanos, long timeToReadyNanos) {
+        this.name = name;
+        this.attempts = attempts;
+        this.timeToFirstConnectionNanos = timeToFirstConnectionNanos;
+        this.timeToReadyNanos = timeToReadyNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 探针调用次数
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * 从开始等待到第一次建立连接的耗时，未建立连接时为 -1
+     */
+    public long getTimeToFirstConnectionNanos() {
+        return timeToFirstConnectionNanos;
+    }
+
+    /**
+     * 从开始等待到就绪的耗时，未就绪时为 -1
+     */
+    public long getTimeToReadyNanos() {
+        return timeToReadyNanos;
+    }
+
+    public boolean isReady() {
+        return timeToReadyNanos >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d 次探测，首次连接 %s，就绪 %s", name, attempts,
+                format(timeToFirstConnectionNanos), format(timeToReadyNanos));
+    }
+
+    private static String format(long nanos) {
+        return nanos < 0 ? "-" : String.format("%.1fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,22 @@
+package com.brianxiadong.test.db.readiness;
+
+/**
+ * 一次就绪检查观察到的数据库状态
+ */
+public enum ReadinessState {
+
+    /**
+     * 端口或连接尚不可用
+     */
+    UNREACHABLE,
+
+    /**
+     * 已能建立连接，但数据库（如 OceanBase 租户）尚未就绪
+     */
+    CONNECTED,
+
+    /**
+     * 数据库已就绪
+     */
+    READY
+}
@@ -0,0 +1,19 @@
+package com.brianxiadong.test.db.readiness;
+
+/**
+ * 就绪等待策略
+ * 决定探针的调用间隔、超时时间以及哪些错误需要立即失败
+ */
+public interface ReadinessStrategy {
+
+    /**
+     * 反复调用探针直到数据库就绪
+     * 
+     * @param name  等待对象的名称，用于日志和报告
+     * @param probe 就绪探针
+     * @return 就绪过程的耗时报告
+     * @throws ReadinessException 超时或遇到不可恢复的错误时抛出异常
+     * @throws InterruptedException 等待被中断时抛出异常
+     */
+    ReadinessReport await(String name, ReadinessProbe probe) throws InterruptedException;
+}
@@ -0,0 +1,52 @@
+package com.brianxiadong.test.db.report;
+
+/**
+ * 写 JSON 报告时使用的字符串转义
+ * 计划报告、SQL 分析报告和阶段耗时报告都手工拼接 JSON，字符串值统一经过这里转义
+ */
+public final class JsonStrings {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private JsonStrings() {
+    }
+
+    /**
+     * 转义 JSON 字符串的内容（不含两侧引号）
+     * 引号和反斜杠加反斜杠，换行、回车、制表符使用简写，其他控制字符写成 {@code \\u00XX}
+     *
+     * @param value 原始字符串
+     * @return 转义后的字符串
+     */
+    public static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '\n') {
+                replacement = "\\n";
+            } else if (c == '\r') {
+                replacement = "\\r";
+            } else if (c == '\t') {
+                replacement = "\\t";
+            } else if (c < 0x20) {
+                replacement = "\\u00" + HEX[c >> 4] + HEX[c & 0xf];
+            } else {
+                if (escaped != null) {
+                    escaped.append(c);
+                }
+                continue;
+            }
+            if (escaped == null) {
+                // 大多数值不需要转义，遇到第一个特殊字符时才复制
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            escaped.append(replacement);
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+}
\ No newline at end of file
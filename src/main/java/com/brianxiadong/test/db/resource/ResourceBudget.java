@@ -0,0 +1,141 @@
+package com.brianxiadong.test.db.resource;
+
+import com.brianxiadong.test.db.log.MultiDbLog;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.util.Locale;
+
+/**
+ * 同时运行的数据库容器可以使用的宿主机资源总量
+ */
+public final class ResourceBudget {
+
+    private static final ResourceBudget UNLIMITED = new ResourceBudget(Long.MAX_VALUE, Double.MAX_VALUE);
+
+    private final long memoryMb;
+    private final double cpus;
+
+    private ResourceBudget(long memoryMb, double cpus) {
+        this.memoryMb = memoryMb;
+        this.cpus = cpus;
+    }
+
+    /**
+     * 创建资源预算
+     *
+     * @param memoryMb 内存（MB）
+     * @param cpus     CPU 核数
+     * @return 资源预算
+     */
+    public static ResourceBudget of(long memoryMb, double cpus) {
+        if (memoryMb <= 0 || cpus <= 0) {
+            throw new IllegalArgumentException("资源预算必须大于 0: " + memoryMb + "MB/" + cpus + "CPU");
+        }
+        return new ResourceBudget(memoryMb, cpus);
+    }
+
+    /**
+     * 不限制资源，所有容器直接启动
+     *
+     * @return 资源预算
+     */
+    public static ResourceBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * 按本机资源估算预算：物理内存减去当前 JVM 的最大堆，CPU 为可用核数。
+     * 无法获取物理内存时不限制
+     *
+     * @return 资源预算
+     */
+    public static ResourceBudget detect() {
+        long physicalBytes = physicalMemoryBytes();
+        if (physicalBytes <= 0) {
+            return UNLIMITED;
+        }
+        long heapBytes = Runtime.getRuntime().maxMemory();
+        long availableMb = Math.max(physicalBytes - (heapBytes != Long.MAX_VALUE ? heapBytes : 0), 0) / (1024 * 1024);
+        return new ResourceBudget(Math.max(availableMb, 1), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 读取系统属性 multidb.resources.memory（如 8g、6144m，不带单位时为 MB）和 multidb.resources.cpus，
+     * 未设置的部分按本机资源估算；内存设置为 0 时不限制。Docker 不在本机运行时需要显式配置
+     *
+     * @return 资源预算
+     */
+    public static ResourceBudget fromSystemProperties() {
+        String memory = System.getProperty("multidb.resources.memory");
+        String cpus = System.getProperty("multidb.resources.cpus");
+        if (memory == null && cpus == null) {
+            return detect();
+        }
+        try {
+            if (memory != null && parseMemoryMb(memory) == 0) {
+                return UNLIMITED;
+            }
+            ResourceBudget detected = detect();
+            long memoryMb = memory != null ? parseMemoryMb(memory) : detected.memoryMb;
+            double cpuCount = cpus != null ? Double.parseDouble(cpus.trim()) : detected.cpus;
+            return of(memoryMb, cpuCount);
+        } catch (IllegalArgumentException e) {
+            MultiDbLog.error("资源预算配置无效，按本机资源估算: " + e.getMessage());
+            return detect();
+        }
+    }
+
+    /**
+     * 解析内存大小，支持 k/m/g 后缀，不带单位时为 MB
+     */
+    static long parseMemoryMb(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("b")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        long multiplier = 1;
+        char unit = text.isEmpty() ? ' ' : text.charAt(text.length() - 1);
+        if (unit == 'g') {
+            multiplier = 1024;
+        }
+        if (unit == 'k' || unit == 'm' || unit == 'g') {
+            text = text.substring(0, text.length() - 1);
+        }
+        long amount = Long.parseLong(text.trim());
+        return unit == 'k' ? amount / 1024 : amount * multiplier;
+    }
+
+    private static long physicalMemoryBytes() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        // com.sun.management 不是标准 API，通过反射读取
+        for (String name : new String[] {"getTotalMemorySize", "getTotalPhysicalMemorySize"}) {
+            try {
+                Method method = os.getClass().getMethod(name);
+                method.setAccessible(true);
+                return ((Number) method.invoke(os)).longValue();
+            } catch (Exception | LinkageError e) {
+                // 尝试下一个方法
+            }
+        }
+        return -1;
+    }
+
+    public long getMemoryMb() {
+        return memoryMb;
+    }
+
+    public double getCpus() {
+        return cpus;
+    }
+
+    public boolean isUnlimited() {
+        return this == UNLIMITED;
+    }
+
+    @Override
+    public String toString() {
+        return isUnlimited() ? "unlimited" : memoryMb + "MB/" + cpus + "CPU";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.brianxiadong.test.db.resource;
+
+/**
+ * 一个数据库容器预计占用的宿主机资源
+ */
+public final class ResourceEstimate {
+
+    /**
+     * 不占用容器资源（如进程内的数据库），不参与调度
+     */
+    public static final ResourceEstimate NONE = new ResourceEstimate(0, 0);
+
+    private final long memoryMb;
+    private final double cpus;
+
+    private ResourceEstimate(long memoryMb, double cpus) {
+        this.memoryMb = memoryMb;
+        this.cpus = cpus;
+    }
+
+    /**
+     * 创建资源估算
+     *
+     * @param memoryMb 内存（MB）
+     * @param cpus     CPU 核数，可以是小数
+     * @return 资源估算
+     */
+    public static ResourceEstimate of(long memoryMb, double cpus) {
+        if (memoryMb < 0 || cpus < 0) {
+            throw new IllegalArgumentException("资源估算不能为负数: " + memoryMb + "MB/" + cpus + "CPU");
+        }
+        return memoryMb == 0 && cpus == 0 ? NONE : new ResourceEstimate(memoryMb, cpus);
+    }
+
+    public long getMemoryMb() {
+        return memoryMb;
+    }
+
+    public double getCpus() {
+        return cpus;
+    }
+
+    public boolean isNone() {
+        return memoryMb == 0 && cpus == 0;
+    }
+
+    @Override
+    public String toString() {
+        return memoryMb + "MB/" + cpus + "CPU";
+    }
+}
\ No newline at end of file
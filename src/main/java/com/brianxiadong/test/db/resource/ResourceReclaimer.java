@@ -0,0 +1,17 @@
+package com.brianxiadong.test.db.resource;
+
+/**
+ * 资源回收者
+ * 排在队首的启动请求资源不足时调用，例如容器注册表关闭空闲的复用容器
+ */
+@FunctionalInterface
+public interface ResourceReclaimer {
+
+    /**
+     * 尝试释放资源
+     *
+     * @param needed 排队请求需要的资源
+     * @return 是否释放了资源
+     */
+    boolean reclaim(ResourceEstimate needed);
+}
\ No newline at end of file
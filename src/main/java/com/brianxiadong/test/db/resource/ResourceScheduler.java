@@ -0,0 +1,499 @@
+package com.brianxiadong.test.db.resource;
+
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.handler.DatabaseHandler;
+import com.brianxiadong.test.db.lifecycle.Lifecycle;
+import com.brianxiadong.test.db.lifecycle.Phase;
+import com.brianxiadong.test.db.log.MultiDbLog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 容器启动调度器
+ * 所有容器启动前先按数据库类型的资源估算申请配额，同时运行的容器总和不超过资源预算，
+ * 超出时按先来先到排队，避免并行执行时同时启动多个容器把宿主机内存耗尽。
+ * 队首的请求资源不足时调用已注册的 {@link ResourceReclaimer}（例如关闭空闲的复用容器），
+ * 没有任何容器运行时即使超出预算也放行，避免单个容器比预算大时永远等待；
+ * 正在运行的容器都由申请线程自己持有时（例如比较查询依次启动所有数据库）同样放行，
+ * 否则这个线程会一直等待自己释放资源。排队超过 multidb.resources.wait.timeout 时抛出异常
+ */
+public final class ResourceScheduler {
+
+    /**
+     * 排队时的检查间隔，容器关闭时会立即唤醒，这里只是兜底
+     */
+    private static final long WAIT_MILLIS = 1000;
+
+    /**
+     * 默认的最长排队时间
+     */
+    public static final long DEFAULT_WAIT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static volatile ResourceScheduler shared;
+
+    private final ResourceBudget budget;
+    private final long waitTimeoutMillis;
+    private final Object lock = new Object();
+    private final ArrayDeque<Ticket> queue = new ArrayDeque<>();
+    private final List<Lease> active = new ArrayList<>();
+    private final CopyOnWriteArrayList<ResourceReclaimer> reclaimers = new CopyOnWriteArrayList<>();
+
+    private long usedMemoryMb;
+    private double usedCpus;
+    private int running;
+
+    private long grantCount;
+    private long queuedCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    /**
+     * 创建调度器，最长排队时间读取系统属性 multidb.resources.wait.timeout
+     *
+     * @param budget 资源预算
+     */
+    public ResourceScheduler(ResourceBudget budget) {
+        this(budget, waitTimeoutFromSystemProperties());
+    }
+
+    /**
+     * 创建调度器
+     *
+     * @param budget            资源预算
+     * @param waitTimeoutMillis 最长排队时间（毫秒），0 表示不限制
+     */
+    public ResourceScheduler(ResourceBudget budget, long waitTimeoutMillis) {
+        this.budget = budget;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    /**
+     * 获取JVM范围内共享的调度器，预算通过 {@link ResourceBudget#fromSystemProperties()} 读取
+     *
+     * @return 共享的调度器
+     */
+    public static ResourceScheduler shared() {
+        if (shared == null) {
+            synchronized (ResourceScheduler.class) {
+                if (shared == null) {
+                    ResourceBudget budget = ResourceBudget.fromSystemProperties();
+                    if (!budget.isUnlimited()) {
+                        MultiDbLog.info("容器资源预算: " + budget);
+                    }
+                    shared = new ResourceScheduler(budget);
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * 为数据库容器申请资源配额
+     * 资源估算优先读取系统属性 multidb.resources.&lt;类型&gt;.memory / .cpus（如 multidb.resources.oceanbase.memory=4g），
+     * 否则使用处理器的 {@link DatabaseHandler#getResourceEstimate()}。
+     * 发生排队时以 {@link Phase#RESOURCE_WAIT} 记录等待时间
+     *
+     * @param type    数据库类型
+     * @param handler 数据库处理器
+     * @return 配额，容器关闭后必须关闭
+     * @throws InterruptedException 等待时被中断
+     * @throws IllegalStateException 排队超过最长排队时间
+     */
+    public Lease acquire(DatabaseType type, DatabaseHandler handler) throws InterruptedException {
+        long start = Lifecycle.start();
+        Lease lease;
+        try {
+            lease = acquire(type.getDisplayName(), estimateFor(type, handler));
+        } catch (InterruptedException | RuntimeException e) {
+            Lifecycle.end(Phase.RESOURCE_WAIT, start, e);
+            throw e;
+        }
+        if (lease.getWaitNanos() > 0) {
+            Lifecycle.end(Phase.RESOURCE_WAIT, start);
+        }
+        return lease;
+    }
+
+    /**
+     * 申请资源配额，资源不足时排队等待
+     *
+     * @param name     申请者名称，用于日志
+     * @param estimate 资源估算
+     * @return 配额，容器关闭后必须关闭
+     * @throws InterruptedException 等待时被中断
+     * @throws IllegalStateException 排队超过最长排队时间
+     */
+    public Lease acquire(String name, ResourceEstimate estimate) throws InterruptedException {
+        if (estimate.isNone() || budget.isUnlimited()) {
+            return new Lease(this, name, ResourceEstimate.NONE, 0);
+        }
+
+        long start = System.nanoTime();
+        Ticket ticket = new Ticket();
+        boolean granted = false;
+        boolean queued = false;
+        synchronized (lock) {
+            queue.addLast(ticket);
+        }
+        try {
+            while (true) {
+                boolean reclaim = false;
+                synchronized (lock) {
+                    if (queue.peekFirst() == ticket) {
+                        if (fits(estimate) || running == 0 || heldByCurrentThread()) {
+                            if (!fits(estimate)) {
+                                MultiDbLog.error(running == 0
+                                        ? name + " 的资源估算 " + estimate + " 超出预算 " + budget + "，单独运行"
+                                        : name + " 的资源估算 " + estimate + " 超出预算 " + budget
+                                                + "，但正在运行的容器都由当前线程持有，继续等待不会释放资源，超出预算运行");
+                            }
+                            queue.removeFirst();
+                            granted = true;
+                            long waitNanos = queued ? System.nanoTime() - start : 0;
+                            Lease lease = new Lease(this, name, estimate, waitNanos);
+                            grant(lease);
+                            // 下一个请求可能也放得下
+                            lock.notifyAll();
+                            if (queued) {
+                                MultiDbLog.info(String.format("%s 获得资源配额，排队 %.1fs", name, waitNanos / 1_000_000_000.0));
+                            }
+                            return lease;
+                        }
+                        reclaim = !reclaimers.isEmpty();
+                    }
+                    checkTimeout(name, estimate, start);
+                    if (!queued) {
+                        queued = true;
+                        queuedCount++;
+                        MultiDbLog.info(String.format("%s 等待资源配额：需要 %s，已使用 %dMB/%.1fCPU，预算 %s，排队 %d 个",
+                                name, estimate, usedMemoryMb, usedCpus, budget, queue.size()));
+                    }
+                    if (!reclaim) {
+                        lock.wait(waitMillis(start));
+                        continue;
+                    }
+                }
+                // 回收者可能需要关闭容器，不能持有锁
+                if (!reclaim(estimate)) {
+                    synchronized (lock) {
+                        if (queue.peekFirst() == ticket && !fits(estimate) && !heldByCurrentThread()) {
+                            lock.wait(waitMillis(start));
+                        }
+                    }
+                }
+            }
+        } finally {
+            if (!granted) {
+                synchronized (lock) {
+                    queue.remove(ticket);
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * 注册资源回收者
+     *
+     * @param reclaimer 回收者
+     */
+    public void addReclaimer(ResourceReclaimer reclaimer) {
+        reclaimers.addIfAbsent(reclaimer);
+    }
+
+    /**
+     * 移除资源回收者
+     *
+     * @param reclaimer 回收者
+     */
+    public void removeReclaimer(ResourceReclaimer reclaimer) {
+        reclaimers.remove(reclaimer);
+    }
+
+    private boolean reclaim(ResourceEstimate needed) {
+        for (ResourceReclaimer reclaimer : reclaimers) {
+            try {
+                if (reclaimer.reclaim(needed)) {
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                MultiDbLog.error("回收资源失败: " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 正在运行的容器是否都由当前线程持有，此时排队等待不会有人释放资源
+     */
+    private boolean heldByCurrentThread() {
+        if (active.isEmpty()) {
+            return false;
+        }
+        Thread current = Thread.currentThread();
+        for (Lease lease : active) {
+            if (lease.owner != current) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkTimeout(String name, ResourceEstimate estimate, long startNanos) {
+        if (waitTimeoutMillis <= 0) {
+            return;
+        }
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (waitedMillis >= waitTimeoutMillis) {
+            throw new IllegalStateException(String.format(
+                    "%s 等待资源配额超时（%ds）：需要 %s，已使用 %dMB/%.1fCPU（%d 个容器），预算 %s。"
+                            + "可以调大 multidb.resources.memory 或 multidb.resources.wait.timeout",
+                    name, waitedMillis / 1000, estimate, usedMemoryMb, usedCpus, running, budget));
+        }
+    }
+
+    private long waitMillis(long startNanos) {
+        if (waitTimeoutMillis <= 0) {
+            return WAIT_MILLIS;
+        }
+        long remaining = waitTimeoutMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return Math.max(1, Math.min(WAIT_MILLIS, remaining));
+    }
+
+    private boolean fits(ResourceEstimate estimate) {
+        return usedMemoryMb + estimate.getMemoryMb() <= budget.getMemoryMb()
+                && usedCpus + estimate.getCpus() <= budget.getCpus();
+    }
+
+    private void grant(Lease lease) {
+        ResourceEstimate estimate = lease.estimate;
+        usedMemoryMb += estimate.getMemoryMb();
+        usedCpus += estimate.getCpus();
+        running++;
+        active.add(lease);
+        grantCount++;
+        totalWaitNanos += lease.waitNanos;
+        maxWaitNanos = Math.max(maxWaitNanos, lease.waitNanos);
+    }
+
+    private void release(Lease lease) {
+        ResourceEstimate estimate = lease.estimate;
+        if (estimate.isNone()) {
+            return;
+        }
+        synchronized (lock) {
+            usedMemoryMb -= estimate.getMemoryMb();
+            usedCpus -= estimate.getCpus();
+            running--;
+            active.remove(lease);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 读取系统属性 multidb.resources.wait.timeout（如 600s、10m、1h，不带单位时为秒，0 表示不限制），
+     * 未设置或无效时使用默认的 10 分钟
+     */
+    static long waitTimeoutFromSystemProperties() {
+        String value = System.getProperty("multidb.resources.wait.timeout");
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_WAIT_TIMEOUT_MILLIS;
+        }
+        try {
+            return parseDurationMillis(value);
+        } catch (IllegalArgumentException e) {
+            MultiDbLog.error("multidb.resources.wait.timeout 配置无效，使用默认值 "
+                    + TimeUnit.MILLISECONDS.toSeconds(DEFAULT_WAIT_TIMEOUT_MILLIS) + "s: " + e.getMessage());
+            return DEFAULT_WAIT_TIMEOUT_MILLIS;
+        }
+    }
+
+    /**
+     * 解析时长，支持 ms/s/m/h 后缀，不带单位时为秒
+     */
+    static long parseDurationMillis(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        TimeUnit unit = TimeUnit.SECONDS;
+        if (text.endsWith("ms")) {
+            unit = TimeUnit.MILLISECONDS;
+            text = text.substring(0, text.length() - 2);
+        } else if (text.endsWith("s")) {
+            text = text.substring(0, text.length() - 1);
+        } else if (text.endsWith("m")) {
+            unit = TimeUnit.MINUTES;
+            text = text.substring(0, text.length() - 1);
+        } else if (text.endsWith("h")) {
+            unit = TimeUnit.HOURS;
+            text = text.substring(0, text.length() - 1);
+        }
+        long amount = Long.parseLong(text.trim());
+        if (amount < 0) {
+            throw new IllegalArgumentException("时长不能为负数: " + value);
+        }
+        return unit.toMillis(amount);
+    }
+
+    private static ResourceEstimate estimateFor(DatabaseType type, DatabaseHandler handler) {
+        ResourceEstimate estimate = handler.getResourceEstimate();
+        String prefix = "multidb.resources." + type.name().toLowerCase(Locale.ROOT) + ".";
+        String memory = System.getProperty(prefix + "memory");
+        String cpus = System.getProperty(prefix + "cpus");
+        if (memory == null && cpus == null) {
+            return estimate;
+        }
+        try {
+            return ResourceEstimate.of(memory != null ? ResourceBudget.parseMemoryMb(memory) : estimate.getMemoryMb(),
+                    cpus != null ? Double.parseDouble(cpus.trim()) : estimate.getCpus());
+        } catch (IllegalArgumentException e) {
+            MultiDbLog.error(type.getDisplayName() + " 的资源估算配置无效，使用默认值 " + estimate + ": " + e.getMessage());
+            return estimate;
+        }
+    }
+
+    public ResourceBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * 获取最长排队时间（毫秒），0 表示不限制
+     */
+    public long getWaitTimeoutMillis() {
+        return waitTimeoutMillis;
+    }
+
+    /**
+     * 获取已发放的配额数量（不含不占用资源的申请）
+     */
+    public long getGrantCount() {
+        synchronized (lock) {
+            return grantCount;
+        }
+    }
+
+    /**
+     * 获取发生过排队的申请数量
+     */
+    public long getQueuedCount() {
+        synchronized (lock) {
+            return queuedCount;
+        }
+    }
+
+    /**
+     * 获取累计排队时间（毫秒）
+     */
+    public long getTotalWaitMillis() {
+        synchronized (lock) {
+            return totalWaitNanos / 1_000_000;
+        }
+    }
+
+    /**
+     * 获取单次最长排队时间（毫秒）
+     */
+    public long getMaxWaitMillis() {
+        synchronized (lock) {
+            return maxWaitNanos / 1_000_000;
+        }
+    }
+
+    /**
+     * 获取当前排队的申请数量
+     */
+    public int getQueueLength() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * 获取当前持有配额的容器数量
+     */
+    public int getRunningCount() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return String.format("预算 %s，运行 %d 个（%dMB/%.1fCPU），发放 %d 次，排队 %d 次，累计等待 %dms，最长等待 %dms",
+                    budget, running, usedMemoryMb, usedCpus, grantCount, queuedCount,
+                    totalWaitNanos / 1_000_000, maxWaitNanos / 1_000_000);
+        }
+    }
+
+    /**
+     * 排队中的申请，按对象身份比较
+     */
+    private static final class Ticket {
+    }
+
+    /**
+     * 已发放的资源配额，关闭时归还，重复关闭无副作用。
+     * 配额默认由申请线程持有；容器交给其他线程使用或者空闲时通过 {@link #claim()} / {@link #detach()} 更新，
+     * 调度器据此判断排队的线程是否在等待自己持有的资源
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final ResourceScheduler scheduler;
+        private final String name;
+        private final ResourceEstimate estimate;
+        private final long waitNanos;
+        private volatile Thread owner = Thread.currentThread();
+        private boolean released;
+
+        private Lease(ResourceScheduler scheduler, String name, ResourceEstimate estimate, long waitNanos) {
+            this.scheduler = scheduler;
+            this.name = name;
+            this.estimate = estimate;
+            this.waitNanos = waitNanos;
+        }
+
+        /**
+         * 当前线程开始使用配额对应的容器
+         */
+        public void claim() {
+            owner = Thread.currentThread();
+        }
+
+        /**
+         * 容器空闲，配额不再由任何线程持有
+         */
+        public void detach() {
+            owner = null;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ResourceEstimate getEstimate() {
+            return estimate;
+        }
+
+        /**
+         * 获取排队时间，没有排队时为 0
+         */
+        public long getWaitNanos() {
+            return waitNanos;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            scheduler.release(this);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.brianxiadong.test.db.script;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已解析脚本的缓存
+ * 以脚本名称和内容哈希为键缓存解析好的语句列表，同一个脚本被多个测试反复使用时只解析一次。
+ * 缓存按 LRU 淘汰，超过大小上限的脚本不进入缓存，直接流式解析
+ */
+public class ParsedScriptCache {
+
+    /**
+     * 默认最多缓存的脚本数量
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    /**
+     * 默认可缓存的单个脚本大小上限（字节）
+     */
+    public static final long DEFAULT_MAX_SCRIPT_BYTES = 4L * 1024 * 1024;
+
+    private static final ParsedScriptCache SHARED = new ParsedScriptCache(
+            Integer.getInteger("multidb.script.cache.entries", DEFAULT_MAX_ENTRIES),
+            Long.getLong("multidb.script.cache.maxBytes", DEFAULT_MAX_SCRIPT_BYTES));
+
+    private final int maxEntries;
+    private final long maxScriptBytes;
+    private final Map<String, List<SqlStatement>> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong bypassCount = new AtomicLong();
+
+    public ParsedScriptCache(int maxEntries, long maxScriptBytes) {
+        this.maxEntries = maxEntries;
+        this.maxScriptBytes = maxScriptBytes;
+        this.entries = new LinkedHashMap<String, List<SqlStatement>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<SqlStatement>> eldest) {
+                if (size() > ParsedScriptCache.this.maxEntries) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 获取所有处理器共享的缓存实例
+     *
+     * @return 共享缓存
+     */
+    public static ParsedScriptCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * 打开脚本的语句来源
+     * 命中缓存时直接返回已解析的语句，否则解析并放入缓存；超过大小上限的脚本直接流式解析
+     *
+     * @param scriptName 脚本名称
+     * @param resource   脚本资源地址
+     * @return 语句来源，使用完毕后需要关闭
+     * @throws IOException 读取脚本失败时抛出异常
+     */
+    public SqlStatementSource open(String scriptName, URL resource) throws IOException {
+        URLConnection connection = resource.openConnection();
+        long length = connection.getContentLengthLong();
+        if (maxEntries <= 0 || length < 0 || length > maxScriptBytes) {
+            bypassCount.incrementAndGet();
+            return new SqlScriptReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        byte[] content;
+        try (InputStream inputStream = connection.getInputStream()) {
+            content = readFully(inputStream);
+        }
+
+        String key = scriptName + "#" + sha256(content);
+        List<SqlStatement> statements;
+        synchronized (entries) {
+            statements = entries.get(key);
+        }
+
+        if (statements != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+            statements = parse(content);
+            synchronized (entries) {
+                entries.put(key, statements);
+            }
+        }
+        return SqlStatementSource.of(statements);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * 因超过大小上限而未缓存的次数
+     */
+    public long getBypassCount() {
+        return bypassCount.get();
+    }
+
+    /**
+     * 缓存命中率
+     */
+    public double getHitRate() {
+        long total = hitCount.get() + missCount.get();
+        return total == 0 ? 0 : hitCount.get() / (double) total;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ParsedScriptCache{size=%d, hits=%d, misses=%d, evictions=%d, bypassed=%d, hitRate=%.1f%%}",
+                size(), getHitCount(), getMissCount(), getEvictionCount(), getBypassCount(), getHitRate() * 100);
+    }
+
+    private static List<SqlStatement> parse(byte[] content) throws IOException {
+        List<SqlStatement> statements = new ArrayList<>();
+        try (SqlScriptReader reader = new SqlScriptReader(new InputStreamReader(
+                new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+            SqlStatement statement;
+            while ((statement = reader.next()) != null) {
+                statements.add(statement);
+            }
+        }
+        return Collections.unmodifiableList(statements);
+    }
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
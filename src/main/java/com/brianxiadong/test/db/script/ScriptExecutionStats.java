@@ -0,0 +1,54 @@
+package com.brianxiadong.test.db.script;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 脚本执行统计
+ */
+public class ScriptExecutionStats {
+
+    private final long statementCount;
+    private final long batchCount;
+    private final long elapsedNanos;
+
+    public ScriptExecutionStats(long statementCount, long batchCount, long elapsedNanos) {
+        this.statementCount = statementCount;
+        this.batchCount = batchCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * 执行的语句总数
+     */
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * 执行的批次数
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 每秒执行的语句数
+     */
+    public double getStatementsPerSecond() {
+        return elapsedNanos == 0 ? 0 : statementCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d 条语句，%d 个批次，耗时 %.1fms，%.0f 条/秒",
+                statementCount, batchCount, getElapsedMillis(), getStatementsPerSecond());
+    }
+}
@@ -0,0 +1,119 @@
+package com.brianxiadong.test.db.script;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SQL脚本执行器
+ * 逐条从语句来源读取语句，连续的 DML 语句合并为 addBatch / executeBatch，
+ * 其他语句（DDL、SELECT 等）先提交已有批次再单独执行
+ */
+public class SqlScriptExecutor {
+
+    private final SqlScriptOptions options;
+
+    public SqlScriptExecutor(SqlScriptOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * 在指定连接上执行所有语句
+     *
+     * @param connection 数据库连接
+     * @param source     语句来源
+     * @return 执行统计
+     * @throws SQLException 语句执行失败时抛出异常，异常信息中包含语句所在行号
+     * @throws IOException  读取脚本失败时抛出异常
+     */
+    public ScriptExecutionStats execute(Connection connection, SqlStatementSource source)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        boolean transactional = options.isTransactionPerBatch();
+        boolean autoCommit = connection.getAutoCommit();
+        if (transactional) {
+            connection.setAutoCommit(false);
+        }
+
+        Batch batch = new Batch();
+        try (Statement statement = connection.createStatement()) {
+            SqlStatement sql;
+            while ((sql = source.next()) != null) {
+                if (sql.isBatchable() && options.getBatchSize() > 1) {
+                    batch.add(statement, sql);
+                    if (batch.size >= options.getBatchSize()) {
+                        batch.flush(statement, connection, transactional);
+                    }
+                } else {
+                    batch.flush(statement, connection, transactional);
+                    try {
+                        statement.execute(sql.getSql());
+                    } catch (SQLException e) {
+                        throw failure("执行脚本第 " + sql.getLineNumber() + " 行的语句失败: " + sql, e);
+                    }
+                    batch.statementCount++;
+                    if (transactional) {
+                        connection.commit();
+                    }
+                }
+            }
+            batch.flush(statement, connection, transactional);
+        } catch (SQLException | IOException | RuntimeException e) {
+            if (transactional) {
+                connection.rollback();
+            }
+            throw e;
+        } finally {
+            if (transactional) {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+
+        return new ScriptExecutionStats(batch.statementCount, batch.batchCount, System.nanoTime() - start);
+    }
+
+    private static SQLException failure(String message, SQLException cause) {
+        return new SQLException(message + " (" + cause.getMessage() + ")",
+                cause.getSQLState(), cause.getErrorCode(), cause);
+    }
+
+    /**
+     * 当前尚未提交的批次
+     */
+    private static final class Batch {
+
+        private SqlStatement first;
+        private int size;
+        private long statementCount;
+        private long batchCount;
+
+        void add(Statement statement, SqlStatement sql) throws SQLException {
+            statement.addBatch(sql.getSql());
+            if (size == 0) {
+                first = sql;
+            }
+            size++;
+        }
+
+        void flush(Statement statement, Connection connection, boolean transactional) throws SQLException {
+            if (size == 0) {
+                return;
+            }
+            try {
+                statement.executeBatch();
+            } catch (SQLException e) {
+                throw failure("执行脚本第 " + first.getLineNumber() + " 行开始的批处理失败: " + first, e);
+            } finally {
+                statement.clearBatch();
+            }
+            if (transactional) {
+                connection.commit();
+            }
+            statementCount += size;
+            batchCount++;
+            size = 0;
+            first = null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.brianxiadong.test.db.script;
+
+/**
+ * SQL脚本执行选项
+ */
+public class SqlScriptOptions {
+
+    /**
+     * 默认批大小
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean transactionPerBatch;
+
+    /**
+     * 设置批大小，连续的 DML 语句按该大小合并为一次 executeBatch，1 表示逐条执行
+     * 
+     * @param batchSize 批大小
+     * @return 当前选项实例（支持链式调用）
+     */
+    public SqlScriptOptions withBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * 设置是否每个批次使用一个事务提交
+     * 
+     * @param transactionPerBatch 是否按批次提交事务
+     * @return 当前选项实例（支持链式调用）
+     */
+    public SqlScriptOptions withTransactionPerBatch(boolean transactionPerBatch) {
+        this.transactionPerBatch = transactionPerBatch;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isTransactionPerBatch() {
+        return transactionPerBatch;
+    }
+
+    /**
+     * 创建默认选项
+     * 
+     * @return 新的选项实例
+     */
+    public static SqlScriptOptions create() {
+        return new SqlScriptOptions();
+    }
+}
@@ -0,0 +1,202 @@
+package com.brianxiadong.test.db.script;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 流式SQL脚本解析器
+ * 逐行读取脚本并按分隔符切分语句，内存占用只与单条语句的长度有关。
+ * 支持：
+ * <ul>
+ *     <li>单引号、双引号、反引号中的分隔符和转义字符</li>
+ *     <li>{@code --}、{@code #} 行注释和 {@code /* *\/} 块注释</li>
+ *     <li>MySQL 可执行注释 {@code /*! *\/} 和优化器提示 {@code /*+ *\/}（原样保留）</li>
+ *     <li>{@code DELIMITER} 指令，用于存储过程、触发器等包含分号的语句</li>
+ * </ul>
+ */
+public class SqlScriptReader implements SqlStatementSource {
+
+    private static final Pattern DELIMITER_DIRECTIVE = Pattern.compile("^\\s*DELIMITER\\s+(\\S+)\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
+    private final BufferedReader reader;
+    private final StringBuilder statement = new StringBuilder();
+
+    private String delimiter = ";";
+    private String line;
+    private int pos;
+    private int lineNumber;
+    private int statementLine;
+    private boolean statementStarted;
+
+    /** 当前所在字符串的引号，0 表示不在字符串中 */
+    private char quote;
+    private boolean inBlockComment;
+    private boolean keepBlockComment;
+    private boolean escapeNext;
+
+    public SqlScriptReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public SqlStatement next() throws IOException {
+        while (true) {
+            if (line == null || pos >= line.length()) {
+                if (!nextLine()) {
+                    return emit();
+                }
+                continue;
+            }
+
+            if (quote != 0) {
+                readQuoted();
+            } else if (inBlockComment) {
+                readBlockComment();
+            } else if (line.startsWith(delimiter, pos)) {
+                pos += delimiter.length();
+                SqlStatement result = emit();
+                if (result != null) {
+                    return result;
+                }
+            } else {
+                readPlain();
+            }
+        }
+    }
+
+    /**
+     * 读取下一行，处理上一行的换行符和 DELIMITER 指令
+     *
+     * @return 是否还有内容
+     */
+    private boolean nextLine() throws IOException {
+        if (line != null && (quote != 0 || (keepBlockComment && inBlockComment) || statementStarted)) {
+            // 字符串内部保留原始换行，语句内部用换行分隔行
+            if (escapeNext) {
+                escapeNext = false;
+            }
+            statement.append('\n');
+        }
+
+        line = reader.readLine();
+        pos = 0;
+        if (line == null) {
+            return false;
+        }
+        lineNumber++;
+
+        if (quote == 0 && !inBlockComment && !statementStarted) {
+            Matcher matcher = DELIMITER_DIRECTIVE.matcher(line);
+            if (matcher.matches()) {
+                delimiter = matcher.group(1);
+                statement.setLength(0);
+                pos = line.length();
+            }
+        }
+        return true;
+    }
+
+    private void readPlain() {
+        char c = line.charAt(pos);
+
+        if (c == '\'' || c == '"' || c == '`') {
+            markStatementStart();
+            quote = c;
+            statement.append(c);
+            pos++;
+        } else if (c == '-' && pos + 1 < line.length() && line.charAt(pos + 1) == '-'
+                && (pos + 2 == line.length() || Character.isWhitespace(line.charAt(pos + 2)))) {
+            // 行注释：跳过本行剩余内容
+            pos = line.length();
+        } else if (c == '#') {
+            pos = line.length();
+        } else if (c == '/' && pos + 1 < line.length() && line.charAt(pos + 1) == '*') {
+            inBlockComment = true;
+            keepBlockComment = pos + 2 < line.length()
+                    && (line.charAt(pos + 2) == '!' || line.charAt(pos + 2) == '+');
+            if (keepBlockComment) {
+                markStatementStart();
+                statement.append("/*");
+            } else {
+                // 用空格代替注释，避免前后两个词粘连
+                statement.append(' ');
+            }
+            pos += 2;
+        } else {
+            if (!Character.isWhitespace(c)) {
+                markStatementStart();
+            }
+            statement.append(c);
+            pos++;
+        }
+    }
+
+    private void readQuoted() {
+        char c = line.charAt(pos);
+        statement.append(c);
+        pos++;
+
+        if (escapeNext) {
+            escapeNext = false;
+        } else if (c == '\\' && quote != '`') {
+            escapeNext = true;
+        } else if (c == quote) {
+            if (pos < line.length() && line.charAt(pos) == quote) {
+                // 连续两个引号表示转义
+                statement.append(quote);
+                pos++;
+            } else {
+                quote = 0;
+            }
+        }
+    }
+
+    private void readBlockComment() {
+        if (line.startsWith("*/", pos)) {
+            if (keepBlockComment) {
+                statement.append("*/");
+            }
+            inBlockComment = false;
+            keepBlockComment = false;
+            pos += 2;
+        } else {
+            if (keepBlockComment) {
+                statement.append(line.charAt(pos));
+            }
+            pos++;
+        }
+    }
+
+    private void markStatementStart() {
+        if (!statementStarted) {
+            statementStarted = true;
+            statementLine = lineNumber;
+        }
+    }
+
+    private SqlStatement emit() {
+        String sql = statement.toString().trim();
+        statement.setLength(0);
+        statementStarted = false;
+        if (sql.isEmpty()) {
+            return null;
+        }
+        return new SqlStatement(sql, statementLine);
+    }
+
+    /**
+     * 获取当前使用的语句分隔符
+     */
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.brianxiadong.test.db.script;
+
+import java.util.Locale;
+
+/**
+ * 脚本中解析出的一条SQL语句
+ */
+public final class SqlStatement {
+
+    private final String sql;
+    private final int lineNumber;
+    private final boolean batchable;
+
+    public SqlStatement(String sql, int lineNumber) {
+        this.sql = sql;
+        this.lineNumber = lineNumber;
+        this.batchable = isDml(sql);
+    }
+
+    /**
+     * 获取SQL文本
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 获取语句在脚本中的起始行号（从1开始）
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 是否可以放入 JDBC 批处理（INSERT / UPDATE / DELETE / REPLACE）
+     */
+    public boolean isBatchable() {
+        return batchable;
+    }
+
+    private static boolean isDml(String sql) {
+        int end = 0;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        String keyword = sql.substring(0, end).toUpperCase(Locale.ROOT);
+        return "INSERT".equals(keyword) || "UPDATE".equals(keyword)
+                || "DELETE".equals(keyword) || "REPLACE".equals(keyword);
+    }
+
+    @Override
+    public String toString() {
+        return sql.length() > 200 ? sql.substring(0, 200) + "..." : sql;
+    }
+}
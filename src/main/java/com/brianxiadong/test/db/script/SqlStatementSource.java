@@ -0,0 +1,37 @@
+package com.brianxiadong.test.db.script;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * SQL语句来源，按顺序逐条提供语句
+ */
+@FunctionalInterface
+public interface SqlStatementSource extends Closeable {
+
+    /**
+     * 读取下一条语句
+     * 
+     * @return 下一条语句，没有更多语句时返回 null
+     * @throws IOException 读取失败时抛出异常
+     */
+    SqlStatement next() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+        // 默认没有需要释放的资源
+    }
+
+    /**
+     * 基于已解析好的语句列表创建语句来源
+     * 
+     * @param statements 语句列表
+     * @return 语句来源
+     */
+    static SqlStatementSource of(List<SqlStatement> statements) {
+        Iterator<SqlStatement> iterator = statements.iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+}
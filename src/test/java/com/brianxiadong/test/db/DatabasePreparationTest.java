@@ -0,0 +1,90 @@
+package com.brianxiadong.test.db;
+
+import com.brianxiadong.test.db.handler.ContainerRegistry;
+import com.brianxiadong.test.db.handler.DatabaseHandler;
+import com.brianxiadong.test.db.handler.DatabaseHandlerFactory;
+import com.brianxiadong.test.db.resource.ResourceBudget;
+import com.brianxiadong.test.db.resource.ResourceScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在内嵌 H2 上测试执行器和 JUnit 扩展共用的数据库准备流程
+ */
+class DatabasePreparationTest {
+
+    private final ContainerRegistry registry = new ContainerRegistry(DatabaseHandlerFactory::createHandler,
+            new ResourceScheduler(ResourceBudget.unlimited()));
+
+    private final DatabaseTestConfig config = DatabaseTestConfig.create()
+            .withInitScript(DatabaseType.H2, "preparation/init-h2.sql");
+
+    @AfterEach
+    void stopContainers() {
+        registry.stopAll();
+    }
+
+    @Test
+    void initializesThenRestoresSnapshotOnReuse() throws Exception {
+        ContainerRegistry.Entry entry = acquire();
+        String stateKey = new DatabasePreparation(DatabaseType.H2, config)
+                .prepare(entry.getHandler(), entry.getDatabaseInfo(), entry);
+        assertEquals(2, countUsers(entry.getDatabaseInfo()));
+        assertTrue(entry.getHandler().hasSnapshot());
+        execute(entry.getDatabaseInfo(), "DELETE FROM users");
+        registry.release(entry);
+
+        entry = acquire();
+        assertTrue(entry.isReused());
+        assertEquals(stateKey, new DatabasePreparation(DatabaseType.H2, config)
+                .prepare(entry.getHandler(), entry.getDatabaseInfo(), entry));
+        assertEquals(2, countUsers(entry.getDatabaseInfo()));
+        assertEquals(1, entry.getHandler().getSnapshotMetrics().getRestoreCount());
+        registry.release(entry);
+    }
+
+    @Test
+    void initializesWithoutRegistryEntry() throws Exception {
+        DatabaseHandler handler = DatabaseHandlerFactory.createHandler(DatabaseType.H2);
+        DatabasePreparation preparation = new DatabasePreparation(DatabaseType.H2, config);
+        preparation.configure(handler);
+        DatabaseInfo dbInfo = handler.startContainer();
+        try {
+            preparation.prepare(handler, dbInfo, null);
+            assertEquals(2, countUsers(dbInfo));
+        } finally {
+            handler.stopContainer();
+        }
+    }
+
+    private ContainerRegistry.Entry acquire() throws Exception {
+        DatabasePreparation preparation = new DatabasePreparation(DatabaseType.H2, config);
+        return registry.acquire(DatabaseType.H2, null, preparation::configure);
+    }
+
+    private static int countUsers(DatabaseInfo dbInfo) throws Exception {
+        try (Connection connection = DriverManager.getConnection(dbInfo.getJdbcUrl(), dbInfo.getUsername(),
+                dbInfo.getPassword());
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static void execute(DatabaseInfo dbInfo, String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection(dbInfo.getJdbcUrl(), dbInfo.getUsername(),
+                dbInfo.getPassword());
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
\ No newline at end of file
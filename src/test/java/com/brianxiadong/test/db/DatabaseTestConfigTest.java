@@ -0,0 +1,61 @@
+package com.brianxiadong.test.db;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class DatabaseTestConfigTest {
+
+    @Test
+    void configuredTypesFollowFirstConfigurationOrder() {
+        DatabaseTestConfig config = DatabaseTestConfig.create()
+                .withInitScript(DatabaseType.OCEANBASE, "init-oceanbase.sql")
+                .withMigrations(DatabaseType.H2, "db/migration/h2/")
+                .withFixture(DatabaseType.MYSQL, "users", "fixtures/users.csv")
+                .withInitScript(DatabaseType.H2, "init-h2.sql")
+                .withFixture(DatabaseType.OCEANBASE, "users", "fixtures/users.csv");
+
+        assertArrayEquals(new DatabaseType[]{DatabaseType.OCEANBASE, DatabaseType.H2, DatabaseType.MYSQL},
+                config.getConfiguredTypes());
+    }
+
+    @Test
+    void fixturesAloneRegisterTheDatabase() {
+        DatabaseTestConfig config = DatabaseTestConfig.create()
+                .withFixture(DatabaseType.MYSQL, "users", "fixtures/users.csv");
+
+        assertArrayEquals(new DatabaseType[]{DatabaseType.MYSQL}, config.getConfiguredTypes());
+        assertFalse(config.hasInitScript(DatabaseType.MYSQL));
+        assertEquals(1, config.getFixtures(DatabaseType.MYSQL).size());
+    }
+
+    @Test
+    void durabilityPropertyIsCaseInsensitive() {
+        String previous = System.setProperty("multidb.durability", " fast ");
+        try {
+            assertEquals(DurabilityMode.FAST, DatabaseTestConfig.create().getDurabilityMode());
+        } finally {
+            restoreProperty(previous);
+        }
+    }
+
+    @Test
+    void invalidDurabilityPropertyFallsBackToDefault() {
+        String previous = System.setProperty("multidb.durability", "fsat");
+        try {
+            assertEquals(DurabilityMode.DEFAULT, DatabaseTestConfig.create().getDurabilityMode());
+        } finally {
+            restoreProperty(previous);
+        }
+    }
+
+    private static void restoreProperty(String previous) {
+        if (previous == null) {
+            System.clearProperty("multidb.durability");
+        } else {
+            System.setProperty("multidb.durability", previous);
+        }
+    }
+}
\ No newline at end of file
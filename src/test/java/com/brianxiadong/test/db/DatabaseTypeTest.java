@@ -0,0 +1,54 @@
+package com.brianxiadong.test.db;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseTypeTest {
+
+    @Test
+    void sortsByRegistrationOrder() {
+        TreeSet<DatabaseType> types = new TreeSet<>(Arrays.asList(DatabaseType.H2, DatabaseType.MYSQL,
+                DatabaseType.OCEANBASE));
+
+        assertEquals(Arrays.asList(DatabaseType.MYSQL, DatabaseType.OCEANBASE, DatabaseType.H2),
+                new ArrayList<>(types));
+        assertTrue(DatabaseType.MYSQL.compareTo(DatabaseType.H2) < 0);
+        assertEquals(0, DatabaseType.MYSQL.ordinal());
+    }
+
+    @Test
+    void registeredTypesFollowBuiltIns() {
+        DatabaseType custom = DatabaseType.register("sorting_test", "SortingTest", "org.example.Driver", null);
+
+        List<DatabaseType> values = Arrays.asList(DatabaseType.values());
+        assertEquals(values.indexOf(custom), custom.ordinal());
+        assertTrue(custom.compareTo(DatabaseType.H2) > 0);
+        assertSame(custom, DatabaseType.register("SORTING_TEST", "SortingTest", "org.example.Driver", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> DatabaseType.register("SORTING_TEST", "Other", "org.example.Driver", null));
+    }
+
+    @Test
+    void deserializesToRegisteredInstance() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(DatabaseType.OCEANBASE);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSame(DatabaseType.OCEANBASE, in.readObject());
+        }
+    }
+}
\ No newline at end of file
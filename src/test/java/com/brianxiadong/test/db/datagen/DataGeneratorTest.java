@@ -0,0 +1,118 @@
+package com.brianxiadong.test.db.datagen;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.DatabaseType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在内嵌 H2 上测试数据生成的确定性：同一种子两次生成的行完全相同，单元格种子的算法固定不变
+ */
+class DataGeneratorTest {
+
+    private static final String URL = "jdbc:h2:mem:datagen;MODE=MySQL";
+
+    private Connection connection;
+
+    @BeforeEach
+    void open() throws SQLException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(20) NOT NULL, "
+                    + "score DECIMAL(10, 2), created DATE)");
+            statement.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, "
+                    + "amount DECIMAL(12, 2), FOREIGN KEY (user_id) REFERENCES users (id))");
+        }
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    private List<List<Object>> generate(long seed) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM orders");
+            statement.execute("DELETE FROM users");
+        }
+        DataGenerator.create(seed)
+                .withTable("users", 50)
+                .withTable("orders", 200)
+                .withColumn("users", "score", Generators.decimal(new BigDecimal("0.005"), new BigDecimal("99.999"), 2))
+                .generate(new DatabaseInfo(DatabaseType.H2, URL, "sa", ""));
+
+        List<List<Object>> rows = new ArrayList<>();
+        rows.addAll(dump("SELECT * FROM users ORDER BY id"));
+        rows.addAll(dump("SELECT * FROM orders ORDER BY id"));
+        return rows;
+    }
+
+    private List<List<Object>> dump(String query) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(query)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                List<Object> row = new ArrayList<>();
+                for (int i = 1; i <= columns; i++) {
+                    row.add(rs.getObject(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void sameSeedGeneratesSameRows() throws Exception {
+        List<List<Object>> first = generate(42);
+        List<List<Object>> second = generate(42);
+
+        assertEquals(250, first.size());
+        assertEquals(first, second);
+        assertNotEquals(first, generate(43));
+    }
+
+    @Test
+    void decimalStaysWithinRoundedBounds() throws Exception {
+        for (List<Object> row : generate(7).subList(0, 50)) {
+            BigDecimal score = (BigDecimal) row.get(2);
+            assertTrue(score.compareTo(new BigDecimal("0.01")) >= 0 && score.compareTo(new BigDecimal("99.99")) <= 0,
+                    score::toString);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> Generators.decimal(new BigDecimal("0.001"), new BigDecimal("0.009"), 2));
+    }
+
+    @Test
+    void cellSeedIsPinned() {
+        assertEquals(-3750763034362895579L, CellRandom.key(""));
+        assertEquals(4767205828091196211L, CellRandom.key("users"));
+        assertEquals(CellRandom.key("users"), CellRandom.key("USERS"));
+        assertEquals(628021283683842752L, CellRandom.key("id"));
+
+        long cellSeed = CellRandom.cellSeed(42, CellRandom.key("users"), CellRandom.key("id"), 0);
+        assertEquals(-4594199054069385705L, cellSeed);
+        assertEquals(794321985427750494L, CellRandom.cellSeed(42, CellRandom.key("users"), CellRandom.key("id"), 1));
+
+        CellRandom random = new CellRandom().reset(cellSeed);
+        assertEquals(Arrays.asList(-4938052875595823152L, 4948575514655183006L),
+                Arrays.asList(random.nextLong(), random.nextLong()));
+    }
+}
\ No newline at end of file
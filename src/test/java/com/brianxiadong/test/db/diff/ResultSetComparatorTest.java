@@ -0,0 +1,175 @@
+package com.brianxiadong.test.db.diff;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在内嵌 H2 上测试结果集比较：按键归并、无序分区与再拆分、重复键和 NULL 键、列数不同以及差异截断
+ */
+class ResultSetComparatorTest {
+
+    @TempDir
+    File spillDirectory;
+
+    private Connection connection;
+
+    @BeforeEach
+    void open() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:diff;MODE=MySQL");
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    private ResultSet query(String sql) throws SQLException {
+        return connection.createStatement().executeQuery(sql);
+    }
+
+    private ResultDiff compare(String left, String right, ResultDiffOptions options) throws SQLException {
+        return ResultSetComparator.compare("left", query(left), "right", query(right),
+                options.withSpillDirectory(spillDirectory));
+    }
+
+    /**
+     * 差异的类型和键，无序比较按分区顺序报告，用集合比较
+     */
+    private static Set<String> summary(ResultDiff diff) {
+        return diff.getDifferences().stream()
+                .map(d -> d.getKind() + ":" + (d.getLeftRow() != null ? d.getLeftRow()[0] : d.getRightRow()[0]))
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    @Test
+    void mergesOrderedRowsByKey() throws SQLException {
+        ResultDiff diff = compare(
+                "SELECT * FROM (VALUES (1, 'a'), (2, 'b'), (9, 'c'), (10, 'd')) t(k, v) ORDER BY k",
+                "SELECT * FROM (VALUES (1, 'a'), (3, 'x'), (9, 'c'), (10, 'changed')) t(k, v) ORDER BY k",
+                ResultDiffOptions.create().withOrdered(true).withKeyColumns("k"));
+
+        assertFalse(diff.isEqual());
+        assertEquals(4, diff.getLeftRows());
+        assertEquals(4, diff.getRightRows());
+        assertEquals(3, diff.getDifferenceCount());
+        List<RowDifference> differences = diff.getDifferences();
+        assertEquals(RowDifference.Kind.ONLY_LEFT, differences.get(0).getKind());
+        assertEquals("2", differences.get(0).getLeftRow()[0]);
+        assertEquals(RowDifference.Kind.ONLY_RIGHT, differences.get(1).getKind());
+        assertEquals("3", differences.get(1).getRightRow()[0]);
+        // 键按数值比较，10 排在 9 之后
+        assertEquals(RowDifference.Kind.VALUE_MISMATCH, differences.get(2).getKind());
+        assertEquals("K=10", differences.get(2).getPosition());
+        assertEquals(Arrays.asList("V"), differences.get(2).getDifferingColumns());
+    }
+
+    @Test
+    void orderedCompareRejectsUnsortedInput() {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> compare(
+                "SELECT * FROM (VALUES (1, 'a'), (3, 'c'), (2, 'b')) t(k, v)",
+                "SELECT * FROM (VALUES (1, 'a'), (2, 'b'), (3, 'c')) t(k, v)",
+                ResultDiffOptions.create().withOrdered(true).withKeyColumns("k")));
+
+        assertTrue(e.getMessage().contains("K=3 出现在 K=2 之前"), e.getMessage());
+    }
+
+    @Test
+    void unorderedCompareSplitsOversizedPartitions() throws SQLException {
+        // 每个非空分区都超过 1 字节，split 和 respill 会一直拆分到最大层数
+        ResultDiff diff = compare(
+                "SELECT X AS k, 'v' || X AS v FROM SYSTEM_RANGE(1, 300) ORDER BY X DESC",
+                "SELECT X AS k, CASE WHEN X = 150 THEN 'changed' ELSE 'v' || X END AS v FROM SYSTEM_RANGE(2, 301)",
+                ResultDiffOptions.create().withKeyColumns("k").withPartitions(2).withMaxPartitionBytes(1));
+
+        assertEquals(300, diff.getLeftRows());
+        assertEquals(300, diff.getRightRows());
+        assertEquals(3, diff.getDifferenceCount());
+        assertEquals(set("ONLY_LEFT:1", "ONLY_RIGHT:301", "VALUE_MISMATCH:150"), summary(diff));
+        assertEquals(0, spillDirectory.listFiles().length);
+    }
+
+    @Test
+    void unorderedCompareMatchesDuplicateAndNullKeys() throws SQLException {
+        ResultDiff diff = compare(
+                "SELECT * FROM (VALUES (1, 'a'), (1, 'a'), (CAST(NULL AS INT), 'n'), (2, 'b')) t(k, v)",
+                "SELECT * FROM (VALUES (2, 'b'), (CAST(NULL AS INT), 'n'), (1, 'x')) t(k, v)",
+                ResultDiffOptions.create().withKeyColumns("k"));
+
+        // 两行 k=1 中的一行与右边配对后值不同，另一行只在左边；NULL 键互相配对
+        assertEquals(2, diff.getDifferenceCount());
+        assertEquals(set("VALUE_MISMATCH:1", "ONLY_LEFT:1"), summary(diff));
+    }
+
+    @Test
+    void unorderedCompareWithoutKeysCountsDuplicateRows() throws SQLException {
+        ResultDiff diff = compare(
+                "SELECT * FROM (VALUES (1, 'a'), (1, 'a'), (CAST(NULL AS INT), 'n')) t(k, v)",
+                "SELECT * FROM (VALUES (CAST(NULL AS INT), 'n'), (1, 'a')) t(k, v)",
+                ResultDiffOptions.create());
+
+        assertEquals(1, diff.getDifferenceCount());
+        RowDifference difference = diff.getDifferences().get(0);
+        assertEquals(RowDifference.Kind.ONLY_LEFT, difference.getKind());
+        assertArrayEquals(new String[]{"1", "a"}, difference.getLeftRow());
+    }
+
+    @Test
+    void orderedCompareSortsNullKeysFirst() throws SQLException {
+        ResultDiff diff = compare(
+                "SELECT * FROM (VALUES (CAST(NULL AS INT), 'n'), (1, 'a')) t(k, v) ORDER BY k NULLS FIRST",
+                "SELECT * FROM (VALUES (CAST(NULL AS INT), 'm'), (1, 'a')) t(k, v) ORDER BY k NULLS FIRST",
+                ResultDiffOptions.create().withOrdered(true).withKeyColumns("k"));
+
+        assertEquals(1, diff.getDifferenceCount());
+        assertEquals(RowDifference.Kind.VALUE_MISMATCH, diff.getDifferences().get(0).getKind());
+        assertNull(diff.getDifferences().get(0).getLeftRow()[0]);
+    }
+
+    @Test
+    void columnCountMismatchIsReportedWithoutComparingRows() throws SQLException {
+        ResultDiff diff = compare("SELECT 1 AS a, 2 AS b", "SELECT 1 AS a", ResultDiffOptions.create());
+
+        assertFalse(diff.isEqual());
+        assertTrue(diff.getSchemaDifference().startsWith("列数不同"), diff.getSchemaDifference());
+        assertEquals(0, diff.getDifferenceCount());
+        assertTrue(diff.getDifferences().isEmpty());
+    }
+
+    @Test
+    void truncatesReportedDifferencesButCountsAll() throws SQLException {
+        ResultDiff diff = compare(
+                "SELECT X AS k FROM SYSTEM_RANGE(1, 30)",
+                "SELECT X AS k FROM SYSTEM_RANGE(1, 0)",
+                ResultDiffOptions.create().withOrdered(true).withMaxReportedDifferences(5));
+
+        assertEquals(30, diff.getLeftRows());
+        assertEquals(0, diff.getRightRows());
+        assertEquals(30, diff.getDifferenceCount());
+        assertEquals(5, diff.getDifferences().size());
+        assertEquals("#5", diff.getDifferences().get(4).getPosition());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.brianxiadong.test.db.fixture;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRowReaderTest {
+
+    private static CsvRowReader reader(String csv) {
+        return new CsvRowReader(new StringReader(csv));
+    }
+
+    @Test
+    void readsHeaderAndRows() throws IOException {
+        CsvRowReader reader = reader(" id , name\n1,alice\n2,bob\n");
+
+        assertEquals(Arrays.asList("id", "name"), reader.getColumns());
+        assertArrayEquals(new Object[]{"1", "alice"}, reader.next());
+        assertArrayEquals(new Object[]{"2", "bob"}, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void keepsSeparatorsNewlinesAndQuotesInsideQuotedFields() throws IOException {
+        CsvRowReader reader = reader("id,note\n1,\"a,b\"\n2,\"line1\nline2\"\n3,\"say \"\"hi\"\"\"\n");
+        reader.getColumns();
+
+        assertArrayEquals(new Object[]{"1", "a,b"}, reader.next());
+        assertArrayEquals(new Object[]{"2", "line1\nline2"}, reader.next());
+        assertArrayEquals(new Object[]{"3", "say \"hi\""}, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void distinguishesNullFromEmptyString() throws IOException {
+        CsvRowReader reader = reader("a,b,c\n,\\N,\"\"\n");
+        reader.getColumns();
+
+        assertArrayEquals(new Object[]{null, null, ""}, reader.next());
+    }
+
+    @Test
+    void acceptsCrLfAndSkipsBlankLines() throws IOException {
+        CsvRowReader reader = reader("id,name\r\n1,alice\r\n\r\n2,bob");
+        reader.getColumns();
+
+        assertArrayEquals(new Object[]{"1", "alice"}, reader.next());
+        assertArrayEquals(new Object[]{"2", "bob"}, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsRowWithWrongFieldCount() throws IOException {
+        CsvRowReader reader = reader("id,name\n1,alice,extra\n");
+        reader.getColumns();
+
+        IOException error = assertThrows(IOException.class, reader::next);
+        assertTrue(error.getMessage().contains("第 2 行"), error.getMessage());
+    }
+
+    @Test
+    void rejectsUnclosedQuote() throws IOException {
+        CsvRowReader reader = reader("id,name\n1,\"alice\n");
+        reader.getColumns();
+
+        assertThrows(IOException.class, reader::next);
+    }
+
+    @Test
+    void rejectsEmptyInput() {
+        assertThrows(IOException.class, () -> reader("").getColumns());
+    }
+}
\ No newline at end of file
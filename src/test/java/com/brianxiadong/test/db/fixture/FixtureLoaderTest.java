@@ -0,0 +1,161 @@
+package com.brianxiadong.test.db.fixture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * 在进程内的 H2（MySQL 兼容模式）上测试分批和并行写入，不需要容器
+ */
+class FixtureLoaderTest {
+
+    private static final AtomicInteger DATABASE_INDEX = new AtomicInteger();
+
+    private String jdbcUrl;
+    private Connection keepAlive;
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        jdbcUrl = "jdbc:h2:mem:fixture_" + DATABASE_INDEX.incrementAndGet() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        keepAlive = DriverManager.getConnection(jdbcUrl, "sa", "");
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR(50))");
+        }
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException {
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        keepAlive.close();
+    }
+
+    private ConnectionFactory h2() {
+        return () -> DriverManager.getConnection(jdbcUrl, "sa", "");
+    }
+
+    private static String csv(int rows) {
+        StringBuilder csv = new StringBuilder("id,name\n");
+        for (int i = 1; i <= rows; i++) {
+            csv.append(i).append(",user_").append(i).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private long count() throws SQLException {
+        try (Statement statement = keepAlive.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    void splitsRowsIntoBatchesAndWritesInParallel() throws Exception {
+        FixtureLoader loader = new FixtureLoader(h2(), new MultiRowInsertWriter(300),
+                FixtureOptions.create().withParallelism(3).withBatchRows(1000));
+
+        FixtureLoadStats stats = loader.load("users", new CsvRowReader(new StringReader(csv(2500))));
+
+        assertEquals(2500, stats.getRowCount());
+        assertEquals(3, stats.getBatchCount());
+        assertEquals(2500, count());
+    }
+
+    @Test
+    void passesEachBatchToWriterWithinBatchSize() throws Exception {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        BulkWriter recording = (connection, table, columns, rows) -> batchSizes.add(rows.size());
+        FixtureLoader loader = new FixtureLoader(h2(), recording,
+                FixtureOptions.create().withParallelism(1).withBatchRows(4));
+
+        loader.load("users", new CsvRowReader(new StringReader(csv(10))));
+
+        assertEquals(Arrays.asList(4, 4, 2), batchSizes);
+    }
+
+    @Test
+    void writerFailureIsReportedAndBatchRolledBack() {
+        AtomicInteger calls = new AtomicInteger();
+        BulkWriter failing = (connection, table, columns, rows) -> {
+            new MultiRowInsertWriter().write(connection, table, columns, rows);
+            if (calls.incrementAndGet() == 2) {
+                throw new SQLException("写入失败");
+            }
+        };
+        FixtureLoader loader = new FixtureLoader(h2(), failing,
+                FixtureOptions.create().withParallelism(1).withBatchRows(10));
+
+        SQLException error = assertThrows(SQLException.class,
+                () -> loader.load("users", new CsvRowReader(new StringReader(csv(100)))));
+        assertEquals("写入失败", error.getMessage());
+        assertEquals(10, countQuietly());
+    }
+
+    @Test
+    void workerErrorDoesNotBlockProducer() {
+        OutOfMemoryError oom = new OutOfMemoryError("模拟大批次内存不足");
+        BulkWriter failing = (connection, table, columns, rows) -> {
+            throw oom;
+        };
+        // 队列容量为 2 × 并行度，数据集远多于队列能容纳的批次
+        FixtureLoader loader = new FixtureLoader(h2(), failing,
+                FixtureOptions.create().withParallelism(2).withBatchRows(1));
+
+        Error error = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(Error.class,
+                () -> loader.load("users", new CsvRowReader(new StringReader(csv(1000))))));
+        assertSame(oom, error);
+    }
+
+    @Test
+    void connectionFailureInEveryWorkerDoesNotBlockProducer() {
+        IllegalStateException cause = new IllegalStateException("连接池已关闭");
+        ConnectionFactory broken = () -> {
+            throw cause;
+        };
+        FixtureLoader loader = new FixtureLoader(broken, new MultiRowInsertWriter(),
+                FixtureOptions.create().withParallelism(2).withBatchRows(1));
+
+        IllegalStateException error = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> loader.load("users", new CsvRowReader(new StringReader(csv(1000))))));
+        assertSame(cause, error);
+    }
+
+    @Test
+    void parseErrorStopsLoading() {
+        FixtureLoader loader = new FixtureLoader(h2(), new MultiRowInsertWriter(),
+                FixtureOptions.create().withParallelism(2).withBatchRows(5));
+
+        assertThrows(IOException.class, () -> loader.load("users",
+                new CsvRowReader(new StringReader("id,name\n1,a\n2,b,c\n"))));
+    }
+
+    private long countQuietly() {
+        try {
+            return count();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
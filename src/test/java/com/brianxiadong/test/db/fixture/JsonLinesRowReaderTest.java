@@ -0,0 +1,75 @@
+package com.brianxiadong.test.db.fixture;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonLinesRowReaderTest {
+
+    private static JsonLinesRowReader reader(String jsonLines) {
+        return new JsonLinesRowReader(new StringReader(jsonLines));
+    }
+
+    @Test
+    void takesColumnsFromFirstObjectAndMatchesByKey() throws IOException {
+        JsonLinesRowReader reader = reader("{\"id\": 1, \"name\": \"alice\"}\n"
+                + "{\"name\": \"bob\", \"id\": 2}\n"
+                + "{\"id\": 3}\n");
+
+        assertEquals(Arrays.asList("id", "name"), reader.getColumns());
+        assertArrayEquals(new Object[]{new BigDecimal("1"), "alice"}, reader.next());
+        assertArrayEquals(new Object[]{new BigDecimal("2"), "bob"}, reader.next());
+        assertArrayEquals(new Object[]{new BigDecimal("3"), null}, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void parsesLiteralsEscapesAndNestedValues() throws IOException {
+        JsonLinesRowReader reader = reader(
+                "{\"a\": null, \"b\": true, \"c\": false, \"d\": -1.5e2, \"e\": \"x\\\"y\\n\\u4e2d\","
+                        + " \"f\": {\"k\": [1, \"}\"]}}\n");
+        reader.getColumns();
+
+        Object[] row = reader.next();
+        assertNull(row[0]);
+        assertEquals(Boolean.TRUE, row[1]);
+        assertEquals(Boolean.FALSE, row[2]);
+        assertEquals(0, new BigDecimal("-150").compareTo((BigDecimal) row[3]));
+        assertEquals("x\"y\n中", row[4]);
+        assertEquals("{\"k\": [1, \"}\"]}", row[5]);
+    }
+
+    @Test
+    void skipsBlankLines() throws IOException {
+        JsonLinesRowReader reader = reader("\n{\"id\": 1}\n   \n{\"id\": 2}");
+        reader.getColumns();
+
+        assertArrayEquals(new Object[]{new BigDecimal("1")}, reader.next());
+        assertArrayEquals(new Object[]{new BigDecimal("2")}, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void reportsLineOfMalformedObject() throws IOException {
+        JsonLinesRowReader reader = reader("{\"id\": 1}\n{\"id\": 2,}\n");
+        reader.getColumns();
+        reader.next();
+
+        IOException error = assertThrows(IOException.class, reader::next);
+        assertTrue(error.getMessage().contains("第 2 行"), error.getMessage());
+    }
+
+    @Test
+    void rejectsEmptyInput() {
+        assertThrows(IOException.class, () -> reader("\n\n").getColumns());
+    }
+}
\ No newline at end of file
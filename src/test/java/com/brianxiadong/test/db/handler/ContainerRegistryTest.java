@@ -0,0 +1,371 @@
+package com.brianxiadong.test.db.handler;
+
+import com.brianxiadong.test.db.DatabaseInfo;
+import com.brianxiadong.test.db.DatabaseType;
+import com.brianxiadong.test.db.DurabilityMode;
+import com.brianxiadong.test.db.resource.ResourceBudget;
+import com.brianxiadong.test.db.resource.ResourceEstimate;
+import com.brianxiadong.test.db.resource.ResourceScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 使用不启动容器的处理器测试注册表的获取、复用、归还、关闭和资源回收
+ */
+class ContainerRegistryTest {
+
+    private final List<FakeHandler> handlers = new CopyOnWriteArrayList<>();
+
+    private ContainerRegistry registry(ResourceScheduler scheduler) {
+        return new ContainerRegistry((type, image) -> {
+            FakeHandler handler = new FakeHandler(type);
+            handlers.add(handler);
+            return handler;
+        }, scheduler);
+    }
+
+    private ContainerRegistry registry() {
+        return registry(new ResourceScheduler(ResourceBudget.unlimited()));
+    }
+
+    @Test
+    void startsContainerOnceAndReusesIt() throws Exception {
+        ContainerRegistry registry = registry();
+
+        ContainerRegistry.Entry first = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        DatabaseInfo dbInfo = first.getDatabaseInfo();
+        assertFalse(first.isReused());
+        assertFalse(first.restoreOrReset("init.sql"));
+        registry.release(first);
+
+        ContainerRegistry.Entry second = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        assertSame(first, second);
+        assertTrue(second.isReused());
+        assertSame(dbInfo, second.getDatabaseInfo());
+        assertFalse(second.restoreOrReset("init.sql"));
+        registry.release(second);
+
+        assertEquals(1, handlers.size());
+        assertEquals(1, handlers.get(0).starts);
+        assertEquals(1, handlers.get(0).resets);
+        assertEquals(1, registry.getBootCount());
+        assertEquals(1, registry.getReuseCount());
+    }
+
+    @Test
+    void keepsSeparateContainersPerImage() throws Exception {
+        ContainerRegistry registry = registry();
+
+        registry.release(registry.acquire(DatabaseType.MYSQL, "mysql:8.0"));
+        registry.release(registry.acquire(DatabaseType.MYSQL, "mysql:5.7"));
+        registry.release(registry.acquire(DatabaseType.OCEANBASE, "mysql:8.0"));
+
+        assertEquals(3, registry.size());
+        assertEquals(3, registry.getBootCount());
+        assertEquals(0, registry.getReuseCount());
+    }
+
+    @Test
+    void restartsContainerThatStoppedOnItsOwn() throws Exception {
+        ContainerRegistry registry = registry();
+
+        registry.release(registry.acquire(DatabaseType.MYSQL, "mysql:8.0"));
+        handlers.get(0).running = false;
+
+        ContainerRegistry.Entry entry = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        assertFalse(entry.isReused());
+        registry.release(entry);
+        assertEquals(2, handlers.get(0).starts);
+        assertEquals(2, registry.getBootCount());
+    }
+
+    @Test
+    void restoresSnapshotWhenInitContentMatches() throws Exception {
+        ContainerRegistry registry = registry();
+
+        ContainerRegistry.Entry entry = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        entry.saveSnapshot("init.sql");
+        registry.release(entry);
+
+        entry = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        assertTrue(entry.restoreOrReset("init.sql"));
+        registry.release(entry);
+        entry = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        assertFalse(entry.restoreOrReset("other.sql"));
+        registry.release(entry);
+
+        assertEquals(1, handlers.get(0).restores);
+        assertEquals(1, handlers.get(0).resets);
+    }
+
+    @Test
+    void secondAcquireWaitsForRelease() throws Exception {
+        ContainerRegistry registry = registry();
+        ContainerRegistry.Entry entry = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        AtomicReference<ContainerRegistry.Entry> second = new AtomicReference<>();
+        Thread other = new Thread(() -> {
+            try {
+                second.set(registry.acquire(DatabaseType.MYSQL, "mysql:8.0"));
+                acquired.countDown();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        other.start();
+
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        registry.release(entry);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        registry.release(second.get());
+        other.join();
+    }
+
+    @Test
+    void failedStartReleasesPermitAndLease() throws Exception {
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(4096, 4));
+        ContainerRegistry registry = registry(scheduler);
+
+        assertThrows(IllegalStateException.class, () -> registry.acquire(DatabaseType.MYSQL, "mysql:8.0",
+                handler -> {
+                    throw new IllegalStateException("配置失败");
+                }));
+        assertEquals(0, scheduler.getRunningCount());
+        assertEquals(1, handlers.get(0).stops);
+
+        ContainerRegistry.Entry entry = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        assertFalse(entry.isReused());
+        registry.release(entry);
+        assertEquals(1, scheduler.getRunningCount());
+    }
+
+    @Test
+    void stopAllStopsEveryContainerAndReturnsLeases() throws Exception {
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(4096, 4));
+        ContainerRegistry registry = registry(scheduler);
+
+        registry.release(registry.acquire(DatabaseType.MYSQL, "mysql:8.0"));
+        registry.release(registry.acquire(DatabaseType.OCEANBASE, "oceanbase"));
+        assertEquals(2, scheduler.getRunningCount());
+
+        registry.stopAll();
+
+        assertEquals(0, registry.size());
+        assertEquals(0, scheduler.getRunningCount());
+        for (FakeHandler handler : handlers) {
+            assertFalse(handler.running);
+            assertEquals(1, handler.stops);
+        }
+    }
+
+    @Test
+    void reclaimStopsIdleContainerForQueuedStart() throws Exception {
+        // 预算只够一个 1GB 的容器
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(1536, 4));
+        ContainerRegistry registry = registry(scheduler);
+
+        registry.release(registry.acquire(DatabaseType.MYSQL, "mysql:8.0"));
+        ContainerRegistry.Entry oceanBase = registry.acquire(DatabaseType.OCEANBASE, "oceanbase");
+
+        FakeHandler mysql = handlers.get(0);
+        assertFalse(mysql.running);
+        assertEquals(1, mysql.stops);
+        assertTrue(handlers.get(1).running);
+        assertEquals(1, scheduler.getRunningCount());
+        registry.release(oceanBase);
+
+        // 被回收的容器下次获取时重新启动
+        ContainerRegistry.Entry restarted = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        assertFalse(restarted.isReused());
+        assertEquals(2, mysql.starts);
+        registry.release(restarted);
+        registry.stopAll();
+    }
+
+    @Test
+    void sameThreadCanHoldContainersBeyondBudget() throws Exception {
+        // 比较查询依次获取所有数据库：MySQL 1GB + OceanBase 6GB，预算 6GB
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(6144, 4), 5000);
+        ContainerRegistry registry = registry(scheduler);
+
+        ContainerRegistry.Entry mysql = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        ContainerRegistry.Entry oceanBase = assertTimeoutPreemptively(Duration.ofSeconds(3),
+                () -> registry.acquire(DatabaseType.OCEANBASE, "oceanbase"));
+        assertTrue(handlers.get(0).running);
+        assertEquals(2, scheduler.getRunningCount());
+        registry.release(oceanBase);
+        registry.release(mysql);
+        registry.stopAll();
+    }
+
+    @Test
+    void reusedContainerIsClaimedByNewHolder() throws Exception {
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(6144, 4), 5000);
+        ContainerRegistry registry = registry(scheduler);
+
+        // 在另一个线程中启动并归还，容器空闲
+        Thread starter = new Thread(() -> {
+            try {
+                registry.release(registry.acquire(DatabaseType.MYSQL, "mysql:8.0"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        starter.start();
+        starter.join();
+
+        ContainerRegistry.Entry mysql = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        assertTrue(mysql.isReused());
+        ContainerRegistry.Entry oceanBase = assertTimeoutPreemptively(Duration.ofSeconds(3),
+                () -> registry.acquire(DatabaseType.OCEANBASE, "oceanbase"));
+        assertTrue(handlers.get(0).running);
+        registry.release(oceanBase);
+        registry.release(mysql);
+        registry.stopAll();
+    }
+
+    @Test
+    void reclaimSkipsContainersInUse() throws Exception {
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(4096, 4));
+        ContainerRegistry registry = registry(scheduler);
+
+        ContainerRegistry.Entry entry = registry.acquire(DatabaseType.MYSQL, "mysql:8.0");
+        assertFalse(registry.reclaim(ResourceEstimate.of(1024, 1)));
+        assertTrue(handlers.get(0).running);
+
+        registry.release(entry);
+        assertTrue(registry.reclaim(ResourceEstimate.of(1024, 1)));
+        assertFalse(handlers.get(0).running);
+        assertEquals(0, scheduler.getRunningCount());
+        assertFalse(registry.reclaim(ResourceEstimate.of(1024, 1)));
+    }
+
+    @Test
+    void restartsContainerWhenDurabilityModeChanges() throws Exception {
+        ContainerRegistry registry = registry();
+
+        registry.release(registry.acquire(DatabaseType.MYSQL, "mysql:8.0",
+                handler -> handler.setDurabilityMode(DurabilityMode.FAST)));
+        ContainerRegistry.Entry entry = registry.acquire(DatabaseType.MYSQL, "mysql:8.0",
+                handler -> handler.setDurabilityMode(DurabilityMode.DEFAULT));
+        assertFalse(entry.isReused());
+        registry.release(entry);
+        entry = registry.acquire(DatabaseType.MYSQL, "mysql:8.0",
+                handler -> handler.setDurabilityMode(DurabilityMode.DEFAULT));
+        assertTrue(entry.isReused());
+        registry.release(entry);
+
+        FakeHandler handler = handlers.get(0);
+        assertEquals(1, handlers.size());
+        assertEquals(2, handler.starts);
+        assertEquals(1, handler.stops);
+        assertEquals(DurabilityMode.DEFAULT, handler.startedWith);
+    }
+
+    @Test
+    void estimatesResourcesAfterConfiguring() throws Exception {
+        ContainerRegistry registry = registry(new ResourceScheduler(ResourceBudget.of(4096, 4)));
+
+        registry.release(registry.acquire(DatabaseType.OCEANBASE, "oceanbase",
+                handler -> handler.setDurabilityMode(DurabilityMode.FAST)));
+
+        assertEquals(DurabilityMode.FAST, handlers.get(0).estimatedWith);
+        registry.stopAll();
+    }
+
+    /**
+     * 不启动容器的处理器，记录各操作的调用次数
+     */
+    private static final class FakeHandler implements DatabaseHandler {
+
+        private final DatabaseType type;
+        private volatile boolean running;
+        private volatile boolean snapshot;
+        private int starts;
+        private int stops;
+        private int resets;
+        private int restores;
+        private DurabilityMode durabilityMode = DurabilityMode.DEFAULT;
+        private DurabilityMode startedWith;
+        private DurabilityMode estimatedWith;
+
+        private FakeHandler(DatabaseType type) {
+            this.type = type;
+        }
+
+        @Override
+        public void setDurabilityMode(DurabilityMode durabilityMode) {
+            this.durabilityMode = durabilityMode;
+        }
+
+        @Override
+        public DurabilityMode getDurabilityMode() {
+            return durabilityMode;
+        }
+
+        @Override
+        public ResourceEstimate getResourceEstimate() {
+            estimatedWith = durabilityMode;
+            return DatabaseHandler.super.getResourceEstimate();
+        }
+
+        @Override
+        public DatabaseInfo startContainer() {
+            starts++;
+            startedWith = durabilityMode;
+            running = true;
+            return new DatabaseInfo(type, "jdbc:fake:" + type.name() + "/" + starts, "test", "test");
+        }
+
+        @Override
+        public void executeInitScript(DatabaseInfo dbInfo, String scriptName) {
+        }
+
+        @Override
+        public void stopContainer() {
+            stops++;
+            running = false;
+            snapshot = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public void resetDatabase(DatabaseInfo dbInfo) {
+            resets++;
+        }
+
+        @Override
+        public void snapshot(DatabaseInfo dbInfo) {
+            snapshot = true;
+        }
+
+        @Override
+        public void restore(DatabaseInfo dbInfo) {
+            restores++;
+        }
+
+        @Override
+        public boolean hasSnapshot() {
+            return snapshot;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.brianxiadong.test.db.image;
+
+import com.brianxiadong.test.db.fixture.Fixture;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 使用内存镜像仓库测试缓存键的计算、命中和 LRU 清理
+ */
+class PrebakedImageCacheTest {
+
+    private static final String BASE_IMAGE = "mysql:8.0";
+    private static final String REPOSITORY = PrebakedImageCache.repositoryFor("MYSQL");
+
+    @Test
+    void keyIsStableForSameContent() throws Exception {
+        String first = key(BASE_IMAGE, "v1", "prebaked/init-a.sql", null);
+        String second = key(BASE_IMAGE, "v1", "prebaked/init-a.sql", null);
+
+        assertEquals(first, second);
+        assertEquals(16, first.length());
+        assertTrue(first.matches("[0-9a-f]+"));
+    }
+
+    @Test
+    void keyChangesWithInitScriptContent() throws Exception {
+        assertNotEquals(key(BASE_IMAGE, "v1", "prebaked/init-a.sql", null),
+                key(BASE_IMAGE, "v1", "prebaked/init-b.sql", null));
+        assertNotEquals(PrebakedImageCache.hashResource("prebaked/init-a.sql").split(":")[1],
+                PrebakedImageCache.hashResource("prebaked/init-b.sql").split(":")[1]);
+    }
+
+    @Test
+    void keyChangesWithHandlerVersionAndBaseImage() throws Exception {
+        String key = key(BASE_IMAGE, "v1", "prebaked/init-a.sql", null);
+
+        assertNotEquals(key, key(BASE_IMAGE, "v2", "prebaked/init-a.sql", null));
+        assertNotEquals(key, key("mysql:5.7", "v1", "prebaked/init-a.sql", null));
+    }
+
+    @Test
+    void keyChangesWithMigrationDirectory() throws Exception {
+        String withoutMigrations = key(BASE_IMAGE, "v1", null, null);
+        String migrations = key(BASE_IMAGE, "v1", null, "db/migration");
+
+        assertNotEquals(withoutMigrations, migrations);
+        assertNotEquals(migrations, key(BASE_IMAGE, "v1", null, "db/migration-v2"));
+        assertEquals(migrations, key(BASE_IMAGE, "v1", null, "db/migration"));
+    }
+
+    @Test
+    void keyChangesWithFixtures() throws Exception {
+        String withoutFixtures = PrebakedImageCache.computeKey(BASE_IMAGE, "v1",
+                PrebakedImageCache.contentHashes(null, null, Collections.emptyList()));
+        String withFixture = PrebakedImageCache.computeKey(BASE_IMAGE, "v1",
+                PrebakedImageCache.contentHashes(null, null,
+                        Collections.singletonList(new Fixture("users", "prebaked/users.csv"))));
+        String otherTable = PrebakedImageCache.computeKey(BASE_IMAGE, "v1",
+                PrebakedImageCache.contentHashes(null, null,
+                        Collections.singletonList(new Fixture("accounts", "prebaked/users.csv"))));
+
+        assertNotEquals(withoutFixtures, withFixture);
+        assertNotEquals(withFixture, otherTable);
+    }
+
+    @Test
+    void keySeparatesAdjacentValues() {
+        assertNotEquals(PrebakedImageCache.computeKey(BASE_IMAGE, "v1", Arrays.asList("ab", "c")),
+                PrebakedImageCache.computeKey(BASE_IMAGE, "v1", Arrays.asList("a", "bc")));
+        assertNotEquals(PrebakedImageCache.computeKey(BASE_IMAGE, "v1", Arrays.asList("a", "b")),
+                PrebakedImageCache.computeKey(BASE_IMAGE, "v1", Arrays.asList("b", "a")));
+    }
+
+    @Test
+    void missingResourceHashesToPlaceholder() throws Exception {
+        assertEquals("missing:prebaked/none.sql", PrebakedImageCache.hashResource("prebaked/none.sql"));
+        assertTrue(PrebakedImageCache.hashResource("prebaked/init-a.sql").startsWith("prebaked/init-a.sql:"));
+        assertTrue(PrebakedImageCache.contentHashes(" ", null, Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    void lookupMissesUntilImageIsStored() {
+        MemoryImageStore store = new MemoryImageStore();
+        PrebakedImageCache cache = new PrebakedImageCache(store, 3);
+
+        assertNull(cache.lookup(REPOSITORY, "0123456789abcdef"));
+        assertTrue(store.touched.isEmpty());
+
+        String imageName = cache.store("container-1", REPOSITORY, "0123456789abcdef", BASE_IMAGE);
+        assertEquals(REPOSITORY + ":0123456789abcdef", imageName);
+        assertEquals(BASE_IMAGE, store.labels.get(imageName).get(PrebakedImageCache.LABEL_BASE_IMAGE));
+        assertEquals("0123456789abcdef", store.labels.get(imageName).get(PrebakedImageCache.LABEL_KEY));
+
+        store.touched.clear();
+        assertEquals(imageName, cache.lookup(REPOSITORY, "0123456789abcdef"));
+        assertEquals(Collections.singletonList(imageName), store.touched);
+    }
+
+    @Test
+    void invalidateRemovesImage() {
+        MemoryImageStore store = new MemoryImageStore();
+        PrebakedImageCache cache = new PrebakedImageCache(store, 3);
+        String imageName = cache.store("container-1", REPOSITORY, "key", BASE_IMAGE);
+
+        cache.invalidate(imageName);
+
+        assertFalse(store.exists(imageName));
+        assertNull(cache.lookup(REPOSITORY, "key"));
+    }
+
+    @Test
+    void storeEvictsLeastRecentlyUsedImages() {
+        MemoryImageStore store = new MemoryImageStore();
+        PrebakedImageCache cache = new PrebakedImageCache(store, 2);
+
+        cache.store("container-1", REPOSITORY, "a", BASE_IMAGE);
+        cache.store("container-2", REPOSITORY, "b", BASE_IMAGE);
+        // 命中后 a 比 b 更新
+        cache.lookup(REPOSITORY, "a");
+        cache.store("container-3", REPOSITORY, "c", BASE_IMAGE);
+
+        assertTrue(store.exists(REPOSITORY + ":a"));
+        assertFalse(store.exists(REPOSITORY + ":b"));
+        assertTrue(store.exists(REPOSITORY + ":c"));
+    }
+
+    @Test
+    void evictOnlyTouchesGivenRepository() {
+        MemoryImageStore store = new MemoryImageStore();
+        PrebakedImageCache cache = new PrebakedImageCache(store, 1);
+        String other = PrebakedImageCache.repositoryFor("OCEANBASE");
+
+        cache.store("container-1", other, "a", "oceanbase");
+        cache.store("container-2", REPOSITORY, "a", BASE_IMAGE);
+        cache.store("container-3", REPOSITORY, "b", BASE_IMAGE);
+
+        assertTrue(store.exists(other + ":a"));
+        assertFalse(store.exists(REPOSITORY + ":a"));
+        assertTrue(store.exists(REPOSITORY + ":b"));
+    }
+
+    @Test
+    void evictSkipsImagesThatCannotBeRemoved() {
+        MemoryImageStore store = new MemoryImageStore();
+        PrebakedImageCache cache = new PrebakedImageCache(store, 1);
+        cache.store("container-1", REPOSITORY, "a", BASE_IMAGE);
+        store.locked = REPOSITORY + ":a";
+
+        cache.store("container-2", REPOSITORY, "b", BASE_IMAGE);
+
+        assertTrue(store.exists(REPOSITORY + ":a"));
+        assertTrue(store.exists(REPOSITORY + ":b"));
+    }
+
+    private static String key(String baseImage, String handlerVersion, String initScript, String migrations)
+            throws Exception {
+        return PrebakedImageCache.computeKey(baseImage, handlerVersion,
+                PrebakedImageCache.contentHashes(initScript, migrations, Collections.emptyList()));
+    }
+
+    /**
+     * 内存镜像仓库，使用递增的计数代替时间，保证使用顺序确定
+     */
+    private static final class MemoryImageStore implements ImageStore {
+
+        private final Map<String, Long> lastUsed = new LinkedHashMap<>();
+        private final Map<String, Map<String, String>> labels = new LinkedHashMap<>();
+        private final List<String> touched = new ArrayList<>();
+        private long clock;
+        private String locked;
+
+        @Override
+        public boolean exists(String imageName) {
+            return lastUsed.containsKey(imageName);
+        }
+
+        @Override
+        public void commit(String containerId, String imageName, Map<String, String> labels) {
+            lastUsed.put(imageName, ++clock);
+            this.labels.put(imageName, new LinkedHashMap<>(labels));
+        }
+
+        @Override
+        public List<CachedImage> list(String repository) {
+            List<CachedImage> images = new ArrayList<>();
+            for (Map.Entry<String, Long> entry : lastUsed.entrySet()) {
+                if (entry.getKey().startsWith(repository + ":")) {
+                    images.add(new CachedImage(entry.getKey(), entry.getValue()));
+                }
+            }
+            return images;
+        }
+
+        @Override
+        public void remove(String imageName) {
+            if (imageName.equals(locked)) {
+                throw new IllegalStateException("image is being used by running container");
+            }
+            lastUsed.remove(imageName);
+            labels.remove(imageName);
+        }
+
+        @Override
+        public void touch(String imageName) {
+            touched.add(imageName);
+            lastUsed.put(imageName, ++clock);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.brianxiadong.test.db.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在内嵌 H2 上测试写入记录代理：预处理语句、普通语句和批次都被记录，语句返回连接代理
+ */
+class TrackingConnectionTest {
+
+    private Connection physical;
+
+    @BeforeEach
+    void open() throws Exception {
+        physical = DriverManager.getConnection("jdbc:h2:mem:tracking;MODE=MySQL");
+        try (Statement statement = physical.createStatement()) {
+            statement.execute("CREATE TABLE users (id INT PRIMARY KEY)");
+            statement.execute("CREATE TABLE orders (id INT PRIMARY KEY)");
+            statement.execute("CREATE TABLE logs (id INT PRIMARY KEY)");
+        }
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        physical.close();
+    }
+
+    @Test
+    void recordsPreparedPlainAndBatchedWrites() throws Exception {
+        DirtyTables tables = new DirtyTables();
+        Connection connection = TrackingConnection.wrap(physical, tables);
+
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO users VALUES (?)")) {
+            insert.setInt(1, 1);
+            insert.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE orders SET id = 2 WHERE id = 1");
+            statement.addBatch("INSERT INTO logs VALUES (1)");
+            statement.executeBatch();
+            statement.executeQuery("SELECT * FROM users").close();
+        }
+
+        assertTrue(tables.isPrecise());
+        assertEquals(Arrays.asList("users", "orders", "logs"), tables.getTables());
+    }
+
+    @Test
+    void untrackedStatementMakesSetImprecise() throws Exception {
+        DirtyTables tables = new DirtyTables();
+        Connection connection = TrackingConnection.wrap(physical, tables);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE users ADD COLUMN age INT");
+        }
+
+        assertFalse(tables.isPrecise());
+        assertEquals("ALTER TABLE users ADD COLUMN age INT", tables.getUntrackedStatement());
+    }
+
+    @Test
+    void statementReturnsConnectionProxy() throws Exception {
+        Connection connection = TrackingConnection.wrap(physical, new DirtyTables());
+
+        try (Statement statement = connection.createStatement()) {
+            assertSame(connection, statement.getConnection());
+            assertEquals(statement, statement);
+            assertNotEquals(physical, connection);
+            assertEquals(System.identityHashCode(connection), connection.hashCode());
+        }
+    }
+}
\ No newline at end of file
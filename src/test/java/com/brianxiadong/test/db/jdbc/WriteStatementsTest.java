@@ -0,0 +1,92 @@
+package com.brianxiadong.test.db.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 测试写入表的识别：单表写入返回表名，只读语句返回空列表，无法确定写入范围时返回 null
+ */
+class WriteStatementsTest {
+
+    private static List<String> tables(String... names) {
+        return Arrays.asList(names);
+    }
+
+    @Test
+    void recognizesSingleTableInserts() {
+        assertEquals(tables("users"), WriteStatements.targetTables("INSERT INTO users (id) VALUES (1)"));
+        assertEquals(tables("users"), WriteStatements.targetTables("insert ignore into users values (1)"));
+        assertEquals(tables("users"), WriteStatements.targetTables("INSERT users SET id = 1"));
+        assertEquals(tables("kv"), WriteStatements.targetTables("REPLACE INTO kv VALUES ('a', 1)"));
+        assertEquals(tables("kv"), WriteStatements.targetTables("MERGE INTO kv KEY (k) VALUES ('a', 1)"));
+    }
+
+    @Test
+    void stripsSchemaAndQuotes() {
+        assertEquals(tables("order items"),
+                WriteStatements.targetTables("INSERT INTO `app`.`order items` VALUES (1)"));
+        assertEquals(tables("a`b"), WriteStatements.targetTables("INSERT INTO `a``b` VALUES (1)"));
+        assertEquals(tables("quoted\"name"), WriteStatements.targetTables("UPDATE \"quoted\"\"name\" SET x = 1"));
+        assertEquals(tables("users"), WriteStatements.targetTables("DELETE FROM app . users WHERE id = 1"));
+    }
+
+    @Test
+    void recognizesSingleTableUpdatesAndDeletes() {
+        assertEquals(tables("users"), WriteStatements.targetTables("UPDATE users SET name = 'x' WHERE id = 1"));
+        assertEquals(tables("users"), WriteStatements.targetTables("UPDATE LOW_PRIORITY users u SET u.name = 'x'"));
+        assertEquals(tables("users"), WriteStatements.targetTables("UPDATE users AS u SET u.name = 'x'"));
+        assertEquals(tables("users"), WriteStatements.targetTables("DELETE FROM users WHERE id = 1"));
+        assertEquals(tables("users"), WriteStatements.targetTables("DELETE QUICK IGNORE FROM users"));
+        assertEquals(tables("logs"), WriteStatements.targetTables("TRUNCATE TABLE logs"));
+        assertEquals(tables("logs"), WriteStatements.targetTables("TRUNCATE logs"));
+        assertEquals(tables("users"), WriteStatements.targetTables(
+                "LOAD DATA LOCAL INFILE '/tmp/users.csv' INTO TABLE users FIELDS TERMINATED BY ','"));
+    }
+
+    @Test
+    void multiTableWritesAreUntracked() {
+        assertNull(WriteStatements.targetTables("UPDATE users u JOIN orders o ON o.user_id = u.id SET u.n = 1"));
+        assertNull(WriteStatements.targetTables("UPDATE users, orders SET users.n = 1"));
+        assertNull(WriteStatements.targetTables("DELETE u FROM users u JOIN orders o ON o.user_id = u.id"));
+        assertNull(WriteStatements.targetTables("DELETE FROM users USING users JOIN orders"));
+        assertNull(WriteStatements.targetTables("DELETE FROM users, orders USING users JOIN orders"));
+        assertNull(WriteStatements.targetTables("WITH old AS (SELECT id FROM users) DELETE FROM users"));
+    }
+
+    @Test
+    void ddlAndProceduresAreUntracked() {
+        assertNull(WriteStatements.targetTables("CREATE TABLE t (id INT)"));
+        assertNull(WriteStatements.targetTables("DROP TABLE t"));
+        assertNull(WriteStatements.targetTables("ALTER TABLE users ADD COLUMN age INT"));
+        assertNull(WriteStatements.targetTables("CALL cleanup()"));
+        assertNull(WriteStatements.targetTables("USE other"));
+        assertNull(WriteStatements.targetTables("INSERT INTO"));
+    }
+
+    @Test
+    void readsAndSessionStatementsWriteNothing() {
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("SELECT * FROM users FOR UPDATE"));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("(SELECT 1) UNION (SELECT 2)"));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("WITH x AS (SELECT 1) SELECT * FROM x"));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("SET autocommit = 0"));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("SHOW TABLES"));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("COMMIT"));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("CREATE TEMPORARY TABLE tmp (id INT)"));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("DROP TEMPORARY TABLE tmp"));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("   "));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables(null));
+    }
+
+    @Test
+    void skipsLeadingCommentsAndWhitespace() {
+        assertEquals(tables("users"), WriteStatements.targetTables(
+                "/* batch */ -- cleanup\n# mysql comment\n  delete from users"));
+        assertEquals(Collections.emptyList(), WriteStatements.targetTables("/*+ MAX_EXECUTION_TIME(10) */ SELECT 1"));
+    }
+}
\ No newline at end of file
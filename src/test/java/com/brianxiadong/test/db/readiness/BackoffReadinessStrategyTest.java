@@ -0,0 +1,164 @@
+package com.brianxiadong.test.db.readiness;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLInvalidAuthorizationSpecException;
+import java.sql.SQLSyntaxErrorException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 使用按脚本返回结果的探针测试退避间隔、超时、立即失败和耗时报告
+ */
+class BackoffReadinessStrategyTest {
+
+    /**
+     * 依次返回状态或抛出异常的探针，脚本用完后重复最后一项，记录每次调用的时间
+     */
+    private static final class ScriptedProbe implements ReadinessProbe {
+
+        private final Iterator<Object> script;
+        private final List<Long> calls = new ArrayList<>();
+        private Object last;
+
+        ScriptedProbe(Object... script) {
+            this.script = Arrays.asList(script).iterator();
+        }
+
+        @Override
+        public ReadinessState check() throws Exception {
+            calls.add(System.nanoTime());
+            if (script.hasNext()) {
+                last = script.next();
+            }
+            if (last instanceof Exception) {
+                throw (Exception) last;
+            }
+            return (ReadinessState) last;
+        }
+
+        long gapMillis(int index) {
+            return TimeUnit.NANOSECONDS.toMillis(calls.get(index + 1) - calls.get(index));
+        }
+    }
+
+    @Test
+    void intervalsGrowUpToMaximum() throws Exception {
+        ScriptedProbe probe = new ScriptedProbe(ReadinessState.UNREACHABLE, ReadinessState.UNREACHABLE,
+                ReadinessState.CONNECTED, ReadinessState.CONNECTED, ReadinessState.READY);
+        BackoffReadinessStrategy strategy = BackoffReadinessStrategy.create()
+                .withInitialInterval(Duration.ofMillis(20))
+                .withMultiplier(2)
+                .withMaxInterval(Duration.ofMillis(50));
+
+        ReadinessReport report = strategy.await("fake", probe);
+
+        assertEquals(5, report.getAttempts());
+        assertTrue(probe.gapMillis(0) >= 19);
+        assertTrue(probe.gapMillis(1) >= 39);
+        assertTrue(probe.gapMillis(2) >= 49);
+        assertTrue(probe.gapMillis(3) >= 49);
+        assertTrue(probe.gapMillis(3) < 1000);
+    }
+
+    @Test
+    void reportsTimeToFirstConnectionAndReady() throws Exception {
+        ScriptedProbe probe = new ScriptedProbe(ReadinessState.UNREACHABLE, ReadinessState.CONNECTED,
+                ReadinessState.READY);
+        BackoffReadinessStrategy strategy = BackoffReadinessStrategy.create()
+                .withInitialInterval(Duration.ofMillis(10));
+
+        ReadinessReport report = strategy.await("fake", probe);
+
+        assertTrue(report.isReady());
+        assertEquals(3, report.getAttempts());
+        assertTrue(report.getTimeToFirstConnectionNanos() >= TimeUnit.MILLISECONDS.toNanos(9));
+        assertTrue(report.getTimeToReadyNanos() > report.getTimeToFirstConnectionNanos());
+    }
+
+    @Test
+    void timesOutWithReportAndLastError() {
+        SQLException refused = new SQLException("Connection refused");
+        ScriptedProbe probe = new ScriptedProbe(ReadinessState.CONNECTED, refused);
+        BackoffReadinessStrategy strategy = BackoffReadinessStrategy.create()
+                .withInitialInterval(Duration.ofMillis(10))
+                .withMaxInterval(Duration.ofMillis(20))
+                .withTimeout(Duration.ofMillis(150));
+
+        long start = System.nanoTime();
+        ReadinessException e = assertThrows(ReadinessException.class, () -> strategy.await("fake", probe));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertTrue(e.getMessage().contains("150ms"));
+        assertSame(refused, e.getCause());
+        assertFalse(e.getReport().isReady());
+        assertEquals(-1, e.getReport().getTimeToReadyNanos());
+        assertTrue(e.getReport().getTimeToFirstConnectionNanos() >= 0);
+        assertTrue(e.getReport().getAttempts() > 3);
+    }
+
+    @Test
+    void failsFastAfterConnectingOnRepeatedNonTransientErrors() {
+        SQLInvalidAuthorizationSpecException denied = new SQLInvalidAuthorizationSpecException("Access denied");
+        ScriptedProbe probe = new ScriptedProbe(ReadinessState.CONNECTED, denied);
+        BackoffReadinessStrategy strategy = BackoffReadinessStrategy.create()
+                .withInitialInterval(Duration.ofMillis(5))
+                .withTimeout(Duration.ofSeconds(30));
+
+        ReadinessException e = assertThrows(ReadinessException.class, () -> strategy.await("fake", probe));
+
+        assertSame(denied, e.getCause());
+        assertEquals(4, e.getReport().getAttempts());
+    }
+
+    @Test
+    void retriesNonTransientErrorsDuringBootstrap() throws Exception {
+        SQLInvalidAuthorizationSpecException denied = new SQLInvalidAuthorizationSpecException("Access denied");
+        ScriptedProbe probe = new ScriptedProbe(denied, denied, denied, denied, ReadinessState.READY);
+        BackoffReadinessStrategy strategy = BackoffReadinessStrategy.create()
+                .withInitialInterval(Duration.ofMillis(5));
+
+        ReadinessReport report = strategy.await("fake", probe);
+
+        assertEquals(5, report.getAttempts());
+    }
+
+    @Test
+    void failsFastBeforeConnectingOnceStreakLastsLongEnough() {
+        ScriptedProbe probe = new ScriptedProbe(new IllegalStateException("容器已退出"));
+        BackoffReadinessStrategy strategy = BackoffReadinessStrategy.create()
+                .withInitialInterval(Duration.ofMillis(10))
+                .withMaxInterval(Duration.ofMillis(10))
+                .withFailFastMinDuration(Duration.ofMillis(100))
+                .withTimeout(Duration.ofSeconds(30));
+
+        long start = System.nanoTime();
+        ReadinessException e = assertThrows(ReadinessException.class, () -> strategy.await("fake", probe));
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed >= 100 && elapsed < 5000);
+        assertTrue(e.getMessage().contains("不可恢复"));
+        assertEquals(-1, e.getReport().getTimeToFirstConnectionNanos());
+    }
+
+    @Test
+    void classifiesDefaultNonTransientErrors() {
+        assertTrue(BackoffReadinessStrategy.isNonTransient(new SQLInvalidAuthorizationSpecException("denied")));
+        assertTrue(BackoffReadinessStrategy.isNonTransient(new SQLException("No suitable driver found")));
+        assertTrue(BackoffReadinessStrategy.isNonTransient(new IllegalStateException("容器已退出")));
+        assertFalse(BackoffReadinessStrategy.isNonTransient(
+                new SQLSyntaxErrorException("Table 'oceanbase.DBA_OB_TENANTS' doesn't exist", "42S02")));
+        assertFalse(BackoffReadinessStrategy.isNonTransient(new SQLException("Connection refused")));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.brianxiadong.test.db.report;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 测试 JSON 字符串转义：引号、反斜杠、常用空白字符和其他控制字符
+ */
+class JsonStringsTest {
+
+    @Test
+    void returnsPlainValuesUnchanged() {
+        String plain = "SELECT * FROM users WHERE name = ? -- 用户";
+
+        assertSame(plain, JsonStrings.escape(plain));
+        assertEquals("", JsonStrings.escape(""));
+    }
+
+    @Test
+    void escapesQuotesBackslashesAndWhitespace() {
+        assertEquals("say \\\"hi\\\"", JsonStrings.escape("say \"hi\""));
+        assertEquals("C:\\\\tmp", JsonStrings.escape("C:\\tmp"));
+        assertEquals("a\\r\\nb\\tc", JsonStrings.escape("a\r\nb\tc"));
+    }
+
+    @Test
+    void escapesOtherControlCharacters() {
+        assertEquals("\\u0000\\u0001\\u001b\\u001f ", JsonStrings.escape("\u0000\u0001\u001b\u001f "));
+        assertEquals("\u007f\u4e2d", JsonStrings.escape("\u007f\u4e2d"));
+    }
+}
\ No newline at end of file
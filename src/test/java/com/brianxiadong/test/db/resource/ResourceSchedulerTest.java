@@ -0,0 +1,116 @@
+package com.brianxiadong.test.db.resource;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试配额的排队、超时，以及申请线程自己持有全部配额时的放行
+ */
+class ResourceSchedulerTest {
+
+    private static final ResourceEstimate MYSQL = ResourceEstimate.of(1024, 1);
+    private static final ResourceEstimate OCEANBASE = ResourceEstimate.of(6144, 2);
+
+    @Test
+    void grantsWhenCallerHoldsEveryRunningLease() {
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(6144, 4), 0);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (ResourceScheduler.Lease mysql = scheduler.acquire("MySQL", MYSQL);
+                    ResourceScheduler.Lease oceanBase = scheduler.acquire("OceanBase", OCEANBASE)) {
+                assertEquals(2, scheduler.getRunningCount());
+                assertEquals(0, mysql.getWaitNanos());
+                assertEquals(0, oceanBase.getWaitNanos());
+            }
+        });
+        assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    void waitsForLeaseHeldByAnotherThread() throws Exception {
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(6144, 4), 0);
+        ResourceScheduler.Lease mysql = scheduler.acquire("MySQL", MYSQL);
+
+        CountDownLatch granted = new CountDownLatch(1);
+        AtomicReference<ResourceScheduler.Lease> oceanBase = new AtomicReference<>();
+        Thread other = new Thread(() -> {
+            try {
+                oceanBase.set(scheduler.acquire("OceanBase", OCEANBASE));
+                granted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        other.start();
+
+        assertFalse(granted.await(300, TimeUnit.MILLISECONDS));
+        mysql.close();
+        assertTrue(granted.await(5, TimeUnit.SECONDS));
+        oceanBase.get().close();
+        other.join();
+    }
+
+    @Test
+    void detachedLeaseIsNotTreatedAsHeldByCaller() throws Exception {
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(6144, 4), 200);
+        ResourceScheduler.Lease idle = scheduler.acquire("MySQL", MYSQL);
+        idle.detach();
+
+        assertThrows(IllegalStateException.class, () -> scheduler.acquire("OceanBase", OCEANBASE));
+        assertEquals(0, scheduler.getQueueLength());
+
+        idle.claim();
+        try (ResourceScheduler.Lease oceanBase = scheduler.acquire("OceanBase", OCEANBASE)) {
+            assertEquals(2, scheduler.getRunningCount());
+            assertEquals(0, oceanBase.getWaitNanos());
+        }
+        idle.close();
+    }
+
+    @Test
+    void timesOutWhenResourcesAreNeverReleased() throws Exception {
+        ResourceScheduler scheduler = new ResourceScheduler(ResourceBudget.of(6144, 4), 200);
+        AtomicReference<ResourceScheduler.Lease> held = new AtomicReference<>();
+        Thread holder = new Thread(() -> {
+            try {
+                held.set(scheduler.acquire("MySQL", MYSQL));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holder.start();
+        holder.join();
+
+        long start = System.nanoTime();
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> scheduler.acquire("OceanBase", OCEANBASE));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        assertTrue(e.getMessage().contains("multidb.resources.wait.timeout"));
+        assertEquals(0, scheduler.getQueueLength());
+
+        held.get().close();
+        scheduler.acquire("OceanBase", OCEANBASE).close();
+    }
+
+    @Test
+    void parsesWaitTimeout() {
+        assertEquals(30_000, ResourceScheduler.parseDurationMillis("30"));
+        assertEquals(30_000, ResourceScheduler.parseDurationMillis("30s"));
+        assertEquals(600_000, ResourceScheduler.parseDurationMillis("10m"));
+        assertEquals(3_600_000, ResourceScheduler.parseDurationMillis(" 1H "));
+        assertEquals(500, ResourceScheduler.parseDurationMillis("500ms"));
+        assertEquals(0, ResourceScheduler.parseDurationMillis("0"));
+        assertThrows(IllegalArgumentException.class, () -> ResourceScheduler.parseDurationMillis("-1"));
+        assertThrows(IllegalArgumentException.class, () -> ResourceScheduler.parseDurationMillis("soon"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.brianxiadong.test.db.script;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在内嵌 H2 上测试脚本执行：连续 DML 按批大小合并，其他语句先提交已有批次，按批次提交事务时失败只回滚当前批次
+ */
+class SqlScriptExecutorTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    void open() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:script;MODE=MySQL");
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    private ScriptExecutionStats execute(SqlScriptOptions options, String script) throws SQLException, IOException {
+        return new SqlScriptExecutor(options).execute(connection, new SqlScriptReader(new StringReader(script)));
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void groupsConsecutiveDmlIntoBatches() throws Exception {
+        ScriptExecutionStats stats = execute(SqlScriptOptions.create().withBatchSize(2),
+                "CREATE TABLE t (id INT PRIMARY KEY);\n"
+                        + "INSERT INTO t VALUES (1);\n"
+                        + "INSERT INTO t VALUES (2);\n"
+                        + "INSERT INTO t VALUES (3);\n"
+                        + "INSERT INTO t VALUES (4);\n"
+                        + "INSERT INTO t VALUES (5);\n"
+                        + "SELECT COUNT(*) FROM t;\n"
+                        + "UPDATE t SET id = id + 10 WHERE id = 5;\n"
+                        + "DELETE FROM t WHERE id = 1;\n");
+
+        // 1,2 | 3,4 | 5（被 SELECT 提前提交）| UPDATE,DELETE
+        assertEquals(9, stats.getStatementCount());
+        assertEquals(4, stats.getBatchCount());
+        assertEquals(4, count("t"));
+    }
+
+    @Test
+    void batchSizeOneExecutesStatementsOneByOne() throws Exception {
+        ScriptExecutionStats stats = execute(SqlScriptOptions.create().withBatchSize(1),
+                "CREATE TABLE t (id INT PRIMARY KEY);\n"
+                        + "INSERT INTO t VALUES (1);\n"
+                        + "INSERT INTO t VALUES (2);\n");
+
+        assertEquals(3, stats.getStatementCount());
+        assertEquals(0, stats.getBatchCount());
+        assertEquals(2, count("t"));
+    }
+
+    @Test
+    void transactionPerBatchKeepsCommittedBatchesOnFailure() throws Exception {
+        SQLException e = assertThrows(SQLException.class, () -> execute(
+                SqlScriptOptions.create().withBatchSize(2).withTransactionPerBatch(true),
+                "CREATE TABLE t (id INT PRIMARY KEY);\n"
+                        + "INSERT INTO t VALUES (1);\n"
+                        + "INSERT INTO t VALUES (2);\n"
+                        + "INSERT INTO t VALUES (3);\n"
+                        + "INSERT INTO t VALUES (1);\n"));
+
+        assertTrue(e.getMessage().contains("第 4 行开始的批处理失败"), e.getMessage());
+        assertTrue(connection.getAutoCommit());
+        assertEquals(2, count("t"));
+    }
+
+    @Test
+    void reportsLineOfFailingStatement() throws Exception {
+        SQLException e = assertThrows(SQLException.class, () -> execute(SqlScriptOptions.create(),
+                "CREATE TABLE t (id INT PRIMARY KEY);\n"
+                        + "\n"
+                        + "SELECT * FROM missing;\n"));
+
+        assertTrue(e.getMessage().contains("第 3 行的语句失败"), e.getMessage());
+        assertTrue(e.getCause() instanceof SQLException);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.brianxiadong.test.db.script;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 测试脚本切分：引号和注释中的分隔符不切分语句，DELIMITER 指令切换分隔符，末尾语句可以没有分隔符
+ */
+class SqlScriptReaderTest {
+
+    private static List<SqlStatement> parse(String script) throws IOException {
+        List<SqlStatement> statements = new ArrayList<>();
+        try (SqlScriptReader reader = new SqlScriptReader(new StringReader(script))) {
+            SqlStatement statement;
+            while ((statement = reader.next()) != null) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    private static List<String> sql(String script) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (SqlStatement statement : parse(script)) {
+            result.add(statement.getSql());
+        }
+        return result;
+    }
+
+    @Test
+    void keepsDelimitersInsideQuotes() throws IOException {
+        assertEquals(Arrays.asList("INSERT INTO t VALUES ('a;b', \"c;d\")", "SELECT 1"),
+                sql("INSERT INTO t VALUES ('a;b', \"c;d\");\nSELECT 1;"));
+    }
+
+    @Test
+    void handlesDoubledAndBackslashEscapedQuotes() throws IOException {
+        assertEquals(Arrays.asList("INSERT INTO t VALUES ('it''s;', 'x\\';y')", "SELECT 2"),
+                sql("INSERT INTO t VALUES ('it''s;', 'x\\';y');\nSELECT 2;"));
+        assertEquals(Arrays.asList("SELECT \"say \"\"hi;\"\"\""),
+                sql("SELECT \"say \"\"hi;\"\"\";"));
+    }
+
+    @Test
+    void backticksDoubleButDoNotBackslashEscape() throws IOException {
+        assertEquals(Arrays.asList("SELECT `a;b` FROM `t``;`"), sql("SELECT `a;b` FROM `t``;`;"));
+        assertEquals(Arrays.asList("SELECT `x\\` FROM t", "SELECT 2"), sql("SELECT `x\\` FROM t; SELECT 2;"));
+    }
+
+    @Test
+    void keepsNewlinesInsideMultiLineStrings() throws IOException {
+        List<SqlStatement> statements = parse("INSERT INTO t VALUES ('line1;\nline2');\nSELECT 1;");
+
+        assertEquals("INSERT INTO t VALUES ('line1;\nline2')", statements.get(0).getSql());
+        assertEquals(1, statements.get(0).getLineNumber());
+        assertEquals(3, statements.get(1).getLineNumber());
+    }
+
+    @Test
+    void skipsLineAndBlockComments() throws IOException {
+        List<SqlStatement> statements = parse("-- header;\n"
+                + "# hash; comment\n"
+                + "SELECT /* block; */ 1;\n"
+                + "/* multi\n line; */\n"
+                + "SELECT 2 -- trailing;\n"
+                + "  , 3;\n"
+                + "SELECT 5--2;\n"
+                + "--\n");
+
+        assertEquals(3, statements.size());
+        assertEquals("SELECT   1", statements.get(0).getSql());
+        assertEquals(3, statements.get(0).getLineNumber());
+        assertEquals("SELECT 2 \n  , 3", statements.get(1).getSql());
+        assertEquals(6, statements.get(1).getLineNumber());
+        assertEquals("SELECT 5--2", statements.get(2).getSql());
+    }
+
+    @Test
+    void keepsExecutableCommentsAndHints() throws IOException {
+        assertEquals(Arrays.asList("/*!40101 SET NAMES utf8mb4 */", "SELECT /*+ MAX_EXECUTION_TIME(10) */ 1"),
+                sql("/*!40101 SET NAMES utf8mb4 */;\nSELECT /*+ MAX_EXECUTION_TIME(10) */ 1;"));
+    }
+
+    @Test
+    void switchesDelimiterForProcedureBodies() throws IOException {
+        String script = "DELIMITER //\n"
+                + "CREATE PROCEDURE p()\n"
+                + "BEGIN\n"
+                + "  SELECT 1;\n"
+                + "END //\n"
+                + "DELIMITER ;\n"
+                + "SELECT 3;\n";
+        SqlScriptReader reader = new SqlScriptReader(new StringReader(script));
+        SqlStatement procedure = reader.next();
+        assertEquals("//", reader.getDelimiter());
+        SqlStatement select = reader.next();
+        assertEquals(";", reader.getDelimiter());
+
+        assertEquals("CREATE PROCEDURE p()\nBEGIN\n  SELECT 1;\nEND", procedure.getSql());
+        assertEquals(2, procedure.getLineNumber());
+        assertEquals("SELECT 3", select.getSql());
+        assertEquals(7, select.getLineNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void emitsLastStatementWithoutDelimiter() throws IOException {
+        assertEquals(Arrays.asList("SELECT 1", "SELECT 2"), sql("SELECT 1;\nSELECT 2\n"));
+        assertEquals(Arrays.asList("SELECT 1", "SELECT 2"), sql("SELECT 1;;\n  ;\nSELECT 2"));
+        assertEquals(Arrays.asList("SELECT 1"), sql("SELECT 1;\n-- end\n\n"));
+        assertEquals(Collections.emptyList(), sql(""));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- DatabasePreparationTest 的初始化脚本
+CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(100));
+INSERT INTO users (id, name) VALUES (1, 'alice');
+INSERT INTO users (id, name) VALUES (2, 'bob');